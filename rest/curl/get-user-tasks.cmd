@@ -0,0 +1,2 @@
+:: Get the open tasks of all lists of a user due this week
+curl -v -X GET "http://localhost:8080/users/1/tasks?status=todo&status=in_progress&dueFrom=2026-10-19&dueTo=2026-10-25" | jq
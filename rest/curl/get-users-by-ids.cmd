@@ -0,0 +1,2 @@
+:: Get several users in one request, in the requested order
+curl -v -X GET "http://localhost:8080/users?ids=3,1,2" | jq
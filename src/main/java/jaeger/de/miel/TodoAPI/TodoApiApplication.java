@@ -1,16 +1,24 @@
 package jaeger.de.miel.TodoAPI;
 
+import jaeger.de.miel.TodoAPI.config.NativeRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+@EnableScheduling
+@ImportRuntimeHints(NativeRuntimeHints.class)
 @SpringBootApplication
 public class TodoApiApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(TodoApiApplication.class, args);
+		SpringApplication application = new SpringApplication(TodoApiApplication.class);
+		application.setApplicationStartup(new BufferingApplicationStartup(2048));  // Startup steps, see StartupReport
+		application.run(args);
 	}
 
 
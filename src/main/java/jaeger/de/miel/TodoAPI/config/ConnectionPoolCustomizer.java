@@ -0,0 +1,71 @@
+package jaeger.de.miel.TodoAPI.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sizes the Hikari pool and attaches the pool telemetry before the pool starts.
+ * <p>
+ * Unless spring.datasource.hikari.maximum-pool-size is set explicitly, the pool size is derived from the CPU count:
+ * with platform threads Tomcat's thread pool already bounds concurrency, so connections-per-core (default 2) is enough;
+ * with virtual threads (spring.threads.virtual.enabled) every request can reach the pool, which then acts as the
+ * bulkhead in front of H2 and gets virtual-threads-connections-per-core (default 4).
+ */
+@Slf4j
+@Component
+public class ConnectionPoolCustomizer implements BeanPostProcessor {
+
+    private static final String MAXIMUM_POOL_SIZE = "spring.datasource.hikari.maximum-pool-size";
+
+    private final Environment environment;
+    private final ObjectProvider<ConnectionPoolMetrics> connectionPoolMetrics;
+
+    public ConnectionPoolCustomizer(Environment environment, ObjectProvider<ConnectionPoolMetrics> connectionPoolMetrics) {
+        this.environment = environment;
+        this.connectionPoolMetrics = connectionPoolMetrics;
+    }
+
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+        if (!(bean instanceof HikariDataSource dataSource)) return bean;
+
+        if (!environment.containsProperty(MAXIMUM_POOL_SIZE)) {
+            dataSource.setMaximumPoolSize(poolSize());
+        }
+        instrument(dataSource);
+        return bean;
+    }
+
+
+    /**
+     * Attaches the pool telemetry to a pool that is not a bean (the shard pools), which keeps its own size.
+     * Must run before the pool starts; a pool that is already instrumented is left alone.
+     */
+    public void instrument(HikariDataSource dataSource) {
+        if (dataSource.getMetricsTrackerFactory() == null) {
+            dataSource.setMetricsTrackerFactory(connectionPoolMetrics.getObject());
+        }
+
+        log.info("Connection pool '{}': maximumPoolSize={}, minimumIdle={}, leakDetectionThreshold={} ms",
+                dataSource.getPoolName(), dataSource.getMaximumPoolSize(), dataSource.getMinimumIdle(),
+                dataSource.getLeakDetectionThreshold());
+    }
+
+
+    int poolSize() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        boolean virtualThreads = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+
+        int perCore = virtualThreads
+                ? environment.getProperty("todo.datasource.pool.virtual-threads-connections-per-core", Integer.class, 4)
+                : environment.getProperty("todo.datasource.pool.connections-per-core", Integer.class, 2);
+        return Math.max(2, cores * perCore);
+    }
+
+}
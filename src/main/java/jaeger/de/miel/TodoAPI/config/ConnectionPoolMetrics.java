@@ -0,0 +1,129 @@
+package jaeger.de.miel.TodoAPI.config;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool telemetry: how long requests wait for a connection (pool starvation) versus how long they hold it (query cost).
+ * <p>
+ * A single wait above wait-warn-threshold-ms is logged immediately; every report-interval-ms a summary is logged,
+ * as a warning when the average wait exceeds the threshold or threads are still queued for a connection.
+ * Each pool (primary, replicas, shards) is tracked and reported separately, by pool name.
+ */
+@Slf4j
+@Component
+public class ConnectionPoolMetrics implements MetricsTrackerFactory {
+
+    private final long waitWarnThresholdNanos;
+
+    private final Map<String, Pool> pools = new ConcurrentHashMap<>();  // By pool name: the primary, replica and shard pools
+
+    public ConnectionPoolMetrics(@Value("${todo.datasource.pool.wait-warn-threshold-ms:50}") long waitWarnThresholdMs) {
+        this.waitWarnThresholdNanos = TimeUnit.MILLISECONDS.toNanos(waitWarnThresholdMs);
+    }
+
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        Pool pool = new Pool(poolStats);
+        pools.put(poolName, pool);
+
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                pool.acquired.increment();
+                pool.acquireNanos.add(elapsedAcquiredNanos);
+                pool.maxAcquireNanos.accumulateAndGet(elapsedAcquiredNanos, Math::max);
+
+                if (elapsedAcquiredNanos > waitWarnThresholdNanos) {
+                    log.warn("Connection pool '{}': waited {} ms for a connection (active={}, idle={}, pending={})",
+                            poolName, TimeUnit.NANOSECONDS.toMillis(elapsedAcquiredNanos),
+                            poolStats.getActiveConnections(), poolStats.getIdleConnections(), poolStats.getPendingThreads());
+                }
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                pool.usageCount.increment();
+                pool.usageMillis.add(elapsedBorrowedMillis);
+                pool.maxUsageMillis.accumulateAndGet(elapsedBorrowedMillis, Math::max);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                pool.timeouts.increment();
+                log.error("Connection pool '{}': timed out waiting for a connection (active={}, pending={})",
+                        poolName, poolStats.getActiveConnections(), poolStats.getPendingThreads());
+            }
+
+            @Override
+            public void close() {
+                pools.remove(poolName, pool);  // Pool shut down
+            }
+        };
+    }
+
+
+    @Scheduled(fixedDelayString = "${todo.datasource.pool.report-interval-ms:60000}")
+    public void report() {
+        pools.forEach(this::report);
+    }
+
+
+    private void report(String poolName, Pool pool) {
+        PoolStats stats = pool.stats;
+
+        long count = pool.acquired.sumThenReset();
+        if (count == 0) return;
+
+        double avgWaitMs = pool.acquireNanos.sumThenReset() / (double) count / 1_000_000.0;
+        long maxWaitMs = TimeUnit.NANOSECONDS.toMillis(pool.maxAcquireNanos.getAndSet(0));
+        long usages = pool.usageCount.sumThenReset();
+        double avgUsageMs = usages == 0 ? 0 : pool.usageMillis.sumThenReset() / (double) usages;
+        long maxUsageMs = pool.maxUsageMillis.getAndSet(0);
+        long timeoutCount = pool.timeouts.sumThenReset();
+
+        String summary = String.format(
+                "Connection pool '%s': %d acquisitions, wait avg %.2f ms / max %d ms (pool), usage avg %.2f ms / max %d ms (queries), "
+                        + "timeouts=%d, active=%d, idle=%d, pending=%d, max=%d",
+                poolName, count, avgWaitMs, maxWaitMs, avgUsageMs, maxUsageMs, timeoutCount,
+                stats.getActiveConnections(), stats.getIdleConnections(), stats.getPendingThreads(), stats.getMaxConnections());
+
+        boolean starving = avgWaitMs > TimeUnit.NANOSECONDS.toMillis(waitWarnThresholdNanos)
+                || stats.getPendingThreads() > 0 || timeoutCount > 0;
+        if (starving) {
+            log.warn("{} -> pool starvation, consider a larger pool or fewer concurrent requests", summary);
+        } else {
+            log.info(summary);
+        }
+    }
+
+
+    // Counters of one pool since the last report
+    private static class Pool {
+        private final PoolStats stats;
+        private final LongAdder acquired = new LongAdder();
+        private final LongAdder acquireNanos = new LongAdder();
+        private final AtomicLong maxAcquireNanos = new AtomicLong();
+        private final LongAdder usageCount = new LongAdder();
+        private final LongAdder usageMillis = new LongAdder();
+        private final AtomicLong maxUsageMillis = new AtomicLong();
+        private final LongAdder timeouts = new LongAdder();
+
+        private Pool(PoolStats stats) {
+            this.stats = stats;
+        }
+    }
+
+}
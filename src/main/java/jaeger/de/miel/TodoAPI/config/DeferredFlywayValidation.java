@@ -0,0 +1,48 @@
+package jaeger.de.miel.TodoAPI.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.ValidateResult;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Validates the applied Flyway migrations after startup, on a background thread, instead of during context refresh.
+ * Enable together with spring.flyway.validate-on-migrate=false (see application-fast-startup.properties).
+ */
+@Slf4j
+@Lazy(false)
+@Component
+@ConditionalOnProperty(name = "todo.flyway.deferred-validation", havingValue = "true")
+public class DeferredFlywayValidation {
+
+    private final Flyway flyway;
+
+    public DeferredFlywayValidation(Flyway flyway) {
+        this.flyway = flyway;
+    }
+
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void validate() {
+        Thread.ofVirtual().name("flyway-deferred-validation").start(() -> {
+            try {
+                long start = System.nanoTime();
+                ValidateResult result = flyway.validateWithResult();
+                long millis = (System.nanoTime() - start) / 1_000_000;
+
+                if (result.validationSuccessful) {
+                    log.info("Deferred Flyway validation succeeded in {} ms", millis);
+                } else {
+                    log.error("Deferred Flyway validation FAILED: {}", result.getAllErrorMessages());
+                }
+            } catch (RuntimeException e) {
+                log.error("Deferred Flyway validation could not run", e);
+            }
+        });
+    }
+
+}
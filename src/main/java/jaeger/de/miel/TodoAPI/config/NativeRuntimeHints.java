@@ -0,0 +1,58 @@
+package jaeger.de.miel.TodoAPI.config;
+
+import jaeger.de.miel.TodoAPI.converter.TaskStatusConverter;
+import jaeger.de.miel.TodoAPI.dto.*;
+import jaeger.de.miel.TodoAPI.entity.AppUser;
+import jaeger.de.miel.TodoAPI.entity.List;
+import jaeger.de.miel.TodoAPI.entity.OutboxEvent;
+import jaeger.de.miel.TodoAPI.entity.TaskDailyStats;
+import jaeger.de.miel.TodoAPI.entity.TaskEvent;
+import jaeger.de.miel.TodoAPI.entity.Task;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+
+/**
+ * Reachability metadata for the GraalVM native image (mvn -Pnative native:compile).
+ * Spring AOT covers the beans; this adds what it cannot infer from the code.
+ */
+public class NativeRuntimeHints implements RuntimeHintsRegistrar {
+
+    // Request/response bodies: controllers return ResponseEntity<?>, so AOT cannot see all of them
+    private static final Class<?>[] DTOS = {
+            CreateListRequestDTO.class, CreateTaskRequestDTO.class, CreateUserRequestDTO.class,
+            UpdateListRequestDTO.class, UpdateTaskRequestDTO.class, UpdateUserRequestDTO.class,
+            ListDTO.class, TaskDTO.class, TaskPageDTO.class, UserDTO.class, UserPageDTO.class, ErrorDTO.class, TaskStatus.class,
+            TaskAnalyticsDTO.class, DailyTaskStatsDTO.class
+    };
+
+    private static final Class<?>[] ENTITIES = {AppUser.class, List.class, Task.class, OutboxEvent.class, TaskEvent.class, TaskDailyStats.class};
+
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        // Jackson DTOs (Lombok-generated getters/setters are plain methods, covered by the binding hints)
+        BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+        bindingRegistrar.registerReflectionHints(hints.reflection(), DTOS);
+
+        // Hibernate entities and the status converter (instantiated reflectively)
+        for (Class<?> entity : ENTITIES) {
+            hints.reflection().registerType(entity,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_DECLARED_METHODS,
+                    MemberCategory.ACCESS_DECLARED_FIELDS);
+        }
+        hints.reflection().registerType(TaskStatusConverter.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+
+        // Flyway migrations
+        hints.resources().registerPattern("db/migration/*.sql");
+        hints.resources().registerPattern("db/directory/*.sql");
+
+        // H2 JDBC driver (runtime scope, loaded by name)
+        hints.reflection().registerType(TypeReference.of("org.h2.Driver"), MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        hints.resources().registerPattern("META-INF/services/java.sql.Driver");
+    }
+
+}
@@ -0,0 +1,68 @@
+package jaeger.de.miel.TodoAPI.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Logs the slowest ApplicationStartup steps once the application is ready (todo.startup.report=true).
+ * Compare the report of the default and the fast-startup profile to see what the tuning buys.
+ */
+@Slf4j
+@Lazy(false)
+@Component
+public class StartupReport {
+
+    @Value("${todo.startup.report:false}")
+    private boolean enabled;
+
+    @Value("${todo.startup.report.top:15}")
+    private int top;
+
+
+    @EventListener
+    public void onApplicationReady(ApplicationReadyEvent event) {
+        ApplicationStartup applicationStartup = event.getApplicationContext().getApplicationStartup();
+        if (!(applicationStartup instanceof BufferingApplicationStartup buffering)) return;
+
+        StartupTimeline timeline = buffering.drainBufferedTimeline();  // Drain to release the buffered steps
+        if (!enabled) return;
+
+        List<StartupTimeline.TimelineEvent> events = timeline.getEvents();
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("Startup report: ready in %d ms (%d steps recorded), slowest steps:%n",
+                event.getTimeTaken().toMillis(), events.size()));
+
+        events.stream()
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(top)
+                .forEach(e -> report.append(String.format("  %6d ms  %s %s%n",
+                        e.getDuration().toMillis(), e.getStartupStep().getName(), tags(e))));
+
+        Duration beans = events.stream()
+                .filter(e -> e.getStartupStep().getName().equals("spring.beans.instantiate"))
+                .map(StartupTimeline.TimelineEvent::getDuration)
+                .reduce(Duration.ZERO, Duration::plus);
+        report.append(String.format("  total bean instantiation (incl. nested): %d ms", beans.toMillis()));
+
+        log.info(report.toString());
+    }
+
+
+    private static String tags(StartupTimeline.TimelineEvent event) {
+        StringBuilder tags = new StringBuilder();
+        event.getStartupStep().getTags().forEach(tag -> tags.append(tag.getKey()).append('=').append(tag.getValue()).append(' '));
+        return tags.toString().trim();
+    }
+
+}
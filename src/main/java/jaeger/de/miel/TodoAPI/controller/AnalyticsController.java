@@ -0,0 +1,45 @@
+package jaeger.de.miel.TodoAPI.controller;
+
+import jaeger.de.miel.TodoAPI.config.ContentNegotiationConfig;
+import jaeger.de.miel.TodoAPI.dto.ErrorDTO;
+import jaeger.de.miel.TodoAPI.dto.TaskAnalyticsDTO;
+import jaeger.de.miel.TodoAPI.service.TaskAnalyticsService;
+import lombok.AllArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.time.LocalDate;
+
+@AllArgsConstructor
+@Controller
+public class AnalyticsController {
+
+    private final TaskAnalyticsService taskAnalyticsService;
+
+
+    // Throughput and cycle time over [from, to], by default the last 30 days
+    @RequestMapping(value = "/users/{userId}/analytics/tasks",
+            method = RequestMethod.GET,
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, ContentNegotiationConfig.APPLICATION_SMILE_VALUE})
+    public ResponseEntity<?> getTaskAnalytics(
+            @PathVariable("userId") Long userId,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        try {
+            TaskAnalyticsDTO analytics = taskAnalyticsService.getTaskAnalytics(userId, from, to);
+            return ResponseEntity.status(HttpStatus.OK).body(analytics);
+        } catch (TaskAnalyticsService.InvalidRangeException ex) {
+            ErrorDTO error = new ErrorDTO(ex.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+    }
+
+}
@@ -1,11 +1,12 @@
 package jaeger.de.miel.TodoAPI.controller;
 
+import jaeger.de.miel.TodoAPI.config.ContentNegotiationConfig;
 import jaeger.de.miel.TodoAPI.dto.*;
 import jaeger.de.miel.TodoAPI.service.ListService;
 import jaeger.de.miel.TodoAPI.service.TaskService;
 import jaeger.de.miel.TodoAPI.service.UserService;
 import jakarta.validation.Valid;
-import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -14,20 +15,27 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import java.net.URI;
 import java.util.List;
 
-@AllArgsConstructor
 @Controller
 public class ListController {
 
     private final ListService listService;
+    private final int maxIds;
+
+    public ListController(ListService listService,
+                          @Value("${todo.multi-get.max-ids:1000}") int maxIds) {
+        this.listService = listService;
+        this.maxIds = maxIds;
+    }
 
 
     @RequestMapping(value = "/users/{userId}/lists",
             method = RequestMethod.GET,
-            produces = MediaType.APPLICATION_JSON_VALUE)
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, ContentNegotiationConfig.APPLICATION_SMILE_VALUE})
     public ResponseEntity<List<ListDTO>> getLists(@PathVariable("userId") Long userId) {
         List<ListDTO> lists = listService.getLists(userId);
 
@@ -39,9 +47,31 @@ public class ListController {
     }
 
 
+    // Multi-get: GET /users/{userId}/lists?ids=3,1,2 returns the user's lists in that order (unknown ids are skipped)
+    @RequestMapping(value = "/users/{userId}/lists",
+            method = RequestMethod.GET,
+            params = "ids",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, ContentNegotiationConfig.APPLICATION_SMILE_VALUE})
+    public ResponseEntity<?> getListsByIds(
+            @PathVariable("userId") Long userId,
+            @RequestParam("ids") List<Long> ids) {
+
+        if (ids.isEmpty() || ids.size() > maxIds) {
+            ErrorDTO error = new ErrorDTO("ids must contain between 1 and " + maxIds + " list ids");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+
+        List<ListDTO> lists = listService.getLists(userId, ids);
+        if (lists.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        return ResponseEntity.ok(lists);
+    }
+
+
     @RequestMapping(value = "/users/{userId}/lists",
             method = RequestMethod.POST,
-            produces = MediaType.APPLICATION_JSON_VALUE)
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, ContentNegotiationConfig.APPLICATION_SMILE_VALUE})
     public ResponseEntity<?> createList(
             @PathVariable("userId") Long userId,
             @Valid @RequestBody CreateListRequestDTO request) {
@@ -66,7 +96,7 @@ public class ListController {
 
     @RequestMapping(value = "/users/{userId}/lists/{listId}",
             method = RequestMethod.DELETE,
-            produces = MediaType.APPLICATION_JSON_VALUE)
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, ContentNegotiationConfig.APPLICATION_SMILE_VALUE})
     public ResponseEntity<?> deleteList(
             @PathVariable("userId") Long userId,
             @PathVariable("listId") Long listId) {
@@ -84,7 +114,7 @@ public class ListController {
 
     @RequestMapping(value = "/users/{userId}/lists/{listId}",
             method = RequestMethod.PUT,
-            produces = MediaType.APPLICATION_JSON_VALUE)
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, ContentNegotiationConfig.APPLICATION_SMILE_VALUE})
     public ResponseEntity<?> updateList(
             @PathVariable("userId") Long userId,
             @PathVariable("listId") Long listId,
@@ -96,6 +126,9 @@ public class ListController {
         } catch (ListService.ListNotFoundException ex) {
             ErrorDTO error = new ErrorDTO(ex.getMessage());
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+        } catch (ListService.DuplicateListNameException ex) {
+            ErrorDTO error = new ErrorDTO(ex.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
         }
     }
 
@@ -0,0 +1,146 @@
+package jaeger.de.miel.TodoAPI.controller;
+
+import jaeger.de.miel.TodoAPI.config.ContentNegotiationConfig;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.StreamWriteFeature;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes a JSON (or Smile/CBOR) array element by element while the rows come from the repository,
+ * instead of building a List&lt;DTO&gt; and serializing it as a whole.
+ * <p>
+ * The response is only committed on the first element, so callers can still answer 404 for an empty result.
+ * <p>
+ * The array is only closed by {@link ArrayWriter#finish()}. A writer closed without it (the query or a write failed)
+ * aborts: nothing more is written, so a truncated body never parses as a complete array, and an uncommitted response
+ * is reset for the error handler.
+ * <p>
+ * Streaming is not free: the read-only transaction, and its pooled connection, are held until the last element is
+ * written to a client that may read slowly. A response is aborted after max-duration-ms; a single stalled write is cut
+ * off by the connector's write timeout (server.tomcat.connection-timeout).
+ */
+@Component
+public class StreamingArrayWriter {
+
+    private static final MediaType APPLICATION_SMILE = MediaType.parseMediaType(ContentNegotiationConfig.APPLICATION_SMILE_VALUE);
+
+    private final JsonMapper jsonMapper;
+    private final SmileMapper smileMapper = SmileMapper.builder().build();
+    private final CBORMapper cborMapper = CBORMapper.builder().build();
+    private final int bufferSize;
+    private final long maxDurationNanos;
+
+    public StreamingArrayWriter(JsonMapper jsonMapper,
+                                @Value("${todo.streaming.buffer-size:16384}") int bufferSize,
+                                @Value("${todo.streaming.max-duration-ms:30000}") long maxDurationMs) {
+        this.jsonMapper = jsonMapper;
+        this.bufferSize = bufferSize;
+        this.maxDurationNanos = TimeUnit.MILLISECONDS.toNanos(maxDurationMs);
+    }
+
+
+    public ArrayWriter open(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        MediaType mediaType = negotiate(request.getHeader(HttpHeaders.ACCEPT));
+        ObjectMapper mapper = mediaType.equals(APPLICATION_SMILE) ? smileMapper
+                : mediaType.equals(MediaType.APPLICATION_CBOR) ? cborMapper
+                : jsonMapper;
+
+        response.setBufferSize(bufferSize);  // Pre-sized: flushed to the client in bufferSize chunks
+        return new ArrayWriter(response, mediaType, mapper, System.nanoTime() + maxDurationNanos);
+    }
+
+
+    static MediaType negotiate(String accept) {
+        if (accept == null || accept.isBlank()) return MediaType.APPLICATION_JSON;
+
+        try {
+            List<MediaType> accepted = MediaType.parseMediaTypes(accept);
+            accepted.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());  // Stable: ties keep header order
+            for (MediaType mediaType : accepted) {
+                if (mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) return MediaType.APPLICATION_JSON;
+                if (mediaType.isCompatibleWith(APPLICATION_SMILE)) return APPLICATION_SMILE;
+                if (mediaType.isCompatibleWith(MediaType.APPLICATION_CBOR)) return MediaType.APPLICATION_CBOR;
+            }
+        } catch (InvalidMediaTypeException e) {
+            // Fall back to JSON
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+
+    public static class ArrayWriter implements AutoCloseable {
+
+        private final HttpServletResponse response;
+        private final MediaType mediaType;
+        private final ObjectMapper mapper;
+        private final long deadlineNanos;
+        private JsonGenerator generator;
+        private boolean finished;
+
+        private ArrayWriter(HttpServletResponse response, MediaType mediaType, ObjectMapper mapper, long deadlineNanos) {
+            this.response = response;
+            this.mediaType = mediaType;
+            this.mapper = mapper;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        public void write(Object element) {
+            if (System.nanoTime() - deadlineNanos > 0) {
+                throw new IllegalStateException("Streamed response exceeded its maximum duration, aborted");
+            }
+            if (generator == null) start();
+            generator.writePOJO(element);
+        }
+
+        public boolean isEmpty() {
+            return generator == null;
+        }
+
+        /**
+         * Closes the array: every element has been written.
+         */
+        public void finish() {
+            finished = true;
+            if (generator == null) return;
+            generator.writeEndArray();
+            generator.close();
+        }
+
+        @Override
+        public void close() {
+            if (finished || generator == null) return;
+
+            // Aborted: no closing bracket, and the generator is not closed (that would end the array and the body)
+            if (!response.isCommitted()) response.resetBuffer();
+        }
+
+        private void start() {
+            response.setStatus(HttpStatus.OK.value());
+            response.setContentType(mediaType.toString());
+            try {
+                // Never completes open arrays on its own, finish() does
+                generator = mapper.writer().without(StreamWriteFeature.AUTO_CLOSE_CONTENT).createGenerator(response.getOutputStream());
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot open response stream", e);
+            }
+            generator.writeStartArray();
+        }
+    }
+
+}
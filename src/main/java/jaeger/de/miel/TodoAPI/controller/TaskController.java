@@ -1,10 +1,15 @@
 package jaeger.de.miel.TodoAPI.controller;
 
+import jaeger.de.miel.TodoAPI.config.ContentNegotiationConfig;
 import jaeger.de.miel.TodoAPI.dto.*;
 import jaeger.de.miel.TodoAPI.service.ListService;
 import jaeger.de.miel.TodoAPI.service.TaskService;
+import jaeger.de.miel.TodoAPI.service.TaskUpdateBuffer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
-import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -13,33 +18,98 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 
+import java.io.IOException;
 import java.net.URI;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
-@AllArgsConstructor
 @Controller
 public class TaskController {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+
     private final TaskService taskService;
+    private final TaskUpdateBuffer taskUpdateBuffer;
+    private final StreamingArrayWriter streamingArrayWriter;
+    private final int maxPageSize;
+
+    public TaskController(TaskService taskService,
+                          TaskUpdateBuffer taskUpdateBuffer,
+                          StreamingArrayWriter streamingArrayWriter,
+                          @Value("${todo.tasks.max-page-size:200}") int maxPageSize) {
+        this.taskService = taskService;
+        this.taskUpdateBuffer = taskUpdateBuffer;
+        this.streamingArrayWriter = streamingArrayWriter;
+        this.maxPageSize = maxPageSize;
+    }
 
 
-    @RequestMapping(value = "/users/{userId}/lists/{listId}/tasks",
+    // Tasks of all lists of the user in one query: ?status=todo&status=in_progress&dueFrom=&dueTo= (inclusive),
+    // keyset pages of ?size= continued with ?after=<next of the previous page>
+    @RequestMapping(value = "/users/{userId}/tasks",
             method = RequestMethod.GET,
-            produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<List<TaskDTO>> getTasks(@PathVariable("userId") Long userId, @PathVariable("listId") Long listId) {
-        List<TaskDTO> tasks = taskService.getTasks(userId, listId);
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, ContentNegotiationConfig.APPLICATION_SMILE_VALUE})
+    public ResponseEntity<?> getUserTasks(
+            @PathVariable("userId") Long userId,
+            @RequestParam(value = "status", required = false) List<String> status,
+            @RequestParam(value = "dueFrom", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueFrom,
+            @RequestParam(value = "dueTo", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueTo,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "size", required = false) Integer size) {
+
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : size;
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            ErrorDTO error = new ErrorDTO("size must be between 1 and " + maxPageSize);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
 
-        if (tasks.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        List<TaskStatus> statuses = new ArrayList<>();
+        try {
+            if (status != null) status.forEach(s -> statuses.add(TaskStatus.fromJson(s)));
+        } catch (IllegalArgumentException ex) {
+            ErrorDTO error = new ErrorDTO(ex.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
         }
 
-        return ResponseEntity.ok(tasks);
+        // Write-behind: flushed and committed before the read transaction begins, which then sees it. Not nested in it,
+        // so no second connection is held; the read is on the primary (write-behind is rejected with replicas)
+        if (taskUpdateBuffer.isEnabled()) taskUpdateBuffer.flush();
+
+        try {
+            TaskPageDTO tasks = taskService.getUserTasks(userId, statuses, dueFrom, dueTo, after, pageSize);
+            return ResponseEntity.ok(tasks);
+        } catch (TaskService.InvalidTaskQueryException ex) {
+            ErrorDTO error = new ErrorDTO(ex.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+    }
+
+
+    @RequestMapping(value = "/users/{userId}/lists/{listId}/tasks",
+            method = RequestMethod.GET,
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, ContentNegotiationConfig.APPLICATION_SMILE_VALUE})
+    public void getTasks(
+            @PathVariable("userId") Long userId,
+            @PathVariable("listId") Long listId,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+
+        try (StreamingArrayWriter.ArrayWriter writer = streamingArrayWriter.open(request, response)) {
+            taskService.streamTasks(userId, listId, writer::write);
+            writer.finish();
+
+            if (writer.isEmpty()) {
+                response.setStatus(HttpStatus.NOT_FOUND.value());
+            }
+        }
     }
 
     @RequestMapping(value = "/users/{userId}/lists/{listId}/tasks",
             method = RequestMethod.POST,
-            produces = MediaType.APPLICATION_JSON_VALUE)
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, ContentNegotiationConfig.APPLICATION_SMILE_VALUE})
     public ResponseEntity<?> createTask(
             @PathVariable("userId") Long userId,
             @PathVariable("listId") Long listId,
@@ -51,7 +121,7 @@ public class TaskController {
 
             URI location = URI.create("/users/" + userId + "/lists" + listId + "/tasks" + taskId);
             return ResponseEntity.status(HttpStatus.CREATED).location(location).body(created);
-        } catch (TaskService.CreatorNotFoundException | TaskService.ListNotFoundException ex ) {
+        } catch (TaskService.ListNotFoundException ex ) {
             ErrorDTO error = new ErrorDTO(ex.getMessage());
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
         }
@@ -60,7 +130,7 @@ public class TaskController {
 
     @RequestMapping(value = "/users/{userId}/lists/{listId}/tasks/{taskId}",
             method = RequestMethod.DELETE,
-            produces = MediaType.APPLICATION_JSON_VALUE)
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, ContentNegotiationConfig.APPLICATION_SMILE_VALUE})
     public ResponseEntity<?> deleteTask(
             @PathVariable("userId") Long userId,
             @PathVariable("listId") Long listId,
@@ -78,7 +148,7 @@ public class TaskController {
 
     @RequestMapping(value = "/users/{userId}/lists/{listId}/tasks/{taskId}",
             method = RequestMethod.PUT,
-            produces = MediaType.APPLICATION_JSON_VALUE)
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, ContentNegotiationConfig.APPLICATION_SMILE_VALUE})
     public ResponseEntity<?> updateList(
             @PathVariable("userId") Long userId,
             @PathVariable("listId") Long listId,
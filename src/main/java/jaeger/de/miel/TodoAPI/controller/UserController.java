@@ -1,45 +1,120 @@
 package jaeger.de.miel.TodoAPI.controller;
 
+import jaeger.de.miel.TodoAPI.config.ContentNegotiationConfig;
 import jaeger.de.miel.TodoAPI.dto.CreateUserRequestDTO;
 import jaeger.de.miel.TodoAPI.dto.ErrorDTO;
 import jaeger.de.miel.TodoAPI.dto.UpdateUserRequestDTO;
 import jaeger.de.miel.TodoAPI.dto.UserDTO;
+import jaeger.de.miel.TodoAPI.dto.UserPageDTO;
 import jaeger.de.miel.TodoAPI.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
-import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.net.URI;
 import java.util.List;
 
-@AllArgsConstructor
 @Controller
 public class UserController {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+
     private final UserService userService;
+    private final StreamingArrayWriter streamingArrayWriter;
+    private final int maxPageSize;
+    private final int maxPage;
+    private final long maxUnpaginated;
+    private final int maxIds;
+
+    public UserController(UserService userService,
+                          StreamingArrayWriter streamingArrayWriter,
+                          @Value("${todo.users.max-page-size:200}") int maxPageSize,
+                          @Value("${todo.users.max-page:1000}") int maxPage,
+                          @Value("${todo.users.max-unpaginated:1000}") long maxUnpaginated,
+                          @Value("${todo.multi-get.max-ids:1000}") int maxIds) {
+        this.userService = userService;
+        this.streamingArrayWriter = streamingArrayWriter;
+        this.maxPageSize = maxPageSize;
+        this.maxPage = maxPage;
+        this.maxUnpaginated = maxUnpaginated;
+        this.maxIds = maxIds;
+    }
+
+
+    // Paginated: any of ?page=&size=&name=&email= (the unpaginated list and ?ids= have their own handlers)
+    @RequestMapping(value = "/users",
+            method = RequestMethod.GET,
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, ContentNegotiationConfig.APPLICATION_SMILE_VALUE})
+    public ResponseEntity<?> getUsers(
+            @RequestParam(value = "page", required = false) Integer page,
+            @RequestParam(value = "size", required = false) Integer size,
+            @RequestParam(value = "name", required = false) String namePrefix,
+            @RequestParam(value = "email", required = false) String emailPrefix) {
+
+        int pageNumber = page == null ? 0 : page;
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : size;
+        if (pageNumber < 0 || pageNumber > maxPage || pageSize < 1 || pageSize > maxPageSize) {
+            ErrorDTO error = new ErrorDTO("page must be between 0 and " + maxPage + " and size between 1 and " + maxPageSize);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+
+        UserPageDTO users = userService.getUsers(pageNumber, pageSize, namePrefix, emailPrefix);
+        return ResponseEntity.ok(users);
+    }
+
+
+    // Unpaginated: streamed, and only while the user base is small, beyond that the client has to page
+    @RequestMapping(value = "/users",
+            method = RequestMethod.GET,
+            params = {"!page", "!size", "!name", "!email", "!ids"},
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, ContentNegotiationConfig.APPLICATION_SMILE_VALUE})
+    public void getAllUsers(HttpServletRequest request, HttpServletResponse response) throws IOException {
 
+        long count = userService.countUsers();
+        if (count > maxUnpaginated) {
+            throw new TooManyUsersException("Too many users (" + count + ") for an unpaginated response, use ?page=&size= (size <= " + maxPageSize + ")");
+        }
+
+        try (StreamingArrayWriter.ArrayWriter writer = streamingArrayWriter.open(request, response)) {
+            userService.streamUsers(writer::write);
+            writer.finish();
 
+            if (writer.isEmpty()) {
+                response.setStatus(HttpStatus.NOT_FOUND.value());
+            }
+        }
+    }
+
+
+    // Multi-get: GET /users?ids=3,1,2 returns the users in that order (unknown ids are skipped)
     @RequestMapping(value = "/users",
             method = RequestMethod.GET,
-            produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<List<UserDTO>> getUsers() {
-        List<UserDTO> users = userService.getUsers();
+            params = "ids",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, ContentNegotiationConfig.APPLICATION_SMILE_VALUE})
+    public ResponseEntity<?> getUsersByIds(@RequestParam("ids") List<Long> ids) {
+        if (ids.isEmpty() || ids.size() > maxIds) {
+            ErrorDTO error = new ErrorDTO("ids must contain between 1 and " + maxIds + " user ids");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
 
+        List<UserDTO> users = userService.getUsers(ids);
         if (users.isEmpty()) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
-
         return ResponseEntity.ok(users);
     }
 
 
     @RequestMapping(value = "/users",
             method = RequestMethod.POST,
-            produces = MediaType.APPLICATION_JSON_VALUE)
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, ContentNegotiationConfig.APPLICATION_SMILE_VALUE})
     public ResponseEntity<?> createUser(@Valid @RequestBody CreateUserRequestDTO request) {
         try {
             UserDTO created = userService.createUser(request);
@@ -78,7 +153,7 @@ public class UserController {
 
     @RequestMapping(value = "/users/{userId}",
             method = RequestMethod.PUT,
-            produces = MediaType.APPLICATION_JSON_VALUE)
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, ContentNegotiationConfig.APPLICATION_SMILE_VALUE})
     public ResponseEntity<?> updateUser(
                 @PathVariable("userId") Long userId,
                 @Valid @RequestBody UpdateUserRequestDTO request) {
@@ -96,6 +171,18 @@ public class UserController {
     }
 
 
+    @ExceptionHandler(TooManyUsersException.class)
+    public ResponseEntity<ErrorDTO> handleTooManyUsers(TooManyUsersException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ErrorDTO(ex.getMessage()));
+    }
+
+    static class TooManyUsersException extends RuntimeException {
+        TooManyUsersException(String message) {
+            super(message);
+        }
+    }
+
+
 //    // ---------------------------------------
 //    // Exceptions
 //    // ---------------------------------------
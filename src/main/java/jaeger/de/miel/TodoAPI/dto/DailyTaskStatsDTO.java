@@ -0,0 +1,13 @@
+package jaeger.de.miel.TodoAPI.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+public class DailyTaskStatsDTO {
+    private LocalDate date;
+    private int created;
+    private int completed;
+    private Double averageCycleTimeHours;  // Null when nothing was completed
+}
@@ -0,0 +1,16 @@
+package jaeger.de.miel.TodoAPI.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+public class TaskAnalyticsDTO {
+    private LocalDate from;
+    private LocalDate to;
+    private int created;                   // Throughput: tasks created in the range
+    private int completed;                 // Throughput: transitions to done in the range
+    private Double averageCycleTimeHours;  // Created to done, over the completed tasks
+    private List<DailyTaskStatsDTO> days;  // Only days with activity
+}
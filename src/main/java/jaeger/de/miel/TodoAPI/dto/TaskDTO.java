@@ -12,7 +12,7 @@ public class TaskDTO {
     private Long userId;
     private String title;
     private String description;
-    private String status;
+    private TaskStatus status;
     private LocalDate dueDate;
     private Integer priority;
     private Instant createdAt;
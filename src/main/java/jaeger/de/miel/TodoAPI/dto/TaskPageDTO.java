@@ -0,0 +1,13 @@
+package jaeger.de.miel.TodoAPI.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class TaskPageDTO {
+    private List<TaskDTO> content;
+    private int size;
+    private boolean hasNext;  // Keyset, no COUNT(*) and no OFFSET per page
+    private String next;      // Cursor of the next page (?after=), null on the last page
+}
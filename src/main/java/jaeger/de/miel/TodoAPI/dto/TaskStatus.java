@@ -4,7 +4,27 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonValue;
 
 public enum TaskStatus {
-    ARCHIVED, DONE, IN_PROGRESS, TODO;
+    ARCHIVED((short) 4), DONE((short) 3), IN_PROGRESS((short) 2), TODO((short) 1);
+
+    private final short code;  // Stored in TASK.STATUS (SMALLINT), never change existing codes
+
+    TaskStatus(short code) {
+        this.code = code;
+    }
+
+    public short getCode() {
+        return code;
+    }
+
+    public static TaskStatus fromCode(short code) {
+        return switch (code) {
+            case 1 -> TODO;
+            case 2 -> IN_PROGRESS;
+            case 3 -> DONE;
+            case 4 -> ARCHIVED;
+            default -> throw new IllegalArgumentException("Invalid TaskStatus code: " + code);
+        };
+    }
 
     @JsonCreator
     public static TaskStatus fromJson(String value) {
@@ -38,4 +58,4 @@ public enum TaskStatus {
         };
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,13 @@
+package jaeger.de.miel.TodoAPI.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class UserPageDTO {
+    private List<UserDTO> content;
+    private int page;
+    private int size;
+    private boolean hasNext;  // Slice, no COUNT(*) per page
+}
@@ -28,6 +28,9 @@ public class AppUser {
     @Column(name = "NAME", nullable = false, length = 200)
     private String name;
 
+    @Column(name = "NAME_LOWER", length = 200, insertable = false, updatable = false)  // Generated: LOWER(NAME)
+    private String nameLower;
+
     @Column(name = "PASSWORD_HASH", nullable = false)
     private String passwordHash;
 
@@ -15,8 +15,8 @@ import java.time.Instant;
 @Builder
 @ToString
 @Entity
-@Table(name = "LIST", indexes = {
-        @Index(name = "IDX_LIST_OWNER_ID", columnList = "OWNER_ID")
+@Table(name = "LIST", uniqueConstraints = {
+        @UniqueConstraint(name = "UK_LIST_OWNER_NAME_LOWER", columnNames = {"OWNER_ID", "NAME_LOWER"})
 })
 public class List {
     @Id
@@ -32,7 +32,10 @@ public class List {
     @Column(name = "NAME", nullable = false, length = 200)
     private String name;
 
-    @Column(name = "DESCRIPTION", columnDefinition = "CHARACTER LARGE OBJECT")
+    @Column(name = "NAME_LOWER", length = 200, insertable = false, updatable = false)  // Generated: LOWER(NAME)
+    private String nameLower;
+
+    @Column(name = "DESCRIPTION", length = 512)
     private String description;
 
     @ColumnDefault("CURRENT_TIMESTAMP")
@@ -43,10 +46,4 @@ public class List {
     @Column(name = "UPDATED_AT", nullable = false)
     private Instant updatedAt;
 
-/*
- TODO [Reverse Engineering] create field to map the 'DESCRIPTION' column
- Available actions: Define target Java type | Uncomment as is | Remove column mapping
-    @Column(name = "DESCRIPTION", columnDefinition = "CHARACTER LARGE OBJECT")
-    private Object description;
-*/
 }
\ No newline at end of file
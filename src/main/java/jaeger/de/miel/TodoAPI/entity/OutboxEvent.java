@@ -0,0 +1,42 @@
+package jaeger.de.miel.TodoAPI.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@ToString
+@Entity
+@Table(name = "OUTBOX")
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "ID", nullable = false)
+    private Long id;
+
+    @Column(name = "AGGREGATE_TYPE", nullable = false, length = 32)
+    private String aggregateType;
+
+    @Column(name = "AGGREGATE_ID", nullable = false)
+    private Long aggregateId;
+
+    @Column(name = "EVENT_TYPE", nullable = false, length = 32)
+    private String eventType;
+
+    @Column(name = "PAYLOAD", nullable = false, length = 4096)  // JSON
+    private String payload;
+
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    @Column(name = "CREATED_AT", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "CLAIMED_UNTIL")  // Lease of the relay publishing it, see OutboxRelay
+    private Instant claimedUntil;
+
+}
@@ -1,5 +1,7 @@
 package jaeger.de.miel.TodoAPI.entity;
 
+import jaeger.de.miel.TodoAPI.converter.TaskStatusConverter;
+import jaeger.de.miel.TodoAPI.dto.TaskStatus;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.ColumnDefault;
@@ -17,9 +19,9 @@ import java.time.LocalDate;
 @ToString
 @Entity
 @Table(name = "TASK", indexes = {
+        @Index(name = "IDX_TASK_LIST_CREATOR_ID", columnList = "LIST_ID, CREATOR_ID, ID"),
         @Index(name = "IDX_TASK_LIST_STATUS_DUE", columnList = "LIST_ID, STATUS, DUE_DATE"),
-        @Index(name = "IDX_TASK_LIST_ID", columnList = "LIST_ID"),
-        @Index(name = "IDX_TASK_STATUS", columnList = "STATUS"),
+        @Index(name = "IDX_TASK_LIST_ID", columnList = "LIST_ID"),  // Backs FK_TASK_LIST, see V9
         @Index(name = "IDX_TASK_DUE_DATE", columnList = "DUE_DATE"),
         @Index(name = "IDX_TASK_COMPLETED_AT", columnList = "COMPLETED_AT")
 })
@@ -42,11 +44,12 @@ public class Task {
     @Column(name = "TITLE", nullable = false)
     private String title;
 
-    @Column(name = "DESCRIPTION", columnDefinition = "CHARACTER LARGE OBJECT")
+    @Column(name = "DESCRIPTION", length = 512)
     private String description;
 
-    @Column(name = "STATUS", nullable = false, length = 20)
-    private String status;
+    @Convert(converter = TaskStatusConverter.class)
+    @Column(name = "STATUS", nullable = false)
+    private TaskStatus status;
 
     @Column(name = "DUE_DATE")
     private LocalDate dueDate;
@@ -65,10 +68,4 @@ public class Task {
     @Column(name = "COMPLETED_AT")
     private Instant completedAt;
 
-/*
- TODO [Reverse Engineering] create field to map the 'DESCRIPTION' column
- Available actions: Define target Java type | Uncomment as is | Remove column mapping
-    @Column(name = "DESCRIPTION", columnDefinition = "CHARACTER LARGE OBJECT")
-    private Object description;
-*/
 }
\ No newline at end of file
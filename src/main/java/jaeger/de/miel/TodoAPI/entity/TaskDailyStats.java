@@ -0,0 +1,45 @@
+package jaeger.de.miel.TodoAPI.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@ToString
+@Entity
+@IdClass(TaskDailyStats.Key.class)
+@Table(name = "TASK_DAILY_STATS")
+public class TaskDailyStats {
+    @Id
+    @Column(name = "USER_ID", nullable = false)
+    private Long userId;
+
+    @Id
+    @Column(name = "BUCKET_DATE", nullable = false)
+    private LocalDate bucketDate;
+
+    @Column(name = "CREATED", nullable = false)
+    private int created;
+
+    @Column(name = "COMPLETED", nullable = false)
+    private int completed;
+
+    @Column(name = "CYCLE_SECONDS", nullable = false)
+    private long cycleSeconds;
+
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Key implements Serializable {
+        private Long userId;
+        private LocalDate bucketDate;
+    }
+
+}
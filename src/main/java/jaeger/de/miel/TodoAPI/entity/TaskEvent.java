@@ -0,0 +1,50 @@
+package jaeger.de.miel.TodoAPI.entity;
+
+import jaeger.de.miel.TodoAPI.converter.TaskStatusConverter;
+import jaeger.de.miel.TodoAPI.dto.TaskStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@ToString
+@Entity
+@Table(name = "TASK_EVENT", indexes = {
+        @Index(name = "IDX_TASK_EVENT_OCCURRED_AT", columnList = "OCCURRED_AT")
+})
+public class TaskEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "task_event_seq")
+    @SequenceGenerator(name = "task_event_seq", sequenceName = "TASK_EVENT_SEQ", allocationSize = 50)  // Enables JDBC batching
+    @Column(name = "ID", nullable = false)
+    private Long id;
+
+    @Column(name = "TASK_ID", nullable = false)
+    private Long taskId;
+
+    @Column(name = "LIST_ID", nullable = false)
+    private Long listId;
+
+    @Column(name = "USER_ID", nullable = false)
+    private Long userId;
+
+    @Convert(converter = TaskStatusConverter.class)
+    @Column(name = "FROM_STATUS")  // Null: task created
+    private TaskStatus fromStatus;
+
+    @Convert(converter = TaskStatusConverter.class)
+    @Column(name = "TO_STATUS", nullable = false)
+    private TaskStatus toStatus;
+
+    @Column(name = "CYCLE_SECONDS")
+    private Long cycleSeconds;
+
+    @Column(name = "OCCURRED_AT", nullable = false)
+    private Instant occurredAt;
+
+}
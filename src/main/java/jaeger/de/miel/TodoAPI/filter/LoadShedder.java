@@ -0,0 +1,49 @@
+package jaeger.de.miel.TodoAPI.filter;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Adaptive load shedding on an exponentially weighted moving average of the request latency.
+ * <p>
+ * While the average is above the target, requests are rejected except one in probeEvery: those probes keep feeding
+ * the average, so shedding stops on its own once the database has caught up.
+ * <p>
+ * Nothing is shed during the first warmupSamples requests: they only feed the average, so the slow first requests of a
+ * cold JVM (class loading, JIT, connection pool start) do not look like an overload.
+ */
+public class LoadShedder {
+
+    private final long targetNanos;
+    private final double alpha;
+    private final int probeEvery;
+    private final long warmupSamples;
+
+    private final AtomicLong ewmaNanos = new AtomicLong();
+    private final AtomicLong shedCounter = new AtomicLong();
+    private final AtomicLong samples = new AtomicLong();
+
+    public LoadShedder(long targetNanos, double alpha, int probeEvery, long warmupSamples) {
+        this.targetNanos = targetNanos;
+        this.alpha = alpha;
+        this.probeEvery = Math.max(1, probeEvery);
+        this.warmupSamples = warmupSamples;
+    }
+
+
+    public boolean shouldShed() {
+        if (ewmaNanos.get() <= targetNanos || samples.get() < warmupSamples) return false;
+        return shedCounter.incrementAndGet() % probeEvery != 0;
+    }
+
+
+    public void record(long latencyNanos) {
+        samples.incrementAndGet();
+        ewmaNanos.getAndUpdate(avg -> avg == 0 ? latencyNanos : avg + (long) (alpha * (latencyNanos - avg)));
+    }
+
+
+    public long averageNanos() {
+        return ewmaNanos.get();
+    }
+
+}
@@ -0,0 +1,141 @@
+package jaeger.de.miel.TodoAPI.filter;
+
+import jaeger.de.miel.TodoAPI.dto.ErrorDTO;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Protects the H2 server from runaway clients, in three steps per request:
+ * <ol>
+ *   <li>load shedding (503) while the average request latency is above todo.ratelimit.shed-latency-ms,</li>
+ *   <li>a concurrency limit per endpoint class, reads (GET) versus writes (503),</li>
+ *   <li>a token bucket per client IP (429 + Retry-After), only charged for requests the steps before admitted.</li>
+ * </ol>
+ * The bucket is keyed on the IP rather than the /users/{userId} path: the path is chosen by the client, so rotating
+ * user ids would hand it a fresh bucket each time.
+ */
+@Slf4j
+@ConditionalOnProperty(name = "todo.ratelimit.enabled", havingValue = "true", matchIfMissing = true)
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    enum EndpointClass { READ, WRITE }
+
+    private final JsonMapper jsonMapper;
+    private final TokenBucketRegistry buckets;
+    private final LoadShedder loadShedder;
+    private final Semaphore readPermits;
+    private final Semaphore writePermits;
+
+    private final LongAdder rateLimited = new LongAdder();
+    private final LongAdder concurrencyLimited = new LongAdder();
+    private final LongAdder shed = new LongAdder();
+
+    public RateLimitFilter(JsonMapper jsonMapper,
+                           @Value("${todo.ratelimit.requests-per-second:50}") double requestsPerSecond,
+                           @Value("${todo.ratelimit.burst:100}") int burst,
+                           @Value("${todo.ratelimit.stripes:16}") int stripes,
+                           @Value("${todo.ratelimit.max-keys:100000}") int maxKeys,
+                           @Value("${todo.ratelimit.idle-expiry-ms:300000}") long idleExpiryMs,
+                           @Value("${todo.ratelimit.read-concurrency:64}") int readConcurrency,
+                           @Value("${todo.ratelimit.write-concurrency:16}") int writeConcurrency,
+                           @Value("${todo.ratelimit.shed-latency-ms:250}") long shedLatencyMs,
+                           @Value("${todo.ratelimit.shed-probe-every:10}") int shedProbeEvery,
+                           @Value("${todo.ratelimit.shed-warmup-requests:20}") long shedWarmupRequests) {
+        this.jsonMapper = jsonMapper;
+        this.buckets = new TokenBucketRegistry(stripes, maxKeys, TimeUnit.MILLISECONDS.toNanos(idleExpiryMs), requestsPerSecond, burst);
+        this.loadShedder = new LoadShedder(TimeUnit.MILLISECONDS.toNanos(shedLatencyMs), 0.2, shedProbeEvery, shedWarmupRequests);
+        this.readPermits = new Semaphore(readConcurrency);
+        this.writePermits = new Semaphore(writeConcurrency);
+    }
+
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        if (loadShedder.shouldShed()) {
+            shed.increment();
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, 1, "Server is overloaded, retry later");
+            return;
+        }
+
+        Semaphore permits = endpointClass(request) == EndpointClass.READ ? readPermits : writePermits;
+        if (!permits.tryAcquire()) {
+            concurrencyLimited.increment();
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, 1, "Too many concurrent requests");
+            return;
+        }
+
+        long now = System.nanoTime();
+        long waitNanos = buckets.bucket(clientKey(request), now).tryAcquire(now);  // Only once admitted: a shed request costs no token
+        if (waitNanos > 0) {
+            permits.release();
+            rateLimited.increment();
+            long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, retryAfterSeconds, "Rate limit exceeded");
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+            loadShedder.record(System.nanoTime() - start);
+        }
+    }
+
+
+    @Scheduled(fixedDelayString = "${todo.ratelimit.idle-expiry-ms:300000}")
+    public void expireIdleBuckets() {
+        buckets.expire(System.nanoTime());
+
+        long limited = rateLimited.sumThenReset();
+        long concurrency = concurrencyLimited.sumThenReset();
+        long shedCount = shed.sumThenReset();
+        if (limited + concurrency + shedCount > 0) {
+            log.warn("Rate limiting: {} rate limited (429), {} concurrency limited (503), {} shed (503), "
+                            + "{} client buckets, latency avg {} ms",
+                    limited, concurrency, shedCount, buckets.size(), TimeUnit.NANOSECONDS.toMillis(loadShedder.averageNanos()));
+        }
+    }
+
+
+    static String clientKey(HttpServletRequest request) {
+        return "ip:" + request.getRemoteAddr();  // X-Forwarded-For is applied by server.forward-headers-strategy, not trusted here
+    }
+
+
+    static EndpointClass endpointClass(HttpServletRequest request) {
+        return HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod())
+                ? EndpointClass.READ : EndpointClass.WRITE;
+    }
+
+
+    private void reject(HttpServletResponse response, HttpStatus status, long retryAfterSeconds, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getOutputStream().write(jsonMapper.writeValueAsBytes(new ErrorDTO(message)));
+    }
+
+}
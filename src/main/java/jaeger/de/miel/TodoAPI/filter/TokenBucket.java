@@ -0,0 +1,51 @@
+package jaeger.de.miel.TodoAPI.filter;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket in its GCRA form: the whole state is one "theoretical arrival time" updated with CAS,
+ * so refilling and taking a token is a single atomic step without a lock or a refill thread.
+ */
+public class TokenBucket {
+
+    private final long emissionIntervalNanos;  // Time to refill one token
+    private final long burstToleranceNanos;    // Time worth of (capacity - 1) tokens
+    private final AtomicLong theoreticalArrival;
+    private volatile long lastSeenNanos;
+
+    public TokenBucket(double permitsPerSecond, int capacity, long nowNanos) {
+        if (permitsPerSecond <= 0 || capacity < 1) {
+            throw new IllegalArgumentException("permitsPerSecond must be > 0 and capacity >= 1");
+        }
+        this.emissionIntervalNanos = (long) (1_000_000_000L / permitsPerSecond);
+        this.burstToleranceNanos = emissionIntervalNanos * (capacity - 1);
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+        this.lastSeenNanos = nowNanos;
+    }
+
+
+    /**
+     * @return 0 when a token was taken, otherwise the nanos until the next token is available
+     */
+    public long tryAcquire(long nowNanos) {
+        lastSeenNanos = nowNanos;
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long start = tat - nowNanos > 0 ? tat : nowNanos;  // Overflow-safe max() for System.nanoTime() values
+            long waitNanos = start - nowNanos - burstToleranceNanos;
+            if (waitNanos > 0) return waitNanos;
+            if (theoreticalArrival.compareAndSet(tat, start + emissionIntervalNanos)) return 0;
+        }
+    }
+
+
+    public boolean isIdle(long nowNanos, long idleNanos) {
+        return nowNanos - lastSeenNanos > idleNanos;
+    }
+
+
+    long lastSeenNanos() {
+        return lastSeenNanos;
+    }
+
+}
@@ -0,0 +1,82 @@
+package jaeger.de.miel.TodoAPI.filter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Token buckets per client key, split over stripes so a full stripe only has to sweep its own entries.
+ * <p>
+ * Each stripe is bounded (approximately, under concurrent inserts): when it is full, idle buckets are evicted first
+ * and then the least recently seen one. Idle buckets are also expired periodically via {@link #expire(long)}.
+ */
+public class TokenBucketRegistry {
+
+    private final List<ConcurrentHashMap<String, TokenBucket>> stripes;
+    private final int maxKeysPerStripe;
+    private final long idleNanos;
+    private final double permitsPerSecond;
+    private final int capacity;
+
+    public TokenBucketRegistry(int stripeCount, int maxKeys, long idleNanos, double permitsPerSecond, int capacity) {
+        this.stripes = new ArrayList<>(stripeCount);
+        this.maxKeysPerStripe = Math.max(1, maxKeys / stripeCount);
+        for (int i = 0; i < stripeCount; i++) {
+            stripes.add(new ConcurrentHashMap<>(Math.min(maxKeysPerStripe, 1024)));
+        }
+        this.idleNanos = idleNanos;
+        this.permitsPerSecond = permitsPerSecond;
+        this.capacity = capacity;
+    }
+
+
+    public TokenBucket bucket(String key, long nowNanos) {
+        ConcurrentHashMap<String, TokenBucket> stripe = stripeFor(key);
+
+        TokenBucket bucket = stripe.get(key);  // Fast path: no allocation, no lock
+        if (bucket != null) return bucket;
+
+        if (stripe.size() >= maxKeysPerStripe) evict(stripe, nowNanos);
+        return stripe.computeIfAbsent(key, k -> new TokenBucket(permitsPerSecond, capacity, nowNanos));
+    }
+
+
+    public void expire(long nowNanos) {
+        for (ConcurrentHashMap<String, TokenBucket> stripe : stripes) {
+            stripe.values().removeIf(b -> b.isIdle(nowNanos, idleNanos));
+        }
+    }
+
+
+    public int size() {
+        int size = 0;
+        for (ConcurrentHashMap<String, TokenBucket> stripe : stripes) size += stripe.size();
+        return size;
+    }
+
+
+    private ConcurrentHashMap<String, TokenBucket> stripeFor(String key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);  // Spread the high bits, as HashMap does
+        return stripes.get((h & 0x7fffffff) % stripes.size());
+    }
+
+
+    private void evict(ConcurrentHashMap<String, TokenBucket> stripe, long nowNanos) {
+        stripe.values().removeIf(b -> b.isIdle(nowNanos, idleNanos));
+        if (stripe.size() < maxKeysPerStripe) return;
+
+        String oldestKey = null;
+        long oldestSeen = Long.MAX_VALUE;
+        for (Map.Entry<String, TokenBucket> entry : stripe.entrySet()) {
+            long seen = entry.getValue().lastSeenNanos();
+            if (oldestKey == null || seen - oldestSeen < 0) {
+                oldestKey = entry.getKey();
+                oldestSeen = seen;
+            }
+        }
+        if (oldestKey != null) stripe.remove(oldestKey);
+    }
+
+}
@@ -0,0 +1,151 @@
+package jaeger.de.miel.TodoAPI.index;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counting Bloom filter over 64-bit hashes: 4-bit counters, 16 per long, updated lock-free with CAS.
+ * <p>
+ * {@link #mightContain} never answers false for an added element that was not removed; it answers true for an absent
+ * element with roughly the configured false-positive probability. Counters saturate at 15 and are then never decremented
+ * (a possible false positive, never a false negative). Only remove elements that were added.
+ * <p>
+ * Sized for expectedElements at falsePositiveProbability: m = -n ln p / (ln 2)^2 counters and k = m/n ln 2 hashes,
+ * derived by double hashing (h1 + i * h2).
+ */
+public class CountingBloomFilter {
+
+    private static final int COUNTERS_PER_WORD = 16;
+    private static final long MAX_COUNT = 15;
+
+    private final AtomicLongArray words;
+    private final long counters;
+    private final int hashes;
+    private final LongAdder elements = new LongAdder();
+
+    public CountingBloomFilter(long expectedElements, double falsePositiveProbability) {
+        long n = Math.max(1, expectedElements);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+        long words = Math.min(Integer.MAX_VALUE - 8, (m + COUNTERS_PER_WORD - 1) / COUNTERS_PER_WORD);
+        this.words = new AtomicLongArray((int) words);
+        this.counters = words * COUNTERS_PER_WORD;
+        this.hashes = Math.max(1, (int) Math.round((double) counters / n * Math.log(2)));
+    }
+
+
+    public void add(long hash) {
+        long h2 = secondHash(hash);
+        for (int i = 0; i < hashes; i++) {
+            increment(index(hash, h2, i));
+        }
+        elements.increment();
+    }
+
+    public void remove(long hash) {
+        long h2 = secondHash(hash);
+        for (int i = 0; i < hashes; i++) {
+            decrement(index(hash, h2, i));
+        }
+        elements.decrement();
+    }
+
+    public boolean mightContain(long hash) {
+        long h2 = secondHash(hash);
+        for (int i = 0; i < hashes; i++) {
+            if (count(index(hash, h2, i)) == 0) return false;
+        }
+        return true;
+    }
+
+
+    /**
+     * The false-positive probability for the current number of elements: (1 - e^(-kn/m))^k.
+     */
+    public double expectedFalsePositiveProbability() {
+        double n = Math.max(0, elements.sum());
+        return Math.pow(1 - Math.exp(-hashes * n / counters), hashes);
+    }
+
+    public long elements() {
+        return elements.sum();
+    }
+
+    public long counters() {
+        return counters;
+    }
+
+    public int hashes() {
+        return hashes;
+    }
+
+
+    // ---------------------------------------
+    // Hashing
+    // ---------------------------------------
+
+    public static long hash(long value) {
+        return mix(value);
+    }
+
+    public static long hash(CharSequence value) {
+        long h = 0xCBF29CE484222325L;  // FNV-1a over the UTF-16 chars, then mixed
+        for (int i = 0; i < value.length(); i++) {
+            h = (h ^ value.charAt(i)) * 0x100000001B3L;
+        }
+        return mix(h);
+    }
+
+    // MurmurHash3 fmix64
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static long secondHash(long hash) {
+        return mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+    }
+
+    private long index(long h1, long h2, int i) {
+        return Long.remainderUnsigned(h1 + i * h2, counters);
+    }
+
+
+    // ---------------------------------------
+    // 4-bit counters
+    // ---------------------------------------
+
+    private long count(long index) {
+        return (words.get((int) (index / COUNTERS_PER_WORD)) >>> shift(index)) & MAX_COUNT;
+    }
+
+    private void increment(long index) {
+        int word = (int) (index / COUNTERS_PER_WORD);
+        int shift = shift(index);
+        while (true) {
+            long current = words.get(word);
+            long count = (current >>> shift) & MAX_COUNT;
+            if (count == MAX_COUNT) return;  // Saturated
+            if (words.compareAndSet(word, current, current + (1L << shift))) return;
+        }
+    }
+
+    private void decrement(long index) {
+        int word = (int) (index / COUNTERS_PER_WORD);
+        int shift = shift(index);
+        while (true) {
+            long current = words.get(word);
+            long count = (current >>> shift) & MAX_COUNT;
+            if (count == 0 || count == MAX_COUNT) return;  // Saturated counters stay: the true count is unknown
+            if (words.compareAndSet(word, current, current - (1L << shift))) return;
+        }
+    }
+
+    private static int shift(long index) {
+        return (int) (index % COUNTERS_PER_WORD) * 4;
+    }
+
+}
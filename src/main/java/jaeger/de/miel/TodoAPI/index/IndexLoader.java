@@ -0,0 +1,87 @@
+package jaeger.de.miel.TodoAPI.index;
+
+import jaeger.de.miel.TodoAPI.repository.ListRepository;
+import jaeger.de.miel.TodoAPI.repository.TaskRepository;
+import jaeger.de.miel.TodoAPI.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.stream.Stream;
+
+/**
+ * Warms the {@link OwnershipIndex} and the {@link UserFilter} after startup, on a background thread: the ids (and
+ * emails) of all users, lists and tasks are streamed as projections (no entities) in one read-only transaction.
+ * Requests served meanwhile fall back to the database; the rows they read and the changes they make are not
+ * overwritten by the warm-up.
+ */
+@Slf4j
+@Lazy(false)
+@Component
+public class IndexLoader {
+
+    private final OwnershipIndex ownershipIndex;
+    private final UserFilter userFilter;
+    private final UserRepository userRepository;
+    private final ListRepository listRepository;
+    private final TaskRepository taskRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public IndexLoader(OwnershipIndex ownershipIndex,
+                       UserFilter userFilter,
+                       UserRepository userRepository,
+                       ListRepository listRepository,
+                       TaskRepository taskRepository,
+                       PlatformTransactionManager transactionManager) {
+        this.ownershipIndex = ownershipIndex;
+        this.userFilter = userFilter;
+        this.userRepository = userRepository;
+        this.listRepository = listRepository;
+        this.taskRepository = taskRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() {
+        if (!ownershipIndex.isEnabled() && !userFilter.isEnabled()) return;
+
+        Thread.ofVirtual().name("index-warm-up").start(() -> {
+            try {
+                long start = System.nanoTime();
+                readOnlyTransaction.executeWithoutResult(status -> load());
+                ownershipIndex.markWarm();
+                userFilter.markReady();
+                log.info("Indexes warmed in {} ms: ownership of {} users, {} lists, {} tasks; {} users in the user filter",
+                        (System.nanoTime() - start) / 1_000_000,
+                        ownershipIndex.users(), ownershipIndex.lists(), ownershipIndex.tasks(), userFilter.users());
+            } catch (RuntimeException e) {
+                log.error("Index warm-up failed, lookups fall back to the database", e);
+            }
+        });
+    }
+
+
+    private void load() {
+        try (Stream<Object[]> users = userRepository.streamAllIdsAndEmails()) {
+            users.forEach(row -> {
+                ownershipIndex.userFound((Long) row[0]);
+                userFilter.userCreated((Long) row[0], (String) row[1]);
+            });
+        }
+        if (!ownershipIndex.isEnabled()) return;
+
+        try (Stream<Object[]> lists = listRepository.streamAllIdsAndOwnerIds()) {
+            lists.forEach(row -> ownershipIndex.listFound((Long) row[0], (Long) row[1]));
+        }
+        try (Stream<Object[]> tasks = taskRepository.streamAllIdsAndListIds()) {
+            tasks.forEach(row -> ownershipIndex.taskFound((Long) row[0], (Long) row[1]));
+        }
+    }
+
+}
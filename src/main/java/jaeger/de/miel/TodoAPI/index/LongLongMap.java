@@ -0,0 +1,184 @@
+package jaeger.de.miel.TodoAPI.index;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Thread-safe open-addressing hash map from long keys to long values: two parallel primitive arrays with linear
+ * probing and backward-shift deletion, no boxing and no entry objects (16 bytes per slot).
+ * <p>
+ * Reads are optimistic ({@link StampedLock#tryOptimisticRead()}): they probe without locking and only retry under the
+ * read lock when a write happened meanwhile, so lookups never block each other. Writes take the write lock.
+ * <p>
+ * Key 0 marks an empty slot and cannot be stored (database ids start at 1); {@link #get} returns the missing value
+ * given to the constructor for an absent key.
+ */
+public class LongLongMap {
+
+    private static final long EMPTY = 0;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private final StampedLock lock = new StampedLock();
+    private final long missingValue;
+    private long[] keys;
+    private long[] values;
+    private int size;
+    private int resizeAt;
+
+    public LongLongMap(int expectedSize, long missingValue) {
+        this.missingValue = missingValue;
+        allocate(tableSizeFor((int) Math.min(1 << 30, Math.max(16, (long) (expectedSize / LOAD_FACTOR)))));
+    }
+
+
+    public long get(long key) {
+        long stamp = lock.tryOptimisticRead();
+        long value = find(keys, values, key);
+        if (lock.validate(stamp)) return value;
+
+        stamp = lock.readLock();
+        try {
+            return find(keys, values, key);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != missingValue;
+    }
+
+    /**
+     * @return the previous value, or the missing value
+     */
+    public long put(long key, long value) {
+        return put(key, value, true);
+    }
+
+    /**
+     * Stores the value only when the key is absent.
+     * @return the current value, or the missing value when it was absent (and is now stored)
+     */
+    public long putIfAbsent(long key, long value) {
+        return put(key, value, false);
+    }
+
+    public long remove(long key) {
+        long stamp = lock.writeLock();
+        try {
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            while (keys[i] != key) {
+                if (keys[i] == EMPTY) return missingValue;
+                i = (i + 1) & mask;
+            }
+            long previous = values[i];
+
+            // Backward shift: move later entries of the probe run into the gap unless that would put them before their home slot
+            int gap = i;
+            for (int j = (i + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+                int home = slot(keys[j], mask);
+                if (((j - home) & mask) >= ((j - gap) & mask)) {
+                    keys[gap] = keys[j];
+                    values[gap] = values[j];
+                    gap = j;
+                }
+            }
+            keys[gap] = EMPTY;
+            values[gap] = 0;
+            size--;
+            return previous;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.tryOptimisticRead();
+        int current = size;
+        if (lock.validate(stamp)) return current;
+
+        stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+
+    // May run against arrays that are being written (optimistic read): bounded, and the caller validates the result
+    private long find(long[] keys, long[] values, long key) {
+        if (keys.length != values.length) return missingValue;  // Torn read during a resize
+
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        for (int probes = 0; probes < keys.length; probes++) {
+            long k = keys[i];
+            if (k == key) return values[i];
+            if (k == EMPTY) return missingValue;
+            i = (i + 1) & mask;
+        }
+        return missingValue;
+    }
+
+    private long put(long key, long value, boolean replace) {
+        if (key == EMPTY) throw new IllegalArgumentException("Key 0 is reserved");
+
+        long stamp = lock.writeLock();
+        try {
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            while (keys[i] != EMPTY) {
+                if (keys[i] == key) {
+                    long previous = values[i];
+                    if (replace) values[i] = value;
+                    return previous;
+                }
+                i = (i + 1) & mask;
+            }
+
+            keys[i] = key;
+            values[i] = value;
+            if (++size > resizeAt) resize();
+            return missingValue;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        long[] newKeys = new long[oldKeys.length << 1];
+        long[] newValues = new long[newKeys.length];
+
+        int mask = newKeys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == EMPTY) continue;
+            int j = slot(oldKeys[i], mask);
+            while (newKeys[j] != EMPTY) j = (j + 1) & mask;
+            newKeys[j] = oldKeys[i];
+            newValues[j] = oldValues[i];
+        }
+
+        keys = newKeys;
+        values = newValues;
+        resizeAt = (int) (newKeys.length * LOAD_FACTOR);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int tableSizeFor(int n) {
+        return Integer.highestOneBit(n - 1) << 1;
+    }
+
+    private static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;  // Fibonacci hashing: sequential ids spread over the table
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+}
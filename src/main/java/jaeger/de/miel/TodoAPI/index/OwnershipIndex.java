@@ -0,0 +1,224 @@
+package jaeger.de.miel.TodoAPI.index;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+/**
+ * In-memory ownership of users, lists and tasks (todo.ownership-index.enabled): user id -> present,
+ * list id -> owner id and task id -> list id, on primitive {@link LongLongMap}s (no boxing, lock-free reads).
+ * <p>
+ * Warmed at startup by {@link IndexLoader} and maintained by the services: creations and deletions are applied
+ * after commit, rows read from the database on a miss are added right away. A deletion leaves a tombstone, so a request
+ * for a deleted (or someone else's) list or task is rejected without a query.
+ * <p>
+ * Only NOT_FOUND answers are trusted without the database. They are safe because ids are never reused and the owner of
+ * a list and the list of a task never change; a stale FOUND (a concurrent deletion) is still rejected by the query or
+ * the foreign key. A miss is UNKNOWN, unless authoritative is set: then, once warm, a miss is NOT_FOUND as well. That is
+ * only correct while this instance sees every write (a single instance, no writes to the database from elsewhere).
+ * <p>
+ * Ids are only unique per database, so the index is disabled in the sharded profile.
+ */
+@Component
+public class OwnershipIndex {
+
+    private static final long MISSING = 0;
+    private static final long DELETED = -1;
+    private static final long PRESENT = 1;
+
+    public enum Lookup { FOUND, NOT_FOUND, UNKNOWN }
+
+    private final boolean enabled;
+    private final boolean authoritative;
+    private final LongLongMap users = new LongLongMap(1024, MISSING);       // User id -> PRESENT / DELETED
+    private final LongLongMap listOwners = new LongLongMap(4096, MISSING);  // List id -> owner id / DELETED
+    private final LongLongMap taskLists = new LongLongMap(16384, MISSING);  // Task id -> list id / DELETED
+    private final LongAdder rejected = new LongAdder();
+    private volatile boolean warm;
+
+    public OwnershipIndex(@Value("${todo.ownership-index.enabled:true}") boolean enabled,
+                          @Value("${todo.ownership-index.authoritative:false}") boolean authoritative) {
+        this.enabled = enabled;
+        this.authoritative = authoritative;
+    }
+
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+
+    // ---------------------------------------
+    // Lookups
+    // ---------------------------------------
+
+    public Lookup checkUser(long userId) {
+        if (!enabled) return Lookup.UNKNOWN;
+        return count(user(userId));
+    }
+
+    public Lookup checkList(long listId, long ownerId) {
+        if (!enabled) return Lookup.UNKNOWN;
+        return count(list(listId, ownerId));
+    }
+
+    public Lookup checkTask(long taskId, long listId, long ownerId) {
+        if (!enabled) return Lookup.UNKNOWN;
+
+        long indexedListId = taskLists.get(taskId);
+        if (indexedListId == DELETED || (indexedListId != MISSING && indexedListId != listId)) return count(Lookup.NOT_FOUND);
+
+        Lookup list = list(listId, ownerId);
+        if (list == Lookup.NOT_FOUND) return count(list);
+        return count(indexedListId == MISSING ? miss() : list);
+    }
+
+
+    /**
+     * Whether the user exists: from the index, or from the query when the index does not know (the answer is indexed).
+     */
+    public boolean userExists(long userId, BooleanSupplier query) {
+        Lookup lookup = checkUser(userId);
+        if (lookup != Lookup.UNKNOWN) return lookup == Lookup.FOUND;
+
+        boolean exists = query.getAsBoolean();
+        if (exists) userFound(userId);
+        return exists;
+    }
+
+    /**
+     * Whether the list exists and belongs to the owner: from the index, or from the query when the index does not know.
+     */
+    public boolean ownsList(long ownerId, long listId, BooleanSupplier query) {
+        Lookup lookup = checkList(listId, ownerId);
+        if (lookup != Lookup.UNKNOWN) return lookup == Lookup.FOUND;
+
+        boolean owns = query.getAsBoolean();
+        if (owns) listFound(listId, ownerId);
+        return owns;
+    }
+
+
+    // ---------------------------------------
+    // Rows read from the database (applied now: a tombstone written meanwhile is kept)
+    // ---------------------------------------
+
+    public void userFound(long userId) {
+        if (enabled) users.putIfAbsent(userId, PRESENT);
+    }
+
+    public void listFound(long listId, long ownerId) {
+        if (enabled) listOwners.putIfAbsent(listId, ownerId);
+    }
+
+    public void taskFound(long taskId, long listId) {
+        if (enabled) taskLists.putIfAbsent(taskId, listId);
+    }
+
+
+    // ---------------------------------------
+    // Mutations (called by the services, applied after commit)
+    // ---------------------------------------
+
+    public void userCreated(long userId) {
+        if (enabled) afterCommit(() -> users.put(userId, PRESENT));
+    }
+
+    public void listCreated(long listId, long ownerId) {
+        if (enabled) afterCommit(() -> listOwners.put(listId, ownerId));
+    }
+
+    public void taskCreated(long taskId, long listId) {
+        if (enabled) afterCommit(() -> taskLists.put(taskId, listId));
+    }
+
+    // The lists and tasks of a deleted user or list are deleted by the database (ON DELETE CASCADE):
+    // the lookups treat them as deleted through their user or list
+    public void userDeleted(long userId) {
+        if (enabled) afterCommit(() -> users.put(userId, DELETED));
+    }
+
+    public void listDeleted(long listId) {
+        if (enabled) afterCommit(() -> listOwners.put(listId, DELETED));
+    }
+
+    public void taskDeleted(long taskId) {
+        if (enabled) afterCommit(() -> taskLists.put(taskId, DELETED));
+    }
+
+
+    // ---------------------------------------
+    // Warm-up and statistics
+    // ---------------------------------------
+
+    /**
+     * Called by the loader once every row has been read: from now on a miss is NOT_FOUND when authoritative.
+     */
+    public void markWarm() {
+        warm = true;
+    }
+
+    public boolean isWarm() {
+        return warm;
+    }
+
+    public int users() {
+        return users.size();
+    }
+
+    public int lists() {
+        return listOwners.size();
+    }
+
+    public int tasks() {
+        return taskLists.size();
+    }
+
+    /**
+     * Lookups answered NOT_FOUND (requests rejected without a query) since startup.
+     */
+    public long rejected() {
+        return rejected.sum();
+    }
+
+
+    private Lookup user(long userId) {
+        long state = users.get(userId);
+        if (state == DELETED) return Lookup.NOT_FOUND;
+        return state == MISSING ? miss() : Lookup.FOUND;
+    }
+
+    private Lookup list(long listId, long ownerId) {
+        long indexedOwnerId = listOwners.get(listId);
+        if (indexedOwnerId == DELETED || (indexedOwnerId != MISSING && indexedOwnerId != ownerId)) return Lookup.NOT_FOUND;
+        if (users.get(ownerId) == DELETED) return Lookup.NOT_FOUND;
+        return indexedOwnerId == MISSING ? miss() : Lookup.FOUND;
+    }
+
+    private Lookup miss() {
+        return authoritative && warm ? Lookup.NOT_FOUND : Lookup.UNKNOWN;
+    }
+
+    private Lookup count(Lookup lookup) {
+        if (lookup == Lookup.NOT_FOUND) rejected.increment();
+        return lookup;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+}
@@ -0,0 +1,194 @@
+package jaeger.de.miel.TodoAPI.index;
+
+import jaeger.de.miel.TodoAPI.entity.AppUser;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Counting Bloom filters of the registered emails and user ids (todo.user-filter.enabled), so that the email uniqueness
+ * check of a new user and the existence check of an owner skip the query when the answer is certainly "no".
+ * <p>
+ * Filled at startup by {@link IndexLoader}; until then every check queries the database. Users are added when they are
+ * saved (a rolled-back insert only leaves a false positive) and removed after commit, from the deleted row. Removals
+ * during the warm-up are skipped: the row may not have been added yet.
+ * <p>
+ * A negative is only correct while this instance sees every user insert (a single instance writing the database), so it
+ * only answers a check when authoritative is set, like the authoritative {@link OwnershipIndex}; otherwise every check
+ * queries. The email uniqueness itself stays with UK_APP_USER_EMAIL.
+ * <p>
+ * Every report-interval-ms the measured false-positive rate (a "maybe" the query answered with "no") is logged next to
+ * the expected rate; when it drifts far above it, raise todo.user-filter.expected-users.
+ */
+@Slf4j
+@Component
+public class UserFilter {
+
+    private final boolean enabled;
+    private final boolean authoritative;
+    private final CountingBloomFilter emails;
+    private final CountingBloomFilter ids;
+    private final Check emailChecks = new Check();
+    private final Check idChecks = new Check();
+    private volatile boolean ready;
+
+    public UserFilter(@Value("${todo.user-filter.enabled:true}") boolean enabled,
+                      @Value("${todo.user-filter.authoritative:false}") boolean authoritative,
+                      @Value("${todo.user-filter.expected-users:100000}") long expectedUsers,
+                      @Value("${todo.user-filter.false-positive-probability:0.01}") double falsePositiveProbability) {
+        this.enabled = enabled;
+        this.authoritative = authoritative;
+        this.emails = new CountingBloomFilter(enabled ? expectedUsers : 1, falsePositiveProbability);
+        this.ids = new CountingBloomFilter(enabled ? expectedUsers : 1, falsePositiveProbability);
+    }
+
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isAuthoritative() {
+        return enabled && authoritative;
+    }
+
+
+    // ---------------------------------------
+    // Checks
+    // ---------------------------------------
+
+    /**
+     * Whether a user has the email: false from the filter when certain (and authoritative), otherwise from the query.
+     */
+    public boolean emailInUse(String email, BooleanSupplier query) {
+        if (!answers() || email == null) return query.getAsBoolean();
+        return emailChecks.check(emails.mightContain(CountingBloomFilter.hash(email)), query);
+    }
+
+    /**
+     * Whether the user exists: false from the filter when certain (and authoritative), otherwise from the query.
+     */
+    public boolean userExists(long userId, BooleanSupplier query) {
+        if (!answers()) return query.getAsBoolean();
+        return idChecks.check(ids.mightContain(CountingBloomFilter.hash(userId)), query);
+    }
+
+    private boolean answers() {
+        return enabled && authoritative && ready;
+    }
+
+
+    // ---------------------------------------
+    // Mutations (called by the services)
+    // ---------------------------------------
+
+    public void userCreated(long userId, String email) {
+        if (!enabled) return;
+        ids.add(CountingBloomFilter.hash(userId));
+        if (email != null) emails.add(CountingBloomFilter.hash(email));
+    }
+
+    public void emailChanged(String previousEmail, String email) {
+        if (!enabled || email == null || email.equals(previousEmail)) return;
+        emails.add(CountingBloomFilter.hash(email));
+        afterCommit(() -> {
+            if (ready && previousEmail != null) emails.remove(CountingBloomFilter.hash(previousEmail));
+        });
+    }
+
+    public void userDeleted(AppUser user) {
+        if (!enabled) return;
+        afterCommit(() -> {
+            if (!ready) return;
+            ids.remove(CountingBloomFilter.hash(user.getId()));
+            if (user.getEmail() != null) emails.remove(CountingBloomFilter.hash(user.getEmail()));
+        });
+    }
+
+
+    // ---------------------------------------
+    // Warm-up and metrics
+    // ---------------------------------------
+
+    /**
+     * Called by the loader once every existing user has been added: from now on a negative answers the check when
+     * authoritative.
+     */
+    public void markReady() {
+        ready = enabled;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public long users() {
+        return ids.elements();
+    }
+
+
+    @Scheduled(fixedDelayString = "${todo.user-filter.report-interval-ms:60000}")
+    public void report() {
+        if (!answers()) return;
+        report("emails", emails, emailChecks);
+        report("user ids", ids, idChecks);
+    }
+
+    private static void report(String name, CountingBloomFilter filter, Check check) {
+        long negatives = check.negatives.sumThenReset();
+        long falsePositives = check.falsePositives.sumThenReset();
+        long checks = check.checks.sumThenReset();
+        if (checks == 0) return;
+
+        double measured = negatives + falsePositives == 0 ? 0 : falsePositives / (double) (negatives + falsePositives);
+        double expected = filter.expectedFalsePositiveProbability();
+        String summary = String.format(
+                "User filter (%s): %d checks, %d answered without a query, false-positive rate %.4f (expected %.4f), "
+                        + "%d elements in %d counters, k=%d",
+                name, checks, negatives, measured, expected, filter.elements(), filter.counters(), filter.hashes());
+
+        if (falsePositives >= 10 && measured > 4 * Math.max(expected, 0.001)) {
+            log.warn("{} -> the filter is overfull, raise todo.user-filter.expected-users", summary);
+        } else {
+            log.info(summary);
+        }
+    }
+
+
+    // Counters of one filter: a "maybe" the query answered with "no" is a false positive
+    private static class Check {
+        final LongAdder checks = new LongAdder();
+        final LongAdder negatives = new LongAdder();
+        final LongAdder falsePositives = new LongAdder();
+
+        boolean check(boolean mightContain, BooleanSupplier query) {
+            checks.increment();
+            if (!mightContain) {
+                negatives.increment();
+                return false;
+            }
+            boolean exists = query.getAsBoolean();
+            if (!exists) falsePositives.increment();
+            return exists;
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+}
@@ -0,0 +1,69 @@
+package jaeger.de.miel.TodoAPI.journal;
+
+import jaeger.de.miel.TodoAPI.entity.OutboxEvent;
+import jaeger.de.miel.TodoAPI.repository.OutboxRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Only there to satisfy the wiring: the journal profile disables the outbox (todo.outbox.enabled=false),
+ * an in-memory outbox would lose its events on restart.
+ */
+@Repository
+@Profile("journal")
+public class InMemoryOutboxRepository extends InMemoryRepository<OutboxEvent> implements OutboxRepository {
+
+    @Override
+    protected Long idOf(OutboxEvent event) {
+        return event.getId();
+    }
+
+    @Override
+    protected void setId(OutboxEvent event, Long id) {
+        event.setId(id);
+    }
+
+
+    @Override
+    public List<OutboxEvent> findClaimable(int limit, Instant now) {
+        return rows.values().stream()  // A single instance: nothing to lock against
+                .filter(event -> event.getClaimedUntil() == null || event.getClaimedUntil().isBefore(now))
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public int claim(Collection<Long> ids, Instant until) {
+        int claimed = 0;
+        for (Long id : ids) {
+            OutboxEvent event = rows.get(id);
+            if (event == null) continue;
+            event.setClaimedUntil(until);
+            claimed++;
+        }
+        return claimed;
+    }
+
+
+    // Never called, the outbox is disabled in this profile
+
+    @Override
+    public int insertTaskDeletedOfList(long listId, long ownerId, Instant createdAt) {
+        return 0;
+    }
+
+    @Override
+    public int insertTaskDeletedOfOwner(long ownerId, Instant createdAt) {
+        return 0;
+    }
+
+    @Override
+    public int insertTaskDeletedOfOwnerEmail(String email, Instant createdAt) {
+        return 0;
+    }
+
+}
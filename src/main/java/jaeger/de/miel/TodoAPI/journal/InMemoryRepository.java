@@ -0,0 +1,74 @@
+package jaeger.de.miel.TodoAPI.journal;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Volatile store for the auxiliary tables in the journal profile (outbox, task history): kept in id order in memory,
+ * lost on restart. Only users, lists and tasks are journaled.
+ * <p>
+ * Inside a transaction a write is applied after commit, not at all on rollback; the id is assigned right away.
+ */
+public abstract class InMemoryRepository<T> extends MapRepository<T, Long> {
+
+    protected final ConcurrentSkipListMap<Long, T> rows = new ConcurrentSkipListMap<>();
+    private final AtomicLong lastId = new AtomicLong();
+
+    protected abstract void setId(T entity, Long id);
+
+
+    @Override
+    public <S extends T> S save(S entity) {
+        Long id = idOf(entity);
+        if (id == null) {
+            id = lastId.incrementAndGet();
+            setId(entity, id);
+        } else {
+            lastId.accumulateAndGet(id, Math::max);
+        }
+        Long saved = id;
+        afterCommit(() -> rows.put(saved, entity));
+        return entity;
+    }
+
+    @Override
+    public Optional<T> findById(Long id) {
+        return Optional.ofNullable(rows.get(id));
+    }
+
+    @Override
+    public List<T> findAll() {
+        return new ArrayList<>(rows.values());
+    }
+
+    @Override
+    public long count() {
+        return rows.size();
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        afterCommit(() -> rows.remove(id));
+    }
+
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+}
@@ -0,0 +1,110 @@
+package jaeger.de.miel.TodoAPI.journal;
+
+import jaeger.de.miel.TodoAPI.dto.TaskStatus;
+import jaeger.de.miel.TodoAPI.entity.TaskDailyStats;
+import jaeger.de.miel.TodoAPI.entity.TaskEvent;
+import jaeger.de.miel.TodoAPI.repository.TaskDailyStatsRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Daily task statistics of the journal profile: the rollup aggregates the in-memory task history like the MERGE of
+ * {@link TaskDailyStatsRepository#rollUpSince}, then drops the events of the days before, which are final.
+ */
+@Repository
+@Profile("journal")
+@AllArgsConstructor
+public class InMemoryTaskDailyStatsRepository extends MapRepository<TaskDailyStats, TaskDailyStats.Key> implements TaskDailyStatsRepository {
+
+    private static final Comparator<TaskDailyStats.Key> BY_USER_AND_DATE =
+            Comparator.comparing(TaskDailyStats.Key::getUserId).thenComparing(TaskDailyStats.Key::getBucketDate);
+
+    private final InMemoryTaskEventRepository taskEventRepository;
+    private final ConcurrentSkipListMap<TaskDailyStats.Key, TaskDailyStats> buckets = new ConcurrentSkipListMap<>(BY_USER_AND_DATE);
+
+
+    @Override
+    public <S extends TaskDailyStats> S save(S stats) {
+        buckets.put(idOf(stats), stats);
+        return stats;
+    }
+
+    @Override
+    public Optional<TaskDailyStats> findById(TaskDailyStats.Key key) {
+        return Optional.ofNullable(buckets.get(key));
+    }
+
+    @Override
+    public List<TaskDailyStats> findAll() {
+        return new ArrayList<>(buckets.values());
+    }
+
+    @Override
+    public long count() {
+        return buckets.size();
+    }
+
+    @Override
+    public void deleteById(TaskDailyStats.Key key) {
+        buckets.remove(key);
+    }
+
+    @Override
+    protected TaskDailyStats.Key idOf(TaskDailyStats stats) {
+        return new TaskDailyStats.Key(stats.getUserId(), stats.getBucketDate());
+    }
+
+
+    @Override
+    public List<TaskDailyStats> findByUserIdAndBucketDateBetweenOrderByBucketDateAsc(Long userId, LocalDate from, LocalDate to) {
+        return new ArrayList<>(buckets.subMap(new TaskDailyStats.Key(userId, from), true, new TaskDailyStats.Key(userId, to), true).values());
+    }
+
+    @Override
+    public LocalDate findRollupWatermark() {
+        LocalDate yesterday = currentDate().minusDays(1);
+        return buckets.keySet().stream()
+                .map(TaskDailyStats.Key::getBucketDate)
+                .max(Comparator.naturalOrder())
+                .filter(latest -> latest.isBefore(yesterday))
+                .orElse(buckets.isEmpty() ? LocalDate.EPOCH : yesterday);
+    }
+
+    @Override
+    public LocalDate currentDate() {
+        return LocalDate.now();  // The JVM's time zone, like the buckets below
+    }
+
+    @Override
+    public synchronized int rollUpSince(LocalDate since) {
+        ZoneId zone = ZoneId.systemDefault();  // CAST(occurred_at AS DATE) in the session time zone
+        Instant start = since.atStartOfDay(zone).toInstant();
+
+        Map<TaskDailyStats.Key, TaskDailyStats> recomputed = new ConcurrentSkipListMap<>(BY_USER_AND_DATE);
+        for (TaskEvent event : taskEventRepository.findAll()) {
+            if (event.getOccurredAt().isBefore(start)) continue;
+
+            var key = new TaskDailyStats.Key(event.getUserId(), LocalDate.ofInstant(event.getOccurredAt(), zone));
+            TaskDailyStats bucket = recomputed.computeIfAbsent(key, k -> new TaskDailyStats(k.getUserId(), k.getBucketDate(), 0, 0, 0));
+            if (event.getFromStatus() == null) bucket.setCreated(bucket.getCreated() + 1);
+            if (event.getToStatus() == TaskStatus.DONE) bucket.setCompleted(bucket.getCompleted() + 1);
+            if (event.getCycleSeconds() != null) bucket.setCycleSeconds(bucket.getCycleSeconds() + event.getCycleSeconds());
+        }
+
+        buckets.putAll(recomputed);
+        taskEventRepository.deleteOccurredBefore(start);
+        return recomputed.size();
+    }
+
+}
@@ -0,0 +1,32 @@
+package jaeger.de.miel.TodoAPI.journal;
+
+import jaeger.de.miel.TodoAPI.entity.TaskEvent;
+import jaeger.de.miel.TodoAPI.repository.TaskEventRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+/**
+ * Task status history of the journal profile, in memory until it is rolled up into the daily statistics.
+ */
+@Repository
+@Profile("journal")
+public class InMemoryTaskEventRepository extends InMemoryRepository<TaskEvent> implements TaskEventRepository {
+
+    @Override
+    protected Long idOf(TaskEvent event) {
+        return event.getId();
+    }
+
+    @Override
+    protected void setId(TaskEvent event, Long id) {
+        event.setId(id);
+    }
+
+
+    void deleteOccurredBefore(Instant before) {
+        rows.values().removeIf(event -> event.getOccurredAt().isBefore(before));
+    }
+
+}
@@ -0,0 +1,154 @@
+package jaeger.de.miel.TodoAPI.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * One generation of the append-only journal: a memory-mapped file of records framed as [int length][int CRC32C][payload].
+ * <p>
+ * An append is a memory copy into the mapping; the length is written last, so a reader stops at the first zero length.
+ * {@link #force()} writes the dirty range to disk (group commit, see todo.journal.sync-interval-ms); a record whose pages
+ * were only partially written when the machine went down fails its checksum and ends the replay.
+ * <p>
+ * The file grows by grow-bytes (remapped) when a record does not fit; a mapping is limited to 2 GB, the store rolls over
+ * to a new generation with a snapshot long before that. Appends are serialized by the caller.
+ */
+public class Journal implements AutoCloseable {
+
+    static final int HEADER_BYTES = 8;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final int growBytes;
+    private volatile MappedByteBuffer buffer;
+    private volatile int position;
+    private int forcedTo;
+
+    private Journal(Path path, int growBytes) throws IOException {
+        this.path = path;
+        this.growBytes = growBytes;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), growBytes));
+    }
+
+
+    /**
+     * Opens (or creates) the journal file and hands every intact record to the consumer; appends continue after the
+     * last intact record. A torn tail is zeroed so it cannot be mistaken for records later.
+     */
+    public static Journal open(Path path, int growBytes, Consumer<ByteBuffer> replay) throws IOException {
+        var journal = new Journal(path, growBytes);
+        journal.position = readRecords(journal.buffer, replay);
+        journal.forcedTo = journal.position;
+        journal.clearTail();
+        return journal;
+    }
+
+
+    /**
+     * Reads the framed records of the buffer up to the first empty or corrupt one.
+     * @return the position after the last intact record
+     */
+    static int readRecords(ByteBuffer buffer, Consumer<ByteBuffer> consumer) {
+        int position = 0;
+        while (position + HEADER_BYTES <= buffer.limit()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || length > buffer.limit() - position - HEADER_BYTES) break;
+
+            ByteBuffer payload = buffer.slice(position + HEADER_BYTES, length);
+            if (buffer.getInt(position + 4) != checksum(payload)) break;  // Torn write
+
+            consumer.accept(payload.asReadOnlyBuffer());
+            position += HEADER_BYTES + length;
+        }
+        return position;
+    }
+
+
+    public void append(byte[] payload) {
+        int needed = HEADER_BYTES + payload.length;
+        ensureCapacity(needed);
+
+        int at = position;
+        buffer.put(at + HEADER_BYTES, payload);
+        buffer.putInt(at + 4, checksum(ByteBuffer.wrap(payload)));
+        buffer.putInt(at, payload.length);  // Last: publishes the record
+        position = at + needed;
+    }
+
+
+    /**
+     * Writes the records appended since the last force to the storage device.
+     */
+    public synchronized void force() {
+        int to = position;
+        if (to > forcedTo) {
+            buffer.force(forcedTo, to - forcedTo);
+            forcedTo = to;
+        }
+    }
+
+
+    public int position() {
+        return position;
+    }
+
+
+    public Path path() {
+        return path;
+    }
+
+
+    /**
+     * Forces and closes the file. The mapping itself is released by the garbage collector (there is no explicit unmap),
+     * which is why the file of an old generation may not be deletable right away on Windows.
+     */
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+
+    static int checksum(ByteBuffer payload) {
+        var crc = new CRC32C();
+        crc.update(payload.duplicate());
+        return (int) crc.getValue();
+    }
+
+
+    private void ensureCapacity(int needed) {
+        if (position + needed <= buffer.capacity()) return;
+
+        long size = (long) buffer.capacity() + Math.max(growBytes, needed);
+        if (size > Integer.MAX_VALUE) throw new IllegalStateException("Journal " + path + " is full (2 GB), snapshot first");
+
+        try {
+            synchronized (this) {  // Not while a concurrent force() is using the old mapping
+                force();
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot grow journal " + path, e);
+        }
+    }
+
+
+    private void clearTail() {
+        if (position + 4 > buffer.capacity() || buffer.getInt(position) == 0) return;  // Clean end of the journal
+
+        byte[] zeros = new byte[64 * 1024];
+        for (int at = position; at < buffer.capacity(); at += zeros.length) {
+            buffer.put(at, zeros, 0, Math.min(zeros.length, buffer.capacity() - at));
+        }
+        buffer.force();
+    }
+
+}
@@ -0,0 +1,246 @@
+package jaeger.de.miel.TodoAPI.journal;
+
+import jaeger.de.miel.TodoAPI.dto.TaskStatus;
+import jaeger.de.miel.TodoAPI.entity.AppUser;
+import jaeger.de.miel.TodoAPI.entity.List;
+import jaeger.de.miel.TodoAPI.entity.Task;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Binary encoding of the journal and snapshot records: an operation byte followed by the fields in a fixed order.
+ * Strings are length-prefixed UTF-8 (-1 is null), relations are stored as the id of the referenced entity.
+ * <p>
+ * Also copies entities: the store keeps its own instances and never hands them out, like a persistence context
+ * would not share managed entities between transactions.
+ */
+final class JournalCodec {
+
+    static final byte PUT_USER = 1;
+    static final byte DELETE_USER = 2;
+    static final byte PUT_LIST = 3;
+    static final byte DELETE_LIST = 4;
+    static final byte PUT_TASK = 5;
+    static final byte DELETE_TASK = 6;
+    static final byte SEQUENCES = 7;  // Snapshot header: last user, list and task id
+    static final byte END = 8;        // Snapshot trailer: the snapshot is complete
+
+    private JournalCodec() {
+    }
+
+
+    // ---------------------------------------
+    // Encoding
+    // ---------------------------------------
+
+    static byte[] encode(AppUser user) {
+        return write(PUT_USER, out -> {
+            out.writeLong(user.getId());
+            writeString(out, user.getEmail());
+            writeString(out, user.getName());
+            writeString(out, user.getPasswordHash());
+            writeInstant(out, user.getCreatedAt());
+            writeInstant(out, user.getUpdatedAt());
+        });
+    }
+
+    static byte[] encode(List list) {
+        return write(PUT_LIST, out -> {
+            out.writeLong(list.getId());
+            out.writeLong(list.getOwner().getId());
+            writeString(out, list.getName());
+            writeString(out, list.getDescription());
+            writeInstant(out, list.getCreatedAt());
+            writeInstant(out, list.getUpdatedAt());
+        });
+    }
+
+    static byte[] encode(Task task) {
+        return write(PUT_TASK, out -> {
+            out.writeLong(task.getId());
+            out.writeLong(task.getList().getId());
+            out.writeLong(task.getCreator().getId());
+            writeString(out, task.getTitle());
+            writeString(out, task.getDescription());
+            out.writeShort(task.getStatus().getCode());
+            out.writeLong(task.getDueDate() == null ? Long.MIN_VALUE : task.getDueDate().toEpochDay());
+            out.writeInt(task.getPriority() == null ? Integer.MIN_VALUE : task.getPriority());
+            writeInstant(out, task.getCreatedAt());
+            writeInstant(out, task.getUpdatedAt());
+            writeInstant(out, task.getCompletedAt());
+        });
+    }
+
+    static byte[] delete(byte op, long id) {
+        return write(op, out -> out.writeLong(id));
+    }
+
+    static byte[] sequences(long lastUserId, long lastListId, long lastTaskId) {
+        return write(SEQUENCES, out -> {
+            out.writeLong(lastUserId);
+            out.writeLong(lastListId);
+            out.writeLong(lastTaskId);
+        });
+    }
+
+    static byte[] end(int records) {
+        return write(END, out -> out.writeInt(records));
+    }
+
+
+    // ---------------------------------------
+    // Decoding (the operation byte has been read)
+    // ---------------------------------------
+
+    static AppUser readUser(ByteBuffer in) {
+        var user = new AppUser();
+        user.setId(in.getLong());
+        user.setEmail(readString(in));
+        user.setName(readString(in));
+        user.setNameLower(user.getName().toLowerCase());
+        user.setPasswordHash(readString(in));
+        user.setCreatedAt(readInstant(in));
+        user.setUpdatedAt(readInstant(in));
+        return user;
+    }
+
+    static List readList(ByteBuffer in) {
+        var list = new List();
+        list.setId(in.getLong());
+        list.setOwner(userRef(in.getLong()));
+        list.setName(readString(in));
+        list.setNameLower(list.getName().toLowerCase());
+        list.setDescription(readString(in));
+        list.setCreatedAt(readInstant(in));
+        list.setUpdatedAt(readInstant(in));
+        return list;
+    }
+
+    static Task readTask(ByteBuffer in) {
+        var task = new Task();
+        task.setId(in.getLong());
+        task.setList(listRef(in.getLong()));
+        task.setCreator(userRef(in.getLong()));
+        task.setTitle(readString(in));
+        task.setDescription(readString(in));
+        task.setStatus(TaskStatus.fromCode(in.getShort()));
+        long dueDate = in.getLong();
+        task.setDueDate(dueDate == Long.MIN_VALUE ? null : LocalDate.ofEpochDay(dueDate));
+        int priority = in.getInt();
+        task.setPriority(priority == Integer.MIN_VALUE ? null : priority);
+        task.setCreatedAt(readInstant(in));
+        task.setUpdatedAt(readInstant(in));
+        task.setCompletedAt(readInstant(in));
+        return task;
+    }
+
+
+    // ---------------------------------------
+    // Copies (relations become id-only references, like uninitialized lazy proxies)
+    // ---------------------------------------
+
+    static AppUser copy(AppUser user) {
+        return AppUser.builder()
+                .id(user.getId())
+                .email(user.getEmail())
+                .name(user.getName())
+                .nameLower(user.getNameLower())
+                .passwordHash(user.getPasswordHash())
+                .createdAt(user.getCreatedAt())
+                .updatedAt(user.getUpdatedAt())
+                .build();
+    }
+
+    static List copy(List list) {
+        return List.builder()
+                .id(list.getId())
+                .owner(userRef(list.getOwner().getId()))
+                .name(list.getName())
+                .nameLower(list.getNameLower())
+                .description(list.getDescription())
+                .createdAt(list.getCreatedAt())
+                .updatedAt(list.getUpdatedAt())
+                .build();
+    }
+
+    static Task copy(Task task) {
+        return Task.builder()
+                .id(task.getId())
+                .list(listRef(task.getList().getId()))
+                .creator(userRef(task.getCreator().getId()))
+                .title(task.getTitle())
+                .description(task.getDescription())
+                .status(task.getStatus())
+                .dueDate(task.getDueDate())
+                .priority(task.getPriority())
+                .createdAt(task.getCreatedAt())
+                .updatedAt(task.getUpdatedAt())
+                .completedAt(task.getCompletedAt())
+                .build();
+    }
+
+    private static AppUser userRef(long id) {
+        return AppUser.builder().id(id).build();
+    }
+
+    private static List listRef(long id) {
+        return List.builder().id(id).build();
+    }
+
+
+    // ---------------------------------------
+    // Fields
+    // ---------------------------------------
+
+    private interface Writer {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private static byte[] write(byte op, Writer writer) {
+        var bytes = new ByteArrayOutputStream(128);
+        try (var out = new DataOutputStream(bytes)) {
+            out.writeByte(op);
+            writer.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);  // Not thrown by a ByteArrayOutputStream
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) return null;
+        byte[] utf8 = new byte[length];
+        in.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    private static void writeInstant(DataOutputStream out, Instant value) throws IOException {
+        out.writeLong(value == null ? Long.MIN_VALUE : value.getEpochSecond());
+        out.writeInt(value == null ? 0 : value.getNano());
+    }
+
+    private static Instant readInstant(ByteBuffer in) {
+        long seconds = in.getLong();
+        int nanos = in.getInt();
+        return seconds == Long.MIN_VALUE ? null : Instant.ofEpochSecond(seconds, nanos);
+    }
+
+}
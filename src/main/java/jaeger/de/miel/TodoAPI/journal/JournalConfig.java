@@ -0,0 +1,24 @@
+package jaeger.de.miel.TodoAPI.journal;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Persistence without H2: --spring.profiles.active=journal, see application-journal.properties.
+ * <p>
+ * The DataSource auto-configuration is excluded, so there is no JPA and no Spring Data JPA repositories; the repository
+ * interfaces are implemented by the Journal* (users, lists, tasks on the {@link JournalStore}) and InMemory* repositories
+ * of this package.
+ */
+@Configuration
+@Profile("journal")
+public class JournalConfig {
+
+    @Bean
+    public PlatformTransactionManager transactionManager(JournalStore store) {
+        return new JournalTransactionManager(store);
+    }
+
+}
@@ -0,0 +1,90 @@
+package jaeger.de.miel.TodoAPI.journal;
+
+import jaeger.de.miel.TodoAPI.repository.ListRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@Repository
+@Profile("journal")
+@AllArgsConstructor
+public class JournalListRepository extends MapRepository<jaeger.de.miel.TodoAPI.entity.List, Long> implements ListRepository {
+
+    private final JournalStore store;
+
+
+    @Override
+    public <S extends jaeger.de.miel.TodoAPI.entity.List> S save(S list) {
+        return store.saveList(list);
+    }
+
+    @Override
+    public Optional<jaeger.de.miel.TodoAPI.entity.List> findById(Long id) {
+        return store.findList(id);
+    }
+
+    @Override
+    public List<jaeger.de.miel.TodoAPI.entity.List> findAll() {
+        return store.findLists();
+    }
+
+    @Override
+    public long count() {
+        return store.countLists();
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        store.deleteList(id);
+    }
+
+    @Override
+    protected Long idOf(jaeger.de.miel.TodoAPI.entity.List list) {
+        return list.getId();
+    }
+
+
+    @Override
+    public List<jaeger.de.miel.TodoAPI.entity.List> findListsByOwner_Id(Long ownerId) {
+        return store.findListsByOwner(ownerId);
+    }
+
+    @Override
+    public List<jaeger.de.miel.TodoAPI.entity.List> findListsByOwner_IdOrderByNameLowerAsc(Long ownerId) {
+        return store.findListsByOwner(ownerId);  // The owner index is ordered by lower-case name
+    }
+
+    @Override
+    public Optional<jaeger.de.miel.TodoAPI.entity.List> findListByIdAndOwner_Id(Long id, Long ownerId) {
+        return store.findList(id).filter(l -> l.getOwner().getId().equals(ownerId));
+    }
+
+    @Override
+    public List<jaeger.de.miel.TodoAPI.entity.List> findListsByOwner_IdAndIdIn(Long ownerId, Collection<Long> ids) {
+        List<jaeger.de.miel.TodoAPI.entity.List> lists = new ArrayList<>();
+        ids.forEach(id -> findListByIdAndOwner_Id(id, ownerId).ifPresent(lists::add));
+        return lists;
+    }
+
+    @Override
+    public boolean existsByIdAndOwner_Id(Long id, Long ownerId) {
+        return findListByIdAndOwner_Id(id, ownerId).isPresent();
+    }
+
+    @Override
+    public long deleteByIdAndOwner_Id(Long listId, Long ownerId) {
+        return existsByIdAndOwner_Id(listId, ownerId) && store.deleteList(listId) ? 1 : 0;
+    }
+
+    @Override
+    public Stream<Object[]> streamAllIdsAndOwnerIds() {
+        return store.findLists().stream().map(l -> new Object[]{l.getId(), l.getOwner().getId()});
+    }
+
+}
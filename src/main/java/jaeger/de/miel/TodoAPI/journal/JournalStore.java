@@ -0,0 +1,799 @@
+package jaeger.de.miel.TodoAPI.journal;
+
+import jaeger.de.miel.TodoAPI.dto.TaskStatus;
+import jaeger.de.miel.TodoAPI.entity.AppUser;
+import jaeger.de.miel.TodoAPI.entity.Task;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Users, lists and tasks held in memory (journal profile), keyed by their primitive ids in {@link LongMap}s, with the
+ * secondary indexes the repositories query: email, name order, lists per owner by lower-case name (which also enforces
+ * UK_LIST_OWNER_NAME_LOWER), tasks per list and tasks by due date.
+ * <p>
+ * Every write is validated (unique keys, references) when it is made, so the caller sees a violation at the call like
+ * after a flush. Inside a transaction (see {@link JournalTransactionManager}) it is then buffered until commit, which
+ * validates the transaction's writes again, applies them to the maps and appends them to the {@link Journal}, all under
+ * the write lock; a rollback drops them. Outside a transaction a write commits on its own. Reads share the read lock,
+ * see committed writes only and return copies. Deleting a user deletes its lists and their tasks, like the ON DELETE
+ * CASCADE foreign keys.
+ * <p>
+ * Persistence: journal-N.log holds the writes since snapshot-N.bin. Every snapshot-interval-ms (once snapshot-min-records
+ * writes have accumulated) the store rolls over to journal-N+1, writes snapshot-N+1 from the stored entities (which are
+ * replaced on every write, never mutated) and deletes the older generations. Recovery loads the newest snapshot and
+ * replays the journals from its generation on, up to the first torn record.
+ */
+@Slf4j
+@Component
+@Profile("journal")
+public class JournalStore {
+
+    private static final Comparator<AppUser> BY_NAME = Comparator.comparing(AppUser::getName).thenComparing(AppUser::getId);
+    private static final Comparator<Task> BY_DUE_DATE = Comparator.comparing(Task::getDueDate).thenComparing(Task::getId);
+    private static final Pattern JOURNAL_FILE = Pattern.compile("journal-(\\d+)\\.log");
+    private static final Pattern SNAPSHOT_FILE = Pattern.compile("snapshot-(\\d+)\\.bin");
+
+    private final Path directory;
+    private final int growBytes;
+    private final long syncIntervalMs;
+    private final boolean forceOnWrite;
+    private final long snapshotMinRecords;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongMap<AppUser> users = new LongMap<>(1024);
+    private final LongMap<jaeger.de.miel.TodoAPI.entity.List> lists = new LongMap<>(1024);
+    private final LongMap<Task> tasks = new LongMap<>(1024);
+
+    private final TreeMap<String, Long> userIdsByEmail = new TreeMap<>();
+    private final TreeSet<AppUser> usersByName = new TreeSet<>(BY_NAME);
+    private final LongMap<TreeMap<String, Long>> listIdsByOwner = new LongMap<>(1024);  // Name lower -> list id
+    private final LongMap<TreeSet<Long>> taskIdsByList = new LongMap<>(1024);
+    private final TreeSet<Task> tasksByDueDate = new TreeSet<>(BY_DUE_DATE);
+
+    private long lastUserId;
+    private long lastListId;
+    private long lastTaskId;
+
+    private volatile Journal journal;
+    private long generation;
+    private volatile long recordsSinceSnapshot;
+    private ScheduledExecutorService syncer;
+
+    public JournalStore(@Value("${todo.journal.directory:./journal}") String directory,
+                        @Value("${todo.journal.grow-mb:64}") int growMb,
+                        @Value("${todo.journal.sync-interval-ms:100}") long syncIntervalMs,
+                        @Value("${todo.journal.force-on-write:false}") boolean forceOnWrite,
+                        @Value("${todo.journal.snapshot-min-records:100000}") long snapshotMinRecords) {
+        this.directory = Path.of(directory);
+        this.growBytes = growMb * 1024 * 1024;
+        this.syncIntervalMs = syncIntervalMs;
+        this.forceOnWrite = forceOnWrite;
+        this.snapshotMinRecords = snapshotMinRecords;
+    }
+
+
+    @PostConstruct
+    public void open() throws IOException {
+        long start = System.nanoTime();
+        Files.createDirectories(directory);
+
+        List<Long> snapshots = generations(SNAPSHOT_FILE);
+        long from = snapshots.isEmpty() ? 0 : snapshots.getLast();
+        if (from > 0) loadSnapshot(snapshotPath(from));
+
+        long replayed = 0;
+        for (long journalGeneration : generations(JOURNAL_FILE)) {
+            if (journalGeneration < from) continue;  // Already in the snapshot, not deleted yet
+            if (journal != null) journal.close();
+
+            long before = recordsSinceSnapshot;
+            journal = Journal.open(journalPath(journalGeneration), growBytes, this::apply);
+            generation = journalGeneration;
+            replayed += recordsSinceSnapshot - before;
+        }
+        if (journal == null) {
+            generation = Math.max(from, 1);
+            journal = Journal.open(journalPath(generation), growBytes, this::apply);
+        }
+
+        // Its own thread: a force can block on the disk, it must not hold up the shared scheduler
+        syncer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "journal-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        syncer.scheduleWithFixedDelay(this::syncQuietly, syncIntervalMs, syncIntervalMs, TimeUnit.MILLISECONDS);
+
+        log.info("Journal store: recovered {} users, {} lists, {} tasks from {} (snapshot {}, {} journal records) in {} ms",
+                users.size(), lists.size(), tasks.size(), directory.toAbsolutePath(), from, replayed,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (syncer != null) {
+            syncer.shutdown();
+            try {
+                syncer.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            journal.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+
+    /**
+     * Group commit: forces the journal records written since the last sync (unless force-on-write forces every write).
+     * A crashed process loses nothing (the mapped pages belong to the OS), a crashed machine at most this interval.
+     * Runs every sync-interval-ms on the journal-sync thread.
+     */
+    public void sync() {
+        journal.force();
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (RuntimeException e) {
+            log.error("Journal store: sync failed, will retry", e);  // A failed run would cancel the schedule
+        }
+    }
+
+
+    @Scheduled(fixedDelayString = "${todo.journal.snapshot-interval-ms:60000}")
+    public void snapshot() {
+        if (recordsSinceSnapshot < snapshotMinRecords) return;
+
+        try {
+            writeSnapshot();
+        } catch (IOException | RuntimeException e) {
+            log.error("Journal store: snapshot failed, the journal keeps growing until the next attempt", e);
+        }
+    }
+
+
+    // ---------------------------------------
+    // Users
+    // ---------------------------------------
+
+    public Optional<AppUser> findUser(long id) {
+        return read(() -> Optional.ofNullable(users.get(id)).map(JournalCodec::copy));
+    }
+
+    public Optional<Long> findUserIdByEmail(String email) {
+        if (email == null) return Optional.empty();
+        return read(() -> Optional.ofNullable(userIdsByEmail.get(email)));
+    }
+
+    public boolean existsUserByEmail(String email) {
+        return email != null && read(() -> userIdsByEmail.containsKey(email));
+    }
+
+    public long countUsers() {
+        return read(users::size);
+    }
+
+    public List<AppUser> findUsers() {
+        return read(() -> copies(users.values().stream()));
+    }
+
+    /**
+     * Users in (name, id) order, optionally only those whose lower-case name starts with the prefix.
+     */
+    public List<AppUser> findUsersByName(String nameLowerPrefix, long offset, int limit) {
+        Predicate<AppUser> filter = nameLowerPrefix == null ? u -> true : u -> u.getNameLower().startsWith(nameLowerPrefix);
+        return read(() -> copies(usersByName.stream().filter(filter).skip(offset).limit(limit)));
+    }
+
+    /**
+     * Users in email order whose email starts with the prefix (a range of the email index).
+     */
+    public List<AppUser> findUsersByEmail(String emailPrefix, long offset, int limit) {
+        return read(() -> copies(userIdsByEmail.tailMap(emailPrefix, true).entrySet().stream()
+                .takeWhile(e -> e.getKey().startsWith(emailPrefix))
+                .map(Map.Entry::getValue)
+                .map(users::get)
+                .skip(offset)
+                .limit(limit)));
+    }
+
+    /**
+     * Inserts (null id) or replaces the user; sets the id and the lower-case name on the given entity.
+     * @throws DataIntegrityViolationException when another user has the email (UK_APP_USER_EMAIL)
+     */
+    public <S extends AppUser> S saveUser(S user) {
+        return write(() -> {
+            long id = user.getId() != null ? user.getId() : ++lastUserId;  // Reserved like a sequence value, even if rolled back
+            String email = user.getEmail();
+            Runnable check = () -> {
+                Long emailOwner = userIdsByEmail.get(email);
+                if (emailOwner != null && emailOwner != id) {
+                    throw violation("Unique index or primary key violation: UK_APP_USER_EMAIL (" + email + ")", "23505", "UK_APP_USER_EMAIL");
+                }
+            };
+            check.run();
+
+            AppUser stored = JournalCodec.copy(user);
+            stored.setId(id);
+            stored.setNameLower(user.getName().toLowerCase());
+            submit(new Write(JournalCodec.encode(stored), check));
+
+            user.setId(id);
+            user.setNameLower(stored.getNameLower());
+            return user;
+        });
+    }
+
+    public boolean deleteUser(long id) {
+        return write(() -> {
+            if (!users.containsKey(id)) return false;
+            submit(new Write(JournalCodec.delete(JournalCodec.DELETE_USER, id), NO_CHECK));
+            return true;
+        });
+    }
+
+
+    // ---------------------------------------
+    // Lists
+    // ---------------------------------------
+
+    public Optional<jaeger.de.miel.TodoAPI.entity.List> findList(long id) {
+        return read(() -> Optional.ofNullable(lists.get(id)).map(JournalCodec::copy));
+    }
+
+    public long countLists() {
+        return read(lists::size);
+    }
+
+    public List<jaeger.de.miel.TodoAPI.entity.List> findLists() {
+        return read(() -> copies(lists.values().stream()));
+    }
+
+    /**
+     * The lists of the owner ordered by lower-case name.
+     */
+    public List<jaeger.de.miel.TodoAPI.entity.List> findListsByOwner(long ownerId) {
+        return read(() -> {
+            TreeMap<String, Long> owned = listIdsByOwner.get(ownerId);
+            return owned == null ? List.of() : copies(owned.values().stream().map(lists::get));
+        });
+    }
+
+    /**
+     * Inserts (null id) or replaces the list; sets the id and the lower-case name on the given entity.
+     * @throws DataIntegrityViolationException when the owner does not exist, or already has a list with the name
+     * (UK_LIST_OWNER_NAME_LOWER)
+     */
+    public <S extends jaeger.de.miel.TodoAPI.entity.List> S saveList(S list) {
+        return write(() -> {
+            long ownerId = list.getOwner().getId();
+            long id = list.getId() != null ? list.getId() : ++lastListId;
+            String nameLower = list.getName().toLowerCase();
+            Runnable check = () -> {
+                if (!users.containsKey(ownerId)) {
+                    throw violation("Referential integrity constraint violation: LIST.OWNER_ID " + ownerId, "23506", "FK_LIST_OWNER");
+                }
+                TreeMap<String, Long> owned = listIdsByOwner.get(ownerId);
+                Long sameName = owned == null ? null : owned.get(nameLower);
+                if (sameName != null && sameName != id) {
+                    throw violation("Unique index or primary key violation: UK_LIST_OWNER_NAME_LOWER (" + nameLower + ")", "23505", "UK_LIST_OWNER_NAME_LOWER");
+                }
+            };
+            check.run();
+
+            jaeger.de.miel.TodoAPI.entity.List stored = JournalCodec.copy(list);
+            stored.setId(id);
+            stored.setNameLower(nameLower);
+            submit(new Write(JournalCodec.encode(stored), check));
+
+            list.setId(id);
+            list.setNameLower(nameLower);
+            return list;
+        });
+    }
+
+    public boolean deleteList(long id) {
+        return write(() -> {
+            if (!lists.containsKey(id)) return false;
+            submit(new Write(JournalCodec.delete(JournalCodec.DELETE_LIST, id), NO_CHECK));
+            return true;
+        });
+    }
+
+
+    // ---------------------------------------
+    // Tasks
+    // ---------------------------------------
+
+    public Optional<Task> findTask(long id) {
+        return read(() -> Optional.ofNullable(tasks.get(id)).map(JournalCodec::copy));
+    }
+
+    public long countTasks() {
+        return read(tasks::size);
+    }
+
+    public List<Task> findTasks() {
+        return read(() -> copies(tasks.values().stream()));
+    }
+
+    /**
+     * The tasks of the list created by the user, in id order.
+     */
+    public List<Task> findTasksByList(long listId, long creatorId) {
+        return read(() -> {
+            TreeSet<Long> taskIds = taskIdsByList.get(listId);
+            return taskIds == null ? List.of() : copies(taskIds.stream()
+                    .map(tasks::get)
+                    .filter(t -> t.getCreator().getId() == creatorId));
+        });
+    }
+
+    /**
+     * The first limit tasks of all lists of the owner that match the filter, in the given order.
+     */
+    public List<Task> findTasksByOwner(long ownerId, Predicate<Task> filter, Comparator<Task> order, int limit) {
+        return read(() -> {
+            TreeMap<String, Long> owned = listIdsByOwner.get(ownerId);
+            if (owned == null) return List.<Task>of();
+            return copies(owned.values().stream()
+                    .map(taskIdsByList::get)
+                    .filter(Objects::nonNull)
+                    .flatMap(TreeSet::stream)
+                    .map(tasks::get)
+                    .filter(filter)
+                    .sorted(order)
+                    .limit(limit));
+        });
+    }
+
+    /**
+     * Tasks due in [from, to) with one of the statuses, in (due date, id) order after (afterDate, afterId).
+     */
+    public List<Task> findDueTasks(LocalDate from, LocalDate to, Collection<TaskStatus> statuses,
+                                   LocalDate afterDate, long afterId, int limit) {
+        Task after = afterDate.isBefore(from)
+                ? Task.builder().dueDate(from).id(Long.MIN_VALUE).build()
+                : Task.builder().dueDate(afterDate).id(afterId).build();
+
+        return read(() -> copies(tasksByDueDate.tailSet(after, false).stream()
+                .takeWhile(t -> t.getDueDate().isBefore(to))
+                .filter(t -> statuses.contains(t.getStatus()))
+                .limit(limit)));
+    }
+
+    /**
+     * Inserts (null id) or replaces the task; sets the id on the given entity.
+     * @throws DataIntegrityViolationException when the list or the creator does not exist
+     */
+    public <S extends Task> S saveTask(S task) {
+        return write(() -> {
+            long listId = task.getList().getId();
+            long creatorId = task.getCreator().getId();
+            Runnable check = () -> {
+                if (!lists.containsKey(listId)) {
+                    throw violation("Referential integrity constraint violation: TASK.LIST_ID " + listId, "23506", "FK_TASK_LIST");
+                }
+                if (!users.containsKey(creatorId)) {
+                    throw violation("Referential integrity constraint violation: TASK.CREATOR_ID " + creatorId, "23506", "FK_TASK_CREATOR");
+                }
+            };
+            check.run();
+
+            long id = task.getId() != null ? task.getId() : ++lastTaskId;
+            Task stored = JournalCodec.copy(task);
+            stored.setId(id);
+            submit(new Write(JournalCodec.encode(stored), check));
+
+            task.setId(id);
+            return task;
+        });
+    }
+
+    public boolean deleteTask(long id) {
+        return write(() -> {
+            if (!tasks.containsKey(id)) return false;
+            submit(new Write(JournalCodec.delete(JournalCodec.DELETE_TASK, id), NO_CHECK));
+            return true;
+        });
+    }
+
+
+    // ---------------------------------------
+    // Transactions
+    // ---------------------------------------
+
+    /**
+     * The writes of one transaction, bound to the thread by {@link JournalTransactionManager} and applied by
+     * {@link #commit}; dropping it is the rollback.
+     */
+    static final class Transaction {
+        private final List<Write> writes = new ArrayList<>();
+        boolean rollbackOnly;
+    }
+
+    // A journal record and the check it must still pass when it is applied
+    private record Write(byte[] record, Runnable check) {
+    }
+
+    private static final Runnable NO_CHECK = () -> {
+    };
+
+    private void submit(Write write) {
+        Transaction transaction = (Transaction) TransactionSynchronizationManager.getResource(this);
+        if (transaction != null) {
+            transaction.writes.add(write);
+        } else {
+            commit(List.of(write));
+        }
+    }
+
+    void commit(Transaction transaction) {
+        commit(transaction.writes);
+    }
+
+    /**
+     * Applies the writes in order and then journals them, under the write lock. Each write is checked again first: when
+     * a transaction committed since it was made conflicts with it, the commit fails and the writes applied are undone.
+     */
+    private void commit(List<Write> writes) {
+        if (writes.isEmpty()) return;
+
+        write(() -> {
+            List<Runnable> undo = new ArrayList<>(writes.size());
+            try {
+                for (Write write : writes) {
+                    write.check().run();
+                    undo.add(undoOf(write.record()));
+                    apply(ByteBuffer.wrap(write.record()));
+                }
+                writes.forEach(write -> journal.append(write.record()));
+            } catch (RuntimeException e) {
+                undo.reversed().forEach(Runnable::run);
+                throw e;
+            }
+            if (forceOnWrite) journal.force();
+            return null;
+        });
+    }
+
+    // Restores what the record is about to replace or delete (the stored entities are never mutated)
+    private Runnable undoOf(byte[] record) {
+        ByteBuffer in = ByteBuffer.wrap(record);
+        byte op = in.get();
+        long id = in.getLong();
+        return switch (op) {
+            case JournalCodec.PUT_USER -> {
+                AppUser previous = users.get(id);
+                yield previous == null ? () -> removeUser(id) : () -> putUser(previous);
+            }
+            case JournalCodec.PUT_LIST -> {
+                jaeger.de.miel.TodoAPI.entity.List previous = lists.get(id);
+                yield previous == null ? () -> removeList(id) : () -> putList(previous);
+            }
+            case JournalCodec.PUT_TASK -> {
+                Task previous = tasks.get(id);
+                yield previous == null ? () -> removeTask(id) : () -> putTask(previous);
+            }
+            case JournalCodec.DELETE_USER -> {
+                AppUser user = users.get(id);
+                TreeMap<String, Long> owned = listIdsByOwner.get(id);
+                Runnable restoreLists = restoreLists(owned == null ? List.of() : List.copyOf(owned.values()));
+                yield () -> {
+                    if (user != null) putUser(user);
+                    restoreLists.run();
+                };
+            }
+            case JournalCodec.DELETE_LIST -> restoreLists(List.of(id));
+            case JournalCodec.DELETE_TASK -> {
+                Task task = tasks.get(id);
+                yield () -> {
+                    if (task != null) putTask(task);
+                };
+            }
+            default -> throw new IllegalStateException("Unknown journal record type " + op);
+        };
+    }
+
+    private Runnable restoreLists(List<Long> listIds) {
+        List<jaeger.de.miel.TodoAPI.entity.List> deletedLists = new ArrayList<>();
+        List<Task> deletedTasks = new ArrayList<>();
+        for (long listId : listIds) {
+            jaeger.de.miel.TodoAPI.entity.List list = lists.get(listId);
+            if (list != null) deletedLists.add(list);
+            TreeSet<Long> taskIds = taskIdsByList.get(listId);
+            if (taskIds != null) taskIds.forEach(taskId -> deletedTasks.add(tasks.get(taskId)));
+        }
+        return () -> {
+            deletedLists.forEach(this::putList);
+            deletedTasks.forEach(this::putTask);
+        };
+    }
+
+
+    // ---------------------------------------
+    // Applying records (commits and recovery)
+    // ---------------------------------------
+
+    private void apply(ByteBuffer record) {
+        byte op = record.get();
+        switch (op) {
+            case JournalCodec.PUT_USER -> putUser(JournalCodec.readUser(record));
+            case JournalCodec.DELETE_USER -> removeUser(record.getLong());
+            case JournalCodec.PUT_LIST -> putList(JournalCodec.readList(record));
+            case JournalCodec.DELETE_LIST -> removeList(record.getLong());
+            case JournalCodec.PUT_TASK -> putTask(JournalCodec.readTask(record));
+            case JournalCodec.DELETE_TASK -> removeTask(record.getLong());
+            case JournalCodec.SEQUENCES -> {
+                lastUserId = Math.max(lastUserId, record.getLong());
+                lastListId = Math.max(lastListId, record.getLong());
+                lastTaskId = Math.max(lastTaskId, record.getLong());
+            }
+            case JournalCodec.END -> {
+                return;  // Not counted
+            }
+            default -> throw new IllegalStateException("Unknown journal record type " + op);
+        }
+        recordsSinceSnapshot++;
+    }
+
+    private void putUser(AppUser user) {
+        AppUser previous = users.put(user.getId(), user);
+        if (previous != null) {
+            userIdsByEmail.remove(previous.getEmail());
+            usersByName.remove(previous);
+        }
+        userIdsByEmail.put(user.getEmail(), user.getId());
+        usersByName.add(user);
+        lastUserId = Math.max(lastUserId, user.getId());
+    }
+
+    private void removeUser(long id) {
+        AppUser user = users.remove(id);
+        if (user == null) return;
+
+        userIdsByEmail.remove(user.getEmail());
+        usersByName.remove(user);
+        TreeMap<String, Long> owned = listIdsByOwner.get(id);
+        if (owned != null) new ArrayList<>(owned.values()).forEach(this::removeList);  // Cascade
+    }
+
+    private void putList(jaeger.de.miel.TodoAPI.entity.List list) {
+        jaeger.de.miel.TodoAPI.entity.List previous = lists.put(list.getId(), list);
+        if (previous != null) listIdsByOwner.get(previous.getOwner().getId()).remove(previous.getNameLower());
+        listIdsByOwner.computeIfAbsent(list.getOwner().getId(), ownerId -> new TreeMap<>()).put(list.getNameLower(), list.getId());
+        lastListId = Math.max(lastListId, list.getId());
+    }
+
+    private void removeList(long id) {
+        jaeger.de.miel.TodoAPI.entity.List list = lists.remove(id);
+        if (list == null) return;
+
+        long ownerId = list.getOwner().getId();
+        TreeMap<String, Long> owned = listIdsByOwner.get(ownerId);
+        owned.remove(list.getNameLower());
+        if (owned.isEmpty()) listIdsByOwner.remove(ownerId);
+
+        TreeSet<Long> taskIds = taskIdsByList.remove(id);
+        if (taskIds != null) taskIds.forEach(this::unindexTask);  // Cascade
+    }
+
+    private void putTask(Task task) {
+        Task previous = tasks.put(task.getId(), task);
+        if (previous != null && previous.getDueDate() != null) tasksByDueDate.remove(previous);
+        if (task.getDueDate() != null) tasksByDueDate.add(task);
+        taskIdsByList.computeIfAbsent(task.getList().getId(), listId -> new TreeSet<>()).add(task.getId());
+        lastTaskId = Math.max(lastTaskId, task.getId());
+    }
+
+    private void removeTask(long id) {
+        Task task = tasks.get(id);
+        if (task == null) return;
+
+        TreeSet<Long> taskIds = taskIdsByList.get(task.getList().getId());
+        taskIds.remove(id);
+        if (taskIds.isEmpty()) taskIdsByList.remove(task.getList().getId());
+        unindexTask(id);
+    }
+
+    private void unindexTask(long id) {
+        Task task = tasks.remove(id);
+        if (task != null && task.getDueDate() != null) tasksByDueDate.remove(task);
+    }
+
+
+    // ---------------------------------------
+    // Journal and snapshots
+    // ---------------------------------------
+
+    void writeSnapshot() throws IOException {
+        long start = System.nanoTime();
+        Journal previous;
+        long snapshotGeneration;
+        List<AppUser> userSnapshot;
+        List<jaeger.de.miel.TodoAPI.entity.List> listSnapshot;
+        List<Task> taskSnapshot;
+        byte[] sequences;
+
+        lock.writeLock().lock();
+        try {
+            previous = journal;
+            snapshotGeneration = generation + 1;
+            journal = Journal.open(journalPath(snapshotGeneration), growBytes, record -> {
+                throw new IllegalStateException("Journal generation " + snapshotGeneration + " already exists");
+            });
+            generation = snapshotGeneration;
+            recordsSinceSnapshot = 0;
+
+            userSnapshot = users.values();  // The stored entities are replaced on write, never mutated: no copies needed
+            listSnapshot = lists.values();
+            taskSnapshot = tasks.values();
+            sequences = JournalCodec.sequences(lastUserId, lastListId, lastTaskId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        previous.close();
+
+        Path target = snapshotPath(snapshotGeneration);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             var out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16))) {
+            writeRecord(out, sequences);
+            for (AppUser user : userSnapshot) writeRecord(out, JournalCodec.encode(user));
+            for (jaeger.de.miel.TodoAPI.entity.List list : listSnapshot) writeRecord(out, JournalCodec.encode(list));
+            for (Task task : taskSnapshot) writeRecord(out, JournalCodec.encode(task));
+            writeRecord(out, JournalCodec.end(1 + userSnapshot.size() + listSnapshot.size() + taskSnapshot.size()));
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        deleteGenerationsBefore(snapshotGeneration);
+
+        log.info("Journal store: snapshot {} written ({} users, {} lists, {} tasks) in {} ms", snapshotGeneration,
+                userSnapshot.size(), listSnapshot.size(), taskSnapshot.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void loadSnapshot(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            boolean[] complete = {false};
+            Journal.readRecords(buffer, record -> {
+                if (record.get(0) == JournalCodec.END) complete[0] = true;
+                apply(record);
+            });
+            if (!complete[0]) {
+                throw new IllegalStateException("Snapshot " + path + " is incomplete or corrupt; the older journals are gone, "
+                        + "restore the directory from a backup");
+            }
+        }
+    }
+
+    private static void writeRecord(DataOutputStream out, byte[] payload) throws IOException {
+        out.writeInt(payload.length);
+        out.writeInt(Journal.checksum(ByteBuffer.wrap(payload)));
+        out.write(payload);
+    }
+
+    private void deleteGenerationsBefore(long keep) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                long fileGeneration = generationOf(file, JOURNAL_FILE);
+                if (fileGeneration < 0) fileGeneration = generationOf(file, SNAPSHOT_FILE);
+                if (fileGeneration < 0 || fileGeneration >= keep) continue;
+
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    log.debug("Journal store: {} not deleted yet (still mapped?), retried after the next snapshot", file);
+                }
+            }
+        }
+    }
+
+    private List<Long> generations(Pattern pattern) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> generationOf(file, pattern)).filter(g -> g >= 0).sorted().toList();
+        }
+    }
+
+    private static long generationOf(Path file, Pattern pattern) {
+        Matcher matcher = pattern.matcher(file.getFileName().toString());
+        return matcher.matches() ? Long.parseLong(matcher.group(1)) : -1;
+    }
+
+    private Path journalPath(long generation) {
+        return directory.resolve(String.format("journal-%010d.log", generation));
+    }
+
+    private Path snapshotPath(long generation) {
+        return directory.resolve(String.format("snapshot-%010d.bin", generation));
+    }
+
+
+    // ---------------------------------------
+    // Locking and copies
+    // ---------------------------------------
+
+    private <R> R read(Supplier<R> query) {
+        lock.readLock().lock();
+        try {
+            return query.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private <R> R write(Supplier<R> update) {
+        lock.writeLock().lock();
+        try {
+            return update.get();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Shaped like a translated H2 violation (SQLState and constraint name), see Constraints
+    private static DataIntegrityViolationException violation(String message, String sqlState, String constraintName) {
+        return new DataIntegrityViolationException(message,
+                new ConstraintViolationException(message, new SQLIntegrityConstraintViolationException(message, sqlState), constraintName));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> copies(Stream<T> stored) {
+        return stored.map(entity -> (T) switch (entity) {
+            case AppUser user -> JournalCodec.copy(user);
+            case jaeger.de.miel.TodoAPI.entity.List list -> JournalCodec.copy(list);
+            case Task task -> JournalCodec.copy(task);
+            default -> throw new IllegalArgumentException("Not a stored entity: " + entity);
+        }).toList();
+    }
+
+}
@@ -0,0 +1,108 @@
+package jaeger.de.miel.TodoAPI.journal;
+
+import jaeger.de.miel.TodoAPI.dto.TaskStatus;
+import jaeger.de.miel.TodoAPI.entity.Task;
+import jaeger.de.miel.TodoAPI.repository.TaskRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@Repository
+@Profile("journal")
+@AllArgsConstructor
+public class JournalTaskRepository extends MapRepository<Task, Long> implements TaskRepository {
+
+    private final JournalStore store;
+
+
+    @Override
+    public <S extends Task> S save(S task) {
+        return store.saveTask(task);
+    }
+
+    @Override
+    public Optional<Task> findById(Long id) {
+        return store.findTask(id);
+    }
+
+    @Override
+    public List<Task> findAll() {
+        return store.findTasks();
+    }
+
+    @Override
+    public long count() {
+        return store.countTasks();
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        store.deleteTask(id);
+    }
+
+    @Override
+    protected Long idOf(Task task) {
+        return task.getId();
+    }
+
+
+    @Override
+    public List<Task> findTasksByList_IdAndCreator_Id(Long listId, Long creatorId) {
+        return store.findTasksByList(listId, creatorId);
+    }
+
+    @Override
+    public Stream<Task> streamTasksByList_IdAndCreator_Id(Long listId, Long creatorId) {
+        return store.findTasksByList(listId, creatorId).stream();
+    }
+
+    @Override
+    public Optional<Task> findTaskByIdAndList_IdAndCreator_Id(Long id, Long listId, Long creatorId) {
+        return store.findTask(id)
+                .filter(t -> t.getList().getId().equals(listId) && t.getCreator().getId().equals(creatorId));
+    }
+
+    @Override
+    public long deleteByIdAndList_IdAndCreator_Id(Long taskId, Long listId, Long creatorId) {
+        return findTaskByIdAndList_IdAndCreator_Id(taskId, listId, creatorId).isPresent() && store.deleteTask(taskId) ? 1 : 0;
+    }
+
+    @Override
+    public Stream<Object[]> streamAllIdsAndListIds() {
+        return store.findTasks().stream().map(t -> new Object[]{t.getId(), t.getList().getId()});
+    }
+
+    @Override
+    public List<Task> findDueTasks(LocalDate from, LocalDate to, Collection<TaskStatus> statuses,
+                                   LocalDate afterDate, long afterId, Limit limit) {
+        return store.findDueTasks(from, to, statuses, afterDate, afterId, limit.isLimited() ? limit.max() : Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Task> findOwnerTasks(Long ownerId, Collection<TaskStatus> statuses, long afterId, Limit limit) {
+        return store.findTasksByOwner(ownerId,
+                t -> statuses.contains(t.getStatus()) && t.getId() > afterId,
+                Comparator.comparing(Task::getId),
+                limit.isLimited() ? limit.max() : Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Task> findOwnerTasksDue(Long ownerId, Collection<TaskStatus> statuses, LocalDate from, LocalDate to,
+                                        LocalDate afterDate, long afterId, Limit limit) {
+        return store.findTasksByOwner(ownerId,
+                t -> statuses.contains(t.getStatus())
+                        && t.getDueDate() != null && !t.getDueDate().isBefore(from) && t.getDueDate().isBefore(to)
+                        && (t.getDueDate().isAfter(afterDate) || (t.getDueDate().equals(afterDate) && t.getId() > afterId)),
+                Comparator.comparing(Task::getDueDate).thenComparing(Task::getId),
+                limit.isLimited() ? limit.max() : Integer.MAX_VALUE);
+    }
+
+}
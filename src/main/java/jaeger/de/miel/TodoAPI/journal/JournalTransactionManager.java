@@ -0,0 +1,94 @@
+package jaeger.de.miel.TodoAPI.journal;
+
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.SmartTransactionObject;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Transaction manager of the journal profile: a transaction buffers its {@link JournalStore} writes (bound to the thread
+ * like a DataSourceTransactionManager binds its connection) and the store applies and journals them at commit; a
+ * rollback drops them. Suspending (REQUIRES_NEW) unbinds the buffer, participating transactions share it.
+ * <p>
+ * It also keeps TransactionSynchronization callbacks working (the reminder scheduler and the in-memory repositories
+ * register afterCommit callbacks).
+ */
+public class JournalTransactionManager extends AbstractPlatformTransactionManager {
+
+    private final JournalStore store;
+
+    public JournalTransactionManager(JournalStore store) {
+        this.store = store;
+    }
+
+
+    @Override
+    protected Object doGetTransaction() {
+        return new TransactionObject((JournalStore.Transaction) TransactionSynchronizationManager.getResource(store));
+    }
+
+    @Override
+    protected boolean isExistingTransaction(Object transaction) {
+        return ((TransactionObject) transaction).writes != null;
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        var txObject = (TransactionObject) transaction;
+        txObject.writes = new JournalStore.Transaction();
+        TransactionSynchronizationManager.bindResource(store, txObject.writes);
+    }
+
+    @Override
+    protected Object doSuspend(Object transaction) {
+        ((TransactionObject) transaction).writes = null;
+        return TransactionSynchronizationManager.unbindResource(store);
+    }
+
+    @Override
+    protected void doResume(Object transaction, Object suspendedResources) {
+        TransactionSynchronizationManager.bindResource(store, suspendedResources);
+    }
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+        store.commit(((TransactionObject) status.getTransaction()).writes);
+    }
+
+    @Override
+    protected void doRollback(DefaultTransactionStatus status) {
+        // Nothing was applied: the buffered writes are dropped with the transaction
+    }
+
+    @Override
+    protected void doSetRollbackOnly(DefaultTransactionStatus status) {
+        ((TransactionObject) status.getTransaction()).writes.rollbackOnly = true;  // A participating transaction failed
+    }
+
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        TransactionSynchronizationManager.unbindResource(store);
+    }
+
+
+    private static final class TransactionObject implements SmartTransactionObject {
+
+        private JournalStore.Transaction writes;
+
+        private TransactionObject(JournalStore.Transaction writes) {
+            this.writes = writes;
+        }
+
+        @Override
+        public boolean isRollbackOnly() {
+            return writes.rollbackOnly;
+        }
+
+        @Override
+        public void flush() {
+            // Writes are checked when they are made
+        }
+    }
+
+}
@@ -0,0 +1,111 @@
+package jaeger.de.miel.TodoAPI.journal;
+
+import jaeger.de.miel.TodoAPI.entity.AppUser;
+import jaeger.de.miel.TodoAPI.repository.UserRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@Repository
+@Profile("journal")
+@AllArgsConstructor
+public class JournalUserRepository extends MapRepository<AppUser, Long> implements UserRepository {
+
+    private final JournalStore store;
+
+
+    @Override
+    public <S extends AppUser> S save(S user) {
+        return store.saveUser(user);
+    }
+
+    @Override
+    public Optional<AppUser> findById(Long id) {
+        return store.findUser(id);
+    }
+
+    @Override
+    public List<AppUser> findAll() {
+        return store.findUsers();
+    }
+
+    @Override
+    public long count() {
+        return store.countUsers();
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        store.deleteUser(id);  // Like JPA: no exception for an unknown id
+    }
+
+    @Override
+    protected Long idOf(AppUser user) {
+        return user.getId();
+    }
+
+
+    @Override
+    public boolean existsByEmail(String email) {
+        return store.existsUserByEmail(email);
+    }
+
+    @Override
+    public List<AppUser> findByIdIn(Collection<Long> ids) {
+        return findAllById(ids);
+    }
+
+    @Override
+    public List<AppUser> deleteByEmail(String email) {
+        Optional<AppUser> user = store.findUserIdByEmail(email).flatMap(store::findUser);
+        user.ifPresent(u -> store.deleteUser(u.getId()));
+        return user.stream().toList();
+    }
+
+    @Override
+    public Stream<AppUser> streamAllByOrderByNameAsc() {
+        return store.findUsersByName(null, 0, Integer.MAX_VALUE).stream();
+    }
+
+    @Override
+    public Stream<Object[]> streamAllIdsAndEmails() {
+        return store.findUsers().stream().map(u -> new Object[]{u.getId(), u.getEmail()});
+    }
+
+    @Override
+    public Slice<AppUser> findAllByOrderByNameAscIdAsc(Pageable pageable) {
+        return slice(pageable, (offset, limit) -> store.findUsersByName(null, offset, limit));
+    }
+
+    @Override
+    public Slice<AppUser> findByNameLowerStartingWithOrderByNameAscIdAsc(String namePrefix, Pageable pageable) {
+        return slice(pageable, (offset, limit) -> store.findUsersByName(namePrefix, offset, limit));
+    }
+
+    @Override
+    public Slice<AppUser> findByEmailStartingWithOrderByEmailAsc(String emailPrefix, Pageable pageable) {
+        return slice(pageable, (offset, limit) -> store.findUsersByEmail(emailPrefix, offset, limit));
+    }
+
+    @Override
+    public int insertWithId(long id, String email, String name, String passwordHash, Instant createdAt) {
+        store.saveUser(AppUser.builder()
+                .id(id)
+                .email(email)
+                .name(name)
+                .passwordHash(passwordHash)
+                .createdAt(createdAt)
+                .updatedAt(createdAt)
+                .build());
+        return 1;
+    }
+
+}
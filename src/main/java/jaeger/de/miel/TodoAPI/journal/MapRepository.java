@@ -0,0 +1,118 @@
+package jaeger.de.miel.TodoAPI.journal;
+
+import jaeger.de.miel.TodoAPI.repository.EntityRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The generic part of {@link EntityRepository} for the repositories of the journal profile, in terms of five primitives
+ * (save, findById, findAll, count, deleteById). Flushing is a no-op: a write is checked when it is made and applied
+ * when its transaction commits (see JournalTransactionManager).
+ */
+public abstract class MapRepository<T, ID> implements EntityRepository<T, ID> {
+
+    @Override
+    public abstract <S extends T> S save(S entity);
+
+    @Override
+    public abstract Optional<T> findById(ID id);
+
+    @Override
+    public abstract List<T> findAll();
+
+    @Override
+    public abstract long count();
+
+    @Override
+    public abstract void deleteById(ID id);
+
+    protected abstract ID idOf(T entity);
+
+
+    /**
+     * A slice of a query that returns its rows in order from an offset: one row more than the page is asked for to know
+     * whether there is a next slice, like the derived Slice queries.
+     */
+    protected static <R> Slice<R> slice(Pageable pageable, RangeQuery<R> query) {
+        if (pageable.isUnpaged()) return new SliceImpl<>(query.find(0, Integer.MAX_VALUE));
+
+        List<R> rows = query.find(pageable.getOffset(), pageable.getPageSize() + 1);
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+    }
+
+    @FunctionalInterface
+    protected interface RangeQuery<R> {
+        List<R> find(long offset, int limit);
+    }
+
+
+    // ---------------------------------------
+    // CrudRepository
+    // ---------------------------------------
+
+    @Override
+    public <S extends T> List<S> saveAll(Iterable<S> entities) {
+        List<S> saved = new ArrayList<>();
+        entities.forEach(entity -> saved.add(save(entity)));
+        return saved;
+    }
+
+    @Override
+    public boolean existsById(ID id) {
+        return findById(id).isPresent();
+    }
+
+    @Override
+    public List<T> findAllById(Iterable<ID> ids) {
+        List<T> found = new ArrayList<>();
+        ids.forEach(id -> findById(id).ifPresent(found::add));
+        return found;
+    }
+
+    @Override
+    public void delete(T entity) {
+        deleteById(idOf(entity));
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends ID> ids) {
+        ids.forEach(this::deleteById);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends T> entities) {
+        entities.forEach(this::delete);
+    }
+
+    @Override
+    public void deleteAll() {
+        findAll().forEach(this::delete);
+    }
+
+
+    // ---------------------------------------
+    // EntityRepository
+    // ---------------------------------------
+
+    @Override
+    public void flush() {
+        // Nothing to flush: constraint violations are raised by the write itself
+    }
+
+    @Override
+    public <S extends T> S saveAndFlush(S entity) {
+        return save(entity);
+    }
+
+    @Override
+    public void deleteAllByIdInBatch(Iterable<ID> ids) {
+        ids.forEach(this::deleteById);
+    }
+
+}
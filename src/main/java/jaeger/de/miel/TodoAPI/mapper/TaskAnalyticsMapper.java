@@ -0,0 +1,47 @@
+package jaeger.de.miel.TodoAPI.mapper;
+
+import jaeger.de.miel.TodoAPI.dto.DailyTaskStatsDTO;
+import jaeger.de.miel.TodoAPI.dto.TaskAnalyticsDTO;
+import jaeger.de.miel.TodoAPI.entity.TaskDailyStats;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Service
+public class TaskAnalyticsMapper {
+
+    public static DailyTaskStatsDTO toDTO(TaskDailyStats stats) {
+        var dailyTaskStatsDTO = new DailyTaskStatsDTO();
+        dailyTaskStatsDTO.setDate(stats.getBucketDate());
+        dailyTaskStatsDTO.setCreated(stats.getCreated());
+        dailyTaskStatsDTO.setCompleted(stats.getCompleted());
+        dailyTaskStatsDTO.setAverageCycleTimeHours(averageHours(stats.getCycleSeconds(), stats.getCompleted()));
+        return dailyTaskStatsDTO;
+    }
+
+    public static TaskAnalyticsDTO toDTO(LocalDate from, LocalDate to, List<TaskDailyStats> days) {
+        int created = 0;
+        int completed = 0;
+        long cycleSeconds = 0;
+        for (TaskDailyStats day : days) {
+            created += day.getCreated();
+            completed += day.getCompleted();
+            cycleSeconds += day.getCycleSeconds();
+        }
+
+        var taskAnalyticsDTO = new TaskAnalyticsDTO();
+        taskAnalyticsDTO.setFrom(from);
+        taskAnalyticsDTO.setTo(to);
+        taskAnalyticsDTO.setCreated(created);
+        taskAnalyticsDTO.setCompleted(completed);
+        taskAnalyticsDTO.setAverageCycleTimeHours(averageHours(cycleSeconds, completed));
+        taskAnalyticsDTO.setDays(days.stream().map(TaskAnalyticsMapper::toDTO).toList());
+        return taskAnalyticsDTO;
+    }
+
+    private static Double averageHours(long cycleSeconds, int completed) {
+        return completed == 0 ? null : cycleSeconds / 3600.0 / completed;
+    }
+
+}
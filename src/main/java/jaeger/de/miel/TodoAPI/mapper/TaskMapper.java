@@ -29,6 +29,32 @@ public class TaskMapper {
         return taskDTO;
     }
 
+    public static TaskDTO toDTO(TaskDTO taskDTO, UpdateTaskRequestDTO updateTaskRequestDTO) {
+        String title       = updateTaskRequestDTO.getTitle();
+        String description = updateTaskRequestDTO.getDescription();
+        TaskStatus status  = updateTaskRequestDTO.getStatus();
+        LocalDate dueDate  = updateTaskRequestDTO.getDueDate();
+        Integer priority   = updateTaskRequestDTO.getPriority();
+        Instant now        = Instant.now();
+
+        // Stamped as toEntity(Task, UpdateTaskRequestDTO) will when the update is written
+        if (title != null) taskDTO.setTitle(title);
+        if (description != null) taskDTO.setDescription(description);
+        if (status != null && status != taskDTO.getStatus()) {
+            if (status == TaskStatus.DONE) {
+                taskDTO.setCompletedAt(now);
+            } else if (status != TaskStatus.ARCHIVED) {
+                taskDTO.setCompletedAt(null);  // Reopened; archiving keeps the completion time
+            }
+            taskDTO.setStatus(status);
+        }
+        if (dueDate != null) taskDTO.setDueDate(dueDate);
+        if (priority != null) taskDTO.setPriority(priority);
+        taskDTO.setUpdatedAt(now);
+
+        return taskDTO;
+    }
+
     public static Task toEntity(Long userId, Long listId, CreateTaskRequestDTO createTaskRequestDTO) {
         List list = new List();
         list.setId(listId);
@@ -43,11 +69,12 @@ public class TaskMapper {
         task.setCreator(creator);
         task.setTitle(createTaskRequestDTO.getTitle());
         task.setDescription(createTaskRequestDTO.getDescription());
-        task.setStatus(createTaskRequestDTO.getStatus().toString());
+        task.setStatus(createTaskRequestDTO.getStatus());
         task.setDueDate(createTaskRequestDTO.getDueDate());
         task.setPriority(createTaskRequestDTO.getPriority());
         task.setCreatedAt(now);
         task.setUpdatedAt(now);
+        if (task.getStatus() == TaskStatus.DONE) task.setCompletedAt(now);
         return task;
     }
 
@@ -61,7 +88,14 @@ public class TaskMapper {
 
         if (title != null) task.setTitle(title);
         if (description != null) task.setDescription(description);
-        if (status != null) task.setStatus(status.toString());
+        if (status != null && status != task.getStatus()) {
+            if (status == TaskStatus.DONE) {
+                task.setCompletedAt(now);
+            } else if (status != TaskStatus.ARCHIVED) {
+                task.setCompletedAt(null);  // Reopened; archiving keeps the completion time
+            }
+            task.setStatus(status);
+        }
         if (dueDate != null) task.setDueDate(dueDate);
         if (priority != null) task.setPriority(priority);
         task.setUpdatedAt(now);
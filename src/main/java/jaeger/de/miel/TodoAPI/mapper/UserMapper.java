@@ -3,7 +3,9 @@ package jaeger.de.miel.TodoAPI.mapper;
 import jaeger.de.miel.TodoAPI.dto.CreateUserRequestDTO;
 import jaeger.de.miel.TodoAPI.dto.UpdateUserRequestDTO;
 import jaeger.de.miel.TodoAPI.dto.UserDTO;
+import jaeger.de.miel.TodoAPI.dto.UserPageDTO;
 import jaeger.de.miel.TodoAPI.entity.AppUser;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -20,8 +22,17 @@ public class UserMapper {
         return userDTO;
     }
 
+    public static UserPageDTO toDTO(Slice<AppUser> users) {
+        var userPageDTO = new UserPageDTO();
+        userPageDTO.setContent(users.map(UserMapper::toDTO).getContent());
+        userPageDTO.setPage(users.getNumber());
+        userPageDTO.setSize(users.getSize());
+        userPageDTO.setHasNext(users.hasNext());
+        return userPageDTO;
+    }
+
     public static AppUser toEntity(CreateUserRequestDTO createUserRequestDTO, PasswordEncoder passwordEncoder) {
-        String email = createUserRequestDTO.getEmail().trim().toLowerCase();
+        String email = normalizeEmail(createUserRequestDTO.getEmail());
         String hash = passwordEncoder.encode(createUserRequestDTO.getPassword());
         Instant now = Instant.now();
 
@@ -35,7 +46,7 @@ public class UserMapper {
     }
 
     public static AppUser toEntity(AppUser user, UpdateUserRequestDTO updateUserRequestDTO, PasswordEncoder passwordEncoder) {
-        String email    = updateUserRequestDTO.getEmail();
+        String email    = normalizeEmail(updateUserRequestDTO.getEmail());
         String name     = updateUserRequestDTO.getName();
         String password = updateUserRequestDTO.getPassword();
         Instant now     = Instant.now();
@@ -48,4 +59,8 @@ public class UserMapper {
         return user;
     }
 
+    public static String normalizeEmail(String email) {
+        return email != null ? email.trim().toLowerCase() : null;
+    }
+
 }
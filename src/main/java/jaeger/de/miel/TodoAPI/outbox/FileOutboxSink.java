@@ -0,0 +1,42 @@
+package jaeger.de.miel.TodoAPI.outbox;
+
+import jaeger.de.miel.TodoAPI.entity.OutboxEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends the events as JSON lines to todo.outbox.file.path, one write per batch.
+ */
+@Component
+@ConditionalOnProperty(name = "todo.outbox.sink", havingValue = "file")
+public class FileOutboxSink implements OutboxSink {
+
+    private final Path path;
+
+    public FileOutboxSink(@Value("${todo.outbox.file.path:./outbox/task-events.jsonl}") String path) {
+        this.path = Path.of(path).toAbsolutePath();
+    }
+
+
+    @Override
+    public void publish(List<OutboxEvent> events) throws IOException {
+        Files.createDirectories(path.getParent());
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (OutboxEvent event : events) {
+                writer.write(OutboxSink.toJson(event));
+                writer.newLine();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,57 @@
+package jaeger.de.miel.TodoAPI.outbox;
+
+import jaeger.de.miel.TodoAPI.entity.OutboxEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * POSTs every batch as one JSON array to todo.outbox.http.url; anything but a 2xx answer fails the batch.
+ */
+@Component
+@ConditionalOnProperty(name = "todo.outbox.sink", havingValue = "http")
+public class HttpOutboxSink implements OutboxSink {
+
+    private final HttpClient httpClient;
+    private final URI uri;
+    private final Duration timeout;
+
+    public HttpOutboxSink(@Value("${todo.outbox.http.url}") String url,
+                          @Value("${todo.outbox.http.timeout-ms:2000}") long timeoutMs) {
+        this.uri = URI.create(url);
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.httpClient = HttpClient.newBuilder().connectTimeout(timeout).build();
+    }
+
+
+    @Override
+    public void publish(List<OutboxEvent> events) throws IOException {
+        String body = events.stream().map(OutboxSink::toJson).collect(Collectors.joining(",", "[", "]"));
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+
+        HttpResponse<Void> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while publishing outbox events", e);
+        }
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("Outbox endpoint " + uri + " answered " + response.statusCode());
+        }
+    }
+
+}
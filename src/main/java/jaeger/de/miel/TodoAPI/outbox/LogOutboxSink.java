@@ -0,0 +1,26 @@
+package jaeger.de.miel.TodoAPI.outbox;
+
+import jaeger.de.miel.TodoAPI.entity.OutboxEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Default sink when no real destination is configured: the events are dropped, traced at DEBUG without their payload
+ * (task titles and descriptions do not belong in the log, and INFO per event would flood it).
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "todo.outbox.sink", havingValue = "log", matchIfMissing = true)
+public class LogOutboxSink implements OutboxSink {
+
+    @Override
+    public void publish(List<OutboxEvent> events) {
+        if (!log.isDebugEnabled()) return;
+        events.forEach(event -> log.debug("Outbox event {}: {} {} {}",
+                event.getId(), event.getEventType(), event.getAggregateType(), event.getAggregateId()));
+    }
+
+}
@@ -0,0 +1,185 @@
+package jaeger.de.miel.TodoAPI.outbox;
+
+import jaeger.de.miel.TodoAPI.entity.OutboxEvent;
+import jaeger.de.miel.TodoAPI.repository.OutboxRepository;
+import jaeger.de.miel.TodoAPI.shard.ShardContext;
+import jaeger.de.miel.TodoAPI.shard.ShardDirectory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Publishes the OUTBOX table to the {@link OutboxSink}, off the request path.
+ * <p>
+ * Every poll claims the oldest batch-size unclaimed events in a short transaction (FOR UPDATE SKIP LOCKED, then a lease
+ * of claim-timeout-ms in CLAIMED_UNTIL, so several instances never publish the same rows), publishes them after the
+ * commit and deletes them in a second transaction. No row lock or connection is held while the sink is called. A full
+ * batch is followed by the next one right away, up to max-batches-per-poll.
+ * <p>
+ * Delivery is at-least-once: a batch the sink rejected is released for the next poll; a batch that was published but
+ * not deleted (failed delete, crash) is published again once its lease has expired.
+ * <p>
+ * Every report-interval-ms the throughput and the maximum lag (event creation to publication) are logged.
+ */
+@Slf4j
+@Lazy(false)  // Only driven by its schedule
+@Component
+public class OutboxRelay {
+
+    private final OutboxRepository outboxRepository;
+    private final OutboxSink sink;
+    private final ShardDirectory shardDirectory;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxBatchesPerPoll;
+    private final long claimTimeoutMs;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final AtomicLong maxLagMillis = new AtomicLong();
+    private volatile long lastReportNanos = System.nanoTime();
+
+    public OutboxRelay(OutboxRepository outboxRepository,
+                       OutboxSink sink,
+                       ShardDirectory shardDirectory,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${todo.outbox.enabled:true}") boolean enabled,
+                       @Value("${todo.outbox.batch-size:500}") int batchSize,
+                       @Value("${todo.outbox.max-batches-per-poll:20}") int maxBatchesPerPoll,
+                       @Value("${todo.outbox.claim-timeout-ms:60000}") long claimTimeoutMs) {
+        this.outboxRepository = outboxRepository;
+        this.sink = sink;
+        this.shardDirectory = shardDirectory;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxBatchesPerPoll = maxBatchesPerPoll;
+        this.claimTimeoutMs = claimTimeoutMs;
+    }
+
+
+    @Scheduled(fixedDelayString = "${todo.outbox.poll-interval-ms:200}")
+    public void poll() {
+        if (!enabled) return;
+
+        if (shardDirectory.isEnabled()) {
+            shardDirectory.shards().forEach(shard -> ShardContext.callOn(shard, this::drain));  // Every shard has its own outbox
+        } else {
+            drain();
+        }
+    }
+
+
+    int drain() {
+        int relayed = 0;
+        for (int i = 0; i < maxBatchesPerPoll; i++) {
+            int count = relayBatch();
+            relayed += count;
+            if (count < batchSize) break;  // Outbox drained, or the batch failed
+        }
+        return relayed;
+    }
+
+
+    // Claim, commit, publish, delete: returns the number of events published, 0 when nothing was (or could be) relayed
+    private int relayBatch() {
+        List<OutboxEvent> batch;
+        try {
+            batch = transactionTemplate.execute(status -> claimBatch());
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.warn("Outbox relay: claiming a batch failed, will retry on the next poll", e);
+            return 0;
+        }
+        if (batch.isEmpty()) return 0;
+        List<Long> ids = batch.stream().map(OutboxEvent::getId).toList();
+
+        try {
+            sink.publish(batch);
+        } catch (IOException | RuntimeException e) {
+            failures.increment();
+            log.warn("Outbox relay: publishing failed, the batch stays in the outbox for the next poll", e);
+            release(ids);
+            return 0;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> outboxRepository.deleteAllByIdInBatch(ids));
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.warn("Outbox relay: a published batch could not be deleted, it is published again when its claim expires", e);
+            return 0;
+        }
+
+        long lag = System.currentTimeMillis() - batch.getFirst().getCreatedAt().toEpochMilli();  // Oldest event of the batch
+        maxLagMillis.accumulateAndGet(lag, Math::max);
+        published.add(batch.size());
+        batches.increment();
+        return batch.size();
+    }
+
+
+    private List<OutboxEvent> claimBatch() {
+        Instant now = Instant.now();
+        List<OutboxEvent> batch = outboxRepository.findClaimable(batchSize, now);
+        if (!batch.isEmpty()) {
+            outboxRepository.claim(batch.stream().map(OutboxEvent::getId).toList(), now.plusMillis(claimTimeoutMs));
+        }
+        return batch;
+    }
+
+
+    // Makes a rejected batch claimable again right away; if that fails too, its claim simply expires
+    private void release(List<Long> ids) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> outboxRepository.claim(ids, null));
+        } catch (RuntimeException e) {
+            log.warn("Outbox relay: releasing the batch failed, it is retried when its claim expires", e);
+        }
+    }
+
+
+    @Scheduled(fixedDelayString = "${todo.outbox.report-interval-ms:60000}")
+    public void report() {
+        long now = System.nanoTime();
+        double seconds = (now - lastReportNanos) / 1_000_000_000.0;
+        lastReportNanos = now;
+
+        long events = published.sumThenReset();
+        long batchCount = batches.sumThenReset();
+        long failed = failures.sumThenReset();
+        long maxLag = maxLagMillis.getAndSet(0);
+        if (events == 0 && failed == 0) return;
+
+        String summary = String.format("Outbox relay: %d events in %d batches (%.1f events/s), max lag %d ms, %d failed batches",
+                events, batchCount, events / seconds, maxLag, failed);
+        if (failed > 0) {
+            log.warn(summary);
+        } else {
+            log.info(summary);
+        }
+    }
+
+
+    long maxLagMillis() {
+        return maxLagMillis.get();
+    }
+
+    long published() {
+        return published.sum();
+    }
+
+}
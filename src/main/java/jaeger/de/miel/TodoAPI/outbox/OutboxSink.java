@@ -0,0 +1,27 @@
+package jaeger.de.miel.TodoAPI.outbox;
+
+import jaeger.de.miel.TodoAPI.entity.OutboxEvent;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destination of the outbox events, selected with todo.outbox.sink (log, file or http).
+ * A batch that throws stays in the outbox and is published again on the next poll (at-least-once delivery).
+ */
+public interface OutboxSink {
+
+    void publish(List<OutboxEvent> events) throws IOException;
+
+
+    // The payload is JSON already and is embedded as is; the other fields never need escaping
+    static String toJson(OutboxEvent event) {
+        return "{\"id\":" + event.getId()
+                + ",\"aggregateType\":\"" + event.getAggregateType() + "\""
+                + ",\"aggregateId\":" + event.getAggregateId()
+                + ",\"eventType\":\"" + event.getEventType() + "\""
+                + ",\"createdAt\":\"" + event.getCreatedAt() + "\""
+                + ",\"payload\":" + event.getPayload() + "}";
+    }
+
+}
@@ -0,0 +1,20 @@
+package jaeger.de.miel.TodoAPI.reminder;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "todo.reminders.notifier", havingValue = "log", matchIfMissing = true)
+public class LogReminderNotifier implements ReminderNotifier {
+
+    @Override
+    public void notify(List<Reminder> reminders) {
+        reminders.forEach(reminder -> log.info("Reminder {}: task {} '{}' of user {} (list {}) is due {}",
+                reminder.kind(), reminder.taskId(), reminder.title(), reminder.userId(), reminder.listId(), reminder.dueDate()));
+    }
+
+}
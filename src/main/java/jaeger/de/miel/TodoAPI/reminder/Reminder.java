@@ -0,0 +1,18 @@
+package jaeger.de.miel.TodoAPI.reminder;
+
+import java.time.LocalDate;
+
+/**
+ * A task notification: DUE on the due date (at todo.reminders.remind-at), OVERDUE when the due date has passed
+ * and the task is still open.
+ */
+public record Reminder(Long taskId, Long listId, Long userId, String title, LocalDate dueDate, Kind kind) {
+
+    public enum Kind { DUE, OVERDUE }
+
+
+    public Reminder overdue() {
+        return new Reminder(taskId, listId, userId, title, dueDate, Kind.OVERDUE);
+    }
+
+}
@@ -0,0 +1,12 @@
+package jaeger.de.miel.TodoAPI.reminder;
+
+import java.util.List;
+
+/**
+ * Delivers fired reminders, in batches of at most todo.reminders.batch-size.
+ */
+public interface ReminderNotifier {
+
+    void notify(List<Reminder> reminders);
+
+}
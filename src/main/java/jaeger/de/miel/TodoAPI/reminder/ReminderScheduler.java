@@ -0,0 +1,295 @@
+package jaeger.de.miel.TodoAPI.reminder;
+
+import jaeger.de.miel.TodoAPI.dto.TaskDTO;
+import jaeger.de.miel.TodoAPI.dto.TaskStatus;
+import jaeger.de.miel.TodoAPI.entity.Task;
+import jaeger.de.miel.TodoAPI.repository.TaskRepository;
+import jaeger.de.miel.TodoAPI.shard.ShardDirectory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Due-date reminders for open tasks (todo.reminders.enabled).
+ * <p>
+ * Only the tasks due within the next window-days are held in memory, on a {@link TimingWheel}: every load-interval-ms
+ * the days that entered the window are read in pages via IDX_TASK_DUE_DATE. TaskService keeps the wheel current
+ * after every commit (created, rescheduled, completed or deleted tasks), so the table is not polled for changes.
+ * Every tick-ms the expired timers are handed to the {@link ReminderNotifier} in batches.
+ * <p>
+ * A task gets a DUE reminder on its due date at remind-at and an OVERDUE notification when the day is over.
+ * Tasks that are overdue already when they are loaded or changed (due before today) get none: nothing records which
+ * notices were sent, so loading them would notify every open task ever past due again on each restart. A task whose
+ * OVERDUE notice would have fired while the application was down does not get it either.
+ * <p>
+ * Timers are keyed by (shard, task id): every shard allocates its own task ids.
+ */
+@Slf4j
+@Lazy(false)  // Loads and ticks on its own schedule, not only once TaskService is first used
+@Component
+public class ReminderScheduler {
+
+    private static final List<TaskStatus> OPEN = List.of(TaskStatus.TODO, TaskStatus.IN_PROGRESS);
+
+    private final TaskRepository taskRepository;
+    private final ReminderNotifier notifier;
+    private final ShardDirectory shardDirectory;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final LocalTime remindAt;
+    private final ZoneId zone;
+    private final int windowDays;
+    private final int pageSize;
+    private final int batchSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final TimingWheel<Reminder> wheel;                               // Guarded by lock
+    private final Map<TimerKey, TimingWheel.Timer<Reminder>> timers = new HashMap<>();  // Pending timers, guarded by lock
+    private final Set<TimerKey> changedDuringLoad = new HashSet<>();         // Guarded by lock, see load()
+    private int loading;                                                     // Running loads, guarded by lock
+    private LocalDate loadedUntil;                                           // Exclusive, guarded by lock
+
+    public ReminderScheduler(TaskRepository taskRepository,
+                             ReminderNotifier notifier,
+                             ShardDirectory shardDirectory,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${todo.reminders.enabled:true}") boolean enabled,
+                             @Value("${todo.reminders.remind-at:09:00}") String remindAt,
+                             @Value("${todo.reminders.zone:}") String zone,
+                             @Value("${todo.reminders.window-days:2}") int windowDays,
+                             @Value("${todo.reminders.tick-ms:1000}") long tickMs,
+                             @Value("${todo.reminders.page-size:1000}") int pageSize,
+                             @Value("${todo.reminders.batch-size:100}") int batchSize) {
+        this.taskRepository = taskRepository;
+        this.notifier = notifier;
+        this.shardDirectory = shardDirectory;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.remindAt = LocalTime.parse(remindAt);
+        this.zone = zone.isBlank() ? ZoneId.systemDefault() : ZoneId.of(zone);
+        this.windowDays = windowDays;
+        this.pageSize = pageSize;
+        this.batchSize = batchSize;
+        this.wheel = new TimingWheel<>(tickMs, 6, 4, System.currentTimeMillis());  // 64 buckets per level, 4 levels
+    }
+
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+
+    // ---------------------------------------
+    // Incremental updates (called by TaskService, applied after commit)
+    // ---------------------------------------
+
+    public void taskChanged(TaskDTO task) {
+        if (!enabled) return;
+        afterCommit(() -> {
+            lock.lock();
+            try {
+                cancel(key(task.getUserId(), task.getId()));
+                if (inWindow(task.getDueDate()) && OPEN.contains(task.getStatus())) {
+                    schedule(new Reminder(task.getId(), task.getListId(), task.getUserId(), task.getTitle(),
+                            task.getDueDate(), Reminder.Kind.DUE));
+                }
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+
+    public void taskDeleted(Long userId, Long taskId) {
+        if (!enabled) return;
+        afterCommit(() -> {
+            lock.lock();
+            try {
+                cancel(key(userId, taskId));
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+
+    // ---------------------------------------
+    // Window loading and dispatch
+    // ---------------------------------------
+
+    @Scheduled(fixedDelayString = "${todo.reminders.load-interval-ms:3600000}")
+    public void loadWindow() {
+        if (!enabled) return;
+
+        LocalDate today = LocalDate.now(zone);
+        LocalDate to = today.plusDays(windowDays);
+        LocalDate from;
+        lock.lock();
+        try {
+            from = loadedUntil == null || loadedUntil.isBefore(today) ? today : loadedUntil;  // Never before today, see above
+            if (!from.isBefore(to)) return;
+            loadedUntil = to;  // From now on changes of tasks due in [from, to) are applied incrementally
+            loading++;         // Before the first page is read: every change committed after it is recorded
+        } finally {
+            lock.unlock();
+        }
+
+        List<Integer> loaded;
+        try {
+            if (shardDirectory.isEnabled()) {
+                loaded = shardDirectory.onEachShard(() -> load(from, to));
+            } else {
+                Integer count = readOnlyTransaction.execute(status -> load(from, to));
+                loaded = List.of(count);
+            }
+        } finally {
+            lock.lock();
+            try {
+                if (--loading == 0) changedDuringLoad.clear();
+            } finally {
+                lock.unlock();
+            }
+        }
+        log.info("Reminders: loaded {} open tasks due in [{}, {}), {} timers pending",
+                loaded.stream().mapToInt(Integer::intValue).sum(), from, to, pending());
+    }
+
+
+    @Scheduled(fixedDelayString = "${todo.reminders.tick-ms:1000}")
+    public void tick() {
+        tick(System.currentTimeMillis());
+    }
+
+
+    void tick(long nowMs) {
+        if (!enabled) return;
+
+        List<Reminder> fired = new ArrayList<>();
+        lock.lock();
+        try {
+            wheel.advance(nowMs, reminder -> {
+                timers.remove(key(reminder.userId(), reminder.taskId()));
+                fired.add(reminder);
+                if (reminder.kind() == Reminder.Kind.DUE) schedule(reminder.overdue());
+            });
+        } finally {
+            lock.unlock();
+        }
+
+        for (int i = 0; i < fired.size(); i += batchSize) {
+            try {
+                notifier.notify(fired.subList(i, Math.min(i + batchSize, fired.size())));
+            } catch (RuntimeException e) {
+                log.error("Reminders: notifier failed for a batch of {} reminders", Math.min(batchSize, fired.size() - i), e);
+            }
+        }
+    }
+
+
+    public int pending() {
+        lock.lock();
+        try {
+            return wheel.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    // Keyset pages on (due date, id): one range scan of IDX_TASK_DUE_DATE per page, memory bounded by page-size.
+    // A page can be older than a change committed while it was read; such a task has a newer timer, or was cancelled
+    // (deleted, completed, moved out of the window) and is in changedDuringLoad, so the page must not schedule it.
+    private int load(LocalDate from, LocalDate to) {
+        int count = 0;
+        LocalDate afterDate = from.minusDays(1);
+        long afterId = 0;
+        while (true) {
+            List<Task> page = taskRepository.findDueTasks(from, to, OPEN, afterDate, afterId, Limit.of(pageSize));
+
+            lock.lock();
+            try {
+                for (Task task : page) {
+                    TimerKey key = key(task.getCreator().getId(), task.getId());
+                    if (timers.containsKey(key) || changedDuringLoad.contains(key)) continue;  // The incremental update is newer
+                    schedule(new Reminder(task.getId(), task.getList().getId(), task.getCreator().getId(), task.getTitle(),
+                            task.getDueDate(), Reminder.Kind.DUE));
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            count += page.size();
+            if (page.size() < pageSize) return count;
+            Task last = page.getLast();
+            afterDate = last.getDueDate();
+            afterId = last.getId();
+        }
+    }
+
+
+    // DUE at remind-at on the due date (or OVERDUE right away when that has passed), OVERDUE at the end of the due date
+    private void schedule(Reminder reminder) {
+        long dueAt = reminder.dueDate().atTime(remindAt).atZone(zone).toInstant().toEpochMilli();
+        long overdueAt = reminder.dueDate().plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+
+        Reminder next = reminder.kind() == Reminder.Kind.DUE && dueAt < System.currentTimeMillis() ? reminder.overdue() : reminder;
+        timers.put(key(next.userId(), next.taskId()), wheel.schedule(next, next.kind() == Reminder.Kind.DUE ? dueAt : overdueAt));
+    }
+
+
+    private void cancel(TimerKey key) {
+        if (loading > 0) changedDuringLoad.add(key);
+        TimingWheel.Timer<Reminder> timer = timers.remove(key);
+        if (timer != null) wheel.cancel(timer);
+    }
+
+
+    // Tasks live on the shard of their user
+    private TimerKey key(Long userId, Long taskId) {
+        return new TimerKey(shardDirectory.isEnabled() ? shardDirectory.shardFor(userId) : null, taskId);
+    }
+
+
+    // Due before today: overdue already, no notice (see the class comment)
+    private boolean inWindow(LocalDate dueDate) {
+        return dueDate != null && loadedUntil != null && dueDate.isBefore(loadedUntil) && !dueDate.isBefore(LocalDate.now(zone));
+    }
+
+
+    private record TimerKey(String shard, Long taskId) {}
+
+
+    // A rolled back change must not touch the wheel
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+}
@@ -0,0 +1,162 @@
+package jaeger.de.miel.TodoAPI.reminder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel: levels of 2^wheelBits buckets, a bucket of level n spans 2^(wheelBits * n) ticks.
+ * <p>
+ * {@link #schedule} and {@link #cancel} are O(1): a timer is put in the bucket of the finest level whose range covers
+ * its deadline, buckets are doubly linked lists. {@link #advance} walks the elapsed ticks, expires the buckets of level 0
+ * and, whenever a level wraps around, cascades the next bucket of the coarser level into the finer ones. Deadlines beyond
+ * the top level are parked there and placed again when their bucket comes around.
+ * <p>
+ * Not thread-safe: the owner serializes access.
+ */
+public class TimingWheel<T> {
+
+    public static final class Timer<T> {
+        private final T value;
+        private final long deadlineTick;
+        private Timer<T> prev;
+        private Timer<T> next;
+        private Bucket<T> bucket;
+
+        private Timer(T value, long deadlineTick) {
+            this.value = value;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public T value() {
+            return value;
+        }
+
+        public boolean isPending() {
+            return bucket != null;
+        }
+
+        private void unlink() {
+            prev.next = next;
+            next.prev = prev;
+            prev = next = null;
+            bucket = null;
+        }
+    }
+
+
+    private static final class Bucket<T> {
+        private final Timer<T> head = new Timer<>(null, 0);  // Sentinel
+
+        private Bucket() {
+            head.prev = head.next = head;
+        }
+
+        private void add(Timer<T> timer) {
+            timer.prev = head.prev;
+            timer.next = head;
+            head.prev.next = timer;
+            head.prev = timer;
+            timer.bucket = this;
+        }
+
+        private List<Timer<T>> removeAll() {
+            List<Timer<T>> timers = new ArrayList<>();
+            while (head.next != head) {
+                Timer<T> timer = head.next;
+                timer.unlink();
+                timers.add(timer);
+            }
+            return timers;
+        }
+    }
+
+
+    private final long tickMs;
+    private final int wheelBits;
+    private final int mask;
+    private final Bucket<T>[][] wheels;
+    private long currentTick;  // Next tick to expire
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMs, int wheelBits, int levels, long startMs) {
+        this.tickMs = tickMs;
+        this.wheelBits = wheelBits;
+        this.mask = (1 << wheelBits) - 1;
+        this.wheels = (Bucket<T>[][]) new Bucket<?>[levels][1 << wheelBits];
+        for (Bucket<T>[] wheel : wheels) {
+            for (int i = 0; i < wheel.length; i++) wheel[i] = new Bucket<>();
+        }
+        this.currentTick = Math.floorDiv(startMs, tickMs);
+    }
+
+
+    /**
+     * Fires at the first {@link #advance} at or after deadlineMs, or at the next tick when it has passed already.
+     */
+    public Timer<T> schedule(T value, long deadlineMs) {
+        var timer = new Timer<>(value, Math.ceilDiv(deadlineMs, tickMs));  // Rounded up: never fires early
+        place(timer);
+        size++;
+        return timer;
+    }
+
+
+    public boolean cancel(Timer<T> timer) {
+        if (timer.bucket == null) return false;  // Fired or cancelled already
+        timer.unlink();
+        size--;
+        return true;
+    }
+
+
+    /**
+     * Expires every timer with a deadline at or before nowMs, in deadline order (per tick).
+     */
+    public void advance(long nowMs, Consumer<T> expired) {
+        long nowTick = Math.floorDiv(nowMs, tickMs);
+        while (currentTick <= nowTick) {
+            cascade(currentTick);
+
+            for (Timer<T> timer : wheels[0][(int) (currentTick & mask)].removeAll()) {
+                if (timer.deadlineTick <= currentTick) {
+                    size--;
+                    expired.accept(timer.value);
+                } else {
+                    place(timer);
+                }
+            }
+            currentTick++;
+        }
+    }
+
+
+    public int size() {
+        return size;
+    }
+
+
+    // When the wheel of level n - 1 wraps around, the next bucket of level n is spread over the finer levels
+    private void cascade(long tick) {
+        for (int level = 1; level < wheels.length; level++) {
+            if ((tick & ((1L << (wheelBits * level)) - 1)) != 0) return;
+            Bucket<T> bucket = wheels[level][(int) ((tick >>> (wheelBits * level)) & mask)];
+            bucket.removeAll().forEach(this::place);
+        }
+    }
+
+
+    private void place(Timer<T> timer) {
+        long ticks = timer.deadlineTick - currentTick;
+        if (ticks < 0) {
+            wheels[0][(int) (currentTick & mask)].add(timer);  // Overdue: expires with the next tick
+            return;
+        }
+
+        int level = 0;
+        while (level < wheels.length - 1 && ticks >= 1L << (wheelBits * (level + 1))) level++;
+        wheels[level][(int) ((timer.deadlineTick >>> (wheelBits * level)) & mask)].add(timer);
+    }
+
+}
@@ -0,0 +1,41 @@
+package jaeger.de.miel.TodoAPI.replica;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The last successful mutation per client (user id, client id or address, see {@link ReplicaRoutingInterceptor}). Until
+ * every replica has been refreshed after it, that client's reads stay on the primary, so a client never reads an older
+ * state than it has written itself.
+ */
+public class ReadYourWrites {
+
+    private final ConcurrentHashMap<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+
+    public void recordWrite(long at, String... clients) {
+        for (String client : clients) {
+            if (client != null) lastWrites.merge(client, at, Math::max);
+        }
+    }
+
+
+    public long lastWrite(String... clients) {
+        long last = 0;
+        for (String client : clients) {
+            if (client != null) last = Math.max(last, lastWrites.getOrDefault(client, 0L));
+        }
+        return last;
+    }
+
+
+    // Writes before this moment no longer restrict routing: every replica has them, or they are older than the staleness bound
+    public void expire(long before) {
+        lastWrites.values().removeIf(at -> at < before);
+    }
+
+
+    public int size() {
+        return lastWrites.size();
+    }
+
+}
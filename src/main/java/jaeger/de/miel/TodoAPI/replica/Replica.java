@@ -0,0 +1,63 @@
+package jaeger.de.miel.TodoAPI.replica;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One read replica: its connection pool and the moment its copy of the primary was taken.
+ */
+@Getter
+public class Replica {
+
+    private final String name;
+    private final HikariDataSource dataSource;
+    private volatile boolean available;  // False while the replica is being refreshed
+    private volatile long syncedAt;      // Epoch ms at which the copied snapshot was taken, 0 = never synced
+
+    @Getter(AccessLevel.NONE)
+    private final AtomicInteger checkedOut = new AtomicInteger();  // Connections routed here and not closed yet
+
+    public Replica(String name, HikariDataSource dataSource) {
+        this.name = name;
+        this.dataSource = dataSource;
+    }
+
+
+    /**
+     * Counts a connection routed to this replica, unless it went offline since it was picked. Incremented before
+     * {@code available} is read again, and {@link #takeOffline()} writes it before the synchronizer reads the count:
+     * either the router sees the replica offline, or the synchronizer waits for this connection.
+     */
+    boolean checkOut() {
+        checkedOut.incrementAndGet();
+        if (available) return true;
+        checkedOut.decrementAndGet();
+        return false;
+    }
+
+    void checkIn() {
+        checkedOut.decrementAndGet();
+    }
+
+    int checkedOut() {
+        return checkedOut.get();
+    }
+
+
+    void takeOffline() {
+        available = false;
+    }
+
+    void bringOnline() {
+        available = true;
+    }
+
+    void markSynced(long snapshotAt) {
+        syncedAt = snapshotAt;
+        available = true;
+    }
+
+}
@@ -0,0 +1,128 @@
+package jaeger.de.miel.TodoAPI.replica;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replicas (profile "replica", see application-replica.properties).
+ * <p>
+ * Writes and read-write transactions use the primary (spring.datasource.url, migrated by Flyway as usual); read-only
+ * transactions (getTasks, getLists, getUsers, ...) are spread over the replicas by {@link ReplicaRoutingDataSource}, so
+ * reads no longer compete with writes for the same connection pool. Not combinable with the sharded profile, nor with
+ * the task write-behind buffer.
+ */
+@Profile("replica")
+@Configuration
+public class ReplicaConfig implements WebMvcConfigurer {
+
+    @Value("${spring.datasource.url}")
+    private String primaryUrl;
+
+    @Value("${spring.datasource.username}")
+    private String username;
+
+    @Value("${spring.datasource.password}")
+    private String password;
+
+    @Value("${todo.replica.urls}")
+    private String[] urls;
+
+    @Value("${todo.replica.pool-size:10}")
+    private int poolSize;
+
+    @Value("${todo.replica.max-staleness-ms:90000}")
+    private long maxStalenessMs;
+
+    @Value("${todo.replica.sync-interval-ms:5000}")
+    private long syncIntervalMs;
+
+    @Value("${todo.replica.refresh-interval-ms:60000}")
+    private long refreshIntervalMs;
+
+    @Value("${todo.replica.drain-timeout-ms:5000}")
+    private long drainTimeoutMs;
+
+    @Value("${todo.replica.batch-size:500}")
+    private int batchSize;
+
+    @Value("${todo.tasks.write-behind.enabled:false}")
+    private boolean writeBehind;
+
+
+    // Sized and instrumented by ConnectionPoolCustomizer like the default pool
+    @Bean(destroyMethod = "close")
+    public HikariDataSource primaryDataSource() {
+        var dataSource = new HikariDataSource();
+        dataSource.setPoolName("todo-pool");
+        dataSource.setJdbcUrl(primaryUrl);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        return dataSource;
+    }
+
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource) {
+        if (writeBehind) {
+            // A buffered update reaches the primary after the request: read-your-writes cannot wait for it on a replica
+            throw new IllegalStateException("todo.tasks.write-behind.enabled is not supported with the replica profile");
+        }
+
+        List<Replica> replicas = new ArrayList<>();
+        for (int i = 0; i < urls.length; i++) {
+            var dataSource = new HikariDataSource();
+            dataSource.setPoolName("todo-replica" + i);
+            dataSource.setJdbcUrl(urls[i].trim());
+            dataSource.setUsername(username);
+            dataSource.setPassword(password);
+            dataSource.setMaximumPoolSize(poolSize);
+            replicas.add(new Replica("replica" + i, dataSource));
+        }
+
+        var routing = new ReplicaRoutingDataSource(primaryDataSource, replicas, maxStalenessMs);
+        routing.afterPropertiesSet();
+        return routing;
+    }
+
+
+    @Primary
+    @Bean
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);  // Route when the read-only flag is known
+    }
+
+
+    @Bean
+    public ReadYourWrites readYourWrites() {
+        return new ReadYourWrites();
+    }
+
+
+    @Lazy(false)  // Nothing depends on it
+    @Bean
+    public ReplicaSynchronizer replicaSynchronizer(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                                   ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new ReplicaSynchronizer(primaryDataSource, replicaRoutingDataSource, readYourWrites(),
+                syncIntervalMs, refreshIntervalMs, drainTimeoutMs, batchSize);
+    }
+
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ReplicaRoutingInterceptor(readYourWrites()));
+    }
+
+}
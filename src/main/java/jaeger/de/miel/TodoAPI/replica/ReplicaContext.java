@@ -0,0 +1,28 @@
+package jaeger.de.miel.TodoAPI.replica;
+
+/**
+ * Read-your-writes bound of the current request: a replica may only serve it when its snapshot was taken at or after
+ * this moment (epoch ms). Set by {@link ReplicaRoutingInterceptor}, read by {@link ReplicaRoutingDataSource}.
+ */
+public final class ReplicaContext {
+
+    private static final ThreadLocal<Long> NOT_BEFORE = new ThreadLocal<>();
+
+    private ReplicaContext() {
+    }
+
+
+    public static long notBefore() {
+        Long notBefore = NOT_BEFORE.get();
+        return notBefore == null ? 0 : notBefore;
+    }
+
+    public static void setNotBefore(long notBefore) {
+        NOT_BEFORE.set(notBefore);
+    }
+
+    public static void clear() {
+        NOT_BEFORE.remove();
+    }
+
+}
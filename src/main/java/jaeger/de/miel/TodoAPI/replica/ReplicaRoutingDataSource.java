@@ -0,0 +1,164 @@
+package jaeger.de.miel.TodoAPI.replica;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends read-only transactions (@Transactional(readOnly = true)) round robin to a replica, everything else to the primary.
+ * <p>
+ * A replica is only used when its snapshot is younger than max-staleness-ms and was taken after the last write of the
+ * requesting client ({@link ReplicaContext}); otherwise the read falls back to the primary. Wrapped in a
+ * LazyConnectionDataSourceProxy, so the read-only flag of the transaction is known when the connection is chosen.
+ * <p>
+ * A connection handed out for a replica is counted on it until it is closed ({@link Replica#checkOut()}), so the
+ * {@link ReplicaSynchronizer} can wait for the reads it has to drain, including those routed just before it took the
+ * replica offline.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final Map<Object, Replica> replicasByName = new LinkedHashMap<>();
+    private final long maxStalenessMs;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder primaryReads = new LongAdder();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<Replica> replicas, long maxStalenessMs) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        replicas.forEach(replica -> replicasByName.put(replica.getName(), replica));
+        this.maxStalenessMs = maxStalenessMs;
+    }
+
+
+    @Override
+    public void afterPropertiesSet() {
+        Map<Object, Object> targets = new LinkedHashMap<>();
+        targets.put(PRIMARY, primary);
+        replicas.forEach(replica -> targets.put(replica.getName(), replica.getDataSource()));
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        super.afterPropertiesSet();
+    }
+
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) return PRIMARY;
+
+        long notBefore = Math.max(System.currentTimeMillis() - maxStalenessMs, ReplicaContext.notBefore());
+        Replica replica = pick(notBefore);
+        if (replica == null) {
+            primaryReads.increment();
+            return PRIMARY;
+        }
+        replicaReads.increment();
+        return replica.getName();
+    }
+
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connect(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connect(dataSource -> dataSource.getConnection(username, password));
+    }
+
+
+    private Connection connect(Connect connect) throws SQLException {
+        Replica replica = replicasByName.get(determineCurrentLookupKey());
+        if (replica == null || !replica.checkOut()) return connect.to(primary);  // Primary, or taken offline since it was picked
+
+        try {
+            return checkedOut(replica, connect.to(replica.getDataSource()));
+        } catch (SQLException | RuntimeException e) {
+            replica.checkIn();
+            throw e;
+        }
+    }
+
+
+    // Checks the replica in when the connection is closed; closing it again is a no-op, as for any JDBC connection
+    private static Connection checkedOut(Replica replica, Connection connection) {
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close")) {
+                        if (!closed.compareAndSet(false, true)) return null;
+                        try {
+                            connection.close();
+                        } finally {
+                            replica.checkIn();
+                        }
+                        return null;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+
+    // Round robin over the available replicas whose snapshot was taken at or after notBefore
+    private Replica pick(long notBefore) {
+        int count = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), count);
+        for (int i = 0; i < count; i++) {
+            Replica replica = replicas.get((start + i) % count);
+            if (replica.isAvailable() && replica.getSyncedAt() >= notBefore) return replica;
+        }
+        return null;
+    }
+
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    public long getMaxStalenessMs() {
+        return maxStalenessMs;
+    }
+
+    public long replicaReadsThenReset() {
+        return replicaReads.sumThenReset();
+    }
+
+    public long primaryReadsThenReset() {
+        return primaryReads.sumThenReset();
+    }
+
+
+    @FunctionalInterface
+    private interface Connect {
+        Connection to(DataSource dataSource) throws SQLException;
+    }
+
+
+    @Override
+    public void destroy() {
+        replicas.forEach(replica -> replica.getDataSource().close());  // The primary pool is a bean of its own
+    }
+
+}
@@ -0,0 +1,65 @@
+package jaeger.de.miel.TodoAPI.replica;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.AllArgsConstructor;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+/**
+ * Read-your-writes stickiness: a successful mutation is recorded for the user ({userId} path variable), and the reads of
+ * that user are kept off replicas that were refreshed before it.
+ * <p>
+ * Requests without a user id (GET /users right after POST /users) are keyed by the client: its X-Client-Id header, else
+ * its address. The address is the one the proxy forwarded (server.forward-headers-strategy), but clients behind one NAT
+ * still share it, so it is only used when there is no user id: a shared address costs its clients replica reads after
+ * a POST /users, not after every write. Clients that need read-your-writes across users send X-Client-Id.
+ */
+@AllArgsConstructor
+public class ReplicaRoutingInterceptor implements HandlerInterceptor {
+
+    static final String CLIENT_ID_HEADER = "X-Client-Id";
+
+    private final ReadYourWrites readYourWrites;
+
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        long lastWrite = readYourWrites.lastWrite(clients(request));
+        if (lastWrite > 0) ReplicaContext.setNotBefore(lastWrite + 1);
+        return true;
+    }
+
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        try {
+            // After the controller returned, so the service transaction has committed
+            if (isWrite(request.getMethod()) && ex == null && response.getStatus() < 400) {
+                readYourWrites.recordWrite(System.currentTimeMillis(), clients(request));
+            }
+        } finally {
+            ReplicaContext.clear();
+        }
+    }
+
+
+    private static String[] clients(HttpServletRequest request) {
+        @SuppressWarnings("unchecked")
+        Map<String, String> variables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+
+        String userId = variables == null ? null : variables.get("userId");
+        String clientId = request.getHeader(CLIENT_ID_HEADER);
+        return new String[]{
+                userId == null ? null : "user:" + userId,
+                clientId != null ? "client:" + clientId : userId == null ? "ip:" + request.getRemoteAddr() : null};
+    }
+
+
+    private static boolean isWrite(String method) {
+        return !("GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method));
+    }
+
+}
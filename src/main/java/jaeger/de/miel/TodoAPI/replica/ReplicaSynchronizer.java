@@ -0,0 +1,175 @@
+package jaeger.de.miel.TodoAPI.replica;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the replicas in sync with snapshots of the primary.
+ * <p>
+ * Every sync-interval-ms the primary's modification counter is compared with the one each replica was copied at
+ * (one query on INFORMATION_SCHEMA.TABLES). An unchanged primary only moves the replica's snapshot time forward; a
+ * changed one is copied again, but at most every refresh-interval-ms per replica, as a copy rewrites the whole database.
+ * <p>
+ * The replicas are refreshed one at a time: the replica is taken out of the rotation, the connections already routed to
+ * it are drained, its database is emptied and H2's SCRIPT output of the primary (one consistent read) is replayed into
+ * it in batches. With more than one replica the reads continue on the others; with a single replica they go to the
+ * primary meanwhile.
+ * <p>
+ * Runs on its own thread, so a long copy never delays the application's other scheduled jobs.
+ */
+@Slf4j
+public class ReplicaSynchronizer {
+
+    private static final String MODIFICATION_QUERY =
+            "SELECT COALESCE(SUM(LAST_MODIFICATION), 0) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_SCHEMA = 'PUBLIC'";
+    private static final String UNCOMMITTED_QUERY =
+            "SELECT COUNT(*) FROM INFORMATION_SCHEMA.SESSIONS WHERE CONTAINS_UNCOMMITTED AND SESSION_ID <> SESSION_ID()";
+    private static final long NEVER_COPIED = -1;
+
+    private final JdbcTemplate primary;
+    private final ReplicaRoutingDataSource routingDataSource;
+    private final ReadYourWrites readYourWrites;
+    private final long syncIntervalMs;
+    private final long refreshIntervalMs;
+    private final long drainTimeoutNanos;
+    private final int batchSize;
+
+    private final Map<Replica, Long> copiedModifications = new HashMap<>();  // Only used by the sync thread
+    private final Map<Replica, Long> copiedAt = new HashMap<>();
+    private ScheduledExecutorService scheduler;
+
+    public ReplicaSynchronizer(DataSource primary, ReplicaRoutingDataSource routingDataSource, ReadYourWrites readYourWrites,
+                               long syncIntervalMs, long refreshIntervalMs, long drainTimeoutMs, int batchSize) {
+        this.primary = new JdbcTemplate(primary);
+        this.routingDataSource = routingDataSource;
+        this.readYourWrites = readYourWrites;
+        this.syncIntervalMs = syncIntervalMs;
+        this.refreshIntervalMs = refreshIntervalMs;
+        this.drainTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(drainTimeoutMs);
+        this.batchSize = batchSize;
+    }
+
+
+    // Once the application is ready, so the primary has been migrated by Flyway; until then every read goes to the primary
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "replica-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::syncQuietly, 0, syncIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("Replica sync: checking the primary every {} ms, copying it at most every {} ms",
+                syncIntervalMs, refreshIntervalMs);
+    }
+
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) scheduler.shutdownNow();  // Interrupts a drain; a replica left mid-copy stays offline
+    }
+
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.error("Replica sync failed, will retry", e);
+        }
+    }
+
+
+    public void sync() throws InterruptedException {
+        long started = System.nanoTime();
+        long oldestSnapshot = Long.MAX_VALUE;
+
+        for (Replica replica : routingDataSource.getReplicas()) {
+            long checkedAt = System.currentTimeMillis();  // Read before the counter: every commit before it is counted
+            long modification = modification();
+
+            if (modification == copiedModifications.getOrDefault(replica, NEVER_COPIED) && replica.isAvailable()) {
+                replica.markSynced(checkedAt);  // Nothing written since the copy: it is still current
+            } else if (checkedAt - copiedAt.getOrDefault(replica, 0L) >= refreshIntervalMs) {
+                refresh(replica);
+            }
+            oldestSnapshot = Math.min(oldestSnapshot, replica.getSyncedAt());
+        }
+        readYourWrites.expire(Math.max(oldestSnapshot, System.currentTimeMillis() - routingDataSource.getMaxStalenessMs()));
+
+        log.debug("Replicas synced in {} ms: {} reads on replicas, {} reads on the primary since the last sync, {} sticky clients",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), routingDataSource.replicaReadsThenReset(),
+                routingDataSource.primaryReadsThenReset(), readYourWrites.size());
+    }
+
+
+    private void refresh(Replica replica) throws InterruptedException {
+        replica.takeOffline();  // New reads go to the other replicas (or the primary)
+        if (!drained(replica)) {
+            log.warn("Replica '{}': reads still running after the drain timeout, refresh skipped", replica.getName());
+            replica.bringOnline();
+            return;
+        }
+
+        long snapshotAt = System.currentTimeMillis();  // Everything committed before this moment is in the copy
+        copiedAt.put(replica, snapshotAt);
+        copiedModifications.remove(replica);
+        try (Connection connection = replica.getDataSource().getConnection();
+             Statement statement = connection.createStatement()) {
+            // Counter read before the copy: a write after it changes the counter. A write before it that is not committed
+            // yet may be missing from the copy without changing the counter again, so such a copy is not reused.
+            long modification = modification();
+            boolean uncommitted = primary.queryForObject(UNCOMMITTED_QUERY, Long.class) > 0;
+
+            statement.execute("DROP ALL OBJECTS");
+
+            int[] pending = {0};
+            primary.query("SCRIPT NOPASSWORDS NOSETTINGS", (RowCallbackHandler) rs -> {
+                String sql = rs.getString(1);
+                if (sql.startsWith("CREATE USER")) return;  // Keep the replica's own credentials
+                statement.addBatch(sql);
+                if (++pending[0] % batchSize == 0) statement.executeBatch();
+            });
+            statement.executeBatch();
+
+            replica.markSynced(snapshotAt);
+            if (!uncommitted) copiedModifications.put(replica, modification);
+        } catch (SQLException | DataAccessException e) {
+            // Left offline (its content is incomplete) until the next refresh succeeds
+            log.error("Replica '{}': refresh failed, reads go elsewhere until the next attempt", replica.getName(), e);
+        }
+    }
+
+
+    private long modification() {
+        return primary.queryForObject(MODIFICATION_QUERY, Long.class);
+    }
+
+
+    // Called after takeOffline(): no connection is routed here any more, wait for those already checked out
+    private boolean drained(Replica replica) throws InterruptedException {
+        long deadline = System.nanoTime() + drainTimeoutNanos;
+        while (replica.checkedOut() > 0) {
+            if (System.nanoTime() - deadline > 0) return false;
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+}
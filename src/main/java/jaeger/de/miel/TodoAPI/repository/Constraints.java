@@ -0,0 +1,52 @@
+package jaeger.de.miel.TodoAPI.repository;
+
+import org.hibernate.exception.ConstraintViolationException;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Tells which constraint a DataIntegrityViolationException violated, from the SQLState and the constraint name Hibernate
+ * extracted (its ConstraintViolationException in the cause chain), never from the message text.
+ * <p>
+ * H2 qualifies the name with the schema (PUBLIC.UK_LIST_OWNER_NAME_LOWER) and reports a named UNIQUE constraint by its
+ * backing index (UK_APP_USER_EMAIL_INDEX_7), so the extracted name is compared token by token.
+ */
+public final class Constraints {
+
+    // 23503: standard foreign key violation; 23506: H2's "parent missing" on insert/update
+    private static final Set<String> FOREIGN_KEY_STATES = Set.of("23503", "23506");
+    private static final Set<String> UNIQUE_STATES = Set.of("23505");
+
+    private Constraints() {
+    }
+
+
+    public static boolean isForeignKeyViolation(Throwable e, String constraintName) {
+        return isViolation(e, FOREIGN_KEY_STATES, constraintName);
+    }
+
+    public static boolean isUniqueViolation(Throwable e, String constraintName) {
+        return isViolation(e, UNIQUE_STATES, constraintName);
+    }
+
+
+    private static boolean isViolation(Throwable e, Set<String> sqlStates, String constraintName) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                return sqlStates.contains(violation.getSQLState()) && names(violation.getConstraintName(), constraintName);
+            }
+        }
+        return false;
+    }
+
+    private static boolean names(String extracted, String constraintName) {
+        if (extracted == null) return false;
+        String name = constraintName.toUpperCase(Locale.ROOT);
+        for (String token : extracted.toUpperCase(Locale.ROOT).split("[^A-Z0-9_]+")) {
+            if (token.equals(name) || token.startsWith(name + "_INDEX_")) return true;
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,20 @@
+package jaeger.de.miel.TodoAPI.repository;
+
+import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.NoRepositoryBean;
+
+/**
+ * Base of the repositories: CRUD plus the few JpaRepository methods the application uses, so both the Spring Data JPA
+ * repositories (which route these to SimpleJpaRepository) and the journal profile's map-backed ones implement all of it.
+ * Sorting, paging and query by example are left out on purpose; use derived queries.
+ */
+@NoRepositoryBean
+public interface EntityRepository<T, ID> extends ListCrudRepository<T, ID> {
+
+    void flush();
+
+    <S extends T> S saveAndFlush(S entity);
+
+    void deleteAllByIdInBatch(Iterable<ID> ids);
+
+}
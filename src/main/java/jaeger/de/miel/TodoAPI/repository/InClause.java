@@ -0,0 +1,56 @@
+package jaeger.de.miel.TodoAPI.repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Multi-get by id with IN-list queries of bounded, stable sizes.
+ * <p>
+ * The distinct ids are split into chunks of at most {@link #MAX_CHUNK}; hibernate.query.in_clause_parameter_padding
+ * pads every chunk to the next power of two (repeating the last id), so any number of ids maps onto the same few
+ * statement shapes (1, 2, 4, ... 256 parameters) and the prepared statement caches (Hibernate's query plan cache,
+ * H2's QUERY_CACHE_SIZE) keep hitting instead of parsing a new statement per list length.
+ */
+public final class InClause {
+
+    public static final int MAX_CHUNK = 256;  // A power of two: a full chunk needs no padding
+
+    private InClause() {
+    }
+
+
+    /**
+     * Runs the query per chunk of the distinct ids and returns the rows found in the order of the ids
+     * (ids without a row are skipped, a repeated id is returned once).
+     */
+    public static <T> List<T> findAll(List<Long> ids, Function<List<Long>, List<T>> query, Function<T, Long> idOf) {
+        List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+
+        List<T> rows = new ArrayList<>(distinct.size());
+        for (int from = 0; from < distinct.size(); from += MAX_CHUNK) {
+            rows.addAll(query.apply(distinct.subList(from, Math.min(from + MAX_CHUNK, distinct.size()))));
+        }
+        return inOrder(distinct, rows, idOf);
+    }
+
+
+    /**
+     * The rows in the order of the ids, each id once; ids without a row are skipped.
+     */
+    public static <T> List<T> inOrder(List<Long> ids, List<T> rows, Function<T, Long> idOf) {
+        Map<Long, T> byId = new HashMap<>(rows.size() * 2);
+        rows.forEach(row -> byId.put(idOf.apply(row), row));
+
+        List<T> ordered = new ArrayList<>(rows.size());
+        for (Long id : new LinkedHashSet<>(ids)) {
+            T row = byId.get(id);
+            if (row != null) ordered.add(row);
+        }
+        return ordered;
+    }
+
+}
@@ -1,15 +1,29 @@
 package jaeger.de.miel.TodoAPI.repository;
 
-import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface ListRepository extends JpaRepository<jaeger.de.miel.TodoAPI.entity.List,Long> {
+public interface ListRepository extends EntityRepository<jaeger.de.miel.TodoAPI.entity.List,Long> {
 
     List<jaeger.de.miel.TodoAPI.entity.List> findListsByOwner_Id(Long ownerId);  // Using JPA derived query method name
+    List<jaeger.de.miel.TodoAPI.entity.List> findListsByOwner_IdOrderByNameLowerAsc(Long ownerId);  // Sorted along UK_LIST_OWNER_NAME_LOWER
     Optional<jaeger.de.miel.TodoAPI.entity.List> findListByIdAndOwner_Id(Long id, Long ownerId);  // Using JPA derived query method name
-    boolean existsByOwner_IdAndNameIgnoreCase(Long ownerId, String name);
+    List<jaeger.de.miel.TodoAPI.entity.List> findListsByOwner_IdAndIdIn(Long ownerId, Collection<Long> ids);  // Multi-get, see InClause
+    boolean existsByIdAndOwner_Id(Long id, Long ownerId);  // Ownership check without loading the list
     long deleteByIdAndOwner_Id(Long listId, Long ownerId);
 
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT l.id, l.owner.id FROM List l")
+    Stream<Object[]> streamAllIdsAndOwnerIds();  // Ownership index warm-up: [list id, owner id], no entities
+
 }
@@ -0,0 +1,49 @@
+package jaeger.de.miel.TodoAPI.repository;
+
+import jaeger.de.miel.TodoAPI.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxRepository extends EntityRepository<OutboxEvent, Long> {
+
+    // The oldest events without a live claim, locked until the end of the transaction; rows another relay is claiming
+    // right now are skipped, not waited for
+    @Query(value = "SELECT * FROM outbox WHERE claimed_until IS NULL OR claimed_until < :now "
+            + "ORDER BY id FETCH FIRST :limit ROWS ONLY FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxEvent> findClaimable(@Param("limit") int limit, @Param("now") Instant now);
+
+    // Claims (until = lease end) or releases (until = null) the events
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.claimedUntil = :until WHERE e.id IN :ids")
+    int claim(@Param("ids") Collection<Long> ids, @Param("until") Instant until);
+
+    // TASK_DELETED events (as OutboxService.taskDeleted) for the tasks that deleting their list, or its owner, is about
+    // to remove by ON DELETE CASCADE: in one statement, without loading the tasks. Must run before the delete
+    @Modifying
+    @Query(value = "INSERT INTO outbox (aggregate_type, aggregate_id, event_type, payload, created_at) "
+            + "SELECT 'TASK', t.id, 'TASK_DELETED', "
+            + "CAST(JSON_OBJECT('id': t.id, 'listId': t.list_id, 'userId': t.creator_id) AS VARCHAR), :createdAt "
+            + "FROM task t JOIN list l ON l.id = t.list_id WHERE l.id = :listId AND l.owner_id = :ownerId", nativeQuery = true)
+    int insertTaskDeletedOfList(@Param("listId") long listId, @Param("ownerId") long ownerId, @Param("createdAt") Instant createdAt);
+
+    @Modifying
+    @Query(value = "INSERT INTO outbox (aggregate_type, aggregate_id, event_type, payload, created_at) "
+            + "SELECT 'TASK', t.id, 'TASK_DELETED', "
+            + "CAST(JSON_OBJECT('id': t.id, 'listId': t.list_id, 'userId': t.creator_id) AS VARCHAR), :createdAt "
+            + "FROM task t JOIN list l ON l.id = t.list_id WHERE l.owner_id = :ownerId", nativeQuery = true)
+    int insertTaskDeletedOfOwner(@Param("ownerId") long ownerId, @Param("createdAt") Instant createdAt);
+
+    @Modifying
+    @Query(value = "INSERT INTO outbox (aggregate_type, aggregate_id, event_type, payload, created_at) "
+            + "SELECT 'TASK', t.id, 'TASK_DELETED', "
+            + "CAST(JSON_OBJECT('id': t.id, 'listId': t.list_id, 'userId': t.creator_id) AS VARCHAR), :createdAt "
+            + "FROM task t JOIN list l ON l.id = t.list_id JOIN app_user u ON u.id = l.owner_id WHERE u.email = :email",
+            nativeQuery = true)
+    int insertTaskDeletedOfOwnerEmail(@Param("email") String email, @Param("createdAt") Instant createdAt);
+
+}
@@ -0,0 +1,44 @@
+package jaeger.de.miel.TodoAPI.repository;
+
+import jaeger.de.miel.TodoAPI.entity.TaskDailyStats;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface TaskDailyStatsRepository extends EntityRepository<TaskDailyStats, TaskDailyStats.Key> {
+
+    List<TaskDailyStats> findByUserIdAndBucketDateBetweenOrderByBucketDateAsc(Long userId, LocalDate from, LocalDate to);  // Primary key range scan
+
+    // Where the rollup resumes: the latest bucket (it may be partial), but no later than yesterday (transactions that
+    // committed around midnight); the epoch when nothing has been rolled up yet. Dates of the database session's time
+    // zone, like the CAST(occurred_at AS DATE) of the buckets.
+    @Query(nativeQuery = true,
+            value = "SELECT LEAST(COALESCE(MAX(bucket_date), DATE '1970-01-01'), CURRENT_DATE - 1) FROM task_daily_stats")
+    LocalDate findRollupWatermark();
+
+    // Today in the time zone of the buckets
+    @Query(nativeQuery = true, value = "SELECT CURRENT_DATE")
+    LocalDate currentDate();
+
+    // Recomputes the buckets of every (user, day) from :since on (whole days); idempotent, so it can simply be re-run
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            MERGE INTO task_daily_stats s
+            USING (SELECT user_id, CAST(occurred_at AS DATE) AS bucket_date,
+                          COUNT(CASE WHEN from_status IS NULL THEN 1 END) AS created,
+                          COUNT(CASE WHEN to_status = 3 THEN 1 END) AS completed,
+                          COALESCE(SUM(cycle_seconds), 0) AS cycle_seconds
+                   FROM task_event
+                   WHERE occurred_at >= :since
+                   GROUP BY user_id, CAST(occurred_at AS DATE)) d
+            ON s.user_id = d.user_id AND s.bucket_date = d.bucket_date
+            WHEN MATCHED THEN UPDATE SET created = d.created, completed = d.completed, cycle_seconds = d.cycle_seconds
+            WHEN NOT MATCHED THEN INSERT (user_id, bucket_date, created, completed, cycle_seconds)
+                VALUES (d.user_id, d.bucket_date, d.created, d.completed, d.cycle_seconds)
+            """)
+    int rollUpSince(@Param("since") LocalDate since);
+
+}
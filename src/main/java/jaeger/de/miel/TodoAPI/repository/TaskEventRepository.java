@@ -0,0 +1,7 @@
+package jaeger.de.miel.TodoAPI.repository;
+
+import jaeger.de.miel.TodoAPI.entity.TaskEvent;
+
+public interface TaskEventRepository extends EntityRepository<TaskEvent, Long> {
+
+}
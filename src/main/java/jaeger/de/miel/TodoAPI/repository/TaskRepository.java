@@ -1,15 +1,60 @@
 package jaeger.de.miel.TodoAPI.repository;
 
+import jaeger.de.miel.TodoAPI.dto.TaskStatus;
 import jaeger.de.miel.TodoAPI.entity.Task;
-import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface TaskRepository extends JpaRepository<Task,Long> {
+public interface TaskRepository extends EntityRepository<Task,Long> {
 
     List<Task> findTasksByList_IdAndCreator_Id(Long listId, Long creatorId);  // Using JPA derived query method name
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "256"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Task> streamTasksByList_IdAndCreator_Id(Long listId, Long creatorId);  // Must be consumed inside a transaction and closed
+
     Optional<Task> findTaskByIdAndList_IdAndCreator_Id(Long id, Long listId, Long creatorId);  // Using JPA derived query method name
     long deleteByIdAndList_IdAndCreator_Id(Long taskId, Long listId, Long creatorId);  // Using JPA derived query method name
 
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t.id, t.list.id FROM Task t")
+    Stream<Object[]> streamAllIdsAndListIds();  // Ownership index warm-up: [task id, list id], no entities
+
+    // Reminder window: range scan on IDX_TASK_DUE_DATE, keyset-paginated on (due date, id) after (afterDate, afterId)
+    @Query("SELECT t FROM Task t WHERE t.dueDate >= :from AND t.dueDate < :to AND t.status IN :statuses "
+            + "AND (t.dueDate > :afterDate OR (t.dueDate = :afterDate AND t.id > :afterId)) ORDER BY t.dueDate, t.id")
+    List<Task> findDueTasks(@Param("from") LocalDate from, @Param("to") LocalDate to,
+                            @Param("statuses") Collection<TaskStatus> statuses,
+                            @Param("afterDate") LocalDate afterDate, @Param("afterId") long afterId, Limit limit);
+
+    // Tasks of all lists of the owner: LIST by UK_LIST_OWNER_NAME_LOWER, then TASK by IDX_TASK_LIST_STATUS_DUE per list;
+    // keyset-paginated on id after afterId
+    @Query("SELECT t FROM Task t JOIN t.list l WHERE l.owner.id = :ownerId AND t.status IN :statuses "
+            + "AND t.id > :afterId ORDER BY t.id")
+    List<Task> findOwnerTasks(@Param("ownerId") Long ownerId, @Param("statuses") Collection<TaskStatus> statuses,
+                              @Param("afterId") long afterId, Limit limit);
+
+    // The same, due in [from, to): keyset-paginated on (due date, id) after (afterDate, afterId)
+    @Query("SELECT t FROM Task t JOIN t.list l WHERE l.owner.id = :ownerId AND t.status IN :statuses "
+            + "AND t.dueDate >= :from AND t.dueDate < :to "
+            + "AND (t.dueDate > :afterDate OR (t.dueDate = :afterDate AND t.id > :afterId)) ORDER BY t.dueDate, t.id")
+    List<Task> findOwnerTasksDue(@Param("ownerId") Long ownerId, @Param("statuses") Collection<TaskStatus> statuses,
+                                 @Param("from") LocalDate from, @Param("to") LocalDate to,
+                                 @Param("afterDate") LocalDate afterDate, @Param("afterId") long afterId, Limit limit);
+
 }
@@ -1,11 +1,49 @@
 package jaeger.de.miel.TodoAPI.repository;
 
 import jaeger.de.miel.TodoAPI.entity.AppUser;
-import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
-public interface UserRepository extends JpaRepository<AppUser, Long> {
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface UserRepository extends EntityRepository<AppUser, Long> {
 
     boolean existsByEmail(String email);
-    void deleteByEmail(String email);  // Using JPA derived query method name
+    List<AppUser> findByIdIn(Collection<Long> ids);  // Multi-get, see InClause (chunked and padded)
+    List<AppUser> deleteByEmail(String email);  // Using JPA derived query method name, returns the deleted users
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "256"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<AppUser> streamAllByOrderByNameAsc();  // Must be consumed inside a transaction and closed
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT u.id, u.email FROM AppUser u")
+    Stream<Object[]> streamAllIdsAndEmails();  // Index warm-up: [user id, email], no entities
+
+    // Slices (no COUNT query), sorted in the database along IDX_APP_USER_NAME / IDX_APP_USER_NAME_LOWER / UK_APP_USER_EMAIL
+    Slice<AppUser> findAllByOrderByNameAscIdAsc(Pageable pageable);
+    Slice<AppUser> findByNameLowerStartingWithOrderByNameAscIdAsc(String namePrefix, Pageable pageable);
+    Slice<AppUser> findByEmailStartingWithOrderByEmailAsc(String emailPrefix, Pageable pageable);
+
+    // Sharded profile: the id is allocated by the ShardDirectory (it decides the shard), not by the identity column
+    @Modifying
+    @Query(value = "INSERT INTO app_user (id, email, name, password_hash, created_at, updated_at) "
+            + "VALUES (:id, :email, :name, :passwordHash, :createdAt, :createdAt)", nativeQuery = true)
+    int insertWithId(@Param("id") long id, @Param("email") String email, @Param("name") String name,
+                     @Param("passwordHash") String passwordHash, @Param("createdAt") Instant createdAt);
 
 }
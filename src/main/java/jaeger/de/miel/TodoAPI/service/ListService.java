@@ -1,18 +1,21 @@
 package jaeger.de.miel.TodoAPI.service;
 
 import jaeger.de.miel.TodoAPI.dto.*;
-import jaeger.de.miel.TodoAPI.entity.AppUser;
+import jaeger.de.miel.TodoAPI.index.OwnershipIndex;
+import jaeger.de.miel.TodoAPI.index.UserFilter;
 import jaeger.de.miel.TodoAPI.mapper.ListMapper;
 import jaeger.de.miel.TodoAPI.mapper.UserMapper;
+import jaeger.de.miel.TodoAPI.repository.Constraints;
+import jaeger.de.miel.TodoAPI.repository.InClause;
 import jaeger.de.miel.TodoAPI.repository.ListRepository;
 import jaeger.de.miel.TodoAPI.repository.UserRepository;
 import lombok.AllArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 
 @Transactional
@@ -20,39 +23,77 @@ import java.util.List;
 @Service
 public class ListService {
 
+    private static final String UNIQUE_NAME_CONSTRAINT = "UK_LIST_OWNER_NAME_LOWER";
+    private static final String OWNER_FOREIGN_KEY = "FK_LIST_OWNER";
+
     private final ListRepository listRepository;
     private final UserRepository userRepository;
+    private final OwnershipIndex ownershipIndex;
+    private final UserFilter userFilter;
+    private final OutboxService outboxService;
 
 
     public List<ListDTO> getLists(Long userId) {
-        List<jaeger.de.miel.TodoAPI.entity.List> lists = listRepository.findListsByOwner_Id(userId);
+        if (ownershipIndex.checkUser(userId) == OwnershipIndex.Lookup.NOT_FOUND) return new ArrayList<>();
+
+        List<jaeger.de.miel.TodoAPI.entity.List> lists = listRepository.findListsByOwner_IdOrderByNameLowerAsc(userId);
 
         List<ListDTO> listList = new ArrayList<>();
         lists.forEach(l -> listList.add(ListMapper.toDTO(l)));
-        listList.sort(Comparator.comparing(ListDTO::getName));
 
         return listList;
     }
 
 
+    /**
+     * The lists of the user with the given ids in the order of the ids (unknown and foreign ids are skipped).
+     */
+    @Transactional(readOnly = true)
+    public List<ListDTO> getLists(Long userId, List<Long> listIds) {
+        if (ownershipIndex.checkUser(userId) == OwnershipIndex.Lookup.NOT_FOUND) return new ArrayList<>();
+
+        List<jaeger.de.miel.TodoAPI.entity.List> lists = InClause.findAll(listIds,
+                ids -> listRepository.findListsByOwner_IdAndIdIn(userId, ids), jaeger.de.miel.TodoAPI.entity.List::getId);
+
+        List<ListDTO> listList = new ArrayList<>(lists.size());
+        lists.forEach(l -> listList.add(ListMapper.toDTO(l)));
+        return listList;
+    }
+
+
     public ListDTO createList(Long userId, CreateListRequestDTO request) {
         String name = request.getName();
 
-        AppUser owner = userRepository.findById(userId)
-                .orElseThrow(() -> new OwnerNotFoundException("OwnerId not found: " + userId));
-
-        if (listRepository.existsByOwner_IdAndNameIgnoreCase(userId, name)) {
-            throw new DuplicateListNameException("List name already exists for owner: '" + name + "'");
+        // Ownership index, else the user filter ("certainly not"), else one query
+        if (!ownershipIndex.userExists(userId, () -> userFilter.userExists(userId, () -> userRepository.existsById(userId)))) {
+            throw new OwnerNotFoundException("OwnerId not found: " + userId);
         }
 
-        jaeger.de.miel.TodoAPI.entity.List list = listRepository.save(ListMapper.toEntity(userId, request));
-        return ListMapper.toDTO(list);
+        // No check-then-insert: the unique index on (OWNER_ID, NAME_LOWER) rejects duplicates atomically
+        try {
+            jaeger.de.miel.TodoAPI.entity.List list = listRepository.save(ListMapper.toEntity(userId, request));
+            ownershipIndex.listCreated(list.getId(), userId);
+            return ListMapper.toDTO(list);
+        } catch (DataIntegrityViolationException e) {
+            if (isDuplicateName(e)) {
+                throw new DuplicateListNameException("List name already exists for owner: '" + name + "'");
+            }
+            if (Constraints.isForeignKeyViolation(e, OWNER_FOREIGN_KEY)) {
+                throw new OwnerNotFoundException("OwnerId not found: " + userId);  // Owner deleted concurrently
+            }
+            throw e;
+        }
     }
 
 
     public void deleteList(Long userId, Long listId) {
+        if (ownershipIndex.checkList(listId, userId) == OwnershipIndex.Lookup.NOT_FOUND) return;
+
         try {
-            listRepository.deleteByIdAndOwner_Id(listId, userId);
+            outboxService.listTasksDeleted(listId, userId);  // Before the delete cascades to the tasks
+            if (listRepository.deleteByIdAndOwner_Id(listId, userId) > 0) {
+                ownershipIndex.listDeleted(listId);
+            }
         } catch (EmptyResultDataAccessException e) {
             throw new ListNotFoundException("List not found with id: " + listId);
         }
@@ -60,13 +101,29 @@ public class ListService {
 
 
     public ListDTO updateList(Long userId, Long listId, UpdateListRequestDTO request) {
+        if (ownershipIndex.checkList(listId, userId) == OwnershipIndex.Lookup.NOT_FOUND) {
+            throw new ListNotFoundException("List not found with userId: " + userId + " and listId: " + listId);
+        }
+
         jaeger.de.miel.TodoAPI.entity.List list = listRepository.findListByIdAndOwner_Id(listId, userId)
                 .orElseThrow(() -> new ListNotFoundException("List not found with userId: " + userId + " and listId: " + listId));
+        ownershipIndex.listFound(listId, userId);
 
         jaeger.de.miel.TodoAPI.entity.List entity = ListMapper.toEntity(list, request);
-        jaeger.de.miel.TodoAPI.entity.List updated = listRepository.save(entity);
+        try {
+            jaeger.de.miel.TodoAPI.entity.List updated = listRepository.saveAndFlush(entity);  // Flush: surface a duplicate name here, not at commit
+            return ListMapper.toDTO(updated);
+        } catch (DataIntegrityViolationException e) {
+            if (isDuplicateName(e)) {
+                throw new DuplicateListNameException("List name already exists for owner: '" + request.getName() + "'");
+            }
+            throw e;
+        }
+    }
+
 
-        return ListMapper.toDTO(updated);
+    private static boolean isDuplicateName(DataIntegrityViolationException e) {
+        return Constraints.isUniqueViolation(e, UNIQUE_NAME_CONSTRAINT);
     }
 
 
@@ -0,0 +1,91 @@
+package jaeger.de.miel.TodoAPI.service;
+
+import jaeger.de.miel.TodoAPI.dto.TaskDTO;
+import jaeger.de.miel.TodoAPI.entity.OutboxEvent;
+import jaeger.de.miel.TodoAPI.repository.OutboxRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Records task changes in the OUTBOX table within the transaction of the change, for the OutboxRelay to publish.
+ * A rolled back change never produces an event and a committed change always does; the caller only pays for one insert.
+ * <p>
+ * Tasks the database deletes along with their list or user (ON DELETE CASCADE) are recorded in bulk by
+ * {@link #listTasksDeleted} and {@link #userTasksDeleted}, which the list and user deletes call first.
+ */
+@Service
+public class OutboxService {
+
+    public static final String AGGREGATE_TASK = "TASK";
+    public static final String TASK_CREATED = "TASK_CREATED";
+    public static final String TASK_UPDATED = "TASK_UPDATED";
+    public static final String TASK_DELETED = "TASK_DELETED";
+
+    private final OutboxRepository outboxRepository;
+    private final JsonMapper jsonMapper;
+    private final boolean enabled;
+
+    public OutboxService(OutboxRepository outboxRepository,
+                         JsonMapper jsonMapper,
+                         @Value("${todo.outbox.enabled:true}") boolean enabled) {
+        this.outboxRepository = outboxRepository;
+        this.jsonMapper = jsonMapper;
+        this.enabled = enabled;
+    }
+
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void taskCreated(TaskDTO task) {
+        record(TASK_CREATED, task.getId(), task);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void taskUpdated(TaskDTO task) {
+        record(TASK_UPDATED, task.getId(), task);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void taskDeleted(Long taskId, Long listId, Long userId) {
+        record(TASK_DELETED, taskId, Map.of("id", taskId, "listId", listId, "userId", userId));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void listTasksDeleted(Long listId, Long ownerId) {
+        if (enabled) outboxRepository.insertTaskDeletedOfList(listId, ownerId, Instant.now());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void userTasksDeleted(Long userId) {
+        if (enabled) outboxRepository.insertTaskDeletedOfOwner(userId, Instant.now());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void userTasksDeleted(String email) {
+        if (enabled) outboxRepository.insertTaskDeletedOfOwnerEmail(email, Instant.now());
+    }
+
+
+    private void record(String eventType, Long taskId, Object payload) {
+        if (!enabled) return;
+
+        outboxRepository.save(OutboxEvent.builder()
+                .aggregateType(AGGREGATE_TASK)
+                .aggregateId(taskId)
+                .eventType(eventType)
+                .payload(jsonMapper.writeValueAsString(payload))
+                .createdAt(Instant.now())
+                .build());
+    }
+
+}
@@ -0,0 +1,54 @@
+package jaeger.de.miel.TodoAPI.service;
+
+import jaeger.de.miel.TodoAPI.dto.TaskAnalyticsDTO;
+import jaeger.de.miel.TodoAPI.mapper.TaskAnalyticsMapper;
+import jaeger.de.miel.TodoAPI.repository.TaskDailyStatsRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Throughput and cycle time per user, read from the daily buckets of TASK_DAILY_STATS (at most one row per day)
+ * instead of aggregating TASK_EVENT per request. The current day lags behind by the rollup interval.
+ */
+@Transactional(readOnly = true)
+@AllArgsConstructor
+@Service
+public class TaskAnalyticsService {
+
+    static final int MAX_RANGE_DAYS = 366;
+    static final int DEFAULT_RANGE_DAYS = 30;
+
+    private TaskDailyStatsRepository taskDailyStatsRepository;
+
+
+    /**
+     * Without to, the range ends today, and without from it spans DEFAULT_RANGE_DAYS; today is the database's, as the
+     * buckets are its dates.
+     */
+    public TaskAnalyticsDTO getTaskAnalytics(Long userId, LocalDate from, LocalDate to) {
+        if (to == null) to = taskDailyStatsRepository.currentDate();
+        if (from == null) from = to.minusDays(DEFAULT_RANGE_DAYS - 1);
+
+        if (from.isAfter(to) || ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new InvalidRangeException("Invalid range: from " + from + " to " + to + " (at most " + MAX_RANGE_DAYS + " days)");
+        }
+
+        return TaskAnalyticsMapper.toDTO(from, to,
+                taskDailyStatsRepository.findByUserIdAndBucketDateBetweenOrderByBucketDateAsc(userId, from, to));
+    }
+
+
+    // ---------------------------------------
+    // Exceptions
+    // ---------------------------------------
+    public static class InvalidRangeException extends RuntimeException {
+        public InvalidRangeException(String message) {
+            super(message);
+        }
+    }
+
+}
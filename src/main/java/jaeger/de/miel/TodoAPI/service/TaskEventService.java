@@ -0,0 +1,54 @@
+package jaeger.de.miel.TodoAPI.service;
+
+import jaeger.de.miel.TodoAPI.dto.TaskStatus;
+import jaeger.de.miel.TodoAPI.entity.Task;
+import jaeger.de.miel.TodoAPI.entity.TaskEvent;
+import jaeger.de.miel.TodoAPI.repository.TaskEventRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Appends status transitions to TASK_EVENT in the transaction of the change. The inserts are sent in JDBC batches
+ * at flush time (sequence ids, hibernate.jdbc.batch_size), e.g. one batch for a whole write-behind flush.
+ */
+@Transactional(propagation = Propagation.MANDATORY)
+@AllArgsConstructor
+@Service
+public class TaskEventService {
+
+    private TaskEventRepository taskEventRepository;
+
+
+    public void recordCreated(Task task) {
+        record(task, null);
+    }
+
+
+    public void recordTransition(Task task, TaskStatus from) {
+        if (task.getStatus() == from) return;
+        record(task, from);
+    }
+
+
+    private void record(Task task, TaskStatus from) {
+        Long cycleSeconds = task.getStatus() == TaskStatus.DONE && task.getCompletedAt() != null
+                ? Duration.between(task.getCreatedAt(), task.getCompletedAt()).toSeconds()
+                : null;
+
+        taskEventRepository.save(TaskEvent.builder()
+                .taskId(task.getId())
+                .listId(task.getList().getId())
+                .userId(task.getCreator().getId())
+                .fromStatus(from)
+                .toStatus(task.getStatus())
+                .cycleSeconds(cycleSeconds)
+                .occurredAt(task.getUpdatedAt() != null ? task.getUpdatedAt() : Instant.now())
+                .build());
+    }
+
+}
@@ -1,56 +1,171 @@
 package jaeger.de.miel.TodoAPI.service;
 
 import jaeger.de.miel.TodoAPI.dto.*;
-import jaeger.de.miel.TodoAPI.entity.AppUser;
 import jaeger.de.miel.TodoAPI.entity.Task;
-import jaeger.de.miel.TodoAPI.mapper.ListMapper;
+import jaeger.de.miel.TodoAPI.index.OwnershipIndex;
 import jaeger.de.miel.TodoAPI.mapper.TaskMapper;
+import jaeger.de.miel.TodoAPI.reminder.ReminderScheduler;
+import jaeger.de.miel.TodoAPI.repository.Constraints;
 import jaeger.de.miel.TodoAPI.repository.ListRepository;
 import jaeger.de.miel.TodoAPI.repository.TaskRepository;
-import jaeger.de.miel.TodoAPI.repository.UserRepository;
+import jakarta.persistence.EntityManager;
 import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Transactional
 @AllArgsConstructor
 @Service
 public class TaskService {
 
-    private UserRepository userRepository;
+    private static final String LIST_FOREIGN_KEY = "FK_TASK_LIST";
+    private static final Set<TaskStatus> ALL_STATUSES = EnumSet.allOf(TaskStatus.class);
+    private static final LocalDate NO_DUE_FROM = LocalDate.of(1, 1, 1);
+    private static final LocalDate NO_DUE_TO = LocalDate.of(9999, 12, 31);
+
     private ListRepository listRepository;
     private TaskRepository taskRepository;
+    private TaskUpdateBuffer taskUpdateBuffer;
+    private ObjectProvider<EntityManager> entityManager;  // Absent in the journal profile (no JPA)
+    private OutboxService outboxService;
+    private ReminderScheduler reminderScheduler;
+    private TaskEventService taskEventService;
+    private OwnershipIndex ownershipIndex;
 
     public List<TaskDTO> getTasks(Long userId, Long listId) {
 
+        if (ownershipIndex.checkList(listId, userId) == OwnershipIndex.Lookup.NOT_FOUND) {
+            return new ArrayList<>();  // Deleted or someone else's list: no query
+        }
+
         List<Task> tasks = taskRepository.findTasksByList_IdAndCreator_Id(listId, userId);
 
         List<TaskDTO> taskList = new ArrayList<>();
         tasks.forEach(t -> taskList.add(TaskMapper.toDTO(t)));
+
+        if (taskUpdateBuffer.isEnabled()) {
+            taskList.replaceAll(taskUpdateBuffer::overlay);  // Read-your-writes for updates not flushed yet
+        }
         return taskList;
     }
 
 
-    public TaskDTO createTask(Long userId, Long listId, CreateTaskRequestDTO createTaskRequestDTO) {
+    /**
+     * Hands the tasks to the consumer one by one while the result set is read (fetch size 256),
+     * detaching each entity so the persistence context does not grow with the list.
+     */
+    @Transactional(readOnly = true)
+    public void streamTasks(Long userId, Long listId, Consumer<TaskDTO> consumer) {
+        if (ownershipIndex.checkList(listId, userId) == OwnershipIndex.Lookup.NOT_FOUND) return;
+
+        EntityManager em = entityManager.getIfAvailable();
+        try (Stream<Task> tasks = taskRepository.streamTasksByList_IdAndCreator_Id(listId, userId)) {
+            tasks.forEach(t -> {
+                TaskDTO taskDTO = TaskMapper.toDTO(t);
+                if (em != null) em.detach(t);
+                consumer.accept(taskUpdateBuffer.isEnabled() ? taskUpdateBuffer.overlay(taskDTO) : taskDTO);
+            });
+        }
+    }
+
+
+    /**
+     * One page of the tasks of all lists of the user, in a single query instead of one per list.
+     * <p>
+     * Without a due range the tasks are ordered by id and the cursor is the last id. With a due range (inclusive, either
+     * end may be open) tasks without a due date are left out, the tasks are ordered by (due date, id) and the cursor is
+     * "dueDate,id". A cursor only continues the query it came from.
+     * <p>
+     * With write-behind the caller flushes the buffered updates before (outside of) this read-only transaction: the
+     * database filters and orders by status and due date, which an overlay applied afterwards would contradict.
+     */
+    @Transactional(readOnly = true)
+    public TaskPageDTO getUserTasks(Long userId, Collection<TaskStatus> statuses, LocalDate dueFrom, LocalDate dueTo,
+                                    String after, int size) {
+
+        if (dueFrom != null && dueTo != null && dueFrom.isAfter(dueTo)) {
+            throw new InvalidTaskQueryException("dueFrom " + dueFrom + " is after dueTo " + dueTo);
+        }
+        Collection<TaskStatus> matching = statuses == null || statuses.isEmpty() ? ALL_STATUSES : statuses;
+        boolean due = dueFrom != null || dueTo != null;
+        Cursor cursor = after == null ? null : Cursor.parse(after, due);
+
+        List<Task> tasks;
+        if (ownershipIndex.checkUser(userId) == OwnershipIndex.Lookup.NOT_FOUND) {
+            tasks = List.of();  // Deleted user: no query
+        } else if (due) {
+            LocalDate from = dueFrom != null ? dueFrom : NO_DUE_FROM;
+            LocalDate to = (dueTo != null ? dueTo : NO_DUE_TO).plusDays(1);
+            Cursor start = cursor != null ? cursor : new Cursor(from, 0);  // Ids start at 1: every task due on from
+            tasks = taskRepository.findOwnerTasksDue(userId, matching, from, to, start.dueDate(), start.id(), Limit.of(size + 1));
+        } else {
+            tasks = taskRepository.findOwnerTasks(userId, matching, cursor == null ? 0 : cursor.id(), Limit.of(size + 1));
+        }
+
+        boolean hasNext = tasks.size() > size;  // One row more than the page: no COUNT(*)
+        List<TaskDTO> content = new ArrayList<>(Math.min(tasks.size(), size));
+        tasks.stream().limit(size).forEach(t -> content.add(TaskMapper.toDTO(t)));
+
+        TaskPageDTO page = new TaskPageDTO();
+        page.setSize(size);
+        page.setHasNext(hasNext);
+        if (hasNext) {
+            Task last = tasks.get(size - 1);
+            page.setNext(new Cursor(due ? last.getDueDate() : null, last.getId()).format());
+        }
+        page.setContent(content);
+        return page;
+    }
 
-        AppUser owner = userRepository.findById(userId)
-            .orElseThrow(() -> new CreatorNotFoundException("CreatorId not found: " + userId));
 
-        jaeger.de.miel.TodoAPI.entity.List list = listRepository.findById(listId)
-                .orElseThrow(() -> new ListNotFoundException("ListId not found: " + listId));
+    public TaskDTO createTask(Long userId, Long listId, CreateTaskRequestDTO createTaskRequestDTO) {
 
-        Task task = taskRepository.save(TaskMapper.toEntity(userId, listId, createTaskRequestDTO));
-        return TaskMapper.toDTO(task);
+        // Ownership index, else one query: the list must exist AND belong to the user (which implies the user exists)
+        if (!ownershipIndex.ownsList(userId, listId, () -> listRepository.existsByIdAndOwner_Id(listId, userId))) {
+            throw new ListNotFoundException("List not found with userId: " + userId + " and listId: " + listId);
+        }
+
+        try {
+            Task task = taskRepository.save(TaskMapper.toEntity(userId, listId, createTaskRequestDTO));
+            taskEventService.recordCreated(task);
+            ownershipIndex.taskCreated(task.getId(), listId);
+            TaskDTO taskDTO = TaskMapper.toDTO(task);
+            outboxService.taskCreated(taskDTO);
+            reminderScheduler.taskChanged(taskDTO);
+            return taskDTO;
+        } catch (DataIntegrityViolationException e) {
+            if (!Constraints.isForeignKeyViolation(e, LIST_FOREIGN_KEY)) throw e;
+            // List (or its owner) deleted concurrently between the check and the insert
+            throw new ListNotFoundException("List not found with userId: " + userId + " and listId: " + listId);
+        }
     }
 
 
     public void deleteTask(Long userId, Long listId, Long taskId) {
+        if (ownershipIndex.checkTask(taskId, listId, userId) == OwnershipIndex.Lookup.NOT_FOUND) return;
+
         try {
-            taskRepository.deleteByIdAndList_IdAndCreator_Id(taskId, listId, userId);
+            long deleted = taskRepository.deleteByIdAndList_IdAndCreator_Id(taskId, listId, userId);
+            taskUpdateBuffer.discard(taskId);
+            if (deleted > 0) {
+                ownershipIndex.taskDeleted(taskId);
+                outboxService.taskDeleted(taskId, listId, userId);
+                reminderScheduler.taskDeleted(userId, taskId);
+            }
         } catch (EmptyResultDataAccessException e) {
             throw new TaskNotFoundException("Task not found with id: " + taskId);
         }
@@ -59,25 +174,58 @@ public class TaskService {
 
     public TaskDTO updateTask(Long taskId, Long userId, Long listId, UpdateTaskRequestDTO request) {
 
+        if (ownershipIndex.checkTask(taskId, listId, userId) == OwnershipIndex.Lookup.NOT_FOUND) {
+            throw new TaskNotFoundException("Task not found with userId: " + userId + " and listId: " + listId + " and taskId: " + taskId);
+        }
+
         Task task = taskRepository.findTaskByIdAndList_IdAndCreator_Id(taskId, listId, userId)
                 .orElseThrow(() -> new TaskNotFoundException("Task not found with userId: " + userId + " and listId: " + listId + " and taskId: " + taskId));
+        ownershipIndex.taskFound(taskId, listId);
+        ownershipIndex.listFound(listId, userId);
+
+        if (taskUpdateBuffer.isEnabled()) {
+            // Write-behind: acknowledge now, the buffer writes the (merged) update and its outbox event in a batched transaction
+            taskUpdateBuffer.enqueue(taskId, request);
+            TaskDTO taskDTO = taskUpdateBuffer.overlay(TaskMapper.toDTO(task));
+            reminderScheduler.taskChanged(taskDTO);
+            return taskDTO;
+        }
 
-        Task entity = TaskMapper.toEntity(task, request);
+        TaskStatus previous = task.getStatus();
+        Task entity = TaskMapper.toEntity(task, request);  // Stamps completedAt on the transition to done
         Task updated = taskRepository.save(entity);
+        taskEventService.recordTransition(updated, previous);
 
-        return TaskMapper.toDTO(updated);
+        TaskDTO taskDTO = TaskMapper.toDTO(updated);
+        outboxService.taskUpdated(taskDTO);
+        reminderScheduler.taskChanged(taskDTO);
+        return taskDTO;
     }
 
 
-    // ---------------------------------------
-    // Exceptions
-    // ---------------------------------------
-    public static class CreatorNotFoundException extends RuntimeException {
-        public CreatorNotFoundException(String message) {
-            super(message);
+    // Keyset position of GET /users/{userId}/tasks: the last id, or "dueDate,id" when ordered by due date
+    private record Cursor(LocalDate dueDate, long id) {
+
+        static Cursor parse(String value, boolean due) {
+            try {
+                if (!due) return new Cursor(null, Long.parseLong(value));
+                int comma = value.indexOf(',');
+                if (comma < 0) throw new InvalidTaskQueryException("Invalid cursor for a due date range: " + value);
+                return new Cursor(LocalDate.parse(value.substring(0, comma)), Long.parseLong(value.substring(comma + 1)));
+            } catch (NumberFormatException | DateTimeParseException e) {
+                throw new InvalidTaskQueryException("Invalid cursor: " + value);
+            }
+        }
+
+        String format() {
+            return dueDate == null ? String.valueOf(id) : dueDate + "," + id;
         }
     }
 
+
+    // ---------------------------------------
+    // Exceptions
+    // ---------------------------------------
     public static class ListNotFoundException extends RuntimeException {
         public ListNotFoundException(String message) {
             super(message);
@@ -90,4 +238,10 @@ public class TaskService {
         }
     }
 
+    public static class InvalidTaskQueryException extends RuntimeException {
+        public InvalidTaskQueryException(String message) {
+            super(message);
+        }
+    }
+
 }
@@ -0,0 +1,61 @@
+package jaeger.de.miel.TodoAPI.service;
+
+import jaeger.de.miel.TodoAPI.repository.TaskDailyStatsRepository;
+import jaeger.de.miel.TodoAPI.shard.ShardContext;
+import jaeger.de.miel.TodoAPI.shard.ShardDirectory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+/**
+ * Pre-aggregates TASK_EVENT into the daily buckets of TASK_DAILY_STATS every rollup-interval-ms.
+ * <p>
+ * Every run resumes from the latest bucket, or yesterday if that is earlier, and recomputes the days from there as a
+ * whole (range scan on IDX_TASK_EVENT_OCCURRED_AT): this also picks up transactions that committed around midnight and
+ * catches up on the days missed while the application was down; older days are final. Both the watermark and the
+ * buckets are dates of the database, so the JVM's time zone plays no part.
+ */
+@Slf4j
+@Lazy(false)  // Only driven by its schedule
+@Component
+public class TaskStatsRollup {
+
+    private final TaskDailyStatsRepository taskDailyStatsRepository;
+    private final ShardDirectory shardDirectory;
+    private final TransactionTemplate transactionTemplate;
+
+    public TaskStatsRollup(TaskDailyStatsRepository taskDailyStatsRepository,
+                           ShardDirectory shardDirectory,
+                           PlatformTransactionManager transactionManager) {
+        this.taskDailyStatsRepository = taskDailyStatsRepository;
+        this.shardDirectory = shardDirectory;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+
+    @Scheduled(fixedDelayString = "${todo.analytics.rollup-interval-ms:60000}")
+    public void rollUp() {
+        if (shardDirectory.isEnabled()) {
+            shardDirectory.shards().forEach(shard -> ShardContext.callOn(shard, this::rollUpDatabase));  // A watermark per shard
+        } else {
+            rollUpDatabase();
+        }
+    }
+
+
+    private int rollUpDatabase() {
+        Integer buckets = transactionTemplate.execute(status -> {
+            LocalDate since = taskDailyStatsRepository.findRollupWatermark();
+            int recomputed = taskDailyStatsRepository.rollUpSince(since);
+            log.debug("Task stats rollup: {} daily buckets since {} recomputed", recomputed, since);
+            return recomputed;
+        });
+        return buckets == null ? 0 : buckets;
+    }
+
+}
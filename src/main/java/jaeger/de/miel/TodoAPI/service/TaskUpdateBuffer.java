@@ -0,0 +1,261 @@
+package jaeger.de.miel.TodoAPI.service;
+
+import jaeger.de.miel.TodoAPI.dto.TaskDTO;
+import jaeger.de.miel.TodoAPI.dto.TaskStatus;
+import jaeger.de.miel.TodoAPI.dto.UpdateTaskRequestDTO;
+import jaeger.de.miel.TodoAPI.entity.Task;
+import jaeger.de.miel.TodoAPI.mapper.TaskMapper;
+import jaeger.de.miel.TodoAPI.repository.TaskRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Opt-in write-behind buffer for task updates (todo.tasks.write-behind.enabled=true).
+ * <p>
+ * Updates are acknowledged into a per-task buffer and flushed every flush-interval-ms in one batched transaction.
+ * Successive updates of the same task are merged field by field, last writer wins.
+ * <p>
+ * Durability bound: an acknowledged update is written within flush-interval-ms, or sooner when max-pending tasks
+ * are buffered. A crash can lose at most that window. The buffer is flushed on shutdown.
+ * <p>
+ * A flush runs in its own transaction (REQUIRES_NEW) and never inside a request's transaction, where it would hold a
+ * second connection or wait for the flush lock: the back-pressure flush from {@link #enqueue} is handed to the
+ * task-write-behind thread, and a read that needs every update in the database calls {@link #flush} before its own
+ * transaction begins.
+ * <p>
+ * A committed batch stays visible to {@link #overlay} for rows read before its commit (updatedAt older than the one
+ * the flush wrote), so a read racing the commit still sees the update.
+ */
+@Slf4j
+@Component
+public class TaskUpdateBuffer {
+
+    private static final Duration FLUSHED_RETENTION = Duration.ofSeconds(10);  // Far longer than a read between loading a row and overlay()
+
+    private final TaskRepository taskRepository;
+    private final OutboxService outboxService;
+    private final TaskEventService taskEventService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final long flushIntervalMs;
+    private final int maxPending;
+
+    private final ConcurrentHashMap<Long, UpdateTaskRequestDTO> pending = new ConcurrentHashMap<>();
+    private volatile ConcurrentHashMap<Long, UpdateTaskRequestDTO> inFlight = new ConcurrentHashMap<>();  // Being flushed, not committed yet
+    private final ConcurrentHashMap<Long, Flushed> flushed = new ConcurrentHashMap<>();  // Committed, for rows read before the commit
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private ScheduledExecutorService scheduler;
+
+
+    public TaskUpdateBuffer(TaskRepository taskRepository,
+                            OutboxService outboxService,
+                            TaskEventService taskEventService,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${todo.tasks.write-behind.enabled:false}") boolean enabled,
+                            @Value("${todo.tasks.write-behind.flush-interval-ms:20}") long flushIntervalMs,
+                            @Value("${todo.tasks.write-behind.max-pending:1000}") int maxPending) {
+        this.taskRepository = taskRepository;
+        this.outboxService = outboxService;
+        this.taskEventService = taskEventService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+        this.flushIntervalMs = flushIntervalMs;
+        this.maxPending = maxPending;
+    }
+
+
+    @PostConstruct
+    void start() {
+        if (!enabled) return;
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "task-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("Task write-behind enabled: flush every {} ms, max {} pending tasks", flushIntervalMs, maxPending);
+    }
+
+
+    @PreDestroy
+    void stop() {
+        if (scheduler == null) return;
+
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();  // Flush-on-shutdown
+    }
+
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+
+    public void enqueue(Long taskId, UpdateTaskRequestDTO request) {
+        pending.merge(taskId, merge(new UpdateTaskRequestDTO(), request), TaskUpdateBuffer::merge);
+
+        if (pending.size() >= maxPending) {
+            requestFlush();  // Back-pressure; a failed flush keeps the update buffered
+        }
+    }
+
+
+    private void requestFlush() {
+        if (scheduler == null || !flushRequested.compareAndSet(false, true)) return;  // One request queued at a time
+
+        try {
+            scheduler.execute(() -> {
+                flushRequested.set(false);
+                flushQuietly();
+            });
+        } catch (RejectedExecutionException e) {
+            flushRequested.set(false);  // Shutting down, stop() flushes what is left
+        }
+    }
+
+
+    public void discard(Long taskId) {
+        pending.remove(taskId);
+        inFlight.remove(taskId);  // Not written back by a flush that has not reached this task yet
+        flushed.remove(taskId);
+    }
+
+
+    /**
+     * Applies buffered updates of this task on top of the DTO read from the database: pending and in-flight ones, and a
+     * committed one if the row was read before its commit.
+     */
+    public TaskDTO overlay(TaskDTO taskDTO) {
+        // pending before inFlight before flushed: flush() publishes each before it removes from the previous one, so an
+        // update being moved is seen in at least one of them (applying it twice is harmless)
+        UpdateTaskRequestDTO buffered = pending.get(taskDTO.getId());
+        UpdateTaskRequestDTO flushing = inFlight.get(taskDTO.getId());
+        Flushed committed = flushed.get(taskDTO.getId());
+
+        if (committed != null && committed.isNewerThan(taskDTO)) TaskMapper.toDTO(taskDTO, committed.update());
+        if (flushing != null) TaskMapper.toDTO(taskDTO, flushing);
+        if (buffered != null) TaskMapper.toDTO(taskDTO, buffered);
+        return taskDTO;
+    }
+
+
+    /**
+     * Writes every buffered update; also waits for a flush in progress, so its updates are committed on return too.
+     */
+    public void flush() {
+        if (pending.isEmpty() && inFlight.isEmpty()) return;
+
+        flushLock.lock();
+        try {
+            // Published before it is filled and before pending is cleared: overlay() always finds an update in one of
+            // them, and discard() always reaches the batch
+            ConcurrentHashMap<Long, UpdateTaskRequestDTO> batch = new ConcurrentHashMap<>();
+            inFlight = batch;
+            batch.putAll(pending);
+            batch.forEach(pending::remove);  // Only if unchanged: an update merged meanwhile stays pending (it includes this one)
+            if (batch.isEmpty()) return;
+
+            Map<Long, Instant> stamps = new HashMap<>();
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    List<Task> tasks = new ArrayList<>(taskRepository.findAllById(Set.copyOf(batch.keySet())));  // Deleted tasks are skipped
+                    tasks.removeIf(task -> {
+                        UpdateTaskRequestDTO update = batch.get(task.getId());
+                        if (update == null) return true;  // Discarded meanwhile
+                        TaskStatus previous = task.getStatus();
+                        TaskMapper.toEntity(task, update);
+                        taskEventService.recordTransition(task, previous);  // Inserted in the same JDBC batches
+                        stamps.put(task.getId(), task.getUpdatedAt());
+                        return false;
+                    });
+                    taskRepository.saveAll(tasks);
+                    tasks.forEach(task -> outboxService.taskUpdated(TaskMapper.toDTO(task)));
+                });
+                retainFlushed(batch, stamps);
+            } catch (RuntimeException e) {
+                // Put the batch back (without discarded tasks); updates that arrived meanwhile are newer and win
+                batch.forEach((taskId, update) -> pending.merge(taskId, update, (newer, older) -> merge(older, newer)));
+                throw e;
+            } finally {
+                inFlight = new ConcurrentHashMap<>();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+
+    private void retainFlushed(Map<Long, UpdateTaskRequestDTO> batch, Map<Long, Instant> stamps) {
+        stamps.forEach((taskId, updatedAt) -> {
+            UpdateTaskRequestDTO update = batch.get(taskId);
+            if (update != null) flushed.put(taskId, new Flushed(update, updatedAt));  // Replaces an older flush of the task
+        });
+
+        Instant expired = Instant.now().minus(FLUSHED_RETENTION);
+        flushed.values().removeIf(committed -> committed.updatedAt().isBefore(expired));
+    }
+
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Task write-behind flush failed, will retry", e);
+        }
+    }
+
+
+    /**
+     * Last writer wins, per field: non-null fields of the newer update replace those of the older one.
+     */
+    static UpdateTaskRequestDTO merge(UpdateTaskRequestDTO older, UpdateTaskRequestDTO newer) {
+        var merged = new UpdateTaskRequestDTO();  // Never mutate a buffered value, overlay() may be reading it
+        merged.setTitle(newer.getTitle() != null ? newer.getTitle() : older.getTitle());
+        merged.setDescription(newer.getDescription() != null ? newer.getDescription() : older.getDescription());
+        merged.setStatus(newer.getStatus() != null ? newer.getStatus() : older.getStatus());
+        merged.setDueDate(newer.getDueDate() != null ? newer.getDueDate() : older.getDueDate());
+        merged.setPriority(newer.getPriority() != null ? newer.getPriority() : older.getPriority());
+        return merged;
+    }
+
+
+    /**
+     * An update committed by a flush, which wrote updatedAt to the row.
+     */
+    private record Flushed(UpdateTaskRequestDTO update, Instant updatedAt) {
+
+        boolean isNewerThan(TaskDTO taskDTO) {
+            return taskDTO.getUpdatedAt() == null || taskDTO.getUpdatedAt().isBefore(updatedAt);
+        }
+    }
+
+}
@@ -3,55 +3,171 @@ package jaeger.de.miel.TodoAPI.service;
 import jaeger.de.miel.TodoAPI.dto.CreateUserRequestDTO;
 import jaeger.de.miel.TodoAPI.dto.UpdateUserRequestDTO;
 import jaeger.de.miel.TodoAPI.dto.UserDTO;
+import jaeger.de.miel.TodoAPI.dto.UserPageDTO;
 import jaeger.de.miel.TodoAPI.entity.AppUser;
+import jaeger.de.miel.TodoAPI.index.OwnershipIndex;
+import jaeger.de.miel.TodoAPI.index.UserFilter;
 import jaeger.de.miel.TodoAPI.mapper.UserMapper;
+import jaeger.de.miel.TodoAPI.repository.Constraints;
+import jaeger.de.miel.TodoAPI.repository.InClause;
 import jaeger.de.miel.TodoAPI.repository.UserRepository;
+import jaeger.de.miel.TodoAPI.shard.ShardContext;
+import jaeger.de.miel.TodoAPI.shard.ShardDirectory;
+import jakarta.persistence.EntityManager;
 import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @Transactional
 @AllArgsConstructor
 @Service
 public class UserService {
 
+    private static final Comparator<AppUser> BY_NAME = Comparator.comparing(AppUser::getName).thenComparing(AppUser::getId);
+    private static final Comparator<AppUser> BY_EMAIL = Comparator.comparing(AppUser::getEmail);
+    private static final String UNIQUE_EMAIL_CONSTRAINT = "UK_APP_USER_EMAIL";
+
     private final UserRepository userRepository;
     private PasswordEncoder passwordEncoder;
+    private ObjectProvider<EntityManager> entityManager;  // Absent in the journal profile (no JPA)
+    private ShardDirectory shardDirectory;  // Sharded profile only (isEnabled)
+    private OwnershipIndex ownershipIndex;  // Disabled in the sharded profile
+    private UserFilter userFilter;  // Disabled in the sharded profile
+    private OutboxService outboxService;
 
 
-    public List<UserDTO> getUsers() {
-        List<AppUser> users = userRepository.findAll();
+    /**
+     * One page of users sorted by name (and id) in the database, optionally filtered by a name or email prefix.
+     */
+    @Transactional(readOnly = true)
+    public UserPageDTO getUsers(int page, int size, String namePrefix, String emailPrefix) {
+        if (shardDirectory.isEnabled()) {
+            return getUsersFromAllShards(page, size, namePrefix, emailPrefix);
+        }
+
+        Slice<AppUser> users = findUsers(PageRequest.of(page, size), namePrefix, emailPrefix);
+        return UserMapper.toDTO(users);
+    }
 
-        ArrayList<UserDTO> userList = new ArrayList<>();
-        users.forEach(u -> userList.add(UserMapper.toDTO(u)));
-        userList.sort(Comparator.comparing(UserDTO::getName));
 
+    /**
+     * The users with the given ids in the order of the ids (unknown ids are skipped), in IN-list queries of padded chunks.
+     */
+    @Transactional(readOnly = true)
+    public List<UserDTO> getUsers(List<Long> ids) {
+        List<AppUser> users;
+        if (shardDirectory.isEnabled()) {
+            // A user lives on the shard of its id: query only the shards that own one of the ids, each for its own ids
+            Map<String, List<Long>> idsByShard = new LinkedHashMap<>();
+            ids.forEach(id -> idsByShard.computeIfAbsent(shardDirectory.shardFor(id), shard -> new ArrayList<>()).add(id));
+            Map<String, Supplier<List<AppUser>>> queries = new LinkedHashMap<>();
+            idsByShard.forEach((shard, shardIds) ->
+                    queries.put(shard, () -> InClause.findAll(shardIds, userRepository::findByIdIn, AppUser::getId)));
+
+            List<AppUser> found = new ArrayList<>();
+            shardDirectory.onShards(queries).forEach(found::addAll);
+            users = InClause.inOrder(ids, found, AppUser::getId);
+        } else {
+            users = InClause.findAll(ids, userRepository::findByIdIn, AppUser::getId);
+        }
+
+        List<UserDTO> userList = new ArrayList<>(users.size());
+        users.forEach(u -> userList.add(UserMapper.toDTO(u)));
         return userList;
     }
 
 
+    @Transactional(readOnly = true)
+    public long countUsers() {
+        if (shardDirectory.isEnabled()) {
+            return shardDirectory.onEachShard(userRepository::count).stream().mapToLong(Long::longValue).sum();
+        }
+        return userRepository.count();
+    }
+
+
+    /**
+     * Hands the users, sorted by name in the database, to the consumer one by one while the result set is read.
+     */
+    @Transactional(readOnly = true)
+    public void streamUsers(Consumer<UserDTO> consumer) {
+        if (shardDirectory.isEnabled()) {
+            // Bounded by todo.users.max-unpaginated (checked by the controller), so the merge can sort in memory
+            List<AppUser> users = new ArrayList<>();
+            shardDirectory.onEachShard(() -> userRepository.findAllByOrderByNameAscIdAsc(Pageable.unpaged()).getContent())
+                    .forEach(users::addAll);
+            users.sort(BY_NAME);
+            users.forEach(u -> consumer.accept(UserMapper.toDTO(u)));
+            return;
+        }
+
+        EntityManager em = entityManager.getIfAvailable();
+        try (Stream<AppUser> users = userRepository.streamAllByOrderByNameAsc()) {
+            users.forEach(u -> {
+                consumer.accept(UserMapper.toDTO(u));
+                if (em != null) em.detach(u);
+            });
+        }
+    }
+
+
     public UserDTO createUser(CreateUserRequestDTO request) {
         AppUser appUser = UserMapper.toEntity(request, passwordEncoder);
-        String email = request.getEmail();
+        String email = appUser.getEmail();  // Trimmed and lower-cased, as stored
+
+        if (shardDirectory.isEnabled()) {
+            return createUserOnShard(appUser);
+        }
 
-        if (userRepository.existsByEmail(email)) {
+        // The filter answers most new emails; UK_APP_USER_EMAIL still rejects a concurrent duplicate
+        if (userFilter.emailInUse(email, () -> userRepository.existsByEmail(email))) {
             throw new DuplicateEmailException("Email already in use: " + email);
         }
 
-        AppUser appUserCreated = userRepository.save(appUser);
+        AppUser appUserCreated;
+        try {
+            appUserCreated = userRepository.save(appUser);
+        } catch (DataIntegrityViolationException e) {
+            if (isDuplicateEmail(e)) throw new DuplicateEmailException("Email already in use: " + email);
+            throw e;
+        }
+        ownershipIndex.userCreated(appUserCreated.getId());
+        userFilter.userCreated(appUserCreated.getId(), appUserCreated.getEmail());
         return UserMapper.toDTO(appUserCreated);
     }
 
 
     public void deleteUser(Long id) {
         try {
-            userRepository.deleteById(id);
+            // Only an authoritative filter is worth maintaining: it needs the email, and deleteById then finds the row in
+            // the persistence context (no second SELECT)
+            Optional<AppUser> user = userFilter.isAuthoritative() ? userRepository.findById(id) : Optional.empty();
+            outboxService.userTasksDeleted(id);  // Before the delete cascades to the tasks
+            userRepository.deleteById(id);  // Sharded: routed by the {userId} path variable
+            ownershipIndex.userDeleted(id);
+            user.ifPresent(userFilter::userDeleted);
+            if (shardDirectory.isEnabled()) afterCommit(() -> shardDirectory.unregister(id));  // Not for a rolled back delete
         } catch (EmptyResultDataAccessException e) {
             throw new UserNotFoundException("User not found with id: " + id);
         }
@@ -61,7 +177,15 @@ public class UserService {
     public void deleteUser(String email) {
         try {
             email = email.trim().toLowerCase();
-            userRepository.deleteByEmail(email);
+            if (shardDirectory.isEnabled()) {
+                deleteUserOnShard(email);
+                return;
+            }
+            outboxService.userTasksDeleted(email);  // Before the delete cascades to the tasks
+            userRepository.deleteByEmail(email).forEach(user -> {
+                ownershipIndex.userDeleted(user.getId());
+                userFilter.userDeleted(user);
+            });
         } catch (EmptyResultDataAccessException e) {
             throw new UserNotFoundException("User not found with email: " + email);
         }
@@ -72,18 +196,130 @@ public class UserService {
         AppUser user = userRepository.findById(id)
                 .orElseThrow(() -> new UserNotFoundException("User not found with id: " + id));
 
-        String email = request.getEmail();
-        if (userRepository.existsByEmail(email)) {
+        String email = UserMapper.normalizeEmail(request.getEmail());  // As stored by the mapper
+        String previousEmail = user.getEmail();
+        boolean emailChanged = email != null && !email.equals(previousEmail);  // Its own email is no duplicate
+        if (emailChanged && shardDirectory.isEnabled()) {
+            changeEmailInDirectory(id, email);
+            afterRollback(() -> shardDirectory.changeEmail(id, previousEmail));  // Committed already: compensate a failed shard update
+        } else if (emailChanged && userFilter.emailInUse(email, () -> userRepository.existsByEmail(email))) {
             throw new DuplicateEmailException("Email already in use: " + email);
         }
 
         AppUser appUser = UserMapper.toEntity(user, request, passwordEncoder);
 
         AppUser updated = userRepository.save(appUser);
+        userFilter.emailChanged(previousEmail, updated.getEmail());
         return UserMapper.toDTO(updated);
     }
 
 
+    private Slice<AppUser> findUsers(Pageable pageable, String namePrefix, String emailPrefix) {
+        if (namePrefix != null && !namePrefix.isBlank()) {
+            return userRepository.findByNameLowerStartingWithOrderByNameAscIdAsc(namePrefix.trim().toLowerCase(), pageable);
+        } else if (emailPrefix != null && !emailPrefix.isBlank()) {
+            return userRepository.findByEmailStartingWithOrderByEmailAsc(emailPrefix.trim().toLowerCase(), pageable);
+        }
+        return userRepository.findAllByOrderByNameAscIdAsc(pageable);
+    }
+
+
+    private static boolean isDuplicateEmail(DataIntegrityViolationException e) {
+        return Constraints.isUniqueViolation(e, UNIQUE_EMAIL_CONSTRAINT);
+    }
+
+
+    // ---------------------------------------
+    // Sharded profile
+    // ---------------------------------------
+
+    // Scatter-gather: every shard returns its first (page + 1) * size + 1 users in the same order, the merge picks the page.
+    // page and size are bounded by the controller (todo.users.max-page, max-page-size)
+    private UserPageDTO getUsersFromAllShards(int page, int size, String namePrefix, String emailPrefix) {
+        Pageable firstPages = PageRequest.of(0, (page + 1) * size + 1);
+
+        List<AppUser> merged = new ArrayList<>();
+        shardDirectory.onEachShard(() -> findUsers(firstPages, namePrefix, emailPrefix).getContent()).forEach(merged::addAll);
+        boolean byEmail = (namePrefix == null || namePrefix.isBlank()) && emailPrefix != null && !emailPrefix.isBlank();
+        merged.sort(byEmail ? BY_EMAIL : BY_NAME);
+
+        int from = Math.min(page * size, merged.size());
+        int to = Math.min(from + size, merged.size());
+        return UserMapper.toDTO(new SliceImpl<>(merged.subList(from, to), PageRequest.of(page, size), merged.size() > to));
+    }
+
+
+    private UserDTO createUserOnShard(AppUser appUser) {
+        ShardDirectory.Placement placement;
+        try {
+            placement = shardDirectory.register(appUser.getEmail());  // Id allocation + global email uniqueness
+        } catch (DuplicateKeyException e) {
+            throw new DuplicateEmailException("Email already in use: " + appUser.getEmail());
+        }
+
+        try {
+            ShardContext.callOn(placement.shard(), () -> userRepository.insertWithId(placement.userId(),
+                    appUser.getEmail(), appUser.getName(), appUser.getPasswordHash(), appUser.getCreatedAt()));
+        } catch (RuntimeException e) {
+            shardDirectory.unregister(placement.userId());
+            throw e;
+        }
+
+        appUser.setId(placement.userId());
+        return UserMapper.toDTO(appUser);
+    }
+
+
+    private void deleteUserOnShard(String email) {
+        ShardDirectory.Placement placement = shardDirectory.lookup(email)
+                .orElseThrow(() -> new UserNotFoundException("User not found with email: " + email));
+
+        ShardContext.callOn(placement.shard(), () -> {
+            outboxService.userTasksDeleted(placement.userId());  // Before the delete cascades to the tasks
+            userRepository.deleteById(placement.userId());
+            return null;
+        });
+        afterCommit(() -> shardDirectory.unregister(placement.userId()));
+    }
+
+
+    private void changeEmailInDirectory(Long id, String email) {
+        try {
+            shardDirectory.changeEmail(id, email);
+        } catch (DuplicateKeyException e) {
+            throw new DuplicateEmailException("Email already in use: " + email);
+        }
+    }
+
+
+    // The directory is another database: undo a directory change when the shard transaction does not commit
+    private static void afterRollback(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) action.run();
+                }
+            });
+        }
+    }
+
+
+    // The directory is another database: only release the email once the shard delete is committed
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+
     // ---------------------------------------
     // Exceptions
     // ---------------------------------------
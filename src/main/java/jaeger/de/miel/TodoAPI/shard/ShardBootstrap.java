@@ -0,0 +1,53 @@
+package jaeger.de.miel.TodoAPI.shard;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Startup housekeeping for the sharded profile: removes users (with their lists and tasks) that do not hash to the
+ * shard and registers the remaining ones in the directory. Idempotent, so it is safe on every start.
+ */
+@Slf4j
+final class ShardBootstrap {
+
+    private ShardBootstrap() {
+    }
+
+
+    static void prune(String shard, JdbcTemplate shardJdbc, ShardRouter shardRouter, JdbcTemplate directory) {
+        List<Map<String, Object>> users = shardJdbc.queryForList("SELECT id, email FROM app_user");
+
+        int removed = 0;
+        for (Map<String, Object> user : users) {
+            long userId = ((Number) user.get("ID")).longValue();
+            String email = (String) user.get("EMAIL");
+
+            if (shardRouter.shardFor(userId).equals(shard)) {
+                directory.update("MERGE INTO user_directory (email, user_id, shard) KEY (email) VALUES (?, ?, ?)", email, userId, shard);
+            } else {
+                shardJdbc.update("DELETE FROM task WHERE creator_id = ? OR list_id IN (SELECT id FROM list WHERE owner_id = ?)", userId, userId);
+                shardJdbc.update("DELETE FROM list WHERE owner_id = ?", userId);
+                shardJdbc.update("DELETE FROM app_user WHERE id = ?", userId);
+                removed++;
+            }
+        }
+
+        if (removed > 0) log.info("Shard {}: removed {} users that belong to other shards", shard, removed);
+    }
+
+
+    // The directory allocates user ids: it has to start above the ids that already exist on the shards
+    static void advanceUserIdSequence(JdbcTemplate directory) {
+        Long maxUserId = directory.queryForObject("SELECT COALESCE(MAX(user_id), 0) FROM user_directory", Long.class);
+        Long next = directory.queryForObject(
+                "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'USER_ID_SEQ'", Long.class);
+
+        if (next != null && maxUserId != null && next <= maxUserId) {
+            directory.execute("ALTER SEQUENCE user_id_seq RESTART WITH " + (maxUserId + 1));
+        }
+    }
+
+}
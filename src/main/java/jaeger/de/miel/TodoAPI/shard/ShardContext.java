@@ -0,0 +1,44 @@
+package jaeger.de.miel.TodoAPI.shard;
+
+import java.util.function.Supplier;
+
+/**
+ * The shard of the current thread, read by {@link ShardRoutingDataSource} when a transaction takes its first connection.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    public static void set(String shard) {
+        CURRENT.set(shard);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+
+    /**
+     * Runs the work on the given shard and restores the previous shard afterwards.
+     * The work must start its own transaction (or be the first to touch the database in the current one).
+     */
+    public static <T> T callOn(String shard, Supplier<T> work) {
+        String previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) CURRENT.remove();
+            else CURRENT.set(previous);
+        }
+    }
+
+}
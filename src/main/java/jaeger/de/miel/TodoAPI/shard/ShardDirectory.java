@@ -0,0 +1,132 @@
+package jaeger.de.miel.TodoAPI.shard;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Global user directory for the sharded profile: email -> (user id, shard), plus the user id sequence, in a small
+ * separate database. Requests without a user id in the path (create, delete by email) are routed through it, and the
+ * email uniqueness that used to be a local unique constraint is enforced here across shards.
+ * <p>
+ * Without the sharded profile there is no ShardRouter and {@link #isEnabled()} is false.
+ */
+@Component
+public class ShardDirectory {
+
+    public record Placement(long userId, String shard) {}
+
+    private final ShardRouter shardRouter;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ShardDirectory(ObjectProvider<ShardRouter> shardRouter,
+                          @Qualifier("directoryDataSource") ObjectProvider<DataSource> directoryDataSource,
+                          PlatformTransactionManager transactionManager) {
+        this.shardRouter = shardRouter.getIfAvailable();
+        DataSource dataSource = directoryDataSource.getIfAvailable();
+        this.jdbcTemplate = dataSource == null ? null : new JdbcTemplate(dataSource);
+
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+
+    public boolean isEnabled() {
+        return shardRouter != null;
+    }
+
+
+    /**
+     * Allocates a user id and reserves the email.
+     * @throws org.springframework.dao.DuplicateKeyException when the email is already registered on any shard
+     */
+    public Placement register(String email) {
+        Long userId = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR user_id_seq", Long.class);
+        String shard = shardRouter.shardFor(userId);
+        jdbcTemplate.update("INSERT INTO user_directory (email, user_id, shard) VALUES (?, ?, ?)", email, userId, shard);
+        return new Placement(userId, shard);
+    }
+
+
+    public Optional<Placement> lookup(String email) {
+        return jdbcTemplate.query("SELECT user_id, shard FROM user_directory WHERE email = ?",
+                (rs, rowNum) -> new Placement(rs.getLong(1), rs.getString(2)), email).stream().findFirst();
+    }
+
+
+    /**
+     * @throws org.springframework.dao.DuplicateKeyException when the new email is already registered
+     */
+    public void changeEmail(long userId, String email) {
+        jdbcTemplate.update("UPDATE user_directory SET email = ? WHERE user_id = ?", email, userId);
+    }
+
+
+    public void unregister(long userId) {
+        jdbcTemplate.update("DELETE FROM user_directory WHERE user_id = ?", userId);
+    }
+
+
+    public String shardFor(long userId) {
+        return shardRouter.shardFor(userId);
+    }
+
+
+    public List<String> shards() {
+        return shardRouter.shards();
+    }
+
+
+    /**
+     * Scatter-gather: runs the work on every shard in parallel (virtual threads), each in its own read-only transaction.
+     */
+    public <T> List<T> onEachShard(Supplier<T> work) {
+        Map<String, Supplier<T>> everyShard = new LinkedHashMap<>();
+        shardRouter.shards().forEach(shard -> everyShard.put(shard, work));
+        return onShards(everyShard);
+    }
+
+
+    /**
+     * Targeted scatter-gather: runs each shard's own work on that shard only, like {@link #onEachShard}; the results are
+     * in the order of the map.
+     */
+    public <T> List<T> onShards(Map<String, Supplier<T>> workByShard) {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<T>> futures = new ArrayList<>();
+            workByShard.forEach((shard, work) ->
+                    futures.add(executor.submit(() -> ShardContext.callOn(shard, () -> readOnlyTransaction.execute(status -> work.get())))));
+
+            List<T> results = new ArrayList<>(futures.size());
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while querying the shards", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) throw runtimeException;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+}
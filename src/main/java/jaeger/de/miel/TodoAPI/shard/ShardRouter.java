@@ -0,0 +1,70 @@
+package jaeger.de.miel.TodoAPI.shard;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Consistent hashing of user ids over the configured shards.
+ * <p>
+ * Every shard owns virtualNodes points on a 64-bit ring; a user belongs to the first point at or after the hash of its id.
+ * Adding a shard therefore only moves about 1/N of the users. The ring is kept in two sorted arrays (binary search,
+ * no boxing) because it is consulted on every request.
+ */
+public class ShardRouter {
+
+    private final List<String> shards;
+    private final long[] points;
+    private final String[] owners;
+
+    public ShardRouter(List<String> shards, int virtualNodes) {
+        if (shards.isEmpty()) throw new IllegalArgumentException("At least one shard is required");
+        this.shards = List.copyOf(shards);
+
+        TreeMap<Long, String> ring = new TreeMap<>();
+        for (String shard : shards) {
+            for (int v = 0; v < virtualNodes; v++) {
+                ring.put(hash(shard + "#" + v), shard);
+            }
+        }
+
+        points = new long[ring.size()];
+        owners = new String[ring.size()];
+        int i = 0;
+        for (Map.Entry<Long, String> entry : ring.entrySet()) {
+            points[i] = entry.getKey();
+            owners[i] = entry.getValue();
+            i++;
+        }
+    }
+
+
+    public String shardFor(long userId) {
+        int i = Arrays.binarySearch(points, mix(userId));
+        if (i < 0) i = -i - 1;
+        return owners[i == points.length ? 0 : i];  // Wrap around the ring
+    }
+
+
+    public List<String> shards() {
+        return shards;
+    }
+
+
+    // FNV-1a, finished with the SplitMix64 mixer for an even spread of the virtual nodes
+    static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    // SplitMix64 finalizer: sequential ids land far apart on the ring
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+}
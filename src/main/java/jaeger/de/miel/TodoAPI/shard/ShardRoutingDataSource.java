@@ -0,0 +1,28 @@
+package jaeger.de.miel.TodoAPI.shard;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+
+/**
+ * Routes connections to the shard in {@link ShardContext}. Wrapped in a LazyConnectionDataSourceProxy, so the
+ * shard is resolved at the first statement of a transaction rather than when the transaction begins.
+ * Without a shard (startup, Hibernate metadata) the first shard is used.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.current();
+    }
+
+
+    @Override
+    public void destroy() throws Exception {
+        for (DataSource dataSource : getResolvedDataSources().values()) {
+            if (dataSource instanceof AutoCloseable closeable) closeable.close();
+        }
+    }
+
+}
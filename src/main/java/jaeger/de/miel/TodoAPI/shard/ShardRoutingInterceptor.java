@@ -0,0 +1,43 @@
+package jaeger.de.miel.TodoAPI.shard;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.AllArgsConstructor;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+/**
+ * Selects the shard from the {userId} path variable before the controller (and its service transaction) runs.
+ * Requests without a user id (POST /users, DELETE /users?email=, GET /users) are routed by UserService via the directory.
+ */
+@AllArgsConstructor
+public class ShardRoutingInterceptor implements HandlerInterceptor {
+
+    private final ShardRouter shardRouter;
+
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        @SuppressWarnings("unchecked")
+        Map<String, String> variables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+
+        String userId = variables == null ? null : variables.get("userId");
+        if (userId != null) {
+            try {
+                ShardContext.set(shardRouter.shardFor(Long.parseLong(userId)));
+            } catch (NumberFormatException e) {
+                // Not a user id: the controller answers 400
+            }
+        }
+        return true;
+    }
+
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        ShardContext.clear();
+    }
+
+}
@@ -0,0 +1,143 @@
+package jaeger.de.miel.TodoAPI.shard;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jaeger.de.miel.TodoAPI.config.ConnectionPoolCustomizer;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.util.*;
+
+/**
+ * Horizontal sharding by user id (profile "sharded", see application-sharded.properties).
+ * <p>
+ * Every shard is a complete TodoAPI database (same Flyway migrations) holding the users that hash to it, together with
+ * their lists and tasks. The primary DataSource routes to the shard of the current request ({@link ShardRoutingInterceptor},
+ * {@link ShardContext}); Spring Boot's own DataSource and Flyway setup is replaced by this configuration.
+ */
+@Slf4j
+@Profile("sharded")
+@Configuration
+public class ShardingConfig implements WebMvcConfigurer {
+
+    @Value("${todo.sharding.urls}")
+    private String[] urls;
+
+    @Value("${todo.sharding.virtual-nodes:128}")
+    private int virtualNodes;
+
+    @Value("${todo.sharding.pool-size:10}")
+    private int poolSize;
+
+    @Value("${todo.sharding.directory.url}")
+    private String directoryUrl;
+
+    @Value("${todo.sharding.prune-on-startup:true}")
+    private boolean pruneOnStartup;
+
+    @Value("${spring.datasource.username}")
+    private String username;
+
+    @Value("${spring.datasource.password}")
+    private String password;
+
+    @Value("${todo.tasks.write-behind.enabled:false}")
+    private boolean writeBehind;
+
+
+    @Bean
+    public ShardRouter shardRouter() {
+        if (writeBehind) {
+            // The flush thread has no request (and no shard); buffered updates would be written to the wrong database
+            throw new IllegalStateException("todo.tasks.write-behind.enabled is not supported with the sharded profile");
+        }
+
+        List<String> shards = new ArrayList<>();
+        for (int i = 0; i < urls.length; i++) shards.add("shard" + i);
+        return new ShardRouter(shards, virtualNodes);
+    }
+
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource directoryDataSource() {
+        HikariDataSource dataSource = pool("todo-directory", directoryUrl);
+        migrate(dataSource, "classpath:db/directory");
+        return dataSource;
+    }
+
+
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(ShardRouter shardRouter,
+                                                         @Qualifier("directoryDataSource") DataSource directoryDataSource,
+                                                         ConnectionPoolCustomizer connectionPoolCustomizer) {
+        Map<Object, Object> targets = new LinkedHashMap<>();
+        for (int i = 0; i < urls.length; i++) {
+            String shard = shardRouter.shards().get(i);
+            HikariDataSource dataSource = pool("todo-" + shard, urls[i].trim());
+            connectionPoolCustomizer.instrument(dataSource);  // Not a bean: the BeanPostProcessor does not see it
+            migrate(dataSource, "classpath:db/migration");
+            targets.put(shard, dataSource);
+        }
+
+        // Fresh shards all contain the sample data of V4-V6: keep each user only on its own shard
+        var directory = new JdbcTemplate(directoryDataSource);
+        if (pruneOnStartup) {
+            targets.forEach((shard, dataSource) ->
+                    ShardBootstrap.prune((String) shard, new JdbcTemplate((DataSource) dataSource), shardRouter, directory));
+        }
+        ShardBootstrap.advanceUserIdSequence(directory);  // Always: ids must not collide with existing users
+
+        var routing = new ShardRoutingDataSource();
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(targets.get(shardRouter.shards().getFirst()));
+        routing.afterPropertiesSet();
+        return routing;
+    }
+
+
+    @Primary
+    @Bean
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);  // Resolve the shard at the first statement
+    }
+
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ShardRoutingInterceptor(shardRouter()));
+    }
+
+
+    private HikariDataSource pool(String name, String url) {
+        var dataSource = new HikariDataSource();
+        dataSource.setPoolName(name);
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setMaximumPoolSize(poolSize);
+        return dataSource;
+    }
+
+
+    private static void migrate(DataSource dataSource, String location) {
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations(location)
+                .baselineOnMigrate(true)
+                .outOfOrder(true)
+                .cleanDisabled(true)
+                .load()
+                .migrate();
+    }
+
+}
@@ -0,0 +1,11 @@
+-- User directory of the sharded profile: where does a user live, and which emails are taken (across all shards).
+-- User ids are allocated here so they are unique across shards; the shard is derived from the id (ShardRouter).
+
+CREATE SEQUENCE IF NOT EXISTS user_id_seq START WITH 1;
+
+CREATE TABLE IF NOT EXISTS user_directory (
+                      email           VARCHAR(255) NOT NULL PRIMARY KEY,
+                      user_id         BIGINT NOT NULL,
+                      shard           VARCHAR(50) NOT NULL,
+                      CONSTRAINT uk_user_directory_user_id UNIQUE (user_id)
+);
@@ -0,0 +1,9 @@
+-- Paginated, DB-sorted user directory (GET /users?page=&size=) and prefix search by name/email.
+
+-- Listing is ORDER BY name, id (id makes the page boundaries stable for equal names)
+CREATE INDEX idx_app_user_name ON app_user(name, id);
+
+-- Case-insensitive name prefix search (name_lower LIKE 'ali%') can use an index on the lower-cased name;
+-- email is stored lower-cased already and is covered by uk_app_user_email
+ALTER TABLE app_user ADD COLUMN name_lower VARCHAR(200) GENERATED ALWAYS AS (LOWER(name));
+CREATE INDEX idx_app_user_name_lower ON app_user(name_lower, name, id);
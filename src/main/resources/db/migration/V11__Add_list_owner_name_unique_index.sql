@@ -0,0 +1,14 @@
+-- List names are unique per owner, case-insensitively, enforced by the database instead of check-then-insert.
+-- NAME_LOWER (generated) backs both the uniqueness and GET /users/{userId}/lists ORDER BY name_lower.
+
+ALTER TABLE list ADD COLUMN name_lower VARCHAR(200) GENERATED ALWAYS AS (LOWER(name));
+
+-- Existing duplicates (possible through the old race) keep their first list; the others get the id appended,
+-- the name cut short first so the result still fits VARCHAR(200)
+UPDATE list l SET name = LEFT(name, 200 - LENGTH(' (' || id || ')')) || ' (' || id || ')'
+WHERE id NOT IN (SELECT MIN(id) FROM list GROUP BY owner_id, LOWER(name));
+
+CREATE UNIQUE INDEX uk_list_owner_name_lower ON list(owner_id, name_lower);
+
+-- IDX_LIST_OWNER_ID stays although owner_id leads the unique index: it backs FK_LIST_OWNER, and H2 only uses an
+-- index on exactly the foreign key columns (dropping it and re-adding the constraint creates an equivalent one).
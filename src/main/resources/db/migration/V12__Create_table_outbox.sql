@@ -0,0 +1,11 @@
+-- Transactional outbox: task changes are inserted here in the transaction of the change itself,
+-- OutboxRelay publishes them in id order and deletes them in batches. Rows only live until the next poll,
+-- so the primary key is the only index (claiming reads the lowest ids).
+CREATE TABLE IF NOT EXISTS outbox (
+                      id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                      aggregate_type  VARCHAR(32) NOT NULL,
+                      aggregate_id    BIGINT NOT NULL,
+                      event_type      VARCHAR(32) NOT NULL,
+                      payload         VARCHAR(4096) NOT NULL,  -- JSON
+                      created_at      TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,32 @@
+-- Append-only history of task status transitions (from_status NULL = created), written with batched inserts:
+-- ids come from a sequence allocated in blocks of 50 (IDENTITY would force one round trip per row).
+-- No foreign keys: the history outlives deleted tasks.
+CREATE SEQUENCE IF NOT EXISTS task_event_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS task_event (
+                      id              BIGINT PRIMARY KEY,
+                      task_id         BIGINT NOT NULL,
+                      list_id         BIGINT NOT NULL,
+                      user_id         BIGINT NOT NULL,
+                      from_status     SMALLINT,
+                      to_status       SMALLINT NOT NULL,
+                      cycle_seconds   BIGINT,  -- Created to done, set on transitions to done
+                      occurred_at     TIMESTAMP NOT NULL
+);
+
+-- The rollup re-aggregates the events of the last two days
+CREATE INDEX idx_task_event_occurred_at ON task_event(occurred_at);
+
+-- Daily buckets per user, maintained by TaskStatsRollup from task_event; read by the analytics endpoint
+CREATE TABLE IF NOT EXISTS task_daily_stats (
+                      user_id         BIGINT NOT NULL,
+                      bucket_date     DATE NOT NULL,
+                      created         INT NOT NULL,
+                      completed       INT NOT NULL,
+                      cycle_seconds   BIGINT NOT NULL,  -- Sum over the completed tasks
+
+                      PRIMARY KEY (user_id, bucket_date)
+);
+
+-- Tasks completed before this migration never had completed_at stamped
+UPDATE task SET completed_at = updated_at WHERE status = 3 AND completed_at IS NULL;
@@ -0,0 +1,4 @@
+-- OutboxRelay claims a batch in a short transaction and publishes it after the commit, so the claim outlives the row
+-- lock: claimed_until is a lease. A batch whose relay died before deleting it is claimed again once the lease has
+-- passed (at-least-once delivery). NULL = not claimed.
+ALTER TABLE outbox ADD COLUMN IF NOT EXISTS claimed_until TIMESTAMP;
@@ -0,0 +1,25 @@
+-- Move LIST.DESCRIPTION and TASK.DESCRIPTION from CLOB (stored out-of-row) to inline VARCHAR(512).
+-- The API already caps descriptions at 512 chars (@Size(max = 512)).
+--
+-- Online path: add the new column next to the old one, copy the data over, then swap.
+-- Each statement is short and the table stays readable throughout the migration.
+
+-- ======================================
+-- LIST
+-- ======================================
+ALTER TABLE list ADD COLUMN description_v VARCHAR(512);
+
+UPDATE list SET description_v = SUBSTRING(description, 1, 512) WHERE description IS NOT NULL;
+
+ALTER TABLE list DROP COLUMN description;
+ALTER TABLE list ALTER COLUMN description_v RENAME TO description;
+
+-- ======================================
+-- TASK
+-- ======================================
+ALTER TABLE task ADD COLUMN description_v VARCHAR(512);
+
+UPDATE task SET description_v = SUBSTRING(description, 1, 512) WHERE description IS NOT NULL;
+
+ALTER TABLE task DROP COLUMN description;
+ALTER TABLE task ALTER COLUMN description_v RENAME TO description;
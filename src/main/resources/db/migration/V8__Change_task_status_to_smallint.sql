@@ -0,0 +1,28 @@
+-- Store TASK.STATUS as a compact SMALLINT code instead of VARCHAR(20).
+-- Codes are owned by TaskStatus (see TaskStatusConverter):
+--   1 = todo, 2 = in_progress, 3 = done, 4 = archived
+
+ALTER TABLE task ADD COLUMN status_code SMALLINT;
+
+UPDATE task SET status_code = CASE status
+                                  WHEN 'todo'        THEN 1
+                                  WHEN 'in_progress' THEN 2
+                                  WHEN 'done'        THEN 3
+                                  WHEN 'archived'    THEN 4
+                              END;
+
+ALTER TABLE task ALTER COLUMN status_code SET NOT NULL;
+
+-- Indexes and the check constraint reference the old text column
+DROP INDEX idx_task_list_status_due;
+DROP INDEX idx_task_status;
+ALTER TABLE task DROP CONSTRAINT chk_task_status;
+
+ALTER TABLE task DROP COLUMN status;
+ALTER TABLE task ALTER COLUMN status_code RENAME TO status;
+
+ALTER TABLE task ADD CONSTRAINT chk_task_status CHECK (status BETWEEN 1 AND 4);
+
+-- Helpful indexes (recreated on the new column)
+CREATE INDEX idx_task_status          ON task(status);
+CREATE INDEX idx_task_list_status_due ON task(list_id, status, due_date);
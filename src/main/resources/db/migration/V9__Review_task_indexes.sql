@@ -0,0 +1,17 @@
+-- Index review for TASK.
+-- Every task query filters on LIST_ID and CREATOR_ID (and optionally ID):
+--   findTasksByList_IdAndCreator_Id, findTaskByIdAndList_IdAndCreator_Id, deleteByIdAndList_IdAndCreator_Id
+
+-- Composite index matching the task lookups (creator-aware)
+CREATE INDEX idx_task_list_creator_id ON task(list_id, creator_id, id);
+
+-- IDX_TASK_LIST_ID stays although LIST_ID leads idx_task_list_creator_id (and idx_task_list_status_due): it backs
+-- FK_TASK_LIST, and H2 only uses an index on exactly the foreign key columns (dropping it and re-adding the
+-- constraint creates an equivalent one).
+
+-- Not selective: only four distinct values, list-scoped status filters use idx_task_list_status_due
+DROP INDEX idx_task_status;
+
+-- Column selectivity defaults to 50 until the table is analyzed, and with it H2 prefers a single-column index over
+-- idx_task_list_creator_id: refresh the statistics the planner compares the indexes by
+ANALYZE TABLE task;
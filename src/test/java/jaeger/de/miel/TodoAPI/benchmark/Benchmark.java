@@ -0,0 +1,54 @@
+package jaeger.de.miel.TodoAPI.benchmark;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Minimal timing harness for the benchmark tests (mvn test -Pbenchmark).
+ * Runs a warmup phase, then measures every iteration and prints throughput and latency percentiles.
+ */
+public final class Benchmark {
+
+    private Benchmark() {
+    }
+
+    public static Result run(String name, int warmupIterations, int iterations, Runnable action) {
+        for (int i = 0; i < warmupIterations; i++) {
+            action.run();
+        }
+
+        long[] samples = new long[iterations];
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            long t0 = System.nanoTime();
+            action.run();
+            samples[i] = System.nanoTime() - t0;
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(samples);
+        Result result = new Result(name, iterations, elapsed,
+                percentile(samples, 50), percentile(samples, 99), samples[samples.length - 1]);
+        System.out.println(result);
+        return result;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    public record Result(String name, int iterations, long elapsedNanos, long p50Nanos, long p99Nanos, long maxNanos) {
+
+        public double opsPerSecond() {
+            return iterations / (elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1));
+        }
+
+        @Override
+        public String toString() {
+            return String.format("[benchmark] %-40s %10.1f ops/s  p50=%8.1f us  p99=%8.1f us  max=%8.1f us",
+                    name, opsPerSecond(), p50Nanos / 1_000.0, p99Nanos / 1_000.0, maxNanos / 1_000.0);
+        }
+    }
+
+}
@@ -0,0 +1,45 @@
+package jaeger.de.miel.TodoAPI.benchmark;
+
+import jaeger.de.miel.TodoAPI.service.ListService;
+import jaeger.de.miel.TodoAPI.service.TaskService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Read path benchmark for lists and tasks (the DESCRIPTION column is read on every row).
+ * Run it on the commit before and after a schema change and compare the printed numbers:
+ *
+ *   mvn test -Pbenchmark -Dtest=ListReadBenchmarkTest
+ */
+@Tag("benchmark")
+@SpringBootTest
+class ListReadBenchmarkTest {
+
+    private static final int WARMUP = 500;
+    private static final int ITERATIONS = 5_000;
+
+    @Autowired
+    private ListService listService;
+
+    @Autowired
+    private TaskService taskService;
+
+
+    @Test
+    void benchmarkGetLists() {
+        assertFalse(listService.getLists(1L).isEmpty());
+        Benchmark.run("ListService.getLists(1)", WARMUP, ITERATIONS, () -> listService.getLists(1L));
+    }
+
+
+    @Test
+    void benchmarkGetTasks() {
+        assertFalse(taskService.getTasks(1L, 1L).isEmpty());
+        Benchmark.run("TaskService.getTasks(1, 1)", WARMUP, ITERATIONS, () -> taskService.getTasks(1L, 1L));
+    }
+
+}
@@ -0,0 +1,76 @@
+package jaeger.de.miel.TodoAPI.benchmark;
+
+import jaeger.de.miel.TodoAPI.dto.TaskDTO;
+import jaeger.de.miel.TodoAPI.dto.TaskStatus;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Serialization time and payload size of a large List&lt;TaskDTO&gt; in JSON, Smile and CBOR.
+ *
+ *   mvn test -Pbenchmark -Dtest=SerializationBenchmarkTest
+ */
+@Tag("benchmark")
+class SerializationBenchmarkTest {
+
+    private static final int TASKS = 10_000;
+    private static final int WARMUP = 20;
+    private static final int ITERATIONS = 200;
+
+    private static List<TaskDTO> tasks;
+
+
+    @BeforeAll
+    static void setUp() {
+        tasks = new ArrayList<>(TASKS);
+        Instant now = Instant.now();
+        for (int i = 0; i < TASKS; i++) {
+            var task = new TaskDTO();
+            task.setId((long) i);
+            task.setListId((long) (i % 50));
+            task.setUserId((long) (i % 10));
+            task.setTitle("Task title " + i);
+            task.setDescription("A description of task " + i + " with some more text to make it realistic");
+            task.setStatus(TaskStatus.values()[i % TaskStatus.values().length]);
+            task.setDueDate(LocalDate.now().plusDays(i % 30));
+            task.setPriority(1 + i % 5);
+            task.setCreatedAt(now);
+            task.setUpdatedAt(now);
+            task.setCompletedAt(i % 4 == 0 ? now : null);
+            tasks.add(task);
+        }
+    }
+
+
+    @Test
+    void benchmarkSerialization() {
+        int json = measure("json", JsonMapper.builder().build());
+        int smile = measure("smile", SmileMapper.builder().build());
+        int cbor = measure("cbor", CBORMapper.builder().build());
+
+        assertThat(smile).isLessThan(json);
+        assertThat(cbor).isLessThan(json);
+    }
+
+
+    private int measure(String format, ObjectMapper mapper) {
+        byte[] payload = mapper.writeValueAsBytes(tasks);
+        System.out.printf("[benchmark] %-6s payload for %d tasks: %,d bytes%n", format, TASKS, payload.length);
+
+        Benchmark.run(format + " serialize " + TASKS + " tasks", WARMUP, ITERATIONS, () -> mapper.writeValueAsBytes(tasks));
+        return payload.length;
+    }
+
+}
@@ -0,0 +1,80 @@
+package jaeger.de.miel.TodoAPI.benchmark;
+
+import jaeger.de.miel.TodoAPI.dto.CreateTaskRequestDTO;
+import jaeger.de.miel.TodoAPI.dto.TaskDTO;
+import jaeger.de.miel.TodoAPI.dto.TaskStatus;
+import jaeger.de.miel.TodoAPI.dto.UpdateTaskRequestDTO;
+import jaeger.de.miel.TodoAPI.service.TaskService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Task read/write paths, run against each H2 connection mode by the subclasses:
+ * TaskPathTcpBenchmarkTest (default, H2 server) and TaskPathEmbeddedBenchmarkTest (embedded profile).
+ *
+ *   mvn test -Pbenchmark -Dtest='TaskPath*BenchmarkTest'
+ */
+abstract class TaskPathBenchmark {
+
+    private static final int WARMUP = 500;
+    private static final int ITERATIONS = 5_000;
+
+    private static final Long USER_ID = 1L;
+    private static final Long LIST_ID = 1L;
+
+    @Autowired
+    private TaskService taskService;
+
+    abstract String mode();
+
+
+    @Test
+    void benchmarkReadTasks() {
+        assertFalse(taskService.getTasks(USER_ID, LIST_ID).isEmpty());
+        Benchmark.run(mode() + " getTasks", WARMUP, ITERATIONS, () -> taskService.getTasks(USER_ID, LIST_ID));
+    }
+
+
+    @Test
+    void benchmarkUpdateTask() {
+        TaskDTO task = taskService.createTask(USER_ID, LIST_ID, createRequest());
+        UpdateTaskRequestDTO request = new UpdateTaskRequestDTO();
+
+        try {
+            int[] i = {0};
+            Benchmark.run(mode() + " updateTask", WARMUP, ITERATIONS, () -> {
+                request.setPriority(1 + (i[0]++ % 5));
+                taskService.updateTask(task.getId(), USER_ID, LIST_ID, request);
+            });
+        } finally {
+            taskService.deleteTask(USER_ID, LIST_ID, task.getId());
+        }
+    }
+
+
+    @Test
+    void benchmarkCreateAndDeleteTask() {
+        CreateTaskRequestDTO request = createRequest();
+
+        Benchmark.run(mode() + " createTask + deleteTask", WARMUP, ITERATIONS, () -> {
+            TaskDTO task = taskService.createTask(USER_ID, LIST_ID, request);
+            taskService.deleteTask(USER_ID, LIST_ID, task.getId());
+        });
+    }
+
+
+    private CreateTaskRequestDTO createRequest() {
+        var request = new CreateTaskRequestDTO();
+        request.setTitle("benchmark task");
+        request.setDescription("benchmark task description");
+        request.setStatus(TaskStatus.TODO);
+        request.setDueDate(LocalDate.now().plusDays(1));
+        request.setPriority(3);
+        return request;
+    }
+
+}
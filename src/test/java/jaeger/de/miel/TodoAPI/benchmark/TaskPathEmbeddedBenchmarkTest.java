@@ -0,0 +1,21 @@
+package jaeger.de.miel.TodoAPI.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Task paths on embedded H2 (embedded profile). Uses its own database file under target/ so it does not
+ * conflict with the H2 server holding ./h2/tododb; Flyway creates and seeds it on first run.
+ */
+@Tag("benchmark")
+@ActiveProfiles("embedded")
+@SpringBootTest(properties = "todo.h2.embedded.path=./target/benchmark/tododb")
+class TaskPathEmbeddedBenchmarkTest extends TaskPathBenchmark {
+
+    @Override
+    String mode() {
+        return "embedded";
+    }
+
+}
@@ -0,0 +1,18 @@
+package jaeger.de.miel.TodoAPI.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Task paths over H2 TCP (default datasource, requires the H2 server from h2-server.cmd).
+ */
+@Tag("benchmark")
+@SpringBootTest
+class TaskPathTcpBenchmarkTest extends TaskPathBenchmark {
+
+    @Override
+    String mode() {
+        return "tcp";
+    }
+
+}
@@ -0,0 +1,68 @@
+package jaeger.de.miel.TodoAPI.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ConnectionPoolCustomizerTest {
+
+    private final int cores = Runtime.getRuntime().availableProcessors();
+
+
+    @Test
+    public void testPoolSizePlatformThreads() {
+        var environment = new MockEnvironment();
+        assertEquals(Math.max(2, cores * 2), customizer(environment).poolSize());
+    }
+
+
+    @Test
+    public void testPoolSizeVirtualThreads() {
+        var environment = new MockEnvironment()
+                .withProperty("spring.threads.virtual.enabled", "true")
+                .withProperty("todo.datasource.pool.virtual-threads-connections-per-core", "3");
+        assertEquals(Math.max(2, cores * 3), customizer(environment).poolSize());
+    }
+
+
+    @Test
+    public void testExplicitMaximumPoolSizeWins() {
+        var environment = new MockEnvironment().withProperty("spring.datasource.hikari.maximum-pool-size", "7");
+        var dataSource = new HikariDataSource();
+        dataSource.setMaximumPoolSize(7);
+
+        customizer(environment).postProcessBeforeInitialization(dataSource, "dataSource");
+
+        assertEquals(7, dataSource.getMaximumPoolSize());
+    }
+
+
+    @Test
+    public void testMetricsTrackerFactoryIsAttached() {
+        var metrics = new ConnectionPoolMetrics(50);
+        var dataSource = new HikariDataSource();
+
+        customizer(new MockEnvironment(), metrics).postProcessBeforeInitialization(dataSource, "dataSource");
+
+        assertSame(metrics, dataSource.getMetricsTrackerFactory());
+    }
+
+
+    private ConnectionPoolCustomizer customizer(MockEnvironment environment) {
+        return customizer(environment, new ConnectionPoolMetrics(50));
+    }
+
+    @SuppressWarnings("unchecked")
+    private ConnectionPoolCustomizer customizer(MockEnvironment environment, ConnectionPoolMetrics metrics) {
+        ObjectProvider<ConnectionPoolMetrics> provider = mock(ObjectProvider.class);
+        when(provider.getObject()).thenReturn(metrics);
+        return new ConnectionPoolCustomizer(environment, provider);
+    }
+
+}
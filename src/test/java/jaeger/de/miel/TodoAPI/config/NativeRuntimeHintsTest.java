@@ -0,0 +1,56 @@
+package jaeger.de.miel.TodoAPI.config;
+
+import jaeger.de.miel.TodoAPI.converter.TaskStatusConverter;
+import jaeger.de.miel.TodoAPI.dto.CreateTaskRequestDTO;
+import jaeger.de.miel.TodoAPI.dto.ErrorDTO;
+import jaeger.de.miel.TodoAPI.dto.TaskDTO;
+import jaeger.de.miel.TodoAPI.entity.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NativeRuntimeHintsTest {
+
+    private RuntimeHints hints;
+
+
+    @BeforeEach
+    void setUp() {
+        hints = new RuntimeHints();
+        new NativeRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+
+    @Test
+    public void testFlywayMigrationsAreIncluded() {
+        assertTrue(RuntimeHintsPredicates.resource().forResource("db/migration/V1__Create_table_app_user.sql").test(hints));
+    }
+
+
+    @Test
+    public void testDtosAreRegisteredForBinding() {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(TaskDTO.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(ErrorDTO.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(CreateTaskRequestDTO.class).test(hints));
+    }
+
+
+    @Test
+    public void testEntitiesAndConverterAreRegistered() {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(Task.class)
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(TaskStatusConverter.class).test(hints));
+    }
+
+
+    @Test
+    public void testH2DriverIsRegistered() {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(TypeReference.of("org.h2.Driver")).test(hints));
+    }
+
+}
@@ -0,0 +1,104 @@
+package jaeger.de.miel.TodoAPI.controller;
+
+import jaeger.de.miel.TodoAPI.config.ContentNegotiationConfig;
+import jaeger.de.miel.TodoAPI.dto.ErrorDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import tools.jackson.databind.json.JsonMapper;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingArrayWriterTest {
+
+    private final StreamingArrayWriter streamingArrayWriter = new StreamingArrayWriter(JsonMapper.builder().build(), 1024, 30000);
+
+
+    @Test
+    public void testWritesArrayElementByElement() throws Exception {
+        var response = new MockHttpServletResponse();
+
+        try (StreamingArrayWriter.ArrayWriter writer = streamingArrayWriter.open(new MockHttpServletRequest(), response)) {
+            writer.write(new ErrorDTO("a"));
+            writer.write(new ErrorDTO("b"));
+            writer.finish();
+            assertFalse(writer.isEmpty());
+        }
+
+        assertEquals(200, response.getStatus());
+        assertEquals(MediaType.APPLICATION_JSON_VALUE, response.getContentType());
+        assertEquals("[{\"errorMessage\":\"a\"},{\"errorMessage\":\"b\"}]", response.getContentAsString());
+    }
+
+
+    @Test
+    public void testEmptyResultLeavesResponseUncommitted() throws Exception {
+        var response = new MockHttpServletResponse();
+
+        try (StreamingArrayWriter.ArrayWriter writer = streamingArrayWriter.open(new MockHttpServletRequest(), response)) {
+            assertTrue(writer.isEmpty());
+        }
+
+        assertFalse(response.isCommitted());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+
+    @Test
+    public void testFailureBeforeCommitResetsTheBody() throws Exception {
+        var response = new MockHttpServletResponse();
+
+        assertThrows(IllegalStateException.class, () -> {
+            try (StreamingArrayWriter.ArrayWriter writer = streamingArrayWriter.open(new MockHttpServletRequest(), response)) {
+                writer.write(new ErrorDTO("a"));
+                throw new IllegalStateException("query failed");
+            }
+        });
+
+        assertFalse(response.isCommitted());
+        assertEquals(0, response.getContentAsByteArray().length);  // The error handler can still answer 500
+    }
+
+
+    @Test
+    public void testFailureAfterCommitLeavesTheArrayOpen() throws Exception {
+        var response = new MockHttpServletResponse();
+
+        assertThrows(IllegalStateException.class, () -> {
+            try (StreamingArrayWriter.ArrayWriter writer = streamingArrayWriter.open(new MockHttpServletRequest(), response)) {
+                for (int i = 0; i < 1000; i++) writer.write(new ErrorDTO("element " + i));  // Past the generator and response buffers
+                throw new IllegalStateException("query failed");
+            }
+        });
+
+        assertTrue(response.isCommitted());
+        String body = response.getContentAsString();
+        assertTrue(body.startsWith("["));
+        assertFalse(body.endsWith("]"));  // Truncated, never a complete array
+    }
+
+
+    @Test
+    public void testAbortsAfterMaxDuration() throws Exception {
+        var expired = new StreamingArrayWriter(JsonMapper.builder().build(), 1024, -1);
+        var response = new MockHttpServletResponse();
+
+        try (StreamingArrayWriter.ArrayWriter writer = expired.open(new MockHttpServletRequest(), response)) {
+            assertThrows(IllegalStateException.class, () -> writer.write(new ErrorDTO("a")));
+        }
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+
+    @Test
+    public void testNegotiate() {
+        assertEquals(MediaType.APPLICATION_JSON, StreamingArrayWriter.negotiate(null));
+        assertEquals(MediaType.APPLICATION_JSON, StreamingArrayWriter.negotiate("*/*"));
+        assertEquals(MediaType.APPLICATION_CBOR, StreamingArrayWriter.negotiate("application/cbor"));
+        assertEquals(MediaType.parseMediaType(ContentNegotiationConfig.APPLICATION_SMILE_VALUE),
+                StreamingArrayWriter.negotiate("application/json;q=0.5, application/x-jackson-smile"));
+        assertEquals(MediaType.APPLICATION_JSON, StreamingArrayWriter.negotiate("not a media type"));
+    }
+
+}
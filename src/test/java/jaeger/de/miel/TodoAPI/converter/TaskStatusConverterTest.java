@@ -0,0 +1,37 @@
+package jaeger.de.miel.TodoAPI.converter;
+
+import jaeger.de.miel.TodoAPI.dto.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskStatusConverterTest {
+
+    private final TaskStatusConverter converter = new TaskStatusConverter();
+
+
+    @Test
+    public void testConvertToDatabaseColumn() {
+        assertEquals((short) 1, converter.convertToDatabaseColumn(TaskStatus.TODO));
+        assertEquals((short) 2, converter.convertToDatabaseColumn(TaskStatus.IN_PROGRESS));
+        assertEquals((short) 3, converter.convertToDatabaseColumn(TaskStatus.DONE));
+        assertEquals((short) 4, converter.convertToDatabaseColumn(TaskStatus.ARCHIVED));
+        assertNull(converter.convertToDatabaseColumn(null));
+    }
+
+
+    @Test
+    public void testConvertToEntityAttribute() {
+        for (TaskStatus status : TaskStatus.values()) {
+            assertEquals(status, converter.convertToEntityAttribute(converter.convertToDatabaseColumn(status)));
+        }
+        assertNull(converter.convertToEntityAttribute(null));
+    }
+
+
+    @Test
+    public void testConvertToEntityAttributeInvalidCode() {
+        assertThrows(IllegalArgumentException.class, () -> converter.convertToEntityAttribute((short) 0));
+    }
+
+}
@@ -0,0 +1,108 @@
+package jaeger.de.miel.TodoAPI.filter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import tools.jackson.databind.json.JsonMapper;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+    // 1 request per second, burst of 2
+    private final RateLimitFilter filter = new RateLimitFilter(JsonMapper.builder().build(),
+            1, 2, 4, 1000, 60_000, 8, 8, 250, 10, 20);
+
+
+    @Test
+    public void testRateLimitPerClientIp() throws Exception {
+        assertEquals(200, get("/users/1/lists/1/tasks", "10.0.0.1").getStatus());
+        assertEquals(200, get("/users/1/lists", "10.0.0.1").getStatus());
+
+        MockHttpServletResponse limited = get("/users/1/lists/1/tasks", "10.0.0.1");
+        assertEquals(429, limited.getStatus());
+        assertEquals("1", limited.getHeader("Retry-After"));
+        assertTrue(limited.getContentAsString().contains("Rate limit exceeded"));
+
+        assertEquals(429, get("/users/2/lists/1/tasks", "10.0.0.1").getStatus());  // Another user id gives no fresh bucket
+        assertEquals(200, get("/users/1/lists/1/tasks", "10.0.0.2").getStatus());  // Other client, own bucket
+    }
+
+
+    @Test
+    public void testConcurrencyLimitedRequestDoesNotTakeAToken() throws Exception {
+        // 1 concurrent read
+        var filter = new RateLimitFilter(JsonMapper.builder().build(), 1, 2, 4, 1000, 60_000, 1, 8, 250, 10, 20);
+        var nested = new MockHttpServletResponse();
+        var outer = new MockHttpServletResponse();
+
+        filter.doFilter(request("/users/1/lists", "10.0.0.1"), outer, (request, response) ->
+                filter.doFilter(request("/users/1/lists", "10.0.0.1"), nested, new MockFilterChain()));
+
+        assertEquals(200, outer.getStatus());
+        assertEquals(503, nested.getStatus());
+
+        var next = new MockHttpServletResponse();
+        filter.doFilter(request("/users/1/lists", "10.0.0.1"), next, new MockFilterChain());
+        assertEquals(200, next.getStatus());  // Second token of the burst was not spent on the rejected request
+    }
+
+
+    @Test
+    public void testClientKey() {
+        var request = new MockHttpServletRequest("POST", "/users");
+        request.setRemoteAddr("10.0.0.7");
+        assertEquals("ip:10.0.0.7", RateLimitFilter.clientKey(request));
+
+        assertEquals("ip:10.0.0.7", RateLimitFilter.clientKey(request("/users/42/lists", "10.0.0.7")));
+    }
+
+
+    @Test
+    public void testEndpointClass() {
+        assertEquals(RateLimitFilter.EndpointClass.READ, RateLimitFilter.endpointClass(new MockHttpServletRequest("GET", "/users")));
+        assertEquals(RateLimitFilter.EndpointClass.WRITE, RateLimitFilter.endpointClass(new MockHttpServletRequest("POST", "/users")));
+    }
+
+
+    @Test
+    public void testLoadShedderProbesWhileOverloaded() {
+        var shedder = new LoadShedder(100, 1.0, 3, 0);
+        assertFalse(shedder.shouldShed());
+
+        shedder.record(1_000);
+        assertTrue(shedder.shouldShed());
+        assertTrue(shedder.shouldShed());
+        assertFalse(shedder.shouldShed());  // Probe
+
+        shedder.record(10);
+        assertFalse(shedder.shouldShed());
+    }
+
+
+    @Test
+    public void testLoadShedderDoesNotShedWhileWarmingUp() {
+        var shedder = new LoadShedder(100, 1.0, 3, 2);
+
+        shedder.record(1_000);  // Cold first request
+        assertFalse(shedder.shouldShed());
+
+        shedder.record(1_000);
+        assertTrue(shedder.shouldShed());
+    }
+
+
+    private MockHttpServletResponse get(String uri, String remoteAddr) throws Exception {
+        var response = new MockHttpServletResponse();
+        filter.doFilter(request(uri, remoteAddr), response, new MockFilterChain());
+        return response;
+    }
+
+    private MockHttpServletRequest request(String uri, String remoteAddr) {
+        var request = new MockHttpServletRequest("GET", uri);
+        request.setRemoteAddr(remoteAddr);
+        return request;
+    }
+
+}
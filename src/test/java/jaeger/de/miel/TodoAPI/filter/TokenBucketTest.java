@@ -0,0 +1,60 @@
+package jaeger.de.miel.TodoAPI.filter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+
+    @Test
+    public void testBurstThenRefill() {
+        var bucket = new TokenBucket(10, 5, 0);  // 10/s, burst of 5
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bucket.tryAcquire(0));
+        }
+        long wait = bucket.tryAcquire(0);
+        assertEquals(SECOND / 10, wait);
+
+        assertEquals(0, bucket.tryAcquire(wait));      // One token refilled
+        assertTrue(bucket.tryAcquire(wait) > 0);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bucket.tryAcquire(10 * SECOND));  // Full again, but never more than the capacity
+        }
+        assertTrue(bucket.tryAcquire(10 * SECOND) > 0);
+    }
+
+
+    @Test
+    public void testIdle() {
+        var bucket = new TokenBucket(1, 1, 0);
+        bucket.tryAcquire(SECOND);
+
+        assertFalse(bucket.isIdle(2 * SECOND, SECOND));
+        assertTrue(bucket.isIdle(3 * SECOND, SECOND));
+    }
+
+
+    @Test
+    public void testRegistryIsBounded() {
+        var registry = new TokenBucketRegistry(1, 3, SECOND, 10, 5);
+
+        TokenBucket first = registry.bucket("a", 0);
+        registry.bucket("b", 1);
+        registry.bucket("c", 2);
+        assertSame(first, registry.bucket("a", 3));
+        first.tryAcquire(3);
+
+        registry.bucket("d", 4);  // Full and nothing idle: evicts the least recently seen ("b")
+        assertEquals(3, registry.size());
+
+        registry.expire(10 * SECOND);
+        assertEquals(0, registry.size());
+    }
+
+}
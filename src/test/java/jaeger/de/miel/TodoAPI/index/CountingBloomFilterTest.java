@@ -0,0 +1,48 @@
+package jaeger.de.miel.TodoAPI.index;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CountingBloomFilterTest {
+
+    @Test
+    public void testNoFalseNegatives() {
+        CountingBloomFilter filter = new CountingBloomFilter(10_000, 0.01);
+        for (long id = 1; id <= 10_000; id++) filter.add(CountingBloomFilter.hash(id));
+
+        for (long id = 1; id <= 10_000; id++) assertTrue(filter.mightContain(CountingBloomFilter.hash(id)));
+        assertEquals(10_000, filter.elements());
+    }
+
+
+    @Test
+    public void testFalsePositiveRateNearConfigured() {
+        CountingBloomFilter filter = new CountingBloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) filter.add(CountingBloomFilter.hash("user" + i + "@mail.com"));
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain(CountingBloomFilter.hash("other" + i + "@mail.com"))) falsePositives++;
+        }
+
+        assertTrue(falsePositives < 2_000, "False positives: " + falsePositives);  // ~1% expected
+        assertEquals(0.01, filter.expectedFalsePositiveProbability(), 0.002);
+    }
+
+
+    @Test
+    public void testRemoveKeepsOtherElements() {
+        CountingBloomFilter filter = new CountingBloomFilter(1_000, 0.01);
+        for (long id = 1; id <= 1_000; id++) filter.add(CountingBloomFilter.hash(id));
+        for (long id = 1; id <= 1_000; id += 2) filter.remove(CountingBloomFilter.hash(id));
+
+        for (long id = 2; id <= 1_000; id += 2) assertTrue(filter.mightContain(CountingBloomFilter.hash(id)));
+        int stillPresent = 0;
+        for (long id = 1; id <= 1_000; id += 2) {
+            if (filter.mightContain(CountingBloomFilter.hash(id))) stillPresent++;
+        }
+        assertTrue(stillPresent < 50, "Removed but still present: " + stillPresent);
+    }
+
+}
@@ -0,0 +1,78 @@
+package jaeger.de.miel.TodoAPI.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongLongMapTest {
+
+    private static final long MISSING = -1;
+
+    @Test
+    public void testPutGetRemove() {
+        LongLongMap map = new LongLongMap(16, MISSING);
+
+        assertEquals(MISSING, map.put(1, 10));
+        assertEquals(10, map.put(1, 11));
+        assertEquals(11, map.putIfAbsent(1, 12));
+        assertEquals(11, map.get(1));
+        assertEquals(MISSING, map.get(2));
+        assertEquals(11, map.remove(1));
+        assertEquals(MISSING, map.remove(1));
+        assertEquals(0, map.size());
+        assertThrows(IllegalArgumentException.class, () -> map.put(0, 1));
+    }
+
+
+    @Test
+    public void testBehavesLikeHashMapUnderRandomOperations() {
+        LongLongMap map = new LongLongMap(4, MISSING);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(5_000) - 100;  // Includes negative keys, dense enough to collide
+            if (key == 0) continue;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.getOrDefault(key, MISSING), map.remove(key));
+                expected.remove(key);
+            } else {
+                assertEquals(expected.getOrDefault(key, MISSING), map.put(key, i));
+                expected.put(key, (long) i);
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        expected.forEach((key, value) -> assertEquals(value, map.get(key)));
+    }
+
+
+    @Test
+    public void testOptimisticReadsSeeEveryStableKeyWhileWritersResize() throws InterruptedException {
+        LongLongMap map = new LongLongMap(16, MISSING);
+        for (long key = 1; key <= 1_000; key++) map.put(key, key * 2);
+
+        AtomicBoolean wrong = new AtomicBoolean();
+        Thread writer = new Thread(() -> {
+            for (long key = 1_001; key <= 200_000; key++) {
+                map.put(key, key * 2);
+                if (key % 3 == 0) map.remove(key);
+            }
+        });
+        writer.start();
+        while (writer.isAlive()) {
+            for (long key = 1; key <= 1_000; key++) {
+                if (map.get(key) != key * 2) wrong.set(true);
+            }
+        }
+        writer.join();
+
+        assertFalse(wrong.get());
+    }
+
+}
@@ -0,0 +1,93 @@
+package jaeger.de.miel.TodoAPI.index;
+
+import org.junit.jupiter.api.Test;
+
+import static jaeger.de.miel.TodoAPI.index.OwnershipIndex.Lookup.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class OwnershipIndexTest {
+
+    @Test
+    public void testLookups() {
+        OwnershipIndex index = new OwnershipIndex(true, false);
+        index.userFound(1);
+        index.listFound(10, 1);
+        index.taskFound(100, 10);
+
+        assertEquals(FOUND, index.checkUser(1));
+        assertEquals(FOUND, index.checkList(10, 1));
+        assertEquals(FOUND, index.checkTask(100, 10, 1));
+
+        assertEquals(NOT_FOUND, index.checkList(10, 2));       // Someone else's list
+        assertEquals(NOT_FOUND, index.checkTask(100, 11, 1));  // Task of another list
+        assertEquals(UNKNOWN, index.checkUser(2));
+        assertEquals(UNKNOWN, index.checkList(11, 1));
+        assertEquals(UNKNOWN, index.checkTask(101, 10, 1));
+        assertEquals(2, index.rejected());
+    }
+
+
+    @Test
+    public void testDeletionsCascade() {
+        OwnershipIndex index = new OwnershipIndex(true, false);
+        index.listCreated(10, 1);
+        index.taskCreated(100, 10);
+        index.listCreated(20, 1);
+
+        index.listDeleted(10);
+        assertEquals(NOT_FOUND, index.checkList(10, 1));
+        assertEquals(NOT_FOUND, index.checkTask(100, 10, 1));
+        assertEquals(FOUND, index.checkList(20, 1));
+
+        index.userDeleted(1);
+        assertEquals(NOT_FOUND, index.checkUser(1));
+        assertEquals(NOT_FOUND, index.checkList(20, 1));
+        assertEquals(NOT_FOUND, index.checkTask(101, 20, 1));
+    }
+
+
+    @Test
+    public void testRowsReadDoNotOverwriteTombstones() {
+        OwnershipIndex index = new OwnershipIndex(true, false);
+        index.taskDeleted(100);
+        index.taskFound(100, 10);  // Read before the deletion committed
+
+        assertEquals(NOT_FOUND, index.checkTask(100, 10, 1));
+    }
+
+
+    @Test
+    public void testReadThrough() {
+        OwnershipIndex index = new OwnershipIndex(true, false);
+
+        assertTrue(index.ownsList(1, 10, () -> true));
+        assertTrue(index.ownsList(1, 10, () -> fail("Answered by the index")));
+        assertFalse(index.ownsList(2, 10, () -> fail("Answered by the index")));
+
+        assertFalse(index.userExists(5, () -> false));
+        assertTrue(index.userExists(5, () -> true));  // A miss is not cached: the id may be allocated later
+    }
+
+
+    @Test
+    public void testAuthoritativeMissOnceWarm() {
+        OwnershipIndex index = new OwnershipIndex(true, true);
+        assertEquals(UNKNOWN, index.checkList(10, 1));
+
+        index.markWarm();
+        assertEquals(NOT_FOUND, index.checkList(10, 1));
+        assertEquals(NOT_FOUND, index.checkTask(100, 10, 1));
+    }
+
+
+    @Test
+    public void testDisabled() {
+        OwnershipIndex index = new OwnershipIndex(false, true);
+        index.listDeleted(10);
+        index.markWarm();
+
+        assertEquals(UNKNOWN, index.checkList(10, 1));
+        assertTrue(index.ownsList(1, 10, () -> true));
+    }
+
+}
@@ -0,0 +1,230 @@
+package jaeger.de.miel.TodoAPI.journal;
+
+import jaeger.de.miel.TodoAPI.dto.TaskStatus;
+import jaeger.de.miel.TodoAPI.entity.AppUser;
+import jaeger.de.miel.TodoAPI.entity.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalStoreTest {
+
+    @TempDir
+    private Path directory;
+
+    private JournalStore store;
+
+
+    @BeforeEach
+    void setUp() throws IOException {
+        store = open();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        store.close();
+    }
+
+
+    @Test
+    public void testRecoversFromTheJournal() throws IOException {
+        AppUser user = store.saveUser(user("ann@example.com", "Ann"));
+        jaeger.de.miel.TodoAPI.entity.List list = store.saveList(list(user.getId(), "Groceries"));
+        Task task = store.saveTask(task(list.getId(), user.getId(), "Milk", LocalDate.of(2026, 5, 1)));
+        task.setStatus(TaskStatus.DONE);
+        store.saveTask(task);
+
+        reopen();
+
+        assertEquals("Ann", store.findUser(user.getId()).orElseThrow().getName());
+        assertEquals(List.of("Groceries"), store.findListsByOwner(user.getId()).stream().map(l -> l.getName()).toList());
+        assertEquals(TaskStatus.DONE, store.findTask(task.getId()).orElseThrow().getStatus());
+        assertEquals(task.getId() + 1, store.saveTask(task(list.getId(), user.getId(), "Bread", null)).getId());  // Ids continue
+    }
+
+
+    @Test
+    public void testRecoversFromSnapshotAndJournal() throws IOException {
+        AppUser ann = store.saveUser(user("ann@example.com", "Ann"));
+        store.writeSnapshot();
+        AppUser bob = store.saveUser(user("bob@example.com", "Bob"));  // Only in the new journal generation
+        store.deleteUser(ann.getId());
+
+        reopen();
+
+        assertTrue(store.findUser(ann.getId()).isEmpty());
+        assertEquals("Bob", store.findUser(bob.getId()).orElseThrow().getName());
+        assertEquals(1, store.countUsers());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(Set.of("journal-0000000002.log", "snapshot-0000000002.bin"),
+                    Set.copyOf(files.map(f -> f.getFileName().toString()).toList()));  // Generation 1 deleted
+        }
+    }
+
+
+    @Test
+    public void testIgnoresTornRecordAtTheEnd() throws IOException {
+        AppUser user = store.saveUser(user("ann@example.com", "Ann"));
+        store.close();
+
+        // A half-written record: a length, but a checksum that does not match the bytes
+        Path journal = directory.resolve("journal-0000000001.log");
+        long end = Files.size(directory.resolve("journal-0000000001.log"));
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, end);
+            int position = Journal.readRecords(header, r -> { });
+            channel.write(ByteBuffer.allocate(12).putInt(4).putInt(12345).putInt(42).flip(), position);
+        }
+
+        store = open();
+        assertEquals(1, store.countUsers());
+        AppUser next = store.saveUser(user("bob@example.com", "Bob"));  // Appended where the torn record was
+
+        reopen();
+        assertEquals(List.of(user.getId(), next.getId()), store.findUsers().stream().map(AppUser::getId).sorted().toList());
+    }
+
+
+    @Test
+    public void testEnforcesUniqueKeysAndReferences() {
+        AppUser user = store.saveUser(user("ann@example.com", "Ann"));
+        store.saveList(list(user.getId(), "Work"));
+
+        assertThrows(DataIntegrityViolationException.class, () -> store.saveUser(user("ann@example.com", "Other Ann")));
+        DataIntegrityViolationException duplicate = assertThrows(DataIntegrityViolationException.class,
+                () -> store.saveList(list(user.getId(), "WORK")));
+        assertTrue(duplicate.getMessage().contains("UK_LIST_OWNER_NAME_LOWER"));
+        assertThrows(DataIntegrityViolationException.class, () -> store.saveList(list(999L, "Work")));
+        assertThrows(DataIntegrityViolationException.class, () -> store.saveTask(task(999L, user.getId(), "Orphan", null)));
+    }
+
+
+    @Test
+    public void testDeletingUserCascades() {
+        AppUser user = store.saveUser(user("ann@example.com", "Ann"));
+        jaeger.de.miel.TodoAPI.entity.List list = store.saveList(list(user.getId(), "Work"));
+        Task task = store.saveTask(task(list.getId(), user.getId(), "Report", LocalDate.of(2026, 5, 1)));
+
+        assertTrue(store.deleteUser(user.getId()));
+
+        assertTrue(store.findList(list.getId()).isEmpty());
+        assertTrue(store.findTask(task.getId()).isEmpty());
+        assertTrue(store.findDueTasks(LocalDate.of(2026, 1, 1), LocalDate.of(2027, 1, 1), Set.of(TaskStatus.TODO),
+                LocalDate.MIN, 0, 10).isEmpty());
+        assertFalse(store.existsUserByEmail("ann@example.com"));
+    }
+
+
+    @Test
+    public void testReturnsCopies() {
+        AppUser user = store.saveUser(user("ann@example.com", "Ann"));
+
+        store.findUser(user.getId()).orElseThrow().setName("Changed without save");
+
+        assertEquals("Ann", store.findUser(user.getId()).orElseThrow().getName());
+    }
+
+
+    @Test
+    public void testFindDueTasksIsKeysetPaginated() {
+        AppUser user = store.saveUser(user("ann@example.com", "Ann"));
+        long listId = store.saveList(list(user.getId(), "Work")).getId();
+        Task first = store.saveTask(task(listId, user.getId(), "a", LocalDate.of(2026, 5, 1)));
+        Task second = store.saveTask(task(listId, user.getId(), "b", LocalDate.of(2026, 5, 1)));
+        Task third = store.saveTask(task(listId, user.getId(), "c", LocalDate.of(2026, 5, 2)));
+        store.saveTask(task(listId, user.getId(), "out of range", LocalDate.of(2026, 5, 3)));
+
+        LocalDate from = LocalDate.of(2026, 5, 1);
+        LocalDate to = LocalDate.of(2026, 5, 3);
+        List<Task> page1 = store.findDueTasks(from, to, Set.of(TaskStatus.TODO), LocalDate.MIN, 0, 2);
+        List<Task> page2 = store.findDueTasks(from, to, Set.of(TaskStatus.TODO), page1.getLast().getDueDate(), page1.getLast().getId(), 2);
+
+        assertEquals(List.of(first.getId(), second.getId()), page1.stream().map(Task::getId).toList());
+        assertEquals(List.of(third.getId()), page2.stream().map(Task::getId).toList());
+    }
+
+
+    @Test
+    public void testRollbackDropsTheWrites() throws IOException {
+        var transactionTemplate = new TransactionTemplate(new JournalTransactionManager(store));
+        AppUser ann = store.saveUser(user("ann@example.com", "Ann"));
+
+        assertThrows(IllegalStateException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+            store.saveList(list(ann.getId(), "Groceries"));
+            store.deleteUser(ann.getId());
+            assertEquals(1, store.countUsers());  // Buffered until commit
+            throw new IllegalStateException("rollback");
+        }));
+        reopen();
+
+        assertEquals(1, store.countUsers());
+        assertEquals(0, store.countLists());
+    }
+
+
+    @Test
+    public void testCommitChecksAgainAndUndoesTheTransaction() {
+        var transactionTemplate = new TransactionTemplate(new JournalTransactionManager(store));
+        AppUser ann = store.saveUser(user("ann@example.com", "Ann"));
+        Task task = store.saveTask(task(store.saveList(list(ann.getId(), "Groceries")).getId(), ann.getId(), "Milk", null));
+
+        assertThrows(DataIntegrityViolationException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+            store.deleteTask(task.getId());
+            store.saveUser(user("bob@example.com", "Bob"));
+            CompletableFuture.runAsync(() -> store.saveUser(user("bob@example.com", "Other Bob"))).join();  // Commits first
+        }));
+
+        assertTrue(store.findTask(task.getId()).isPresent());
+        assertEquals("Other Bob", store.findUser(store.findUserIdByEmail("bob@example.com").orElseThrow()).orElseThrow().getName());
+        assertEquals(2, store.countUsers());
+    }
+
+
+    private JournalStore open() throws IOException {
+        var journalStore = new JournalStore(directory.toString(), 1, 100, false, 100_000);
+        journalStore.open();
+        return journalStore;
+    }
+
+    private void reopen() throws IOException {
+        store.close();
+        store = open();
+    }
+
+    private static AppUser user(String email, String name) {
+        return AppUser.builder().email(email).name(name).passwordHash("hash")
+                .createdAt(Instant.now()).updatedAt(Instant.now()).build();
+    }
+
+    private static jaeger.de.miel.TodoAPI.entity.List list(long ownerId, String name) {
+        return jaeger.de.miel.TodoAPI.entity.List.builder().owner(AppUser.builder().id(ownerId).build()).name(name)
+                .createdAt(Instant.now()).updatedAt(Instant.now()).build();
+    }
+
+    private static Task task(long listId, long creatorId, String title, LocalDate dueDate) {
+        return Task.builder()
+                .list(jaeger.de.miel.TodoAPI.entity.List.builder().id(listId).build())
+                .creator(AppUser.builder().id(creatorId).build())
+                .title(title).status(TaskStatus.TODO).dueDate(dueDate)
+                .createdAt(Instant.now()).updatedAt(Instant.now()).build();
+    }
+
+}
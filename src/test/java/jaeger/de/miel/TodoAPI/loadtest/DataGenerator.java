@@ -0,0 +1,227 @@
+package jaeger.de.miel.TodoAPI.loadtest;
+
+import jaeger.de.miel.TodoAPI.dto.TaskStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.BufferedWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.Random;
+
+/**
+ * Bulk-loads a production-sized, reproducible dataset (same seed, same data) into the H2 database:
+ * users own lists and lists hold tasks according to Zipf distributions, so a few users and lists are hot.
+ * <p>
+ * Rows are inserted with explicit ids in JDBC batches, the identity columns are restarted afterwards and the
+ * generated lists are written to a manifest (userId,listId,taskCount) that {@link LoadDriver} reads.
+ * <p>
+ *   mvn -Ploadtest test-compile exec:java@generate-data -Dloadtest.users=5000 -Dloadtest.lists=50000 -Dloadtest.tasks=2000000
+ */
+public final class DataGenerator {
+
+    private static final String DEFAULT_URL = "jdbc:h2:tcp://localhost:9092/./tododb";
+    private static final int COMMIT_EVERY = 10_000;
+
+    private final Connection connection;
+    private final Random random;
+    private final double skew;
+    private final int batchSize;
+
+    DataGenerator(Connection connection, Random random, double skew, int batchSize) {
+        this.connection = connection;
+        this.random = random;
+        this.skew = skew;
+        this.batchSize = batchSize;
+    }
+
+
+    public static void main(String[] args) throws Exception {
+        String url = System.getProperty("loadtest.url", DEFAULT_URL);
+        int users = Integer.getInteger("loadtest.users", 5_000);
+        int lists = Integer.getInteger("loadtest.lists", 50_000);
+        int tasks = Integer.getInteger("loadtest.tasks", 2_000_000);
+        double skew = Double.parseDouble(System.getProperty("loadtest.skew", "1.1"));
+        long seed = Long.getLong("loadtest.seed", 42L);
+        int batchSize = Integer.getInteger("loadtest.batch-size", 1_000);
+        Path manifest = Path.of(System.getProperty("loadtest.manifest", "target/loadtest/lists.csv"));
+
+        try (Connection connection = DriverManager.getConnection(url, "sa", "sa")) {
+            connection.setAutoCommit(false);
+            new DataGenerator(connection, new Random(seed), skew, batchSize).generate(users, lists, tasks, manifest);
+        }
+    }
+
+
+    void generate(int users, int lists, int tasks, Path manifest) throws Exception {
+        long start = System.nanoTime();
+
+        long firstUserId = nextId("app_user");
+        long firstListId = nextId("list");
+        long firstTaskId = nextId("task");
+
+        insertUsers(firstUserId, users);
+
+        // Owner of each list: Zipf over a shuffled user order, so the heavy users are spread over the id range
+        int[] userOrder = permutation(users);
+        Zipf userZipf = new Zipf(users, skew);
+        long[] listOwner = new long[lists];
+        for (int i = 0; i < lists; i++) {
+            listOwner[i] = firstUserId + userOrder[userZipf.sample(random)];
+        }
+        insertLists(firstListId, listOwner);
+
+        int[] listOrder = permutation(lists);
+        Zipf listZipf = new Zipf(lists, skew);
+        int[] taskCount = new int[lists];
+        insertTasks(firstTaskId, tasks, listOwner, firstListId, listOrder, listZipf, taskCount);
+
+        restartIdentity("app_user", firstUserId + users);
+        restartIdentity("list", firstListId + lists);
+        restartIdentity("task", firstTaskId + tasks);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE");  // Fresh selectivity statistics for the optimizer
+        }
+        connection.commit();
+
+        writeManifest(manifest, firstListId, listOwner, taskCount);
+
+        System.out.printf("[generate] %,d users, %,d lists, %,d tasks in %.1f s, manifest %s%n",
+                users, lists, tasks, (System.nanoTime() - start) / 1e9, manifest.toAbsolutePath());
+    }
+
+
+    private void insertUsers(long firstId, int count) throws SQLException {
+        String passwordHash = new BCryptPasswordEncoder().encode("password");  // Hash once: BCrypt is deliberately slow
+
+        String sql = "INSERT INTO app_user (id, email, name, password_hash) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            for (int i = 0; i < count; i++) {
+                long id = firstId + i;
+                ps.setLong(1, id);
+                ps.setString(2, "load-" + id + "@example.com");
+                ps.setString(3, "Load User " + id);
+                ps.setString(4, passwordHash);
+                addBatch(ps, i + 1, "users");
+            }
+            flush(ps);
+        }
+    }
+
+
+    private void insertLists(long firstId, long[] owner) throws SQLException {
+        String sql = "INSERT INTO list (id, owner_id, name, description) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            for (int i = 0; i < owner.length; i++) {
+                long id = firstId + i;
+                ps.setLong(1, id);
+                ps.setLong(2, owner[i]);
+                ps.setString(3, "List " + id);
+                ps.setString(4, random.nextInt(4) == 0 ? null : "Generated list " + id + " of user " + owner[i]);
+                addBatch(ps, i + 1, "lists");
+            }
+            flush(ps);
+        }
+    }
+
+
+    private void insertTasks(long firstId, int count, long[] listOwner, long firstListId,
+                             int[] listOrder, Zipf listZipf, int[] taskCount) throws SQLException {
+        TaskStatus[] statuses = {TaskStatus.TODO, TaskStatus.IN_PROGRESS, TaskStatus.DONE, TaskStatus.ARCHIVED};
+        int[] statusWeights = {50, 20, 25, 5};  // Same order as statuses
+        LocalDate today = LocalDate.now();
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+
+        String sql = "INSERT INTO task (id, list_id, creator_id, title, description, status, due_date, priority, completed_at) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            for (int i = 0; i < count; i++) {
+                long id = firstId + i;
+                int list = listOrder[listZipf.sample(random)];
+                taskCount[list]++;
+
+                TaskStatus status = statuses[weighted(statusWeights)];
+                boolean completed = status == TaskStatus.DONE || status == TaskStatus.ARCHIVED;
+
+                ps.setLong(1, id);
+                ps.setLong(2, firstListId + list);
+                ps.setLong(3, listOwner[list]);  // Tasks are created by the list owner
+                ps.setString(4, "Task " + id);
+                ps.setString(5, random.nextInt(3) == 0 ? null : "Generated task " + id + " in list " + (firstListId + list));
+                ps.setShort(6, status.getCode());
+                ps.setObject(7, random.nextInt(5) == 0 ? null : today.plusDays(random.nextInt(120) - 30));
+                ps.setObject(8, random.nextInt(5) == 0 ? null : 1 + random.nextInt(5), Types.INTEGER);
+                ps.setTimestamp(9, completed ? now : null);
+                addBatch(ps, i + 1, "tasks");
+            }
+            flush(ps);
+        }
+    }
+
+
+    private void addBatch(PreparedStatement ps, int rows, String what) throws SQLException {
+        ps.addBatch();
+        if (rows % batchSize == 0) ps.executeBatch();
+        if (rows % COMMIT_EVERY == 0) connection.commit();  // Bounded undo log
+        if (rows % 100_000 == 0) System.out.printf("[generate] %,d %s%n", rows, what);
+    }
+
+    private void flush(PreparedStatement ps) throws SQLException {
+        ps.executeBatch();
+        connection.commit();
+    }
+
+
+    private long nextId(String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private void restartIdentity(String table, long next) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + next);
+        }
+    }
+
+
+    private int[] permutation(int n) {
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+        return order;
+    }
+
+    private int weighted(int[] weights) {
+        int total = 0;
+        for (int w : weights) total += w;
+        int r = random.nextInt(total);
+        for (int i = 0; i < weights.length; i++) {
+            r -= weights[i];
+            if (r < 0) return i;
+        }
+        return weights.length - 1;
+    }
+
+
+    private static void writeManifest(Path manifest, long firstListId, long[] listOwner, int[] taskCount) throws Exception {
+        Files.createDirectories(manifest.toAbsolutePath().getParent());
+        try (BufferedWriter writer = Files.newBufferedWriter(manifest)) {
+            writer.write("userId,listId,taskCount");
+            writer.newLine();
+            for (int i = 0; i < listOwner.length; i++) {
+                writer.write(listOwner[i] + "," + (firstListId + i) + "," + taskCount[i]);
+                writer.newLine();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,319 @@
+package jaeger.de.miel.TodoAPI.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * HTTP load driver for every endpoint of the rest/http-client collection (plus the PUT task update), with a
+ * configurable request mix and concurrency, on virtual threads. Reports throughput and HDR latency percentiles per
+ * operation.
+ * <p>
+ * Closed model by default (each worker sends its next request when the previous one returned). With loadtest.rate
+ * the workers follow a fixed schedule and latency is measured from the intended start, so a stalled server is not
+ * hidden by fewer requests being sent (coordinated omission).
+ * <p>
+ * Reads the manifest of {@link DataGenerator}; start the application with todo.ratelimit.enabled=false
+ * (or raised limits), otherwise the rate limiter answers most requests with 429.
+ * <p>
+ *   mvn -Ploadtest test-compile exec:java@drive-load -Dloadtest.concurrency=64 -Dloadtest.duration=60
+ */
+public final class LoadDriver {
+
+    static final String DEFAULT_MIX = "getTasks=40,getTasksSmile=5,getLists=20,getUsers=1,searchUsers=1,createTask=10,updateTask=10,"
+            + "deleteTask=5,createList=3,deleteList=2,createUser=2,deleteUserById=1,deleteUserByEmail=1";
+
+    enum Operation {
+        GET_TASKS("getTasks"), GET_TASKS_SMILE("getTasksSmile"), GET_LISTS("getLists"), GET_USERS("getUsers"), SEARCH_USERS("searchUsers"),
+        CREATE_TASK("createTask"), UPDATE_TASK("updateTask"), DELETE_TASK("deleteTask"),
+        CREATE_LIST("createList"), DELETE_LIST("deleteList"),
+        CREATE_USER("createUser"), DELETE_USER_BY_ID("deleteUserById"), DELETE_USER_BY_EMAIL("deleteUserByEmail");
+
+        final String key;
+
+        Operation(String key) {
+            this.key = key;
+        }
+
+        static Operation of(String key) {
+            for (Operation operation : values()) {
+                if (operation.key.equals(key)) return operation;
+            }
+            throw new IllegalArgumentException("Unknown operation in loadtest.mix: " + key);
+        }
+    }
+
+    private record ListRef(long userId, long listId) {}
+    private record TaskRef(long userId, long listId, long taskId) {}
+    private record UserRef(long userId, String email) {}
+
+    private static final class Stats {
+        final Histogram latency = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3);
+        final LongAdder clientErrors = new LongAdder();
+        final LongAdder rateLimited = new LongAdder();
+        final LongAdder serverErrors = new LongAdder();
+    }
+
+    private final HttpClient httpClient;
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private final String baseUrl;
+    private final List<ListRef> lists;  // Hottest (most tasks) first
+    private final Zipf listZipf;
+    private final Operation[] mix;      // One entry per weight unit
+
+    private final EnumMap<Operation, Stats> stats = new EnumMap<>(Operation.class);
+    private final Queue<TaskRef> createdTasks = new ConcurrentLinkedQueue<>();
+    private final Queue<ListRef> createdLists = new ConcurrentLinkedQueue<>();
+    private final Queue<UserRef> createdUsers = new ConcurrentLinkedQueue<>();
+    private final AtomicLong uniqueCounter = new AtomicLong();
+
+    LoadDriver(HttpClient httpClient, String baseUrl, List<ListRef> lists, double skew, Operation[] mix) {
+        this.httpClient = httpClient;
+        this.baseUrl = baseUrl;
+        this.lists = lists;
+        this.listZipf = new Zipf(lists.size(), skew);
+        this.mix = mix;
+        for (Operation operation : Operation.values()) stats.put(operation, new Stats());
+    }
+
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = System.getProperty("loadtest.base-url", "http://localhost:8080");
+        int concurrency = Integer.getInteger("loadtest.concurrency", 32);
+        int durationSeconds = Integer.getInteger("loadtest.duration", 60);
+        int warmupSeconds = Integer.getInteger("loadtest.warmup", 10);
+        double rate = Double.parseDouble(System.getProperty("loadtest.rate", "0"));
+        double skew = Double.parseDouble(System.getProperty("loadtest.skew", "1.1"));
+        String mix = System.getProperty("loadtest.mix", DEFAULT_MIX);
+        Path manifest = Path.of(System.getProperty("loadtest.manifest", "target/loadtest/lists.csv"));
+
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient httpClient = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .executor(workers)
+                    .build();
+
+            var driver = new LoadDriver(httpClient, baseUrl, readManifest(manifest), skew, parseMix(mix));
+            System.out.printf("[load] %s, concurrency %d, %s, warmup %d s, duration %d s%n", baseUrl, concurrency,
+                    rate > 0 ? "open model at " + rate + " req/s" : "closed model", warmupSeconds, durationSeconds);
+
+            driver.run(workers, concurrency, rate, warmupSeconds, durationSeconds);
+            driver.report(durationSeconds);
+        }
+    }
+
+
+    void run(ExecutorService workers, int concurrency, double rate, int warmupSeconds, int durationSeconds) throws Exception {
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+        long intervalNanos = rate > 0 ? (long) (concurrency * 1e9 / rate) : 0;  // Per worker
+
+        var futures = new ArrayList<Future<?>>();
+        for (int w = 0; w < concurrency; w++) {
+            long offset = intervalNanos * w / concurrency;  // Spread the workers over one interval
+            futures.add(workers.submit(() -> {
+                long intended = start + offset;
+                while (true) {
+                    long now = System.nanoTime();
+                    if (now >= end) return null;
+                    if (intervalNanos > 0 && intended > now) {
+                        TimeUnit.NANOSECONDS.sleep(intended - now);
+                    }
+                    long sentAt = intervalNanos > 0 ? intended : System.nanoTime();
+
+                    Operation operation = mix[ThreadLocalRandom.current().nextInt(mix.length)];
+                    execute(operation, sentAt, sentAt >= measureFrom);
+                    intended += intervalNanos;
+                }
+            }));
+        }
+        for (var future : futures) future.get();
+    }
+
+
+    private void execute(Operation operation, long sentAt, boolean measure) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Stats opStats = stats.get(operation);
+        try {
+            HttpRequest request = request(operation, random);
+            if (request == null) return;  // Nothing created yet to update or delete
+
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            long latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sentAt);
+
+            int status = response.statusCode();
+            if (status < 300) remember(operation, request, response.body());
+
+            if (!measure) return;
+            opStats.latency.recordValue(Math.min(latencyMicros, opStats.latency.getHighestTrackableValue()));
+            if (status == 429) opStats.rateLimited.increment();
+            else if (status >= 500) opStats.serverErrors.increment();
+            else if (status >= 400 && status != 404) opStats.clientErrors.increment();  // 404 is a valid answer (empty list)
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            if (measure) opStats.serverErrors.increment();
+        }
+    }
+
+
+    private HttpRequest request(Operation operation, ThreadLocalRandom random) {
+        ListRef list = lists.get(listZipf.sample(random));
+        String listPath = "/users/" + list.userId() + "/lists/" + list.listId();
+
+        return switch (operation) {
+            case GET_TASKS -> get(listPath + "/tasks", "application/json");
+            case GET_TASKS_SMILE -> get(listPath + "/tasks", "application/x-jackson-smile");
+            case GET_LISTS -> get("/users/" + list.userId() + "/lists", "application/json");
+            case GET_USERS -> get("/users?page=" + random.nextInt(10) + "&size=50", "application/json");
+            case SEARCH_USERS -> get("/users?name=load%20user%20" + (1 + random.nextInt(9)) + "&size=20", "application/json");
+            case CREATE_TASK -> send("POST", listPath + "/tasks", """
+                    {"title": "load task %d", "description": "created by the load driver", "status": "todo", "dueDate": "2030-12-31", "priority": %d}
+                    """.formatted(uniqueCounter.incrementAndGet(), 1 + random.nextInt(5)));
+            case UPDATE_TASK -> {
+                TaskRef task = createdTasks.poll();
+                if (task == null) yield null;
+                createdTasks.offer(task);  // Keep it for further updates and the eventual delete
+                yield send("PUT", "/users/" + task.userId() + "/lists/" + task.listId() + "/tasks/" + task.taskId(), """
+                        {"status": "%s", "priority": %d}
+                        """.formatted(random.nextBoolean() ? "in_progress" : "done", 1 + random.nextInt(5)));
+            }
+            case DELETE_TASK -> {
+                TaskRef task = createdTasks.poll();
+                yield task == null ? null
+                        : send("DELETE", "/users/" + task.userId() + "/lists/" + task.listId() + "/tasks/" + task.taskId(), null);
+            }
+            case CREATE_LIST -> send("POST", "/users/" + list.userId() + "/lists", """
+                    {"name": "load list %d-%d", "description": "created by the load driver"}
+                    """.formatted(ProcessHandle.current().pid(), uniqueCounter.incrementAndGet()));  // Names are unique per owner
+            case DELETE_LIST -> {
+                ListRef created = createdLists.poll();
+                yield created == null ? null : send("DELETE", "/users/" + created.userId() + "/lists/" + created.listId(), null);
+            }
+            case CREATE_USER -> send("POST", "/users", """
+                    {"email": "load-driver-%d-%d@example.com", "name": "Load Driver", "password": "password"}
+                    """.formatted(ProcessHandle.current().pid(), uniqueCounter.incrementAndGet()));
+            case DELETE_USER_BY_ID -> {
+                UserRef user = createdUsers.poll();
+                yield user == null ? null : send("DELETE", "/users/" + user.userId(), null);
+            }
+            case DELETE_USER_BY_EMAIL -> {
+                UserRef user = createdUsers.poll();
+                yield user == null ? null : send("DELETE", "/users?email=" + user.email(), null);
+            }
+        };
+    }
+
+
+    private void remember(Operation operation, HttpRequest request, byte[] body) {
+        switch (operation) {
+            case CREATE_TASK -> {
+                JsonNode task = jsonMapper.readTree(body);
+                createdTasks.offer(new TaskRef(task.get("userId").asLong(), task.get("listId").asLong(), task.get("id").asLong()));
+            }
+            case CREATE_LIST -> {
+                JsonNode list = jsonMapper.readTree(body);
+                createdLists.offer(new ListRef(list.get("userId").asLong(), list.get("id").asLong()));
+            }
+            case CREATE_USER -> {
+                JsonNode user = jsonMapper.readTree(body);
+                createdUsers.offer(new UserRef(user.get("id").asLong(), user.get("email").asString()));
+            }
+            default -> { }
+        }
+    }
+
+
+    private HttpRequest get(String path, String accept) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Accept", accept)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+    }
+
+    private HttpRequest send(String method, String path, String json) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Accept", "application/json")
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .method(method, json == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+
+    void report(int durationSeconds) {
+        Histogram total = new Histogram(TimeUnit.MINUTES.toMicros(1), 3);
+        long totalErrors = 0;
+
+        System.out.printf("%n%-18s %9s %9s %7s %7s %7s %9s %9s %9s %9s %9s%n",
+                "operation", "count", "req/s", "4xx", "429", "5xx/io", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (var entry : stats.entrySet()) {
+            Stats s = entry.getValue();
+            if (s.latency.getTotalCount() == 0) continue;
+            total.add(s.latency);
+            totalErrors += s.serverErrors.sum();
+            print(entry.getKey().key, s.latency, durationSeconds, s.clientErrors.sum(), s.rateLimited.sum(), s.serverErrors.sum());
+        }
+        print("total", total, durationSeconds, -1, -1, totalErrors);
+    }
+
+    private static void print(String name, Histogram h, int durationSeconds, long clientErrors, long rateLimited, long serverErrors) {
+        System.out.printf("%-18s %9d %9.1f %7s %7s %7d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                name, h.getTotalCount(), h.getTotalCount() / (double) durationSeconds,
+                clientErrors < 0 ? "" : Long.toString(clientErrors), rateLimited < 0 ? "" : Long.toString(rateLimited), serverErrors,
+                h.getValueAtPercentile(50) / 1000.0, h.getValueAtPercentile(90) / 1000.0, h.getValueAtPercentile(99) / 1000.0,
+                h.getValueAtPercentile(99.9) / 1000.0, h.getMaxValue() / 1000.0);
+    }
+
+
+    static Operation[] parseMix(String mix) {
+        var operations = new ArrayList<Operation>();
+        for (String part : mix.split(",")) {
+            String[] keyWeight = part.trim().split("=");
+            Operation operation = Operation.of(keyWeight[0].trim());
+            int weight = Integer.parseInt(keyWeight[1].trim());
+            for (int i = 0; i < weight; i++) operations.add(operation);
+        }
+        if (operations.isEmpty()) throw new IllegalArgumentException("loadtest.mix has no weights");
+        return operations.toArray(Operation[]::new);
+    }
+
+
+    private static List<ListRef> readManifest(Path manifest) throws Exception {
+        if (!Files.exists(manifest)) {
+            throw new IllegalStateException("Manifest " + manifest.toAbsolutePath() + " not found, run DataGenerator first");
+        }
+
+        record Row(ListRef list, int taskCount) {}
+        var rows = new ArrayList<Row>();
+        List<String> lines = Files.readAllLines(manifest);
+        for (String line : lines.subList(1, lines.size())) {  // Skip the header
+            String[] fields = line.split(",");
+            rows.add(new Row(new ListRef(Long.parseLong(fields[0]), Long.parseLong(fields[1])), Integer.parseInt(fields[2])));
+        }
+        rows.sort(Comparator.comparingInt(Row::taskCount).reversed());  // Hot lists (most tasks) get the most requests
+        return rows.stream().map(Row::list).toList();
+    }
+
+}
@@ -0,0 +1,70 @@
+package jaeger.de.miel.TodoAPI.loadtest;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local HTTP consumer for the outbox relay (todo.outbox.sink=http): accepts the POSTed event batches, counts them
+ * and prints the received events per second. With outbox.stub.fail-rate a share of the batches is answered with 503
+ * to exercise redelivery.
+ * <p>
+ *   mvn -Ploadtest test-compile exec:java@outbox-stub -Doutbox.stub.port=8089
+ *   and start the application with --todo.outbox.sink=http --todo.outbox.http.url=http://localhost:8089/events
+ */
+public final class OutboxHttpStub {
+
+    private OutboxHttpStub() {
+    }
+
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = Integer.getInteger("outbox.stub.port", 8089);
+        double failRate = Double.parseDouble(System.getProperty("outbox.stub.fail-rate", "0"));
+
+        LongAdder batches = new LongAdder();
+        LongAdder events = new LongAdder();
+        LongAdder rejected = new LongAdder();
+
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/events", exchange -> {
+            try (exchange; InputStream body = exchange.getRequestBody()) {
+                if (ThreadLocalRandom.current().nextDouble() < failRate) {
+                    body.readAllBytes();
+                    rejected.increment();
+                    exchange.sendResponseHeaders(503, -1);
+                    return;
+                }
+                events.add(countEvents(body.readAllBytes()));
+                batches.increment();
+                exchange.sendResponseHeaders(204, -1);
+            }
+        });
+        server.start();
+        System.out.printf("Outbox stub listening on http://localhost:%d/events (fail rate %.2f)%n", port, failRate);
+
+        while (true) {
+            Thread.sleep(5_000);
+            System.out.printf("%,d events/s in %,d batches, %,d batches rejected%n",
+                    events.sumThenReset() / 5, batches.sumThenReset(), rejected.sumThenReset());
+        }
+    }
+
+
+    // Every event of the JSON array starts with {"id":
+    private static long countEvents(byte[] body) {
+        String json = new String(body);
+        long count = 0;
+        for (int i = json.indexOf("{\"id\":"); i >= 0; i = json.indexOf("{\"id\":", i + 1)) {
+            if (i == 1 || json.charAt(i - 1) == ',') count++;  // Skip payloads, which are nested
+        }
+        return count;
+    }
+
+}
@@ -0,0 +1,37 @@
+package jaeger.de.miel.TodoAPI.loadtest;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Zipf distributed ranks 0..n-1 (rank 0 is the most frequent), sampled by binary search on the precomputed CDF.
+ * Skew 0 is uniform; around 1 a few hot users/lists get most of the rows and requests, as in production.
+ */
+final class Zipf {
+
+    private final double[] cdf;
+
+    Zipf(int n, double skew) {
+        cdf = new double[n];
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += 1.0 / Math.pow(i + 1, skew);
+            cdf[i] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cdf[i] /= sum;
+        }
+    }
+
+
+    int sample(Random random) {
+        int i = Arrays.binarySearch(cdf, random.nextDouble());
+        return Math.min(i >= 0 ? i : -i - 1, cdf.length - 1);
+    }
+
+
+    int size() {
+        return cdf.length;
+    }
+
+}
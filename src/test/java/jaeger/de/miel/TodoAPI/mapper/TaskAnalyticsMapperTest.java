@@ -0,0 +1,34 @@
+package jaeger.de.miel.TodoAPI.mapper;
+
+import jaeger.de.miel.TodoAPI.dto.TaskAnalyticsDTO;
+import jaeger.de.miel.TodoAPI.entity.TaskDailyStats;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TaskAnalyticsMapperTest {
+
+    @Test
+    public void testToDTO() {
+        LocalDate from = LocalDate.of(2026, 3, 1);
+        LocalDate to = LocalDate.of(2026, 3, 31);
+        var day1 = new TaskDailyStats(1L, LocalDate.of(2026, 3, 2), 4, 2, 2 * 3600 * 3);  // 2 done, 3 h each
+        var day2 = new TaskDailyStats(1L, LocalDate.of(2026, 3, 5), 1, 0, 0);
+
+        TaskAnalyticsDTO result = TaskAnalyticsMapper.toDTO(from, to, List.of(day1, day2));
+
+        assertEquals(from, result.getFrom());
+        assertEquals(to, result.getTo());
+        assertEquals(5, result.getCreated());
+        assertEquals(2, result.getCompleted());
+        assertEquals(3.0, result.getAverageCycleTimeHours());
+        assertEquals(2, result.getDays().size());
+        assertEquals(3.0, result.getDays().get(0).getAverageCycleTimeHours());
+        assertNull(result.getDays().get(1).getAverageCycleTimeHours());  // Nothing completed that day
+    }
+
+}
@@ -3,6 +3,7 @@ package jaeger.de.miel.TodoAPI.mapper;
 import jaeger.de.miel.TodoAPI.dto.CreateTaskRequestDTO;
 import jaeger.de.miel.TodoAPI.dto.TaskDTO;
 import jaeger.de.miel.TodoAPI.dto.TaskStatus;
+import jaeger.de.miel.TodoAPI.dto.UpdateTaskRequestDTO;
 import jaeger.de.miel.TodoAPI.entity.Task;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -42,7 +43,7 @@ class TaskMapperTest {
         when(taskMock.getCreator().getId()).thenReturn(1L);
         when(taskMock.getTitle()).thenReturn("title");
         when(taskMock.getDescription()).thenReturn("description");
-        when(taskMock.getStatus()).thenReturn("status");
+        when(taskMock.getStatus()).thenReturn(TaskStatus.TODO);
         when(taskMock.getDueDate()).thenReturn(dueDate);
         when(taskMock.getPriority()).thenReturn(1);
         when(taskMock.getCreatedAt()).thenReturn(createdAt);
@@ -57,7 +58,7 @@ class TaskMapperTest {
         assertEquals(1L, taskDTO.getUserId());
         assertEquals("title", taskDTO.getTitle());
         assertEquals("description", taskDTO.getDescription());
-        assertEquals("status", taskDTO.getStatus());
+        assertEquals(TaskStatus.TODO, taskDTO.getStatus());
         assertEquals(dueDate, taskDTO.getDueDate());
         assertEquals(createdAt, taskDTO.getCreatedAt());
         assertEquals(updatedAt, taskDTO.getUpdatedAt());
@@ -80,7 +81,7 @@ class TaskMapperTest {
 
         when(createTaskRequestDTOMock.getTitle()).thenReturn("title");
         when(createTaskRequestDTOMock.getDescription()).thenReturn("description");
-        when(createTaskRequestDTOMock.getStatus()).thenReturn(TaskStatus.TODO);  // enum -> toString() expected in entity
+        when(createTaskRequestDTOMock.getStatus()).thenReturn(TaskStatus.TODO);
         when(createTaskRequestDTOMock.getDueDate()).thenReturn(dueDate);
         when(createTaskRequestDTOMock.getPriority()).thenReturn(1);
 
@@ -96,7 +97,7 @@ class TaskMapperTest {
         assertEquals(1L, task.getCreator().getId());
         assertEquals("title", task.getTitle());
         assertEquals("description", task.getDescription());
-        assertEquals("todo", task.getStatus());
+        assertEquals(TaskStatus.TODO, task.getStatus());
         assertEquals("2025-12-31", task.getDueDate().toString());
         assertEquals(1, task.getPriority());
 
@@ -105,4 +106,67 @@ class TaskMapperTest {
         assertThat(task.getUpdatedAt()).isEqualTo(task.getCreatedAt());
 
     }
-}
\ No newline at end of file
+
+
+    @Test
+    public void testToEntityStampsCompletedAtWhenDone() {
+        var task = new Task();
+        task.setStatus(TaskStatus.IN_PROGRESS);
+
+        Instant before = Instant.now();
+        TaskMapper.toEntity(task, update(TaskStatus.DONE));
+
+        assertEquals(TaskStatus.DONE, task.getStatus());
+        assertThat(task.getCompletedAt()).isBetween(before, Instant.now());
+
+        Instant completedAt = task.getCompletedAt();
+        TaskMapper.toEntity(task, update(TaskStatus.DONE));  // No transition: keeps the original time
+        assertEquals(completedAt, task.getCompletedAt());
+
+        TaskMapper.toEntity(task, update(TaskStatus.ARCHIVED));
+        assertEquals(completedAt, task.getCompletedAt());
+    }
+
+
+    @Test
+    public void testToEntityClearsCompletedAtWhenReopened() {
+        var task = new Task();
+        task.setStatus(TaskStatus.DONE);
+        task.setCompletedAt(Instant.now());
+
+        TaskMapper.toEntity(task, update(TaskStatus.TODO));
+
+        assertEquals(TaskStatus.TODO, task.getStatus());
+        assertNull(task.getCompletedAt());
+    }
+
+
+    @Test
+    public void testToDTOOverlayStampsAsToEntity() {
+        var taskDTO = new TaskDTO();
+        taskDTO.setStatus(TaskStatus.IN_PROGRESS);
+        taskDTO.setUpdatedAt(Instant.EPOCH);
+
+        Instant before = Instant.now();
+        TaskMapper.toDTO(taskDTO, update(TaskStatus.DONE));
+
+        assertEquals(TaskStatus.DONE, taskDTO.getStatus());
+        assertThat(taskDTO.getCompletedAt()).isBetween(before, Instant.now());
+        assertThat(taskDTO.getUpdatedAt()).isBetween(before, Instant.now());
+
+        Instant completedAt = taskDTO.getCompletedAt();
+        TaskMapper.toDTO(taskDTO, update(TaskStatus.ARCHIVED));  // Archiving keeps the completion time
+        assertEquals(completedAt, taskDTO.getCompletedAt());
+
+        TaskMapper.toDTO(taskDTO, update(TaskStatus.TODO));  // Reopened
+        assertEquals(TaskStatus.TODO, taskDTO.getStatus());
+        assertNull(taskDTO.getCompletedAt());
+    }
+
+
+    private UpdateTaskRequestDTO update(TaskStatus status) {
+        var request = new UpdateTaskRequestDTO();
+        request.setStatus(status);
+        return request;
+    }
+}
@@ -1,6 +1,7 @@
 package jaeger.de.miel.TodoAPI.mapper;
 
 import jaeger.de.miel.TodoAPI.dto.CreateUserRequestDTO;
+import jaeger.de.miel.TodoAPI.dto.UpdateUserRequestDTO;
 import jaeger.de.miel.TodoAPI.dto.UserDTO;
 import jaeger.de.miel.TodoAPI.entity.AppUser;
 import jaeger.de.miel.TodoAPI.entity.List;
@@ -70,4 +71,17 @@ public class UserMapperTest {
         assertThat(user.getUpdatedAt()).isEqualTo(user.getCreatedAt());
     }
 
+
+    @Test
+    public void testToEntityUpdateNormalizesEmail() {
+        var user = new AppUser();
+        user.setEmail("old@mail.com");
+        var request = new UpdateUserRequestDTO();
+        request.setEmail("  UnitTest@Mail.com ");
+
+        UserMapper.toEntity(user, request, passwordEncoderMock);
+
+        assertEquals("unittest@mail.com", user.getEmail());  // As on create
+    }
+
 }
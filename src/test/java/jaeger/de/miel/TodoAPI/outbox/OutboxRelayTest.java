@@ -0,0 +1,147 @@
+package jaeger.de.miel.TodoAPI.outbox;
+
+import jaeger.de.miel.TodoAPI.entity.OutboxEvent;
+import jaeger.de.miel.TodoAPI.repository.OutboxRepository;
+import jaeger.de.miel.TodoAPI.shard.ShardDirectory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxRepository outboxRepository;
+
+    @Mock
+    private OutboxSink sink;
+
+    @Mock
+    private ShardDirectory shardDirectory;  // isEnabled() is false: single database
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OutboxRelay outboxRelay;
+
+
+    @BeforeEach
+    void setUp() {
+        outboxRelay = new OutboxRelay(outboxRepository, sink, shardDirectory, transactionManager, true, 2, 10, 60_000);
+    }
+
+
+    @Test
+    void drainPublishesAndDeletesUntilABatchIsNotFull() throws IOException {
+        List<OutboxEvent> first = events(1, 2);
+        List<OutboxEvent> second = events(3);
+        when(outboxRepository.findClaimable(eq(2), any())).thenReturn(first).thenReturn(second);
+
+        assertEquals(3, outboxRelay.drain());
+
+        verify(sink).publish(first);
+        verify(sink).publish(second);
+        verify(outboxRepository).claim(eq(List.of(1L, 2L)), notNull());
+        verify(outboxRepository).claim(eq(List.of(3L)), notNull());
+        verify(outboxRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(outboxRepository).deleteAllByIdInBatch(List.of(3L));
+        verify(transactionManager, times(4)).commit(any());  // Claim and delete per batch
+        assertEquals(3, outboxRelay.published());
+        assertTrue(outboxRelay.maxLagMillis() >= 0);
+    }
+
+
+    @Test
+    void batchIsPublishedAfterTheClaimCommittedAndDeletedInASecondTransaction() throws IOException {
+        List<OutboxEvent> batch = events(1);
+        when(outboxRepository.findClaimable(eq(2), any())).thenReturn(batch);
+
+        outboxRelay.drain();
+
+        InOrder inOrder = inOrder(outboxRepository, transactionManager, sink);
+        inOrder.verify(outboxRepository).claim(eq(List.of(1L)), notNull());
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(sink).publish(batch);
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(outboxRepository).deleteAllByIdInBatch(List.of(1L));
+        inOrder.verify(transactionManager).commit(any());
+    }
+
+
+    @Test
+    void failedPublishReleasesTheBatch() throws IOException {
+        List<OutboxEvent> batch = events(1, 2);
+        when(outboxRepository.findClaimable(eq(2), any())).thenReturn(batch);
+        doThrow(new IOException("sink down")).when(sink).publish(batch);
+
+        assertEquals(0, outboxRelay.drain());
+
+        verify(outboxRepository, never()).deleteAllByIdInBatch(any());
+        verify(outboxRepository).claim(List.of(1L, 2L), null);  // Claimable on the next poll
+        verify(sink).publish(batch);  // Not retried in the same poll
+        assertEquals(0, outboxRelay.published());
+    }
+
+
+    @Test
+    void failedDeleteKeepsTheClaim() throws IOException {
+        List<OutboxEvent> batch = events(1, 2);
+        when(outboxRepository.findClaimable(eq(2), any())).thenReturn(batch);
+        doThrow(new IllegalStateException("database down")).when(outboxRepository).deleteAllByIdInBatch(any());
+
+        assertEquals(0, outboxRelay.drain());
+
+        verify(sink).publish(batch);
+        verify(outboxRepository, never()).claim(any(), isNull());  // Published again only when the claim expires
+        verify(transactionManager).rollback(any());
+        assertEquals(0, outboxRelay.published());
+    }
+
+
+    @Test
+    void emptyOutboxPublishesNothing() {
+        when(outboxRepository.findClaimable(eq(2), any())).thenReturn(List.of());
+
+        assertEquals(0, outboxRelay.drain());
+
+        verify(outboxRepository, never()).claim(any(), any());
+        verifyNoInteractions(sink);
+    }
+
+
+    @Test
+    void toJsonEmbedsThePayload() {
+        OutboxEvent event = events(7).getFirst();
+
+        assertEquals("{\"id\":7,\"aggregateType\":\"TASK\",\"aggregateId\":70,\"eventType\":\"TASK_CREATED\","
+                + "\"createdAt\":\"" + event.getCreatedAt() + "\",\"payload\":{\"id\":70}}", OutboxSink.toJson(event));
+    }
+
+
+    private List<OutboxEvent> events(long... ids) {
+        return LongStream.of(ids)
+                .mapToObj(id -> OutboxEvent.builder()
+                        .id(id)
+                        .aggregateType("TASK")
+                        .aggregateId(id * 10)
+                        .eventType("TASK_CREATED")
+                        .payload("{\"id\":" + id * 10 + "}")
+                        .createdAt(Instant.now())
+                        .build())
+                .toList();
+    }
+
+}
@@ -0,0 +1,158 @@
+package jaeger.de.miel.TodoAPI.reminder;
+
+import jaeger.de.miel.TodoAPI.dto.TaskDTO;
+import jaeger.de.miel.TodoAPI.dto.TaskStatus;
+import jaeger.de.miel.TodoAPI.entity.AppUser;
+import jaeger.de.miel.TodoAPI.entity.Task;
+import jaeger.de.miel.TodoAPI.repository.TaskRepository;
+import jaeger.de.miel.TodoAPI.shard.ShardDirectory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReminderSchedulerTest {
+
+    private static final LocalDate TOMORROW = LocalDate.now(ZoneOffset.UTC).plusDays(1);
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private ReminderNotifier notifier;
+
+    @Mock
+    private ShardDirectory shardDirectory;  // isEnabled() is false unless stubbed: single database
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ReminderScheduler reminderScheduler;
+
+
+    @BeforeEach
+    void setUp() {
+        // Reminders at 09:00 UTC, window [today, today + 2), one-minute ticks, pages of 1000
+        reminderScheduler = new ReminderScheduler(taskRepository, notifier, shardDirectory, transactionManager,
+                true, "09:00", "UTC", 2, 60_000, 1000, 100);
+    }
+
+
+    @Test
+    void loadWindowSchedulesTheOpenTasksDueInTheWindow() {
+        when(taskRepository.findDueTasks(any(), any(), any(), any(), anyLong(), any())).thenReturn(List.of(task(1L, 7L), task(2L, 7L)));
+
+        reminderScheduler.loadWindow();
+
+        assertEquals(2, reminderScheduler.pending());
+        verify(taskRepository).findDueTasks(eq(LocalDate.now(ZoneOffset.UTC)), eq(TOMORROW.plusDays(1)),
+                eq(List.of(TaskStatus.TODO, TaskStatus.IN_PROGRESS)), any(), eq(0L), any());
+    }
+
+
+    @Test
+    void firesDueThenOverdue() {
+        when(taskRepository.findDueTasks(any(), any(), any(), any(), anyLong(), any())).thenReturn(List.of(task(1L, 7L)));
+        reminderScheduler.loadWindow();
+
+        reminderScheduler.tick(epochMilli(TOMORROW, 8));
+        verifyNoInteractions(notifier);
+
+        reminderScheduler.tick(epochMilli(TOMORROW, 9));
+        verify(notifier).notify(List.of(new Reminder(1L, 10L, 7L, "task 1", TOMORROW, Reminder.Kind.DUE)));
+        assertEquals(1, reminderScheduler.pending());  // The OVERDUE follow-up
+
+        reminderScheduler.tick(epochMilli(TOMORROW.plusDays(1), 0));
+        verify(notifier).notify(List.of(new Reminder(1L, 10L, 7L, "task 1", TOMORROW, Reminder.Kind.OVERDUE)));
+        assertEquals(0, reminderScheduler.pending());
+    }
+
+
+    @Test
+    void deletedOrCompletedTasksAreCancelled() {
+        when(taskRepository.findDueTasks(any(), any(), any(), any(), anyLong(), any())).thenReturn(List.of(task(1L, 7L), task(2L, 7L)));
+        reminderScheduler.loadWindow();
+
+        reminderScheduler.taskDeleted(7L, 1L);
+        TaskDTO completed = dto(2L, 7L);
+        completed.setStatus(TaskStatus.DONE);
+        reminderScheduler.taskChanged(completed);
+        assertEquals(0, reminderScheduler.pending());
+
+        reminderScheduler.tick(epochMilli(TOMORROW.plusDays(1), 0));
+        verifyNoInteractions(notifier);
+    }
+
+
+    @Test
+    void taskDeletedWhileItsPageIsReadIsNotScheduled() {
+        when(taskRepository.findDueTasks(any(), any(), any(), any(), anyLong(), any())).thenAnswer(invocation -> {
+            List<Task> page = List.of(task(1L, 7L), task(2L, 7L));  // Read before the delete committed
+            reminderScheduler.taskDeleted(7L, 1L);
+            return page;
+        });
+
+        reminderScheduler.loadWindow();
+
+        assertEquals(1, reminderScheduler.pending());
+        reminderScheduler.tick(epochMilli(TOMORROW, 9));
+        verify(notifier).notify(List.of(new Reminder(2L, 10L, 7L, "task 2", TOMORROW, Reminder.Kind.DUE)));
+    }
+
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void timersAreKeyedByShardAndTaskId() {
+        when(shardDirectory.isEnabled()).thenReturn(true);
+        when(shardDirectory.onEachShard(any())).thenAnswer(invocation -> List.of(((Supplier<Integer>) invocation.getArgument(0)).get()));
+        when(shardDirectory.shardFor(7L)).thenReturn("shard0");
+        when(shardDirectory.shardFor(8L)).thenReturn("shard1");
+        when(taskRepository.findDueTasks(any(), any(), any(), any(), anyLong(), any())).thenReturn(List.of());
+        reminderScheduler.loadWindow();
+
+        reminderScheduler.taskChanged(dto(1L, 7L));
+        reminderScheduler.taskChanged(dto(1L, 8L));  // Same task id, other shard
+        assertEquals(2, reminderScheduler.pending());
+
+        reminderScheduler.taskDeleted(7L, 1L);
+        assertEquals(1, reminderScheduler.pending());
+    }
+
+
+    private static long epochMilli(LocalDate date, int hour) {
+        return date.atTime(hour, 0).toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static Task task(Long id, Long userId) {
+        var list = new jaeger.de.miel.TodoAPI.entity.List();
+        list.setId(10L);
+        var creator = new AppUser();
+        creator.setId(userId);
+        return Task.builder().id(id).list(list).creator(creator).title("task " + id)
+                .status(TaskStatus.TODO).dueDate(TOMORROW).build();
+    }
+
+    private static TaskDTO dto(Long id, Long userId) {
+        var dto = new TaskDTO();
+        dto.setId(id);
+        dto.setListId(10L);
+        dto.setUserId(userId);
+        dto.setTitle("task " + id);
+        dto.setStatus(TaskStatus.TODO);
+        dto.setDueDate(TOMORROW);
+        return dto;
+    }
+
+}
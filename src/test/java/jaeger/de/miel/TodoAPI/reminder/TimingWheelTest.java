@@ -0,0 +1,108 @@
+package jaeger.de.miel.TodoAPI.reminder;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    // 4 buckets per level, 3 levels: level 0 covers 4 ticks, level 1 16 ticks, level 2 64 ticks
+    private final TimingWheel<String> wheel = new TimingWheel<>(10, 2, 3, 0);
+    private final List<String> fired = new ArrayList<>();
+
+
+    @Test
+    public void testFiresAtOrAfterTheDeadline() {
+        wheel.schedule("a", 25);  // Rounded up to tick 3
+        wheel.schedule("b", 10);
+
+        wheel.advance(19, fired::add);
+        assertEquals(List.of("b"), fired);
+
+        wheel.advance(29, fired::add);
+        assertEquals(List.of("b"), fired);  // Not early
+
+        wheel.advance(30, fired::add);
+        assertEquals(List.of("b", "a"), fired);
+        assertEquals(0, wheel.size());
+    }
+
+
+    @Test
+    public void testCascadesFromCoarserLevels() {
+        wheel.schedule("level1", 100);   // Tick 10
+        wheel.schedule("level2", 500);   // Tick 50
+        wheel.schedule("overflow", 2000);  // Tick 200, beyond the top level
+
+        wheel.advance(99, fired::add);
+        assertTrue(fired.isEmpty());
+        wheel.advance(100, fired::add);
+        assertEquals(List.of("level1"), fired);
+
+        wheel.advance(499, fired::add);
+        assertEquals(List.of("level1"), fired);
+        wheel.advance(500, fired::add);
+        assertEquals(List.of("level1", "level2"), fired);
+
+        wheel.advance(1999, fired::add);
+        assertEquals(2, fired.size());
+        wheel.advance(2000, fired::add);
+        assertEquals(List.of("level1", "level2", "overflow"), fired);
+    }
+
+
+    @Test
+    public void testCancel() {
+        TimingWheel.Timer<String> timer = wheel.schedule("cancelled", 300);
+        wheel.schedule("kept", 300);
+
+        assertTrue(wheel.cancel(timer));
+        assertFalse(wheel.cancel(timer));
+        assertFalse(timer.isPending());
+
+        wheel.advance(300, fired::add);
+        assertEquals(List.of("kept"), fired);
+    }
+
+
+    @Test
+    public void testOverdueDeadlineFiresWithTheNextTick() {
+        wheel.advance(1000, fired::add);
+        wheel.schedule("late", 500);
+
+        wheel.advance(1009, fired::add);
+        assertTrue(fired.isEmpty());
+        wheel.advance(1010, fired::add);
+        assertEquals(List.of("late"), fired);
+    }
+
+
+    @Test
+    public void testRandomDeadlinesFireInOrder() {
+        var random = new Random(42);
+        List<Long> deadlines = new ArrayList<>();
+        var timers = new TimingWheel<Long>(10, 2, 3, 0);
+        for (int i = 0; i < 1_000; i++) {
+            long deadline = 10L * random.nextInt(5_000);
+            deadlines.add(deadline);
+            timers.schedule(deadline, deadline);
+        }
+
+        List<Long> expired = new ArrayList<>();
+        for (long now = 0; now <= 50_000; now += 70) {
+            long until = now;
+            timers.advance(now, deadline -> {
+                assertTrue(deadline <= until);
+                expired.add(deadline);
+            });
+        }
+
+        assertEquals(deadlines.stream().sorted().toList(), expired);
+        assertEquals(0, timers.size());
+    }
+
+}
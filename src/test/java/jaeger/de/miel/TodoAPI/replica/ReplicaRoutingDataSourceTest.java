@@ -0,0 +1,126 @@
+package jaeger.de.miel.TodoAPI.replica;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final Replica replica0 = new Replica("replica0", new HikariDataSource());
+    private final Replica replica1 = new Replica("replica1", new HikariDataSource());
+    private final ReplicaRoutingDataSource routing =
+            new ReplicaRoutingDataSource(mock(DataSource.class), List.of(replica0, replica1), 10_000);
+
+
+    @AfterEach
+    public void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        ReplicaContext.clear();
+    }
+
+
+    @Test
+    public void testWritesGoToThePrimary() {
+        replica0.markSynced(System.currentTimeMillis());
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+    }
+
+
+    @Test
+    public void testReadOnlyTransactionsAreSpreadOverFreshReplicas() {
+        long now = System.currentTimeMillis();
+        replica0.markSynced(now);
+        replica1.markSynced(now);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertNotEquals(routing.determineCurrentLookupKey(), routing.determineCurrentLookupKey());
+        assertEquals(0, routing.primaryReadsThenReset());
+        assertEquals(2, routing.replicaReadsThenReset());
+    }
+
+
+    @Test
+    public void testStaleOrOfflineReplicasAreSkipped() {
+        replica0.markSynced(System.currentTimeMillis() - 60_000);  // Older than max-staleness
+        replica1.markSynced(System.currentTimeMillis());
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals("replica1", routing.determineCurrentLookupKey());
+        assertEquals("replica1", routing.determineCurrentLookupKey());
+
+        replica1.takeOffline();
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+    }
+
+
+    @Test
+    public void testReadYourWritesStaysOnThePrimaryUntilTheNextSnapshot() {
+        long syncedAt = System.currentTimeMillis();
+        replica0.markSynced(syncedAt);
+        replica1.markSynced(syncedAt);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        var readYourWrites = new ReadYourWrites();
+        readYourWrites.recordWrite(syncedAt + 1, "user:1", "ip:10.0.0.1");
+        ReplicaContext.setNotBefore(readYourWrites.lastWrite("user:1", "ip:10.0.0.2") + 1);
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+
+        replica1.markSynced(syncedAt + 2);
+        assertEquals("replica1", routing.determineCurrentLookupKey());
+
+        readYourWrites.expire(syncedAt + 2);
+        assertEquals(0, readYourWrites.size());
+    }
+
+
+
+    @Test
+    public void testReplicaConnectionsAreCountedUntilClosed() throws SQLException {
+        HikariDataSource dataSource = mock(HikariDataSource.class);
+        Connection connection = mock(Connection.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        var replica = new Replica("replica0", dataSource);
+        replica.markSynced(System.currentTimeMillis());
+        var routing = new ReplicaRoutingDataSource(mock(DataSource.class), List.of(replica), 10_000);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        Connection routed = routing.getConnection();
+        assertEquals(1, replica.checkedOut());
+
+        routed.close();
+        routed.close();
+        assertEquals(0, replica.checkedOut());
+        verify(connection).close();
+    }
+
+
+    @Test
+    public void testReplicaTakenOfflineAfterThePickIsNotCheckedOut() throws SQLException {
+        DataSource primary = mock(DataSource.class);
+        Connection primaryConnection = mock(Connection.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        HikariDataSource dataSource = mock(HikariDataSource.class);
+        var replica = spy(new Replica("replica0", dataSource));
+        replica.markSynced(System.currentTimeMillis());
+        doAnswer(invocation -> {
+            replica.takeOffline();  // The synchronizer, between the pick and the checkout
+            return invocation.callRealMethod();
+        }).when(replica).checkOut();
+        var routing = new ReplicaRoutingDataSource(primary, List.of(replica), 10_000);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertSame(primaryConnection, routing.getConnection());
+        assertEquals(0, replica.checkedOut());
+        verify(dataSource, never()).getConnection();
+    }
+
+}
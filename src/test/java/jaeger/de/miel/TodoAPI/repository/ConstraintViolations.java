@@ -0,0 +1,23 @@
+package jaeger.de.miel.TodoAPI.repository;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.SQLException;
+
+/**
+ * Builds the exception Spring translates a constraint violation into, as {@link Constraints} receives it from a save.
+ */
+public final class ConstraintViolations {
+
+    private ConstraintViolations() {
+    }
+
+
+    public static DataIntegrityViolationException violation(String sqlState, String constraintName) {
+        SQLException cause = new SQLException("constraint violation", sqlState);
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", cause, constraintName));
+    }
+
+}
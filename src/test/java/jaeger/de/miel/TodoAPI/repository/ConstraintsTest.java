@@ -0,0 +1,37 @@
+package jaeger.de.miel.TodoAPI.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+
+import static jaeger.de.miel.TodoAPI.repository.ConstraintViolations.violation;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConstraintsTest {
+
+    @Test
+    public void testForeignKeyByConstraintName() {
+        var e = violation("23506", "FK_TASK_LIST: PUBLIC.TASK FOREIGN KEY(LIST_ID) REFERENCES PUBLIC.LIST(ID) (CAST(99 AS BIGINT))");
+
+        assertTrue(Constraints.isForeignKeyViolation(e, "FK_TASK_LIST"));
+        assertFalse(Constraints.isForeignKeyViolation(e, "FK_TASK_CREATOR"));
+        assertFalse(Constraints.isUniqueViolation(e, "FK_TASK_LIST"));
+    }
+
+
+    @Test
+    public void testUniqueBySchemaQualifiedNameOrBackingIndex() {
+        assertTrue(Constraints.isUniqueViolation(violation("23505", "PUBLIC.UK_LIST_OWNER_NAME_LOWER"), "UK_LIST_OWNER_NAME_LOWER"));
+        assertTrue(Constraints.isUniqueViolation(violation("23505", "PUBLIC.UK_APP_USER_EMAIL_INDEX_7"), "UK_APP_USER_EMAIL"));
+        assertFalse(Constraints.isUniqueViolation(violation("23505", "PUBLIC.UK_APP_USER_EMAIL_OLD"), "UK_APP_USER_EMAIL"));
+    }
+
+
+    @Test
+    public void testMessageTextIsNotEnough() {
+        var e = new DataIntegrityViolationException("Unique index or primary key violation: UK_APP_USER_EMAIL");
+
+        assertFalse(Constraints.isUniqueViolation(e, "UK_APP_USER_EMAIL"));
+        assertFalse(Constraints.isUniqueViolation(violation("23505", null), "UK_APP_USER_EMAIL"));
+    }
+}
@@ -0,0 +1,37 @@
+package jaeger.de.miel.TodoAPI.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InClauseTest {
+
+    @Test
+    public void testRowsInRequestedOrderWithoutDuplicates() {
+        List<Long> rows = InClause.findAll(List.of(3L, 1L, 7L, 3L, 2L),
+                ids -> ids.stream().filter(id -> id != 7).sorted().toList(),  // Like a database: any order, 7 unknown
+                id -> id);
+
+        assertEquals(List.of(3L, 1L, 2L), rows);
+    }
+
+
+    @Test
+    public void testChunksOfAtMostMaxChunk() {
+        List<Long> ids = LongStream.rangeClosed(1, 600).boxed().toList();
+        List<Integer> chunkSizes = new ArrayList<>();
+
+        List<Long> rows = InClause.findAll(ids, chunk -> {
+            chunkSizes.add(chunk.size());
+            return chunk;
+        }, id -> id);
+
+        assertEquals(List.of(256, 256, 88), chunkSizes);
+        assertEquals(ids, rows);
+    }
+
+}
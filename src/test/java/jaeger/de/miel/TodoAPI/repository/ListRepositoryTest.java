@@ -5,6 +5,7 @@ import jaeger.de.miel.TodoAPI.entity.AppUser;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -12,6 +13,7 @@ import java.time.Instant;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest
@@ -47,18 +49,27 @@ public class ListRepositoryTest {
 
     @Transactional
     @Test
-    public void testFindListsByOwner_IdAndNameIgnoreCase() {
-        Long ownerId = 1L;
-        var list = createList(ownerId);
+    public void testFindListsByOwner_IdOrderByNameLowerAsc() {
+        List<jaeger.de.miel.TodoAPI.entity.List> lists = listRepository.findListsByOwner_IdOrderByNameLowerAsc(1L);
 
-        var created = listRepository.save(list);
-        Long listId = created.getId();
+        assertFalse(lists.isEmpty());
+        for (int i = 1; i < lists.size(); i++) {
+            assertTrue(lists.get(i - 1).getName().compareToIgnoreCase(lists.get(i).getName()) <= 0);
+        }
+    }
 
-        System.out.println("Created list with id: " + listId);
-        assertTrue(listId > 0);
 
-        boolean exists = listRepository.existsByOwner_IdAndNameIgnoreCase(ownerId, "LiSt NaMe TeSt");
-        assertTrue(exists);
+    @Transactional
+    @Test
+    public void testDuplicateNameIgnoreCaseIsRejected() {
+        Long ownerId = 1L;
+        listRepository.save(createList(ownerId));
+
+        var duplicate = createList(ownerId);
+        duplicate.setName("LiSt NaMe TeSt");
+
+        // UK_LIST_OWNER_NAME_LOWER on the generated NAME_LOWER column
+        assertThrows(DataIntegrityViolationException.class, () -> listRepository.saveAndFlush(duplicate));
     }
 
 
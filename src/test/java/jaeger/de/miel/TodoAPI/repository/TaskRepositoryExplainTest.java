@@ -0,0 +1,77 @@
+package jaeger.de.miel.TodoAPI.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs every TaskRepository query, captures the SQL Hibernate generated for it and asserts
+ * (with H2 EXPLAIN) that the intended index is used.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=jaeger.de.miel.TodoAPI.repository.RecordingStatementInspector"
+})
+class TaskRepositoryExplainTest {
+
+    private static final String COMPOSITE_INDEX = "IDX_TASK_LIST_CREATOR_ID";
+    private static final String PRIMARY_KEY = "PRIMARY_KEY";
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+
+    @Transactional
+    @Test
+    public void testFindTasksByList_IdAndCreator_IdUsesCompositeIndex() {
+        RecordingStatementInspector.clear();
+        taskRepository.findTasksByList_IdAndCreator_Id(1L, 1L);
+
+        String plan = explain(firstSelect(), 1L, 1L);
+        assertThat(plan).contains(COMPOSITE_INDEX);
+    }
+
+
+    @Transactional
+    @Test
+    public void testFindTaskByIdAndList_IdAndCreator_IdUsesPrimaryKey() {
+        RecordingStatementInspector.clear();
+        taskRepository.findTaskByIdAndList_IdAndCreator_Id(1L, 1L, 1L);
+
+        String plan = explain(firstSelect(), 1L, 1L, 1L);
+        assertThat(plan).contains(PRIMARY_KEY);
+    }
+
+
+    @Transactional
+    @Test
+    public void testDeleteByIdAndList_IdAndCreator_IdUsesPrimaryKey() {
+        RecordingStatementInspector.clear();
+        taskRepository.deleteByIdAndList_IdAndCreator_Id(-1L, 1L, 1L);  // Derived delete: SELECT first, then DELETE per row
+
+        String plan = explain(firstSelect(), -1L, 1L, 1L);
+        assertThat(plan).contains(PRIMARY_KEY);
+    }
+
+
+    private String firstSelect() {
+        return RecordingStatementInspector.statements().stream()
+                .filter(sql -> sql.trim().toLowerCase().startsWith("select"))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No SELECT captured: " + RecordingStatementInspector.statements()));
+    }
+
+    private String explain(String sql, Object... args) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, args);
+        System.out.println(plan);
+        assertThat(plan).doesNotContainIgnoringCase("tableScan");
+        return plan;
+    }
+
+}
@@ -1,5 +1,6 @@
 package jaeger.de.miel.TodoAPI.repository;
 
+import jaeger.de.miel.TodoAPI.dto.TaskStatus;
 import jaeger.de.miel.TodoAPI.entity.AppUser;
 import jaeger.de.miel.TodoAPI.entity.List;
 import jaeger.de.miel.TodoAPI.entity.Task;
@@ -7,11 +8,17 @@ import jakarta.transaction.Transactional;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
 import org.springframework.test.context.TestPropertySource;
 
 import java.time.Instant;
 import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -59,6 +66,38 @@ class TaskRepositoryTest {
     }
 
 
+    @Transactional
+    @Test
+    public void testFindOwnerTasksCoversAllListsOfTheOwner() {
+        Long userId = 1L;  // Alice: lists 1 and 2
+
+        var tasks = taskRepository.findOwnerTasks(userId, EnumSet.allOf(TaskStatus.class), 0, Limit.unlimited());
+
+        assertEquals(Set.of(1L, 2L), tasks.stream().map(t -> t.getList().getId()).collect(Collectors.toSet()));
+        assertEquals(tasks.stream().map(Task::getId).sorted().toList(), tasks.stream().map(Task::getId).toList());
+    }
+
+
+    @Transactional
+    @Test
+    public void testFindOwnerTasksDueIsKeysetPaginated() {
+        Long userId = 1L;
+        LocalDate from = LocalDate.now();
+        LocalDate to = from.plusDays(15);
+        var statuses = EnumSet.of(TaskStatus.TODO, TaskStatus.IN_PROGRESS);
+
+        var all = taskRepository.findOwnerTasksDue(userId, statuses, from, to, from, 0, Limit.unlimited());
+        var page1 = taskRepository.findOwnerTasksDue(userId, statuses, from, to, from, 0, Limit.of(3));
+        Task last = page1.getLast();
+        var page2 = taskRepository.findOwnerTasksDue(userId, statuses, from, to, last.getDueDate(), last.getId(), Limit.of(all.size()));
+
+        assertTrue(all.size() > 3);
+        assertEquals(all.stream().map(Task::getId).toList(),
+                Stream.concat(page1.stream(), page2.stream()).map(Task::getId).toList());
+        all.forEach(t -> assertTrue(statuses.contains(t.getStatus()) && !t.getDueDate().isBefore(from) && t.getDueDate().isBefore(to)));
+    }
+
+
     private Task createTask(Long ownerId, Long listId) {
         List list = new List();
         list.setId(listId);
@@ -74,7 +113,7 @@ class TaskRepositoryTest {
         task.setCreator(creator);
         task.setTitle("task title test");
         task.setDescription("task description test");
-        task.setStatus("todo");
+        task.setStatus(TaskStatus.TODO);
         task.setDueDate(dueDate);
         task.setPriority(1);
         task.setCreatedAt(now);
@@ -4,10 +4,14 @@ import jaeger.de.miel.TodoAPI.entity.AppUser;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -47,6 +51,35 @@ public class UserRepositoryTest {
     }
 
 
+    @Transactional
+    @Test
+    public void testFindByNameLowerStartingWith() {
+        var appUser = createUser();
+        appUser.setName("Unittest Prefix Name");
+        userRepository.save(appUser);
+
+        // NAME_LOWER is generated by the database from NAME
+        Slice<AppUser> users = userRepository.findByNameLowerStartingWithOrderByNameAscIdAsc("unittest prefix", PageRequest.of(0, 10));
+        assertEquals(1, users.getNumberOfElements());
+        assertEquals("Unittest Prefix Name", users.getContent().get(0).getName());
+
+        // LIKE wildcards in the prefix are escaped
+        assertEquals(0, userRepository.findByNameLowerStartingWithOrderByNameAscIdAsc("unittest%", PageRequest.of(0, 10)).getNumberOfElements());
+    }
+
+
+    @Transactional
+    @Test
+    public void testFindByIdIn() {
+        var created = userRepository.save(createUser());
+
+        // 3 ids are padded to 4 parameters (in_clause_parameter_padding): the padding repeats an id, no extra rows
+        List<AppUser> users = userRepository.findByIdIn(List.of(created.getId(), -1L, -2L));
+        assertEquals(1, users.size());
+        assertEquals(created.getId(), users.get(0).getId());
+    }
+
+
     private AppUser createUser() {
         Instant now = Instant.now();
 
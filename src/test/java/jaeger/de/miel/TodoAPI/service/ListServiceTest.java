@@ -2,23 +2,29 @@ package jaeger.de.miel.TodoAPI.service;
 
 import jaeger.de.miel.TodoAPI.dto.CreateListRequestDTO;
 import jaeger.de.miel.TodoAPI.dto.ListDTO;
+import jaeger.de.miel.TodoAPI.dto.UpdateListRequestDTO;
 import jaeger.de.miel.TodoAPI.entity.AppUser;
+import jaeger.de.miel.TodoAPI.index.OwnershipIndex;
+import jaeger.de.miel.TodoAPI.index.UserFilter;
 import jaeger.de.miel.TodoAPI.mapper.ListMapper;
 import jaeger.de.miel.TodoAPI.repository.ListRepository;
 import jaeger.de.miel.TodoAPI.repository.UserRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 
 import java.util.Arrays;
 import java.util.List;
-import java.util.Optional;
 
+import static jaeger.de.miel.TodoAPI.repository.ConstraintViolations.violation;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -34,17 +40,26 @@ class ListServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private OutboxService outboxService;
+
+    @Spy
+    private OwnershipIndex ownershipIndex = new OwnershipIndex(true, false);
+
+    @Spy
+    private UserFilter userFilter = new UserFilter(true, false, 1000, 0.01);  // Not authoritative: every check queries
+
 
     @Test
     public void testGetLists() {
         Long userId = 1L;
 
-        var l1 = createList("Zeta");
-        var l2 = createList("Alpha");
-        var l3 = createList("Beta");
-        List<jaeger.de.miel.TodoAPI.entity.List> lists = Arrays.asList(l1, l2, l3);
+        var l1 = createList("Alpha");
+        var l2 = createList("Beta");
+        var l3 = createList("Zeta");
+        List<jaeger.de.miel.TodoAPI.entity.List> lists = Arrays.asList(l1, l2, l3);  // Sorted by the database
 
-        when(listRepository.findListsByOwner_Id(userId)).thenReturn(lists);
+        when(listRepository.findListsByOwner_IdOrderByNameLowerAsc(userId)).thenReturn(lists);
 
         try (MockedStatic<ListMapper> mocked = Mockito.mockStatic(ListMapper.class)) {
             mocked.when(() -> ListMapper.toDTO(l1)).thenAnswer(inv -> {
@@ -69,7 +84,7 @@ class ListServiceTest {
             assertNotNull(result);
             assertEquals(3, result.size());
 
-            // Ensure sorted ascending by name: Alpha, Beta, Zeta
+            // Database order is kept: Alpha, Beta, Zeta
             assertEquals("Alpha", result.get(0).getName());
             assertEquals("Beta", result.get(1).getName());
             assertEquals("Zeta", result.get(2).getName());
@@ -81,7 +96,7 @@ class ListServiceTest {
     @Test
     void testGetListsEmpty() {
         Long userId = -1L;
-        when(listRepository.findListsByOwner_Id(userId)).thenReturn(List.of());
+        when(listRepository.findListsByOwner_IdOrderByNameLowerAsc(userId)).thenReturn(List.of());
 
         try (MockedStatic<ListMapper> mocked = Mockito.mockStatic(ListMapper.class)) {
             List<ListDTO> result = listService.getLists(userId);
@@ -89,7 +104,7 @@ class ListServiceTest {
             assertNotNull(result);
             assertTrue(result.isEmpty());
 
-            verify(listRepository).findListsByOwner_Id(userId);
+            verify(listRepository).findListsByOwner_IdOrderByNameLowerAsc(userId);
             mocked.verifyNoInteractions();   // No mapping interactions when no entities
         }
 
@@ -122,8 +137,7 @@ class ListServiceTest {
         expectedDto.setId(123L);
         expectedDto.setName("Work");
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(owner));
-        when(listRepository.existsByOwner_IdAndNameIgnoreCase(userId, "Work")).thenReturn(false);
+        when(userRepository.existsById(userId)).thenReturn(true);
         when(listRepository.save(any(jaeger.de.miel.TodoAPI.entity.List.class))).thenReturn(persisted);
 
         try (MockedStatic<ListMapper> mocked = Mockito.mockStatic(ListMapper.class)) {
@@ -139,8 +153,7 @@ class ListServiceTest {
             assertEquals("Work", result.getName());
 
             // Interactions
-            verify(userRepository).findById(userId);
-            verify(listRepository).existsByOwner_IdAndNameIgnoreCase(userId, "Work");
+            verify(userRepository).existsById(userId);
             verify(listRepository).save(toSave);
 
             mocked.verify(() -> ListMapper.toEntity(userId, request));
@@ -160,14 +173,13 @@ class ListServiceTest {
         CreateListRequestDTO request = new CreateListRequestDTO();
         request.setName("Home");
 
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        when(userRepository.existsById(userId)).thenReturn(false);
 
         try (MockedStatic<ListMapper> mocked = Mockito.mockStatic(ListMapper.class)) {
             assertThrows(ListService.OwnerNotFoundException.class,
                     () -> listService.createList(userId, request));
 
-                        verify(userRepository).findById(userId);  // Only findById should be called; no further interactions
-            verify(listRepository, never()).existsByOwner_IdAndNameIgnoreCase(anyLong(), anyString());
+            verify(userRepository).existsById(userId);  // Only existsById should be called; no further interactions
             verify(listRepository, never()).save(any());
 
             mocked.verifyNoInteractions();
@@ -177,6 +189,30 @@ class ListServiceTest {
     }
 
 
+    @Test
+    void createListOwnerMissingFromNonAuthoritativeUserFilterIsQueried() {
+        Long userId = 42L;  // Created by another instance: not in this instance's filter
+
+        CreateListRequestDTO request = new CreateListRequestDTO();
+        request.setName("Home");
+        jaeger.de.miel.TodoAPI.entity.List toSave = new jaeger.de.miel.TodoAPI.entity.List();
+        toSave.setId(7L);
+
+        userFilter.markReady();
+        when(userRepository.existsById(userId)).thenReturn(true);
+        when(listRepository.save(toSave)).thenReturn(toSave);
+
+        try (MockedStatic<ListMapper> mocked = Mockito.mockStatic(ListMapper.class)) {
+            mocked.when(() -> ListMapper.toEntity(userId, request)).thenReturn(toSave);
+
+            listService.createList(userId, request);
+
+            verify(userRepository).existsById(userId);  // The negative did not answer: no 404
+            verify(listRepository).save(toSave);
+        }
+    }
+
+
 
     @Test
     void createListDuplicateListNameException() {
@@ -187,25 +223,70 @@ class ListServiceTest {
 
         AppUser owner = new AppUser();
         owner.setId(userId);
+        jaeger.de.miel.TodoAPI.entity.List toSave = new jaeger.de.miel.TodoAPI.entity.List();
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(owner));
-        when(listRepository.existsByOwner_IdAndNameIgnoreCase(userId, "Work")).thenReturn(true);
+        when(userRepository.existsById(userId)).thenReturn(true);
+        when(listRepository.save(toSave)).thenThrow(violation("23505", "PUBLIC.UK_LIST_OWNER_NAME_LOWER"));
 
         try (MockedStatic<ListMapper> mocked = Mockito.mockStatic(ListMapper.class)) {
+            mocked.when(() -> ListMapper.toEntity(userId, request)).thenReturn(toSave);
+
             assertThrows(ListService.DuplicateListNameException.class,
                     () -> listService.createList(userId, request));
 
-            verify(userRepository).findById(userId);
-            verify(listRepository).existsByOwner_IdAndNameIgnoreCase(userId, "Work");
-            verify(listRepository, never()).save(any());
+            verify(userRepository).existsById(userId);
+            verify(listRepository).save(toSave);
 
-            mocked.verifyNoInteractions();  // Mapper should not be called when duplicate detected
+            mocked.verify(() -> ListMapper.toDTO(any()), never());  // Nothing to map when the insert is rejected
         }
 
         verifyNoMoreInteractions(userRepository, listRepository);
     }
 
 
+    @Test
+    void createListOwnerDeletedConcurrently() {
+        Long userId = 10L;
+
+        CreateListRequestDTO request = new CreateListRequestDTO();
+        request.setName("Work");
+
+        jaeger.de.miel.TodoAPI.entity.List toSave = new jaeger.de.miel.TodoAPI.entity.List();
+
+        when(userRepository.existsById(userId)).thenReturn(true);
+        when(listRepository.save(toSave)).thenThrow(violation("23506", "FK_LIST_OWNER: PUBLIC.LIST FOREIGN KEY(OWNER_ID) REFERENCES PUBLIC.APP_USER(ID)"));
+
+        try (MockedStatic<ListMapper> mocked = Mockito.mockStatic(ListMapper.class)) {
+            mocked.when(() -> ListMapper.toEntity(userId, request)).thenReturn(toSave);
+
+            assertThrows(ListService.OwnerNotFoundException.class,
+                    () -> listService.createList(userId, request));
+        }
+    }
+
+
+    @Test
+    void createListRethrowsOtherConstraintViolations() {
+        Long userId = 10L;
+
+        CreateListRequestDTO request = new CreateListRequestDTO();
+        request.setName("Work");
+
+        jaeger.de.miel.TodoAPI.entity.List toSave = new jaeger.de.miel.TodoAPI.entity.List();
+        DataIntegrityViolationException tooLong = new DataIntegrityViolationException("Value too long for column \"NAME\"");
+
+        when(userRepository.existsById(userId)).thenReturn(true);
+        when(listRepository.save(toSave)).thenThrow(tooLong);
+
+        try (MockedStatic<ListMapper> mocked = Mockito.mockStatic(ListMapper.class)) {
+            mocked.when(() -> ListMapper.toEntity(userId, request)).thenReturn(toSave);
+
+            assertSame(tooLong, assertThrows(DataIntegrityViolationException.class,
+                    () -> listService.createList(userId, request)));
+        }
+    }
+
+
     @Test
     void deleteList() {
         Long userId = 1L;
@@ -213,7 +294,9 @@ class ListServiceTest {
 
         listService.deleteList(userId, listId);
 
-        verify(listRepository, times(1)).deleteByIdAndOwner_Id(listId, userId);
+        InOrder inOrder = inOrder(outboxService, listRepository);
+        inOrder.verify(outboxService).listTasksDeleted(listId, userId);  // While the tasks still exist
+        inOrder.verify(listRepository, times(1)).deleteByIdAndOwner_Id(listId, userId);
         verifyNoMoreInteractions(listRepository);
     }
 
@@ -235,6 +318,66 @@ class ListServiceTest {
     }
 
 
+    @Test
+    void getListsByIds() {
+        Long userId = 1L;
+        AppUser owner = new AppUser();
+        owner.setId(userId);
+        var l1 = createList("Alpha");
+        l1.setId(1L);
+        l1.setOwner(owner);
+        var l2 = createList("Beta");
+        l2.setId(2L);
+        l2.setOwner(owner);
+
+        when(listRepository.findListsByOwner_IdAndIdIn(userId, List.of(2L, 1L))).thenReturn(Arrays.asList(l1, l2));
+
+        List<ListDTO> result = listService.getLists(userId, List.of(2L, 1L));
+
+        assertEquals(List.of("Beta", "Alpha"), result.stream().map(ListDTO::getName).toList());
+    }
+
+
+    @Test
+    void deletedListIsRejectedWithoutQuery() {
+        Long userId = 1L;
+        Long listId = 5L;
+
+        when(listRepository.deleteByIdAndOwner_Id(listId, userId)).thenReturn(1L);
+        listService.deleteList(userId, listId);
+
+        // The tombstone in the ownership index answers: no second delete, no lookup
+        listService.deleteList(userId, listId);
+        assertThrows(ListService.ListNotFoundException.class,
+                () -> listService.updateList(userId, listId, new UpdateListRequestDTO()));
+
+        verify(listRepository, times(1)).deleteByIdAndOwner_Id(listId, userId);
+        verifyNoMoreInteractions(listRepository);
+    }
+
+
+    @Test
+    void createListOwnerKnownToOwnershipIndex() {
+        Long userId = 10L;
+        CreateListRequestDTO request = new CreateListRequestDTO();
+        request.setName("Work");
+
+        jaeger.de.miel.TodoAPI.entity.List persisted = new jaeger.de.miel.TodoAPI.entity.List();
+        persisted.setId(123L);
+
+        ownershipIndex.userFound(userId);
+        when(listRepository.save(any(jaeger.de.miel.TodoAPI.entity.List.class))).thenReturn(persisted);
+
+        try (MockedStatic<ListMapper> mocked = Mockito.mockStatic(ListMapper.class)) {
+            mocked.when(() -> ListMapper.toEntity(userId, request)).thenReturn(new jaeger.de.miel.TodoAPI.entity.List());
+            listService.createList(userId, request);
+        }
+
+        verifyNoInteractions(userRepository);  // No existence query for a user the index knows
+        assertEquals(OwnershipIndex.Lookup.FOUND, ownershipIndex.checkList(123L, userId));
+    }
+
+
     private jaeger.de.miel.TodoAPI.entity.List createList(String name) {
         var list = new jaeger.de.miel.TodoAPI.entity.List();
         list.setName(name);
@@ -2,39 +2,70 @@ package jaeger.de.miel.TodoAPI.service;
 
 import jaeger.de.miel.TodoAPI.dto.CreateTaskRequestDTO;
 import jaeger.de.miel.TodoAPI.dto.TaskDTO;
+import jaeger.de.miel.TodoAPI.dto.TaskPageDTO;
+import jaeger.de.miel.TodoAPI.dto.TaskStatus;
+import jaeger.de.miel.TodoAPI.dto.UpdateTaskRequestDTO;
 import jaeger.de.miel.TodoAPI.entity.AppUser;
 import jaeger.de.miel.TodoAPI.entity.Task;
+import jaeger.de.miel.TodoAPI.index.OwnershipIndex;
 import jaeger.de.miel.TodoAPI.mapper.TaskMapper;
+import jaeger.de.miel.TodoAPI.reminder.ReminderScheduler;
 import jaeger.de.miel.TodoAPI.repository.ListRepository;
 import jaeger.de.miel.TodoAPI.repository.TaskRepository;
-import jaeger.de.miel.TodoAPI.repository.UserRepository;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.domain.Limit;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.stream.Stream;
 
+import static jaeger.de.miel.TodoAPI.repository.ConstraintViolations.violation;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class TaskServiceTest {
 
-    @Mock
-    private UserRepository userRepository;
-
     @Mock
     private ListRepository listRepository;
 
     @Mock
     private TaskRepository taskRepository;
 
+    @Mock
+    private TaskUpdateBuffer taskUpdateBuffer;  // Write-behind disabled (isEnabled() == false)
+
+    @Mock
+    private ObjectProvider<EntityManager> entityManagerProvider;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private ReminderScheduler reminderScheduler;
+
+    @Mock
+    private TaskEventService taskEventService;
+
+    @Spy
+    private OwnershipIndex ownershipIndex = new OwnershipIndex(true, false);
+
     @InjectMocks
     private TaskService taskService;
 
@@ -63,20 +94,109 @@ class TaskServiceTest {
         }
     }
 
+    // ---------------------------------------------------------
+    // streamTasks
+    // ---------------------------------------------------------
+    @Test
+    void streamTasks() {
+        Task task = new Task();
+        TaskDTO dto = new TaskDTO();
+        List<TaskDTO> received = new ArrayList<>();
+
+        when(taskRepository.streamTasksByList_IdAndCreator_Id(listId, userId))
+                .thenReturn(Stream.of(task));
+        when(entityManagerProvider.getIfAvailable()).thenReturn(entityManager);
+
+        try (MockedStatic<TaskMapper> mapper = Mockito.mockStatic(TaskMapper.class)) {
+            mapper.when(() -> TaskMapper.toDTO(task)).thenReturn(dto);
+
+            taskService.streamTasks(userId, listId, received::add);
+
+            assertEquals(List.of(dto), received);
+            verify(entityManager).detach(task);
+        }
+    }
+
+    // ---------------------------------------------------------
+    // getUserTasks
+    // ---------------------------------------------------------
+    @Test
+    void getUserTasks_dueRangeIsKeysetPaginated() {
+        LocalDate from = LocalDate.of(2026, 10, 19);
+        LocalDate to = LocalDate.of(2026, 10, 25);
+        LocalDate due = LocalDate.of(2026, 10, 21);
+        List<TaskStatus> statuses = List.of(TaskStatus.TODO);
+
+        when(taskRepository.findOwnerTasksDue(eq(userId), eq(statuses), eq(from), eq(to.plusDays(1)), eq(from), eq(0L), any(Limit.class)))
+                .thenReturn(List.of(ownedTask(1L, due), ownedTask(2L, due), ownedTask(3L, due.plusDays(1))));
+
+        TaskPageDTO page = taskService.getUserTasks(userId, statuses, from, to, null, 2);
+
+        assertEquals(List.of(1L, 2L), page.getContent().stream().map(TaskDTO::getId).toList());
+        assertTrue(page.isHasNext());
+        assertEquals("2026-10-21,2", page.getNext());
+
+        when(taskRepository.findOwnerTasksDue(eq(userId), eq(statuses), eq(from), eq(to.plusDays(1)), eq(due), eq(2L), any(Limit.class)))
+                .thenReturn(List.of(ownedTask(3L, due.plusDays(1))));
+
+        TaskPageDTO next = taskService.getUserTasks(userId, statuses, from, to, page.getNext(), 2);
+
+        assertEquals(List.of(3L), next.getContent().stream().map(TaskDTO::getId).toList());
+        assertFalse(next.isHasNext());
+        assertNull(next.getNext());
+        verifyNoInteractions(listRepository);  // No per-list fan-out
+    }
+
+    @Test
+    void getUserTasks_withoutDueRangeOrderedById() {
+        when(taskRepository.findOwnerTasks(eq(userId), eq(EnumSet.allOf(TaskStatus.class)), eq(5L), any(Limit.class)))
+                .thenReturn(List.of(ownedTask(6L, null), ownedTask(9L, null)));
+
+        TaskPageDTO page = taskService.getUserTasks(userId, List.of(), null, null, "5", 50);
+
+        assertEquals(List.of(6L, 9L), page.getContent().stream().map(TaskDTO::getId).toList());
+        assertFalse(page.isHasNext());
+        verify(taskRepository, never()).findOwnerTasksDue(any(), any(), any(), any(), any(), anyLong(), any());
+    }
+
+    @Test
+    void getUserTasks_doesNotFlushInsideTheReadTransaction() {
+        LocalDate due = LocalDate.of(2026, 10, 21);
+        when(taskRepository.findOwnerTasksDue(eq(userId), eq(List.of(TaskStatus.TODO)), any(), any(), any(), anyLong(), any(Limit.class)))
+                .thenReturn(List.of(ownedTask(1L, due)));
+
+        TaskPageDTO page = taskService.getUserTasks(userId, List.of(TaskStatus.TODO), due, due, null, 50);
+
+        assertEquals(List.of(1L), page.getContent().stream().map(TaskDTO::getId).toList());
+        verify(taskUpdateBuffer, never()).flush();  // The controller flushed before the transaction began
+        verify(taskUpdateBuffer, never()).overlay(any());  // The query filtered and ordered the flushed state
+    }
+
+    @Test
+    void getUserTasks_rejectsInvalidQueries() {
+        LocalDate from = LocalDate.of(2026, 10, 19);
+
+        assertThrows(TaskService.InvalidTaskQueryException.class,
+                () -> taskService.getUserTasks(userId, List.of(), from, null, "42", 50));  // Id cursor for a due range
+        assertThrows(TaskService.InvalidTaskQueryException.class,
+                () -> taskService.getUserTasks(userId, List.of(), null, null, "abc", 50));
+        assertThrows(TaskService.InvalidTaskQueryException.class,
+                () -> taskService.getUserTasks(userId, List.of(), from, from.minusDays(1), null, 50));
+        verifyNoInteractions(taskRepository);
+    }
+
     // ---------------------------------------------------------
     // createTask
     // ---------------------------------------------------------
     @Test
     void createTask() {
-        AppUser user = new AppUser();
-        jaeger.de.miel.TodoAPI.entity.List list = new jaeger.de.miel.TodoAPI.entity.List();
         CreateTaskRequestDTO request = new CreateTaskRequestDTO();
 
         Task taskEntity = new Task();
+        taskEntity.setId(taskId);
         TaskDTO taskDTO = new TaskDTO();
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(listRepository.findById(listId)).thenReturn(Optional.of(list));
+        when(listRepository.existsByIdAndOwner_Id(listId, userId)).thenReturn(true);
 
         try (MockedStatic<TaskMapper> mapper = Mockito.mockStatic(TaskMapper.class)) {
             mapper.when(() -> TaskMapper.toEntity(userId, listId, request))
@@ -89,24 +209,81 @@ class TaskServiceTest {
             TaskDTO result = taskService.createTask(userId, listId, request);
 
             assertEquals(taskDTO, result);
+            verify(outboxService).taskCreated(taskDTO);  // Same transaction as the insert
+            verify(taskEventService).recordCreated(taskEntity);
+            verify(listRepository).existsByIdAndOwner_Id(listId, userId);
+            verifyNoMoreInteractions(listRepository);
+            assertEquals(OwnershipIndex.Lookup.FOUND, ownershipIndex.checkTask(taskId, listId, userId));
         }
     }
 
     @Test
-    void createTask_throwsCreatorNotFound() {
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+    void createTask_listKnownToOwnershipIndex() {
+        ownershipIndex.listCreated(listId, userId);
+
+        try (MockedStatic<TaskMapper> mapper = Mockito.mockStatic(TaskMapper.class)) {
+            Task taskEntity = new Task();
+            taskEntity.setId(taskId);
+            mapper.when(() -> TaskMapper.toEntity(eq(userId), eq(listId), any())).thenReturn(taskEntity);
+            when(taskRepository.save(taskEntity)).thenReturn(taskEntity);
 
-        assertThrows(TaskService.CreatorNotFoundException.class,
+            taskService.createTask(userId, listId, new CreateTaskRequestDTO());
+        }
+
+        verifyNoInteractions(listRepository);  // No ownership query
+    }
+
+    @Test
+    void createTask_rejectsListOfAnotherOwner() {
+        ownershipIndex.listCreated(listId, 2L);
+
+        assertThrows(TaskService.ListNotFoundException.class,
                 () -> taskService.createTask(userId, listId, new CreateTaskRequestDTO()));
+
+        verifyNoInteractions(listRepository, taskRepository);
     }
 
     @Test
     void createTask_throwsListNotFound() {
-        when(userRepository.findById(userId)).thenReturn(Optional.of(new AppUser()));
-        when(listRepository.findById(listId)).thenReturn(Optional.empty());
+        // Unknown list, unknown user and a list owned by someone else all fail the same ownership check
+        when(listRepository.existsByIdAndOwner_Id(listId, userId)).thenReturn(false);
 
         assertThrows(TaskService.ListNotFoundException.class,
                 () -> taskService.createTask(userId, listId, new CreateTaskRequestDTO()));
+
+        verify(taskRepository, never()).save(any());
+    }
+
+    @Test
+    void createTask_throwsListNotFoundOnForeignKeyViolation() {
+        CreateTaskRequestDTO request = new CreateTaskRequestDTO();
+        Task taskEntity = new Task();
+
+        when(listRepository.existsByIdAndOwner_Id(listId, userId)).thenReturn(true);
+
+        try (MockedStatic<TaskMapper> mapper = Mockito.mockStatic(TaskMapper.class)) {
+            mapper.when(() -> TaskMapper.toEntity(userId, listId, request)).thenReturn(taskEntity);
+            when(taskRepository.save(taskEntity)).thenThrow(violation("23506", "FK_TASK_LIST: PUBLIC.TASK FOREIGN KEY(LIST_ID)"));
+
+            assertThrows(TaskService.ListNotFoundException.class,
+                    () -> taskService.createTask(userId, listId, request));
+        }
+    }
+
+    @Test
+    void createTask_rethrowsOtherConstraintViolations() {
+        CreateTaskRequestDTO request = new CreateTaskRequestDTO();
+        Task taskEntity = new Task();
+
+        when(listRepository.existsByIdAndOwner_Id(listId, userId)).thenReturn(true);
+
+        try (MockedStatic<TaskMapper> mapper = Mockito.mockStatic(TaskMapper.class)) {
+            mapper.when(() -> TaskMapper.toEntity(userId, listId, request)).thenReturn(taskEntity);
+            when(taskRepository.save(taskEntity)).thenThrow(violation("23513", "CHK_TASK_PRIORITY"));
+
+            assertThrows(DataIntegrityViolationException.class,
+                    () -> taskService.createTask(userId, listId, request));
+        }
     }
 
     // ---------------------------------------------------------
@@ -114,10 +291,18 @@ class TaskServiceTest {
     // ---------------------------------------------------------
     @Test
     void deleteTask() {
+        when(taskRepository.deleteByIdAndList_IdAndCreator_Id(taskId, listId, userId)).thenReturn(1L);
+
         taskService.deleteTask(userId, listId, taskId);
 
         verify(taskRepository)
                 .deleteByIdAndList_IdAndCreator_Id(taskId, listId, userId);
+        verify(outboxService).taskDeleted(taskId, listId, userId);
+
+        // Rejected by the tombstone without a query
+        assertThrows(TaskService.TaskNotFoundException.class,
+                () -> taskService.updateTask(taskId, userId, listId, new UpdateTaskRequestDTO()));
+        verify(taskRepository, never()).findTaskByIdAndList_IdAndCreator_Id(taskId, listId, userId);
     }
 
     @Test
@@ -129,4 +314,12 @@ class TaskServiceTest {
         assertThrows(TaskService.TaskNotFoundException.class,
                 () -> taskService.deleteTask(userId, listId, taskId));
     }
+
+    private Task ownedTask(Long id, LocalDate dueDate) {
+        jaeger.de.miel.TodoAPI.entity.List list = new jaeger.de.miel.TodoAPI.entity.List();
+        list.setId(listId);
+        AppUser creator = new AppUser();
+        creator.setId(userId);
+        return Task.builder().id(id).list(list).creator(creator).status(TaskStatus.TODO).dueDate(dueDate).build();
+    }
 }
@@ -0,0 +1,238 @@
+package jaeger.de.miel.TodoAPI.service;
+
+import jaeger.de.miel.TodoAPI.dto.TaskDTO;
+import jaeger.de.miel.TodoAPI.dto.TaskStatus;
+import jaeger.de.miel.TodoAPI.dto.UpdateTaskRequestDTO;
+import jaeger.de.miel.TodoAPI.entity.AppUser;
+import jaeger.de.miel.TodoAPI.entity.Task;
+import jaeger.de.miel.TodoAPI.repository.TaskRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TaskUpdateBufferTest {
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private TaskEventService taskEventService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private TaskUpdateBuffer taskUpdateBuffer;
+
+
+    @BeforeEach
+    void setUp() {
+        // Scheduler is not started (no @PostConstruct outside Spring), flushes are triggered by the test
+        taskUpdateBuffer = new TaskUpdateBuffer(taskRepository, outboxService, taskEventService, transactionManager, true, 20, 1000);
+    }
+
+
+    @Test
+    void mergeLastWriterWinsPerField() {
+        UpdateTaskRequestDTO older = update("old title", TaskStatus.IN_PROGRESS);
+        older.setPriority(2);
+        UpdateTaskRequestDTO newer = update(null, TaskStatus.DONE);
+
+        UpdateTaskRequestDTO merged = TaskUpdateBuffer.merge(older, newer);
+
+        assertEquals("old title", merged.getTitle());
+        assertEquals(TaskStatus.DONE, merged.getStatus());
+        assertEquals(2, merged.getPriority());
+    }
+
+
+    @Test
+    void overlayAppliesPendingUpdates() {
+        taskUpdateBuffer.enqueue(1L, update(null, TaskStatus.IN_PROGRESS));
+        taskUpdateBuffer.enqueue(1L, update("new title", TaskStatus.DONE));
+
+        TaskDTO taskDTO = new TaskDTO();
+        taskDTO.setId(1L);
+        taskDTO.setTitle("title");
+        taskDTO.setStatus(TaskStatus.TODO);
+
+        taskUpdateBuffer.overlay(taskDTO);
+
+        assertEquals("new title", taskDTO.getTitle());
+        assertEquals(TaskStatus.DONE, taskDTO.getStatus());
+    }
+
+
+    @Test
+    void flushWritesCoalescedUpdatesInOneBatch() {
+        taskUpdateBuffer.enqueue(1L, update(null, TaskStatus.IN_PROGRESS));
+        taskUpdateBuffer.enqueue(1L, update(null, TaskStatus.DONE));
+        taskUpdateBuffer.enqueue(2L, update("title 2", null));
+
+        Task task1 = task(1L);
+        Task task2 = task(2L);
+        when(taskRepository.findAllById(Set.of(1L, 2L))).thenReturn(List.of(task1, task2));
+
+        taskUpdateBuffer.flush();
+
+        assertEquals(TaskStatus.DONE, task1.getStatus());
+        assertEquals("title 2", task2.getTitle());
+        verify(taskRepository, times(1)).findAllById(Set.of(1L, 2L));
+        verify(taskRepository, times(1)).saveAll(List.of(task1, task2));
+        verify(transactionManager, times(1)).commit(any());
+        verify(outboxService, times(2)).taskUpdated(any());  // In the flush transaction
+        verify(taskEventService).recordTransition(task1, TaskStatus.TODO);
+
+        taskUpdateBuffer.flush();  // Nothing pending anymore
+        verifyNoMoreInteractions(taskRepository);
+    }
+
+
+    @Test
+    void discardDropsPendingUpdate() {
+        taskUpdateBuffer.enqueue(1L, update("title", null));
+        taskUpdateBuffer.discard(1L);
+
+        taskUpdateBuffer.flush();
+
+        verifyNoInteractions(taskRepository);
+    }
+
+
+    @Test
+    void overlaySeesUpdatesWhileTheyAreFlushed() {
+        taskUpdateBuffer.enqueue(1L, update("new title", null));
+
+        TaskDTO taskDTO = new TaskDTO();
+        taskDTO.setId(1L);
+        taskDTO.setTitle("title");
+        when(taskRepository.findAllById(Set.of(1L))).thenAnswer(invocation -> {
+            taskUpdateBuffer.overlay(taskDTO);  // A read while the batch is written, not committed yet
+            return List.of(task(1L));
+        });
+
+        taskUpdateBuffer.flush();
+
+        assertEquals("new title", taskDTO.getTitle());
+    }
+
+
+    @Test
+    void discardDropsUpdateBeingFlushed() {
+        taskUpdateBuffer.enqueue(1L, update("title 1", null));
+        taskUpdateBuffer.enqueue(2L, update("title 2", null));
+
+        Task task1 = task(1L);
+        Task task2 = task(2L);
+        when(taskRepository.findAllById(Set.of(1L, 2L))).thenAnswer(invocation -> {
+            taskUpdateBuffer.discard(1L);  // Task 1 deleted while the flush runs
+            return List.of(task1, task2);
+        });
+
+        taskUpdateBuffer.flush();
+
+        assertEquals("title", task1.getTitle());
+        verify(taskRepository).saveAll(List.of(task2));
+    }
+
+
+    @Test
+    void backPressureFlushFailureDoesNotFailTheUpdate() {
+        taskUpdateBuffer = new TaskUpdateBuffer(taskRepository, outboxService, taskEventService, transactionManager, true, 60_000, 1);
+        taskUpdateBuffer.start();
+        try {
+            when(taskRepository.findAllById(Set.of(1L))).thenThrow(new RuntimeException("database down"));
+
+            assertDoesNotThrow(() -> taskUpdateBuffer.enqueue(1L, update("new title", null)));
+            verify(transactionManager, timeout(5000)).rollback(any());
+
+            TaskDTO taskDTO = new TaskDTO();
+            taskDTO.setId(1L);
+            taskUpdateBuffer.overlay(taskDTO);
+            assertEquals("new title", taskDTO.getTitle());  // Still buffered for the next flush
+        } finally {
+            reset(taskRepository);
+            taskUpdateBuffer.stop();
+        }
+    }
+
+
+    @Test
+    void backPressureFlushRunsOnTheWriteBehindThread() {
+        taskUpdateBuffer = new TaskUpdateBuffer(taskRepository, outboxService, taskEventService, transactionManager, true, 60_000, 1);
+        taskUpdateBuffer.start();
+        try {
+            var flushThread = new AtomicReference<String>();
+            when(taskRepository.findAllById(Set.of(1L))).thenAnswer(invocation -> {
+                flushThread.set(Thread.currentThread().getName());
+                return List.of(task(1L));
+            });
+
+            taskUpdateBuffer.enqueue(1L, update("new title", null));
+
+            verify(transactionManager, timeout(5000)).commit(any());
+            assertEquals("task-write-behind", flushThread.get());  // Not in the caller's transaction
+        } finally {
+            taskUpdateBuffer.stop();
+        }
+    }
+
+
+    @Test
+    void overlayAppliesCommittedUpdateOnlyToRowsReadBeforeTheCommit() {
+        taskUpdateBuffer.enqueue(1L, update("new title", null));
+        Task task = task(1L);
+        when(taskRepository.findAllById(Set.of(1L))).thenReturn(List.of(task));
+
+        taskUpdateBuffer.flush();
+
+        TaskDTO readBefore = new TaskDTO();
+        readBefore.setId(1L);
+        readBefore.setTitle("title");
+        readBefore.setUpdatedAt(task.getUpdatedAt().minusMillis(1));
+        assertEquals("new title", taskUpdateBuffer.overlay(readBefore).getTitle());
+
+        TaskDTO readAfter = new TaskDTO();
+        readAfter.setId(1L);
+        readAfter.setTitle("changed elsewhere");
+        readAfter.setUpdatedAt(task.getUpdatedAt().plusMillis(1));
+        assertEquals("changed elsewhere", taskUpdateBuffer.overlay(readAfter).getTitle());
+    }
+
+
+    private UpdateTaskRequestDTO update(String title, TaskStatus status) {
+        var request = new UpdateTaskRequestDTO();
+        request.setTitle(title);
+        request.setStatus(status);
+        return request;
+    }
+
+    private Task task(Long id) {
+        var list = new jaeger.de.miel.TodoAPI.entity.List();
+        list.setId(10L);
+        var creator = new AppUser();
+        creator.setId(1L);
+
+        var task = new Task();
+        task.setId(id);
+        task.setList(list);
+        task.setCreator(creator);
+        task.setTitle("title");
+        task.setStatus(TaskStatus.TODO);
+        return task;
+    }
+
+}
@@ -1,26 +1,42 @@
 package jaeger.de.miel.TodoAPI.service;
 
 import jaeger.de.miel.TodoAPI.dto.CreateUserRequestDTO;
+import jaeger.de.miel.TodoAPI.dto.UpdateUserRequestDTO;
 import jaeger.de.miel.TodoAPI.dto.UserDTO;
+import jaeger.de.miel.TodoAPI.dto.UserPageDTO;
 import jaeger.de.miel.TodoAPI.entity.AppUser;
+import jaeger.de.miel.TodoAPI.index.OwnershipIndex;
+import jaeger.de.miel.TodoAPI.index.UserFilter;
 import jaeger.de.miel.TodoAPI.mapper.UserMapper;
 import jaeger.de.miel.TodoAPI.repository.UserRepository;
+import jaeger.de.miel.TodoAPI.shard.ShardDirectory;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
 
+import static jaeger.de.miel.TodoAPI.repository.ConstraintViolations.violation;
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -36,6 +52,18 @@ class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private ShardDirectory shardDirectory;  // isEnabled() is false: single database
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Spy
+    private OwnershipIndex ownershipIndex = new OwnershipIndex(true, false);
+
+    @Spy
+    private UserFilter userFilter = new UserFilter(true, true, 1000, 0.01);  // Authoritative: a negative answers
+
 //    private final UserRepository userRepository = mock(UserRepository.class);
 //    private final PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
 //    private final UserService userService = new UserService(userRepository, passwordEncoder);
@@ -44,35 +72,66 @@ class UserServiceTest {
 
     @Test
     public void testGetUsers() {
-        var u1 = createUser(1L, "zara@mail.com", "Zara");
+        var u1 = createUser(3L, "alice@mail.com", "Alice");
         var u2 = createUser(2L, "bob@mail.com", "Bob");
-        var u3 = createUser(3L, "alice@mail.com", "Alice");
-        List<AppUser> users = Arrays.asList(u1, u2, u3);
+        Pageable pageable = PageRequest.of(0, 2);
+
+        // Sorted by the database (ORDER BY name, id)
+        when(userRepository.findAllByOrderByNameAscIdAsc(pageable))
+                .thenReturn(new SliceImpl<>(List.of(u1, u2), pageable, true));
 
-        when(userRepository.findAll()).thenReturn(users);
+        UserPageDTO result = userService.getUsers(0, 2, null, null);
 
-        List<UserDTO> result = userService.getUsers();
-        var dto1 = result.get(0);
-        var dto2 = result.get(1);
-        var dto3 = result.get(2);
+        assertThat(result.getContent())
+                .extracting(UserDTO::getName)
+                .containsExactly("Alice", "Bob");
+        assertEquals(3L, result.getContent().get(0).getId());
+        assertEquals("alice@mail.com", result.getContent().get(0).getEmail());
+        assertEquals(0, result.getPage());
+        assertEquals(2, result.getSize());
+        assertTrue(result.isHasNext());
+    }
 
-        assertEquals("Alice", dto1.getName());
-        assertEquals("alice@mail.com", dto1.getEmail());
-        assertEquals(3L, dto1.getId());
 
-        assertEquals("Bob", dto2.getName());
-        assertEquals("bob@mail.com", dto2.getEmail());
-        assertEquals(2L, dto2.getId());
+    @Test
+    public void testGetUsersByNamePrefix() {
+        var u1 = createUser(3L, "alice@mail.com", "Alice");
+        Pageable pageable = PageRequest.of(1, 10);
 
-        assertEquals("Zara", dto3.getName());
-        assertEquals("zara@mail.com", dto3.getEmail());
-        assertEquals(1L, dto3.getId());
+        when(userRepository.findByNameLowerStartingWithOrderByNameAscIdAsc("ali", pageable))
+                .thenReturn(new SliceImpl<>(List.of(u1), pageable, false));
 
-        // Assert: Sorted by name ascending
-        assertThat(result)
-                .hasSize(3)
-                .extracting(UserDTO::getName)
-                .containsExactly("Alice", "Bob", "Zara");
+        UserPageDTO result = userService.getUsers(1, 10, " Ali ", null);
+
+        assertEquals(1, result.getContent().size());
+        assertFalse(result.isHasNext());
+        verify(userRepository, never()).findAllByOrderByNameAscIdAsc(any());
+    }
+
+
+    @Test
+    public void testGetUsersByIds() {
+        var u1 = createUser(1L, "alice@mail.com", "Alice");
+        var u3 = createUser(3L, "carol@mail.com", "Carol");
+
+        when(userRepository.findByIdIn(List.of(3L, 2L, 1L))).thenReturn(List.of(u1, u3));  // Database order
+
+        List<UserDTO> result = userService.getUsers(List.of(3L, 2L, 1L, 3L));
+
+        assertThat(result).extracting(UserDTO::getId).containsExactly(3L, 1L);  // Requested order, unknown 2 skipped
+    }
+
+
+    @Test
+    public void testGetUsersByEmailPrefix() {
+        Pageable pageable = PageRequest.of(0, 10);
+
+        when(userRepository.findByEmailStartingWithOrderByEmailAsc("bob@", pageable))
+                .thenReturn(new SliceImpl<>(List.of(), pageable, false));
+
+        UserPageDTO result = userService.getUsers(0, 10, null, "Bob@");
+
+        assertTrue(result.getContent().isEmpty());
     }
 
 
@@ -82,6 +141,7 @@ class UserServiceTest {
         request.setEmail("unittest@mail.com");
 
         AppUser appUser = new AppUser();
+        appUser.setEmail("unittest@mail.com");
         AppUser savedUser = new AppUser();
         savedUser.setId(1L);
 
@@ -105,21 +165,65 @@ class UserServiceTest {
 
 
     @Test
-    void testCreateUserDuplicateEmailException() {
+    void testCreateUserNewEmailAnsweredByUserFilter() {
         CreateUserRequestDTO request = new CreateUserRequestDTO();
-        request.setEmail("taken@example.com");
+        request.setEmail("new@mail.com");
 
-        when(userRepository.existsByEmail("taken@example.com")).thenReturn(true);
+        AppUser appUser = new AppUser();
+        appUser.setEmail("new@mail.com");
+        AppUser savedUser = new AppUser();
+        savedUser.setId(2L);
+        savedUser.setEmail("new@mail.com");
+
+        userFilter.markReady();  // Warmed up, no users yet
+        when(userRepository.save(appUser)).thenReturn(savedUser);
 
         try (MockedStatic<UserMapper> mocked = Mockito.mockStatic(UserMapper.class)) {
+            mocked.when(() -> UserMapper.toEntity(request, passwordEncoder)).thenReturn(appUser);
+
+            userService.createUser(request);
+
+            verify(userRepository, never()).existsByEmail(any());  // Certainly not registered: no query
+        }
+
+        // Registered now: the next check for the same email goes to the database
+        when(userRepository.existsByEmail("new@mail.com")).thenReturn(true);
+        assertThrows(UserService.DuplicateEmailException.class, () -> userService.createUser(request));
+    }
+
+
+    @Test
+    void testCreateUserDuplicateEmailFromUniqueConstraint() {
+        CreateUserRequestDTO request = new CreateUserRequestDTO();
+        request.setEmail("race@mail.com");
+        AppUser appUser = new AppUser();
+        appUser.setEmail("race@mail.com");
+
+        userFilter.markReady();
+        when(userRepository.save(appUser)).thenThrow(violation("23505", "PUBLIC.UK_APP_USER_EMAIL_INDEX_7"));
+
+        try (MockedStatic<UserMapper> mocked = Mockito.mockStatic(UserMapper.class)) {
+            mocked.when(() -> UserMapper.toEntity(request, passwordEncoder)).thenReturn(appUser);
+
             assertThrows(UserService.DuplicateEmailException.class, () -> userService.createUser(request));
-            verify(userRepository).existsByEmail("taken@example.com");
-            verify(userRepository, never()).save(any());
-            verifyNoMoreInteractions(userRepository);
         }
     }
 
 
+    @Test
+    void testCreateUserDuplicateEmailException() {
+        CreateUserRequestDTO request = new CreateUserRequestDTO();
+        request.setEmail(" Taken@Example.com");
+
+        when(userRepository.existsByEmail("taken@example.com")).thenReturn(true);  // Checked as stored
+
+        assertThrows(UserService.DuplicateEmailException.class, () -> userService.createUser(request));
+        verify(userRepository).existsByEmail("taken@example.com");
+        verify(userRepository, never()).save(any());
+        verifyNoMoreInteractions(userRepository);
+    }
+
+
 
     @Test
     // No stubbing needed; default is do-nothing for void methods unless specified
@@ -128,7 +232,23 @@ class UserServiceTest {
 
         userService.deleteUser(id);
 
-        verify(userRepository, times(1)).deleteById(id);
+        InOrder inOrder = inOrder(outboxService, userRepository);
+        inOrder.verify(userRepository).findById(id);  // For the user filter, deleteById finds it in the persistence context
+        inOrder.verify(outboxService).userTasksDeleted(id);  // While the tasks still exist
+        inOrder.verify(userRepository, times(1)).deleteById(id);
+        verifyNoMoreInteractions(userRepository);
+        assertEquals(OwnershipIndex.Lookup.NOT_FOUND, ownershipIndex.checkUser(id));
+    }
+
+
+    @Test
+    void deleteUserWithoutAuthoritativeFilterSkipsTheLookup() {
+        var filter = new UserFilter(true, false, 1000, 0.01);  // Never answers a check, not worth maintaining
+        var service = new UserService(userRepository, passwordEncoder, null, shardDirectory, ownershipIndex, filter, outboxService);
+
+        service.deleteUser(1L);
+
+        verify(userRepository).deleteById(1L);
         verifyNoMoreInteractions(userRepository);
     }
 
@@ -140,6 +260,7 @@ class UserServiceTest {
                 .when(userRepository).deleteById(missingId);
 
         assertThrows(UserService.UserNotFoundException.class, () -> userService.deleteUser(missingId));
+        verify(userRepository).findById(missingId);
         verify(userRepository, times(1)).deleteById(missingId);
         verifyNoMoreInteractions(userRepository);
     }
@@ -151,7 +272,9 @@ class UserServiceTest {
 
         userService.deleteUser(email);
 
-        verify(userRepository, times(1)).deleteByEmail(email);
+        InOrder inOrder = inOrder(outboxService, userRepository);
+        inOrder.verify(outboxService).userTasksDeleted(email);
+        inOrder.verify(userRepository, times(1)).deleteByEmail(email);
         verifyNoMoreInteractions(userRepository);
     }
 
@@ -169,6 +292,153 @@ class UserServiceTest {
     }
 
 
+    // ---------------------------------------
+    // Sharded profile
+    // ---------------------------------------
+
+    @Test
+    void testGetUsersFromAllShardsMergesThePages() {
+        shardedWith(2);
+        // Every shard returns its first (page + 1) * size + 1 users, sorted like the merge
+        when(userRepository.findAllByOrderByNameAscIdAsc(PageRequest.of(0, 5)))
+                .thenReturn(new SliceImpl<>(List.of(createUser(3L, "alice@mail.com", "Alice"), createUser(5L, "carol@mail.com", "Carol"))))
+                .thenReturn(new SliceImpl<>(List.of(createUser(2L, "bob@mail.com", "Bob"), createUser(8L, "dave@mail.com", "Dave"),
+                        createUser(9L, "erin@mail.com", "Erin"))));
+
+        UserPageDTO result = userService.getUsers(1, 2, null, null);
+
+        assertThat(result.getContent()).extracting(UserDTO::getName).containsExactly("Carol", "Dave");
+        assertEquals(1, result.getPage());
+        assertTrue(result.isHasNext());  // Erin
+    }
+
+
+    @Test
+    void testGetUsersFromAllShardsByEmailPrefix() {
+        shardedWith(2);
+        when(userRepository.findByEmailStartingWithOrderByEmailAsc("b", PageRequest.of(0, 2)))
+                .thenReturn(new SliceImpl<>(List.of(createUser(4L, "bob@mail.com", "Bob"))))
+                .thenReturn(new SliceImpl<>(List.of(createUser(2L, "ben@mail.com", "Ben"))));
+
+        UserPageDTO result = userService.getUsers(0, 1, null, "B");
+
+        assertThat(result.getContent()).extracting(UserDTO::getEmail).containsExactly("ben@mail.com");
+        assertTrue(result.isHasNext());
+    }
+
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetUsersByIdsQueriesOnlyTheOwningShards() {
+        when(shardDirectory.isEnabled()).thenReturn(true);
+        when(shardDirectory.shardFor(anyLong())).thenAnswer(invocation -> "shard" + (invocation.getArgument(0, Long.class) % 2));
+        when(shardDirectory.onShards(any())).thenAnswer(invocation -> {
+            Map<String, Supplier<Object>> work = invocation.getArgument(0);
+            assertEquals(List.of("shard1"), List.copyOf(work.keySet()));  // Shard 0 owns none of the ids
+            return work.values().stream().map(Supplier::get).toList();
+        });
+        when(userRepository.findByIdIn(List.of(3L, 1L))).thenReturn(List.of(createUser(1L, "alice@mail.com", "Alice")));
+
+        List<UserDTO> result = userService.getUsers(List.of(3L, 1L));
+
+        assertThat(result).extracting(UserDTO::getId).containsExactly(1L);
+        verify(shardDirectory, never()).onEachShard(any());
+    }
+
+
+    @Test
+    void testCreateUserOnShard() {
+        when(shardDirectory.isEnabled()).thenReturn(true);
+        when(shardDirectory.register("new@mail.com")).thenReturn(new ShardDirectory.Placement(42L, "shard1"));
+
+        UserDTO result = userService.createUser(createRequest("new@mail.com"));
+
+        assertEquals(42L, result.getId());
+        verify(userRepository).insertWithId(eq(42L), eq("new@mail.com"), eq("New"), any(), any());
+        verify(shardDirectory, never()).unregister(anyLong());
+        verify(userRepository, never()).save(any());
+    }
+
+
+    @Test
+    void testCreateUserOnShardReleasesTheEmailWhenTheInsertFails() {
+        when(shardDirectory.isEnabled()).thenReturn(true);
+        when(shardDirectory.register("new@mail.com")).thenReturn(new ShardDirectory.Placement(42L, "shard1"));
+        when(userRepository.insertWithId(anyLong(), any(), any(), any(), any())).thenThrow(new IllegalStateException("shard down"));
+
+        assertThrows(IllegalStateException.class, () -> userService.createUser(createRequest("new@mail.com")));
+        verify(shardDirectory).unregister(42L);
+    }
+
+
+    @Test
+    void testCreateUserOnShardDuplicateEmail() {
+        when(shardDirectory.isEnabled()).thenReturn(true);
+        when(shardDirectory.register("taken@mail.com")).thenThrow(new DuplicateKeyException("UK_USER_DIRECTORY_EMAIL"));
+
+        assertThrows(UserService.DuplicateEmailException.class, () -> userService.createUser(createRequest("taken@mail.com")));
+        verifyNoInteractions(userRepository);
+    }
+
+
+    @Test
+    void testDeleteUserOnShardUnregistersAfterCommit() {
+        when(shardDirectory.isEnabled()).thenReturn(true);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            userService.deleteUser(7L);
+            verify(shardDirectory, never()).unregister(anyLong());  // A rollback would keep the user registered
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(shardDirectory).unregister(7L);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testUpdateUserOnShardRestoresDirectoryEmailWhenNotCommitted() {
+        when(shardDirectory.isEnabled()).thenReturn(true);
+        when(userRepository.findById(7L)).thenReturn(Optional.of(createUser(7L, "old@mail.com", "Old")));
+        when(userRepository.save(any(AppUser.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        var request = new UpdateUserRequestDTO();
+        request.setEmail(" New@Mail.com");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            userService.updateUser(7L, request);
+            verify(shardDirectory).changeEmail(7L, "new@mail.com");
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+            verify(shardDirectory).changeEmail(7L, "old@mail.com");
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+
+    private void shardedWith(int shards) {
+        when(shardDirectory.isEnabled()).thenReturn(true);
+        when(shardDirectory.onEachShard(any())).thenAnswer(invocation -> {
+            Supplier<Object> work = invocation.getArgument(0);
+            List<Object> results = new ArrayList<>();
+            for (int i = 0; i < shards; i++) results.add(work.get());
+            return results;
+        });
+    }
+
+    private CreateUserRequestDTO createRequest(String email) {
+        var request = new CreateUserRequestDTO();
+        request.setEmail(email);
+        request.setName("New");
+        request.setPassword("password");
+        return request;
+    }
+
     private AppUser createUser(Long userId, String email, String name) {
         var appUser = new AppUser();
         appUser.setId(userId);
@@ -0,0 +1,65 @@
+package jaeger.de.miel.TodoAPI.shard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardRouterTest {
+
+    private static final int USERS = 100_000;
+
+
+    @Test
+    public void testMappingIsStable() {
+        var router = new ShardRouter(List.of("shard0", "shard1", "shard2"), 128);
+        var sameConfig = new ShardRouter(List.of("shard0", "shard1", "shard2"), 128);
+
+        for (long id = 1; id <= 1_000; id++) {
+            assertEquals(router.shardFor(id), sameConfig.shardFor(id));
+        }
+    }
+
+
+    @Test
+    public void testUsersAreSpreadOverAllShards() {
+        var router = new ShardRouter(List.of("shard0", "shard1", "shard2"), 128);
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (long id = 1; id <= USERS; id++) {
+            counts.merge(router.shardFor(id), 1, Integer::sum);
+        }
+
+        assertEquals(3, counts.size());
+        counts.values().forEach(count -> assertTrue(count > USERS / 3 * 0.8 && count < USERS / 3 * 1.2, "Unbalanced: " + counts));
+    }
+
+
+    @Test
+    public void testAddingAShardMovesAboutOneNth() {
+        var three = new ShardRouter(List.of("shard0", "shard1", "shard2"), 128);
+        var four = new ShardRouter(List.of("shard0", "shard1", "shard2", "shard3"), 128);
+
+        int moved = 0;
+        for (long id = 1; id <= USERS; id++) {
+            String before = three.shardFor(id);
+            String after = four.shardFor(id);
+            if (!before.equals(after)) {
+                assertEquals("shard3", after);  // Users only move to the new shard
+                moved++;
+            }
+        }
+
+        assertTrue(moved > USERS / 4 * 0.8 && moved < USERS / 4 * 1.2, "Moved: " + moved);
+    }
+
+
+    @Test
+    public void testNoShardsIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new ShardRouter(List.of(), 128));
+    }
+
+}
@@ -0,0 +1,114 @@
+package jaeger.de.miel.TodoAPI.smoke;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end smoke tests over HTTP. Run on the JVM like any other test, and against the
+ * native binary with: mvn -PnativeTest test
+ */
+@Tag("smoke")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ApiSmokeTest {
+
+    @Value("${local.server.port}")
+    private int port;
+
+    private RestClient restClient;
+
+
+    @BeforeEach
+    void setUp() {
+        restClient = RestClient.create("http://localhost:" + port);
+    }
+
+
+    @Test
+    public void testGetUsers() {
+        ResponseEntity<String> response = get("/users");
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatusCode.valueOf(200));
+        assertThat(response.getBody()).contains("alice@example.com");
+    }
+
+
+    @Test
+    public void testGetLists() {
+        ResponseEntity<String> response = get("/users/1/lists");
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatusCode.valueOf(200));
+        assertThat(response.getBody()).contains("Personal Tasks");
+    }
+
+
+    @Test
+    public void testGetTasks() {
+        ResponseEntity<String> response = get("/users/1/lists/1/tasks");
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatusCode.valueOf(200));
+        assertThat(response.getBody()).contains("\"status\":");
+    }
+
+
+    @Test
+    public void testCreateAndDeleteTask() {
+        String json = """
+                {
+                  "title": "smoke test task",
+                  "description": "created by ApiSmokeTest",
+                  "status": "todo",
+                  "dueDate": "2999-12-31",
+                  "priority": 1
+                }
+                """;
+
+        ResponseEntity<String> created = restClient.post()
+                .uri("/users/1/lists/1/tasks")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(json)
+                .retrieve()
+                .toEntity(String.class);
+        assertThat(created.getStatusCode()).isEqualTo(HttpStatusCode.valueOf(201));
+        assertThat(created.getBody()).contains("smoke test task");
+
+        String taskId = created.getBody().replaceAll("(?s).*\"id\":(\\d+).*", "$1");
+        ResponseEntity<Void> deleted = restClient.delete()
+                .uri("/users/1/lists/1/tasks/" + taskId)
+                .retrieve()
+                .toBodilessEntity();
+        assertThat(deleted.getStatusCode()).isEqualTo(HttpStatusCode.valueOf(204));
+    }
+
+
+    @Test
+    public void testCreateTaskOnForeignListIsNotFound() {
+        String json = """
+                {
+                  "title": "smoke test task",
+                  "description": "list 3 belongs to user 2",
+                  "status": "todo",
+                  "dueDate": "2999-12-31",
+                  "priority": 1
+                }
+                """;
+
+        HttpStatusCode status = restClient.post()
+                .uri("/users/1/lists/3/tasks")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(json)
+                .exchange((request, response) -> response.getStatusCode());
+        assertThat(status).isEqualTo(HttpStatusCode.valueOf(404));
+    }
+
+
+    private ResponseEntity<String> get(String uri) {
+        return restClient.get().uri(uri).accept(MediaType.APPLICATION_JSON).retrieve().toEntity(String.class);
+    }
+
+}